@@ -0,0 +1,213 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.TaxEngine;
+import cse213.ecoresort.repository.MenuRepository;
+import cse213.ecoresort.repository.OrderRepository;
+import cse213.ecoresort.repository.RepositoryFactory;
+import cse213.ecoresort.service.DiscountRuleEngine;
+import cse213.ecoresort.service.FloorStateService;
+import cse213.ecoresort.service.KitchenDispatcher;
+import cse213.ecoresort.service.LowStockMonitor;
+import cse213.ecoresort.service.MenuService;
+import cse213.ecoresort.service.MenuVersions;
+import cse213.ecoresort.service.OrderService;
+import cse213.ecoresort.service.PaymentService;
+import cse213.ecoresort.service.PricingService;
+import cse213.ecoresort.service.SalesColumnStore;
+import cse213.ecoresort.service.SplitBillLedger;
+import cse213.ecoresort.service.StockHoldManager;
+import cse213.ecoresort.service.TopSellersTracker;
+import javafx.fxml.FXMLLoader;
+import javafx.util.Callback;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+/**
+ * The application's one service graph.
+ * Repositories and services are built on first use, once, and shared by every
+ * screen. Controllers declare what they need as constructor parameters and
+ * the FXML controller factory fills them in, so opening a screen no longer
+ * builds its own services.
+ *
+ * Settings come from ecoresort.properties in the working directory or on the
+ * classpath. They are applied as system properties unless the command line
+ * already set them, e.g. ecoresort.repository=jdbc picks the JDBC repositories.
+ */
+public final class ApplicationContext {
+    public static final String CONFIG_FILE = "ecoresort.properties";
+
+    private static final String VIEW_ROOT = "/cse213/ecoresort/view/";
+
+    private final Lazy<MenuRepository> menuRepository = new Lazy<>(RepositoryFactory::menuRepository);
+    private final Lazy<OrderRepository> orderRepository = new Lazy<>(RepositoryFactory::orderRepository);
+    private final Lazy<MenuService> menuService = new Lazy<>(() -> new MenuService(getMenuRepository()));
+    private final Lazy<PricingService> pricingService = new Lazy<>(PricingService::new);
+    private final Lazy<OrderService> orderService = new Lazy<>(
+            () -> new OrderService(getOrderRepository(), getMenuService(), getPricingService()));
+    private final Lazy<PaymentService> paymentService = new Lazy<>(
+            () -> new PaymentService(getOrderRepository(), getMenuService()));
+
+    private final Map<Class<?>, Supplier<?>> bindings = new HashMap<>();
+
+    private ApplicationContext() {
+        loadConfiguration();
+        bindings.put(ApplicationContext.class, () -> this);
+        bindings.put(MenuRepository.class, this::getMenuRepository);
+        bindings.put(OrderRepository.class, this::getOrderRepository);
+        bindings.put(MenuService.class, this::getMenuService);
+        bindings.put(PricingService.class, this::getPricingService);
+        bindings.put(OrderService.class, this::getOrderService);
+        bindings.put(PaymentService.class, this::getPaymentService);
+        bindings.put(DiscountRuleEngine.class, DiscountRuleEngine::getInstance);
+        bindings.put(StockHoldManager.class, StockHoldManager::getInstance);
+        bindings.put(KitchenDispatcher.class, KitchenDispatcher::getInstance);
+        bindings.put(LowStockMonitor.class, LowStockMonitor::getInstance);
+        bindings.put(FloorStateService.class, FloorStateService::getInstance);
+        bindings.put(SplitBillLedger.class, SplitBillLedger::getInstance);
+        bindings.put(SalesColumnStore.class, SalesColumnStore::getInstance);
+        bindings.put(TopSellersTracker.class, TopSellersTracker::getInstance);
+        bindings.put(MenuVersions.class, MenuVersions::getInstance);
+        bindings.put(TaxEngine.class, TaxEngine::getInstance);
+        // Until a kitchen display is attached, each station's tickets print to the console
+        KitchenDispatcher kitchen = KitchenDispatcher.getInstance();
+        for (MenuItem.ItemType station : MenuItem.ItemType.values()) {
+            kitchen.setStationHandler(station, KitchenDispatcher.printer(System.out));
+        }
+    }
+
+    public static ApplicationContext get() {
+        return Holder.INSTANCE;
+    }
+
+    public MenuRepository getMenuRepository() { return menuRepository.get(); }
+    public OrderRepository getOrderRepository() { return orderRepository.get(); }
+    public MenuService getMenuService() { return menuService.get(); }
+    public PricingService getPricingService() { return pricingService.get(); }
+    public OrderService getOrderService() { return orderService.get(); }
+    public PaymentService getPaymentService() { return paymentService.get(); }
+
+    /**
+     * Look up a shared component by type
+     */
+    public <T> T resolve(Class<T> type) {
+        Supplier<?> supplier = bindings.get(type);
+        if (supplier == null) {
+            throw new IllegalArgumentException("Nothing is registered for " + type.getName());
+        }
+        return type.cast(supplier.get());
+    }
+
+    /**
+     * Create a controller through the public constructor with the most
+     * parameters that can all be resolved
+     */
+    public Object createController(Class<?> type) {
+        Constructor<?> chosen = null;
+        for (Constructor<?> constructor : type.getConstructors()) {
+            boolean resolvable = true;
+            for (Class<?> parameter : constructor.getParameterTypes()) {
+                resolvable &= bindings.containsKey(parameter);
+            }
+            if (resolvable && (chosen == null || constructor.getParameterCount() > chosen.getParameterCount())) {
+                chosen = constructor;
+            }
+        }
+        if (chosen == null) {
+            throw new IllegalStateException("No injectable public constructor on " + type.getName());
+        }
+        Class<?>[] parameters = chosen.getParameterTypes();
+        Object[] arguments = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            arguments[i] = resolve(parameters[i]);
+        }
+        try {
+            return chosen.newInstance(arguments);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot create controller " + type.getName(), e);
+        }
+    }
+
+    public Callback<Class<?>, Object> controllerFactory() {
+        return this::createController;
+    }
+
+    /**
+     * An FXMLLoader for one of the application's views, wired to this context
+     */
+    public FXMLLoader loader(String view) {
+        URL location = ApplicationContext.class.getResource(VIEW_ROOT + view);
+        if (location == null) {
+            throw new IllegalArgumentException("View not found: " + view);
+        }
+        FXMLLoader loader = new FXMLLoader(location);
+        loader.setControllerFactory(controllerFactory());
+        return loader;
+    }
+
+    private static void loadConfiguration() {
+        Properties properties = new Properties();
+        try (InputStream in = ApplicationContext.class.getResourceAsStream("/" + CONFIG_FILE)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR: Failed to read bundled " + CONFIG_FILE + ": " + e.getMessage());
+        }
+        // A file next to the application overrides the bundled defaults
+        Path local = Path.of(CONFIG_FILE);
+        if (Files.isRegularFile(local)) {
+            try (Reader in = Files.newBufferedReader(local)) {
+                properties.load(in);
+            } catch (IOException e) {
+                System.err.println("ERROR: Failed to read " + local.toAbsolutePath() + ": " + e.getMessage());
+            }
+        }
+        for (String key : properties.stringPropertyNames()) {
+            if (System.getProperty(key) == null) {
+                System.setProperty(key, properties.getProperty(key));
+            }
+        }
+    }
+
+    private static final class Holder {
+        private static final ApplicationContext INSTANCE = new ApplicationContext();
+    }
+
+    /**
+     * Builds its value once, on the first get, from whichever thread gets there first
+     */
+    private static final class Lazy<T> {
+        private final Supplier<T> factory;
+        private volatile T value;
+
+        Lazy(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        T get() {
+            T current = value;
+            if (current == null) {
+                synchronized (this) {
+                    current = value;
+                    if (current == null) {
+                        current = factory.get();
+                        value = current;
+                    }
+                }
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.FoodItem;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.repository.CachingMenuRepository;
+import cse213.ecoresort.repository.CachingOrderRepository;
+import cse213.ecoresort.repository.JdbcDatabase;
+import cse213.ecoresort.repository.JdbcMenuRepository;
+import cse213.ecoresort.repository.JdbcOrderRepository;
+import cse213.ecoresort.repository.TinyLfuCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Measures the repository caches on a skewed workload against an in-memory
+ * H2 database. Lookups follow a Zipf distribution over the keys, as tills
+ * keep returning to the popular dishes and the open drafts, and every so
+ * often a scan reads a run of keys once, as a report would. Each trace is
+ * replayed uncached, through the TinyLFU cache, and through a plain LRU of
+ * the same size for comparison.
+ *
+ * Usage: CacheBenchmark [--keys=20000] [--cache=1000] [--requests=300000]
+ *        [--skew=0.9] [--scan-every=20000] [--scan-length=5000]
+ */
+public class CacheBenchmark {
+    private int keys = 20_000;
+    private int cacheSize = 1000;
+    private int requests = 300_000;
+    private double skew = 0.9;
+    private int scanEvery = 20_000;
+    private int scanLength = 5000;
+
+    public static void main(String[] args) {
+        CacheBenchmark benchmark = new CacheBenchmark();
+        benchmark.parseArgs(args);
+        benchmark.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "keys" -> keys = Integer.parseInt(value);
+                case "cache" -> cacheSize = Integer.parseInt(value);
+                case "requests" -> requests = Integer.parseInt(value);
+                case "skew" -> skew = Double.parseDouble(value);
+                case "scan-every" -> scanEvery = Integer.parseInt(value);
+                case "scan-length" -> scanLength = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (keys <= 0 || cacheSize <= 0 || requests <= 0 || skew <= 0 || scanEvery <= 0 || scanLength < 0) {
+            throw new IllegalArgumentException("keys, cache, requests, skew and scan-every must be positive");
+        }
+    }
+
+    public void run() {
+        try (JdbcDatabase database = new JdbcDatabase("jdbc:h2:mem:cache-benchmark;DB_CLOSE_DELAY=-1")) {
+            JdbcMenuRepository menu = new JdbcMenuRepository(database);
+            JdbcOrderRepository orders = new JdbcOrderRepository(database);
+            List<String> itemIds = new ArrayList<>(keys);
+            List<MenuItem> batch = new ArrayList<>(keys);
+            for (int i = 0; i < keys; i++) {
+                FoodItem item = new FoodItem("Dish " + i, 5 + i % 20, 100, "International", i % 3 == 0);
+                batch.add(item);
+                itemIds.add(item.getId());
+            }
+            menu.saveAll(batch);
+            List<String> orderIds = new ArrayList<>(keys);
+            for (int i = 0; i < keys; i++) {
+                Order order = new Order(1 + i % 50);
+                order.addLine(batch.get(i % batch.size()), 1);
+                orders.save(order);
+                orderIds.add(order.getId());
+            }
+            System.out.printf("%,d keys, cache of %,d, %,d lookups, Zipf skew %.2f, a %,d-key scan every %,d%n",
+                    keys, cacheSize, requests, skew, scanLength, scanEvery);
+
+            String[] menuTrace = trace(itemIds, 1);
+            // Warm up the JIT on storage reads so the first timing is not the slowest
+            for (int i = 0; i < Math.min(requests, 50_000); i++) {
+                menu.findById(menuTrace[i]);
+                orders.findById(orderIds.get(i % orderIds.size()));
+            }
+            System.out.println("Menu items");
+            replay("uncached", menuTrace, id -> menu.findById(id), null);
+            CachingMenuRepository cachedMenu = new CachingMenuRepository(menu, cacheSize);
+            replay("TinyLFU", menuTrace, id -> cachedMenu.findById(id), cachedMenu::getCacheStats);
+            replayLru(menuTrace);
+
+            String[] orderTrace = trace(orderIds, 2);
+            System.out.println("Orders");
+            replay("uncached", orderTrace, id -> orders.findById(id), null);
+            CachingOrderRepository cachedOrders = new CachingOrderRepository(orders, cacheSize);
+            replay("TinyLFU", orderTrace, id -> cachedOrders.findById(id), cachedOrders::getCacheStats);
+            replayLru(orderTrace);
+        }
+    }
+
+    // Zipf-distributed lookups over the keys in a random popularity order, with scans of cold keys mixed in
+    private String[] trace(List<String> ids, long seed) {
+        Random random = new Random(seed);
+        List<String> byPopularity = new ArrayList<>(ids);
+        Collections.shuffle(byPopularity, random);
+        double[] cumulative = new double[byPopularity.size()];
+        double sum = 0;
+        for (int rank = 0; rank < cumulative.length; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, skew);
+            cumulative[rank] = sum;
+        }
+        String[] trace = new String[requests];
+        int scanned = 0;
+        for (int i = 0; i < requests; i++) {
+            if (i % scanEvery < scanLength) {
+                // Scans walk the unpopular end of the key space
+                trace[i] = byPopularity.get(byPopularity.size() - 1 - scanned++ % byPopularity.size());
+                continue;
+            }
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            trace[i] = byPopularity.get(rank < 0 ? -rank - 1 : rank);
+        }
+        return trace;
+    }
+
+    private static void replay(String label, String[] trace, Function<String, Object> lookup,
+                               Supplier<TinyLfuCache.Stats> stats) {
+        long start = System.nanoTime();
+        for (String id : trace) {
+            lookup.apply(id);
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / trace.length;
+        System.out.printf("  %-9s %8.2f us/lookup%s%n", label, micros,
+                stats == null ? "" : "  " + stats.get());
+    }
+
+    // Hit rate of an LRU of the same size on the same trace, without touching storage
+    private void replayLru(String[] trace) {
+        Map<String, Boolean> lru = new LinkedHashMap<>(cacheSize * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        long hits = 0;
+        for (String id : trace) {
+            if (lru.get(id) != null) {
+                hits++;
+            } else {
+                lru.put(id, Boolean.TRUE);
+            }
+        }
+        System.out.printf("  %-9s %8s             %.1f%% hit rate%n", "LRU", "", 100.0 * hits / trace.length);
+    }
+}
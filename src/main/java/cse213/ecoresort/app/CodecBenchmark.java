@@ -0,0 +1,136 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.codec.BinaryCodec;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.model.TaxEngine;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Times BinaryCodec on orders like a till's: encoding each order into the
+ * codec's reusable buffer, and decoding it back from a buffer of encoded
+ * orders. Prints the size per order and the time per order and per byte for
+ * orders of one line, of a few lines and of many, best of --runs passes.
+ * Every decoded pass must give back as many lines as were encoded.
+ *
+ * Usage: CodecBenchmark [--orders=200000] [--items=150] [--runs=5]
+ */
+public class CodecBenchmark {
+    private static final int[] LINES = {1, 3, 10};
+
+    private int orders = 200_000;
+    private int items = 150;
+    private int runs = 5;
+
+    public static void main(String[] args) {
+        CodecBenchmark benchmark = new CodecBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "orders" -> orders = Integer.parseInt(value);
+                case "items" -> items = Integer.parseInt(value);
+                case "runs" -> runs = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (orders <= 0 || items <= 0 || runs <= 0) {
+            throw new IllegalArgumentException("orders, items and runs must be positive");
+        }
+    }
+
+    /**
+     * Time each order size and print the table, returning false if a decode lost lines
+     */
+    public boolean run() {
+        Random random = new Random(29);
+        String[] itemIds = new String[items];
+        String[] names = new String[items];
+        double[] prices = new double[items];
+        for (int i = 0; i < items; i++) {
+            itemIds[i] = UUID.randomUUID().toString();
+            names[i] = (i % 2 == 0 ? "Grilled fish " : "Iced tea ") + i;
+            prices[i] = (150 + random.nextInt(4000)) / 100.0;
+        }
+
+        System.out.printf("%,d orders per size, best of %d runs%n", orders, runs);
+        System.out.println("lines  bytes/order  encode ns/order  decode ns/order  encode MB/s  decode MB/s");
+        boolean ok = true;
+        for (int lineCount : LINES) {
+            List<Order> batch = new ArrayList<>(orders);
+            LocalDateTime start = LocalDateTime.of(2026, 4, 1, 11, 0);
+            for (int o = 0; o < orders; o++) {
+                List<OrderLine> lines = new ArrayList<>(lineCount);
+                for (int l = 0; l < lineCount; l++) {
+                    int item = random.nextInt(items);
+                    lines.add(new OrderLine(itemIds[item], names[item], prices[item],
+                            item % 2 == 0 ? MenuItem.ItemType.FOOD : MenuItem.ItemType.DRINK, null,
+                            TaxEngine.DEFAULT_RATE, 1 + random.nextInt(3)));
+                }
+                LocalDateTime createdAt = start.plusSeconds(o * 7L);
+                Order order = new Order(UUID.randomUUID().toString(), 1 + random.nextInt(60), Order.OrderStatus.PAID,
+                        createdAt, createdAt.plusMinutes(45), lines, o % 5 == 0 ? 2.0 : 0.0,
+                        TaxEngine.TaxMode.EXCLUSIVE);
+                order.setVersion(1 + random.nextInt(8));
+                batch.add(order);
+            }
+            ok &= measure(lineCount, batch);
+        }
+        System.out.println(ok ? "Every decode matched its encode" : "DECODED ORDERS DO NOT MATCH");
+        return ok;
+    }
+
+    private boolean measure(int lineCount, List<Order> batch) {
+        BinaryCodec codec = new BinaryCodec();
+        // Everything encoded once, back to back, for the decode passes
+        ByteBuffer all = ByteBuffer.allocate(1024);
+        for (Order order : batch) {
+            ByteBuffer encoded = codec.encode(order);
+            if (all.remaining() < encoded.remaining()) {
+                all = ByteBuffer.allocate(Math.max(all.capacity() * 2, all.position() + encoded.remaining()))
+                        .put(all.flip());
+            }
+            all.put(encoded);
+        }
+        all.flip();
+        long bytes = all.remaining();
+
+        long bestEncode = Long.MAX_VALUE;
+        long bestDecode = Long.MAX_VALUE;
+        long sink = 0;
+        boolean ok = true;
+        for (int r = 0; r < runs; r++) {
+            long began = System.nanoTime();
+            for (Order order : batch) {
+                sink += codec.encode(order).remaining();
+            }
+            bestEncode = Math.min(bestEncode, System.nanoTime() - began);
+
+            ByteBuffer in = all.duplicate();
+            long lines = 0;
+            began = System.nanoTime();
+            while (in.hasRemaining()) {
+                lines += BinaryCodec.readOrder(in).getLineCount();
+            }
+            bestDecode = Math.min(bestDecode, System.nanoTime() - began);
+            ok &= lines == (long) lineCount * batch.size();
+        }
+        ok &= sink == bytes * runs;
+        System.out.printf("%5d  %11.1f  %15.0f  %15.0f  %11.0f  %11.0f%n", lineCount, (double) bytes / batch.size(),
+                (double) bestEncode / batch.size(), (double) bestDecode / batch.size(),
+                bytes * 1e3 / bestEncode, bytes * 1e3 / bestDecode);
+        return ok;
+    }
+}
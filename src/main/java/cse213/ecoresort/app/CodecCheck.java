@@ -0,0 +1,299 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.codec.BinaryCodec;
+import cse213.ecoresort.codec.FrameReader;
+import cse213.ecoresort.codec.FrameWriter;
+import cse213.ecoresort.model.DrinkItem;
+import cse213.ecoresort.model.FoodItem;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.model.TaxEngine;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Round-trip check for BinaryCodec and the frame reader and writer. Menu items
+ * and orders with UUID and free-text ids, null and non-ASCII strings, prices
+ * that are and are not whole cents, no lines and many lines are encoded and
+ * decoded, field by field; orders in every schema version from 1 on, where a
+ * field the version lacks must read back as its default. Every prefix of
+ * every record must fail to decode rather than give a wrong record, an
+ * unknown version must be refused, and frames cut short anywhere must end
+ * the stream with EOFException. Exits non-zero on any mismatch.
+ *
+ * Usage: CodecCheck
+ */
+public class CodecCheck {
+    private final List<String> failures = new ArrayList<>();
+    private int checks;
+
+    public static void main(String[] args) throws IOException {
+        System.exit(new CodecCheck().run() ? 0 : 1);
+    }
+
+    /**
+     * Run every check, returning false if any failed
+     */
+    public boolean run() throws IOException {
+        List<MenuItem> items = items();
+        List<Order> orders = orders();
+        checkItems(items);
+        checkOrders(orders);
+        checkLists(items, orders);
+        checkTruncated(items, orders);
+        checkVersions();
+        checkFrames(orders);
+        for (String failure : failures) {
+            System.out.println("FAILED: " + failure);
+        }
+        System.out.printf("%,d checks, %d failed%n", checks, failures.size());
+        System.out.println(failures.isEmpty() ? "Every record round-trips" : "CODEC ROUND TRIP FAILED");
+        return failures.isEmpty();
+    }
+
+    private static List<MenuItem> items() {
+        return List.of(
+                new FoodItem("Green curry", 12.50, 40, "Thai", true),
+                new FoodItem("legacy-7", "Crème brûlée", 7.125, 0, null, false),
+                new FoodItem(UUID.randomUUID().toString(), null, 0.0, Integer.MAX_VALUE, "", false),
+                new DrinkItem("Lime soda", 3.25, 120, false, "Cold"),
+                new DrinkItem("DRINK-UPPER", "Sake 熱燗", 1e-3, 5, true, null));
+    }
+
+    private static List<Order> orders() {
+        List<Order> orders = new ArrayList<>();
+        orders.add(new Order(4));
+
+        Order paid = new Order(UUID.randomUUID().toString(), 12, Order.OrderStatus.PAID,
+                LocalDateTime.of(2026, 3, 2, 19, 5, 7, 123_456_000), LocalDateTime.of(2026, 3, 2, 20, 41),
+                List.of(new OrderLine(UUID.randomUUID().toString(), "Green curry", 12.50, MenuItem.ItemType.FOOD,
+                                "prepared-food", 0.0725, 2),
+                        new OrderLine("legacy-line", null, 0.333, null, null, TaxEngine.DEFAULT_RATE, 1),
+                        new OrderLine(UUID.randomUUID().toString(), "Café crème", 4.00, MenuItem.ItemType.DRINK,
+                                null, 0.10, 300)),
+                2.5, TaxEngine.TaxMode.INCLUSIVE);
+        paid.setVersion(7);
+        orders.add(paid);
+
+        Order text = new Order("TILL-2/ORDER-0042", 0, Order.OrderStatus.DRAFT, LocalDateTime.of(1999, 12, 31, 23, 59),
+                null, List.of(), 0.0, TaxEngine.TaxMode.EXCLUSIVE);
+        orders.add(text);
+
+        // Larger than the codec's starting buffer, so encoding has to grow it
+        List<OrderLine> many = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            many.add(new OrderLine(UUID.randomUUID().toString(), "Dish " + i, 1 + i / 100.0, MenuItem.ItemType.FOOD,
+                    null, TaxEngine.DEFAULT_RATE, 1 + i % 4));
+        }
+        Order large = new Order(UUID.randomUUID().toString(), 99, Order.OrderStatus.DRAFT, LocalDateTime.now(), null,
+                many, 0.0, TaxEngine.TaxMode.EXCLUSIVE);
+        large.setVersion(Integer.MAX_VALUE);
+        orders.add(large);
+        return orders;
+    }
+
+    private void checkItems(List<MenuItem> items) {
+        BinaryCodec codec = new BinaryCodec(8);
+        for (MenuItem item : items) {
+            MenuItem copy = BinaryCodec.readItem(codec.encode(item));
+            check(sameItem(item, copy), "item " + item.getId() + " round-trips");
+        }
+    }
+
+    private void checkOrders(List<Order> orders) {
+        BinaryCodec codec = new BinaryCodec(8);
+        for (Order order : orders) {
+            ByteBuffer encoded = codec.encode(order);
+            Order copy = BinaryCodec.readOrder(encoded);
+            check(!encoded.hasRemaining(), "order " + order.getId() + " is read to its last byte");
+            check(sameOrder(order, copy, BinaryCodec.SCHEMA_VERSION), "order " + order.getId() + " round-trips");
+        }
+    }
+
+    private void checkLists(List<MenuItem> items, List<Order> orders) {
+        BinaryCodec codec = new BinaryCodec();
+        List<MenuItem> itemCopies = BinaryCodec.readItems(codec.encodeItems(items));
+        check(itemCopies.size() == items.size(), "item list keeps its length");
+        for (int i = 0; i < Math.min(items.size(), itemCopies.size()); i++) {
+            check(sameItem(items.get(i), itemCopies.get(i)), "item list keeps item " + i);
+        }
+        List<Order> orderCopies = BinaryCodec.readOrders(codec.encodeOrders(orders));
+        check(orderCopies.size() == orders.size(), "order list keeps its length");
+        for (int i = 0; i < Math.min(orders.size(), orderCopies.size()); i++) {
+            check(sameOrder(orders.get(i), orderCopies.get(i), BinaryCodec.SCHEMA_VERSION), "order list keeps order " + i);
+        }
+        check(BinaryCodec.readItems(codec.encodeItems(List.of())).isEmpty(), "empty item list round-trips");
+        check(BinaryCodec.readOrders(codec.encodeOrders(List.of())).isEmpty(), "empty order list round-trips");
+    }
+
+    // A record cut short anywhere must fail to decode, never come back as a different record
+    private void checkTruncated(List<MenuItem> items, List<Order> orders) {
+        BinaryCodec codec = new BinaryCodec();
+        for (MenuItem item : items) {
+            byte[] bytes = BinaryCodec.toBytes(codec.encode(item));
+            for (int length = 0; length < bytes.length; length++) {
+                ByteBuffer prefix = ByteBuffer.wrap(Arrays.copyOf(bytes, length));
+                check(fails(() -> BinaryCodec.readItem(prefix)), "item " + item.getId() + " cut to " + length + " bytes fails");
+            }
+        }
+        for (Order order : orders) {
+            byte[] bytes = BinaryCodec.toBytes(codec.encode(order));
+            for (int length = 0; length < bytes.length; length++) {
+                ByteBuffer prefix = ByteBuffer.wrap(Arrays.copyOf(bytes, length));
+                check(fails(() -> BinaryCodec.readOrder(prefix)), "order " + order.getId() + " cut to " + length + " bytes fails");
+            }
+        }
+    }
+
+    private void checkVersions() {
+        for (Order order : orders()) {
+            for (int version = 1; version <= BinaryCodec.SCHEMA_VERSION; version++) {
+                ByteBuffer out = ByteBuffer.allocate(64 * 1024);
+                BinaryCodec.writeOrder(out, order, version);
+                Order copy = BinaryCodec.readOrder(out.flip());
+                check(!out.hasRemaining(), "version " + version + " order is read to its last byte");
+                check(sameOrder(order, copy, version), "order " + order.getId() + " round-trips in version " + version);
+            }
+        }
+        byte[] bytes = BinaryCodec.toBytes(new BinaryCodec().encode(new Order(1)));
+        for (byte version : new byte[] {0, (byte) (BinaryCodec.SCHEMA_VERSION + 1), -1}) {
+            bytes[0] = version;
+            ByteBuffer unknown = ByteBuffer.wrap(bytes);
+            check(fails(() -> BinaryCodec.readOrder(unknown)), "schema version " + version + " is refused");
+        }
+        check(fails(() -> BinaryCodec.writeOrder(ByteBuffer.allocate(64), new Order(1), 0)),
+                "writing schema version 0 is refused");
+    }
+
+    private void checkFrames(List<Order> orders) throws IOException {
+        Path file = Files.createTempFile("codec-check", ".bin");
+        try {
+            BinaryCodec codec = new BinaryCodec();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                FrameWriter frames = new FrameWriter(channel);
+                for (Order order : orders) {
+                    frames.write(codec.encode(order));
+                }
+                frames.write(ByteBuffer.allocate(0));
+            }
+            byte[] stream = Files.readAllBytes(file);
+
+            // A small buffer makes the reader grow it for the large order
+            FrameReader reader = new FrameReader(Channels.newChannel(new ByteArrayInputStream(stream)), 16);
+            for (Order order : orders) {
+                ByteBuffer frame = reader.next();
+                check(frame != null && sameOrder(order, BinaryCodec.readOrder(frame), BinaryCodec.SCHEMA_VERSION),
+                        "framed order " + order.getId() + " round-trips");
+            }
+            ByteBuffer empty = reader.next();
+            check(empty != null && !empty.hasRemaining(), "an empty frame reads back empty");
+            check(reader.next() == null, "the stream ends cleanly after the last frame");
+
+            int lastFrame = stream.length - FrameWriter.HEADER_BYTES;
+            int previousFrame = lastFrame - BinaryCodec.toBytes(codec.encode(orders.get(orders.size() - 1))).length
+                    - FrameWriter.HEADER_BYTES;
+            for (int length = previousFrame + 1; length < stream.length; length++) {
+                if (length == lastFrame) {
+                    continue;
+                }
+                FrameReader cut = new FrameReader(
+                        Channels.newChannel(new ByteArrayInputStream(Arrays.copyOf(stream, length))), 64);
+                for (int i = 0; i < orders.size() - 1; i++) {
+                    cut.next();
+                }
+                check(endsTruncated(cut, length < lastFrame), "stream cut to " + length + " bytes ends with EOFException");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // The frames up to the cut read back whole, then the cut one fails
+    private static boolean endsTruncated(FrameReader reader, boolean cutInOrder) throws IOException {
+        try {
+            if (!cutInOrder) {
+                reader.next();
+            }
+            reader.next();
+            return false;
+        } catch (EOFException e) {
+            return true;
+        }
+    }
+
+    private static boolean sameItem(MenuItem expected, MenuItem actual) {
+        if (!expected.getId().equals(actual.getId()) || !Objects.equals(expected.getName(), actual.getName())
+                || expected.getPrice() != actual.getPrice() || expected.getStockQty() != actual.getStockQty()
+                || expected.getType() != actual.getType()) {
+            return false;
+        }
+        if (expected instanceof FoodItem food) {
+            return actual instanceof FoodItem copy && Objects.equals(food.getCuisine(), copy.getCuisine())
+                    && food.isVegetarian() == copy.isVegetarian();
+        }
+        DrinkItem drink = (DrinkItem) expected;
+        return actual instanceof DrinkItem copy && drink.isAlcoholic() == copy.isAlcoholic()
+                && Objects.equals(drink.getTemperature(), copy.getTemperature());
+    }
+
+    // Compare what the schema version carries; what it lacks must come back as the reader's default
+    private static boolean sameOrder(Order expected, Order actual, int version) {
+        TaxEngine.TaxMode taxMode = version >= 3 ? expected.getTaxMode() : TaxEngine.TaxMode.EXCLUSIVE;
+        if (!expected.getId().equals(actual.getId()) || expected.getTableNo() != actual.getTableNo()
+                || expected.getStatus() != actual.getStatus()
+                || !expected.getCreatedAt().equals(actual.getCreatedAt())
+                || !Objects.equals(expected.getPaidAt(), actual.getPaidAt())
+                || expected.getDiscount() != actual.getDiscount() || actual.getTaxMode() != taxMode
+                || actual.getVersion() != (version >= 4 ? expected.getVersion() : 0)
+                || expected.getLineCount() != actual.getLineCount()) {
+            return false;
+        }
+        List<OrderLine> expectedLines = expected.getOrderLines();
+        List<OrderLine> actualLines = actual.getOrderLines();
+        for (int i = 0; i < expectedLines.size(); i++) {
+            OrderLine e = expectedLines.get(i);
+            OrderLine a = actualLines.get(i);
+            MenuItem.ItemType itemType = version >= 2 ? e.getItemType() : null;
+            String taxCategory = version >= 3 ? e.getTaxCategory() : null;
+            double taxRate = version >= 3 ? e.getTaxRate() : TaxEngine.DEFAULT_RATE;
+            if (!e.getItemId().equals(a.getItemId()) || !Objects.equals(e.getItemName(), a.getItemName())
+                    || e.getUnitPrice() != a.getUnitPrice() || e.getQuantity() != a.getQuantity()
+                    || a.getItemType() != itemType || !Objects.equals(a.getTaxCategory(), taxCategory)
+                    || a.getTaxRate() != taxRate) {
+                return false;
+            }
+        }
+        return version < 3 || expected.getTotal() == actual.getTotal();
+    }
+
+    private static boolean fails(Runnable decode) {
+        try {
+            decode.run();
+            return false;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    private void check(boolean passed, String what) {
+        checks++;
+        if (!passed) {
+            failures.add(what);
+        }
+    }
+}
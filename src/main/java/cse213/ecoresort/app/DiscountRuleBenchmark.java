@@ -0,0 +1,188 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.DiscountRule;
+import cse213.ecoresort.model.DrinkItem;
+import cse213.ecoresort.model.FoodItem;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.service.DiscountRuleEngine;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times DiscountRuleEngine.evaluate on its own, with a promotion book and menu
+ * the size of a large resort rather than the simulation's handful of items.
+ * Rules mix item, type, multi-buy, combo and order-wide deals, about half
+ * limited to a window of the day, at random priorities and stackability.
+ * Orders are evaluated three ways: all at one time of day, so one plan serves
+ * them; with the clock sweeping the day, so the plan changes with each window;
+ * and with a rule replaced every --churn orders, so the plan is rebuilt.
+ * Every discount must be a real amount no larger than its order's subtotal.
+ *
+ * Usage: DiscountRuleBenchmark [--items=400] [--rules=500] [--orders=20000]
+ *        [--max-lines=8] [--rounds=5] [--churn=1000]
+ */
+public class DiscountRuleBenchmark {
+    private int items = 400;
+    private int rules = 500;
+    private int orders = 20_000;
+    private int maxLines = 8;
+    private int rounds = 5;
+    private int churn = 1000;
+
+    private final Random random = new Random(7);
+    private long badDiscounts;
+
+    public static void main(String[] args) {
+        DiscountRuleBenchmark benchmark = new DiscountRuleBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "items" -> items = Integer.parseInt(value);
+                case "rules" -> rules = Integer.parseInt(value);
+                case "orders" -> orders = Integer.parseInt(value);
+                case "max-lines" -> maxLines = Integer.parseInt(value);
+                case "rounds" -> rounds = Integer.parseInt(value);
+                case "churn" -> churn = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (items <= 1 || rules <= 0 || orders <= 0 || maxLines <= 0 || rounds <= 0 || churn <= 0) {
+            throw new IllegalArgumentException("items must be at least 2; rules, orders, max-lines, rounds "
+                    + "and churn must be positive");
+        }
+    }
+
+    /**
+     * Run every round and print the timings, returning false if any discount is out of range
+     */
+    public boolean run() {
+        List<MenuItem> menu = createMenu();
+        DiscountRuleEngine engine = DiscountRuleEngine.getInstance();
+        engine.clearRules();
+        for (int i = 0; i < rules; i++) {
+            engine.addRule(createRule(i, menu));
+        }
+        List<List<OrderLine>> orderMix = createOrders(menu);
+        LocalTime noon = LocalTime.NOON;
+        System.out.printf("%,d items, %,d rules (%d active at noon), %,d orders of 1-%d lines%n",
+                items, rules, engine.getActiveRules(noon).size(), orders, maxLines);
+
+        for (int round = 1; round <= rounds; round++) {
+            long[] fixed = new long[orders];
+            for (int i = 0; i < orders; i++) {
+                fixed[i] = time(engine, orderMix.get(i), noon);
+            }
+            long[] sweeping = new long[orders];
+            for (int i = 0; i < orders; i++) {
+                sweeping[i] = time(engine, orderMix.get(i), LocalTime.ofSecondOfDay(i * 86_399L / orders));
+            }
+            long[] churning = new long[orders];
+            for (int i = 0; i < orders; i++) {
+                if (i % churn == churn - 1) {
+                    DiscountRule replaced = engine.getRules().get(random.nextInt(rules));
+                    engine.removeRule(replaced.getId());
+                    engine.addRule(createRule(random.nextInt(rules), menu));
+                }
+                churning[i] = time(engine, orderMix.get(i), noon);
+            }
+            System.out.printf("Round %d%n", round);
+            report("one time of day", fixed);
+            report("clock sweeping", sweeping);
+            report("rule every " + churn, churning);
+        }
+        engine.clearRules();
+
+        System.out.printf("Discounts out of range: %,d%n", badDiscounts);
+        boolean ok = badDiscounts == 0;
+        System.out.println(ok ? "Every discount is within its order's subtotal" : "DISCOUNTS OUT OF RANGE");
+        return ok;
+    }
+
+    private long time(DiscountRuleEngine engine, List<OrderLine> lines, LocalTime at) {
+        long start = System.nanoTime();
+        DiscountRuleEngine.Evaluation evaluation = engine.evaluate(lines, at);
+        long nanos = System.nanoTime() - start;
+        double subtotal = 0.0;
+        for (OrderLine line : lines) {
+            subtotal += line.getUnitPrice() * line.getQuantity();
+        }
+        double discount = evaluation.getDiscount();
+        if (!(discount >= 0) || discount > subtotal + 1e-9) {
+            badDiscounts++;
+        }
+        return nanos;
+    }
+
+    private List<MenuItem> createMenu() {
+        List<MenuItem> menu = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            double price = 2 + random.nextInt(40) + random.nextInt(100) / 100.0;
+            menu.add(i % 3 == 2
+                    ? new DrinkItem("Drink " + i, price, 100, i % 2 == 0, "Cold")
+                    : new FoodItem("Dish " + i, price, 100, "Thai", i % 2 == 0));
+        }
+        return menu;
+    }
+
+    // The same mix RestaurantSimulation registers, over the whole menu
+    private DiscountRule createRule(int i, List<MenuItem> menu) {
+        MenuItem item = menu.get(random.nextInt(menu.size()));
+        MenuItem other = menu.get(random.nextInt(menu.size()));
+        DiscountRule rule = switch (i % 5) {
+            case 0 -> DiscountRule.itemPercentage("Item deal " + i, item.getId(), 5 + random.nextInt(20));
+            case 1 -> DiscountRule.typePercentage("Type deal " + i, item.getType(), 5 + random.nextInt(10));
+            case 2 -> DiscountRule.buyGetFree("Multi-buy " + i, item.getId(), 1 + random.nextInt(3), 1);
+            case 3 -> other.getId().equals(item.getId())
+                    ? DiscountRule.orderPercentage("Order deal " + i, 5)
+                    : DiscountRule.combo("Combo " + i, (item.getPrice() + other.getPrice()) * 0.8,
+                            item.getId(), other.getId());
+            default -> DiscountRule.orderPercentage("Order deal " + i, 1 + random.nextInt(10));
+        };
+        if (random.nextBoolean()) {
+            int startHour = random.nextInt(24);
+            rule = rule.during(LocalTime.of(startHour, 0), LocalTime.of((startHour + 1 + random.nextInt(6)) % 24, 0));
+        }
+        return rule.withPriority(random.nextInt(10)).withStackable(random.nextBoolean());
+    }
+
+    private List<List<OrderLine>> createOrders(List<MenuItem> menu) {
+        List<List<OrderLine>> mix = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            int count = 1 + random.nextInt(maxLines);
+            List<OrderLine> lines = new ArrayList<>(count);
+            for (int l = 0; l < count; l++) {
+                lines.add(new OrderLine(menu.get(random.nextInt(menu.size())), 1 + random.nextInt(4)));
+            }
+            mix.add(lines);
+        }
+        return mix;
+    }
+
+    private void report(String name, long[] nanos) {
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("  %-18s %8.2f us/order   p50 %7.2f us   p99 %8.2f us   max %9.2f us%n",
+                name, total / 1_000.0 / nanos.length, percentile(sorted, 0.50) / 1_000.0,
+                percentile(sorted, 0.99) / 1_000.0, sorted[sorted.length - 1] / 1_000.0);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,103 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.service.FloorStateService;
+import cse213.ecoresort.service.OrderService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Times the floor-state queries against the draft scan they replace, after
+ * opening drafts across a large floor and sending some of them to payment.
+ * Also checks that the bitsets agree with the scan.
+ *
+ * Usage: FloorBenchmark [--tables=4096] [--drafts=3000] [--queries=20000]
+ */
+public class FloorBenchmark {
+    private int tables = 4096;
+    private int drafts = 3000;
+    private int queries = 20_000;
+
+    public static void main(String[] args) {
+        FloorBenchmark benchmark = new FloorBenchmark();
+        benchmark.parseArgs(args);
+        benchmark.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "tables" -> tables = Integer.parseInt(value);
+                case "drafts" -> drafts = Integer.parseInt(value);
+                case "queries" -> queries = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (tables <= 0 || drafts <= 0 || queries <= 0) {
+            throw new IllegalArgumentException("tables, drafts and queries must be positive");
+        }
+    }
+
+    public void run() {
+        // Must be set before the floor is first used
+        System.setProperty(FloorStateService.TABLES_PROPERTY, Integer.toString(tables));
+        ApplicationContext context = ApplicationContext.get();
+        OrderService orderService = context.getOrderService();
+        FloorStateService floor = FloorStateService.getInstance();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long start = System.nanoTime();
+        List<Order> opened = new ArrayList<>(drafts);
+        for (int i = 0; i < drafts; i++) {
+            opened.add(orderService.createOrder(1 + random.nextInt(tables)));
+        }
+        for (int i = 0; i < opened.size(); i += 4) {
+            floor.paymentStarted(opened.get(i));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Opened %,d drafts over %,d tables in %.2f s%n", drafts, tables, seconds);
+
+        long found = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            found += floor.getFreeTables().length;
+        }
+        report("free tables", start, queries, found);
+
+        found = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            found += floor.getTablesWithDrafts().length;
+        }
+        report("tables with drafts", start, queries, found);
+
+        found = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            found += floor.getFreeCount();
+        }
+        report("free count", start, queries, found);
+
+        found = 0;
+        int scans = Math.max(1, queries / 100);
+        start = System.nanoTime();
+        for (int q = 0; q < scans; q++) {
+            found += tables - orderService.getDraftOrders().stream().mapToInt(Order::getTableNo).distinct().count();
+        }
+        report("free count by scan", start, scans, found);
+
+        long scanned = tables - orderService.getDraftOrders().stream().mapToInt(Order::getTableNo).distinct().count();
+        System.out.println(scanned == floor.getFreeCount()
+                ? "Floor state agrees with the draft scan"
+                : "MISMATCH: scan finds " + scanned + " free tables, floor state " + floor.getFreeCount());
+    }
+
+    private static void report(String query, long start, int count, long found) {
+        double micros = (System.nanoTime() - start) / 1_000.0 / count;
+        System.out.printf("%-20s %,10.2f us/query (%,d results)%n", query, micros, found);
+    }
+}
@@ -0,0 +1,92 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.model.TaxEngine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Measures the retained heap per order and per order line. Orders are built
+ * the way the repositories restore them, each with its own copies of the
+ * decoded strings, first with no lines and then with --lines lines each; the
+ * difference in live heap after a full collection gives the cost of each.
+ * Run with a heap large enough for the orders, e.g. -Xmx3g for a million.
+ *
+ * Usage: FootprintBenchmark [--orders=1000000] [--lines=3]
+ */
+public class FootprintBenchmark {
+    private int orders = 1_000_000;
+    private int lines = 3;
+
+    public static void main(String[] args) {
+        FootprintBenchmark benchmark = new FootprintBenchmark();
+        benchmark.parseArgs(args);
+        benchmark.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "orders" -> orders = Integer.parseInt(value);
+                case "lines" -> lines = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (orders <= 0 || lines <= 0) {
+            throw new IllegalArgumentException("orders and lines must be positive");
+        }
+    }
+
+    public void run() {
+        List<MenuItem> menu = ApplicationContext.get().getMenuService().getAllMenuItems();
+        long baseline = liveHeap();
+
+        List<Order> empty = build(menu, 0);
+        long perOrder = (liveHeap() - baseline) / orders;
+        empty = null;
+
+        long before = liveHeap();
+        List<Order> full = build(menu, lines);
+        long total = liveHeap() - before;
+        long perLine = (total / orders - perOrder) / lines;
+        System.out.printf("%,d orders of %d lines: %,d MB live%n", full.size(), lines, total >> 20);
+        System.out.printf("Per order (no lines): %,d bytes%n", perOrder);
+        System.out.printf("Per line:             %,d bytes%n", perLine);
+        System.out.printf("Per %d-line order:     %,d bytes%n", lines, total / orders);
+    }
+
+    private List<Order> build(List<MenuItem> menu, int lineCount) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        List<Order> built = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            List<OrderLine> orderLines = new ArrayList<>(lineCount);
+            for (int l = 0; l < lineCount; l++) {
+                MenuItem item = menu.get(random.nextInt(menu.size()));
+                // Fresh copies, as a decoder or a result set hands them out
+                orderLines.add(new OrderLine(new String(item.getId()), new String(item.getName()), item.getPrice(),
+                        item.getType(), TaxEngine.categoryOf(item), TaxEngine.DEFAULT_RATE, 1 + random.nextInt(3)));
+            }
+            LocalDateTime createdAt = start.plusSeconds(i);
+            built.add(new Order(UUID.randomUUID().toString(), 1 + random.nextInt(50), Order.OrderStatus.PAID,
+                    createdAt, createdAt.plusMinutes(20), orderLines, 0.0, TaxEngine.TaxMode.EXCLUSIVE));
+        }
+        return built;
+    }
+
+    private static long liveHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
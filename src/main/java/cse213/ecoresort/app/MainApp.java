@@ -1,5 +1,7 @@
 package cse213.ecoresort.app;
 
+import cse213.ecoresort.server.OrderServer;
+import cse213.ecoresort.service.SnapshotService;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -7,22 +9,35 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 public class MainApp extends Application {
 
     @Override
     public void start(Stage primaryStage) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/cse213/ecoresort/view/Home.fxml"));
+        ApplicationContext context = ApplicationContext.get();
+        FXMLLoader loader = context.loader("Home.fxml");
         Parent root = loader.load();
         
         primaryStage.setTitle("Eco-Resort Management System");
         primaryStage.setScene(new Scene(root, 800, 600));
         primaryStage.setMinWidth(600);
         primaryStage.setMinHeight(400);
+        StartupProbe.attach(primaryStage, context);
         primaryStage.show();
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        StartupProbe.mainEntered();
+        // "--server [port]" runs the shared order server for several tills instead of the UI
+        if (args.length > 0 && args[0].equals("--server")) {
+            OrderServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // Reads ecoresort.properties before anything picks a repository
+        ApplicationContext.get();
+        // -Decoresort.snapshot=file restores state at startup and saves it on exit
+        SnapshotService.attachFromSystemProperty();
         launch(args);
     }
 }
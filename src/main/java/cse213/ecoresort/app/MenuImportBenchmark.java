@@ -0,0 +1,102 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.service.MenuService;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Times bulk menu import and export.
+ * Writes a synthetic catalogue of new items in CSV and JSON, imports each,
+ * exports the whole menu, then imports the export again so every row is an update.
+ *
+ * Usage: MenuImportBenchmark [--items=100000] [--dir=.]
+ */
+public class MenuImportBenchmark {
+    private static final String[] CUISINES = {"American", "Italian", "Thai", "Mexican", "Indian", "International"};
+    private static final String[] WORDS = {"Grilled", "Spicy", "Garden", "Classic", "Smoked", "Crispy", "Fresh",
+            "Chicken", "Tofu", "Salmon", "Noodles", "Curry", "Tacos", "Salad", "Soup", "Burger", "Latte", "Tea"};
+
+    private int items = 100_000;
+    private Path dir = Path.of(".");
+
+    public static void main(String[] args) throws IOException {
+        MenuImportBenchmark benchmark = new MenuImportBenchmark();
+        benchmark.parseArgs(args);
+        benchmark.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "items" -> items = Integer.parseInt(value);
+                case "dir" -> dir = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (items <= 0) {
+            throw new IllegalArgumentException("items must be positive");
+        }
+    }
+
+    public void run() throws IOException {
+        MenuService menuService = new MenuService();
+        Path csv = dir.resolve("menu-import.csv");
+        Path json = dir.resolve("menu-import.json");
+        Path export = dir.resolve("menu-export.csv");
+        try {
+            writeCatalogue(csv, false);
+            writeCatalogue(json, true);
+            System.out.printf("Catalogues: %,d items, CSV %,d bytes, JSON %,d bytes%n",
+                    items, Files.size(csv), Files.size(json));
+
+            System.out.println("CSV import:       " + menuService.importItems(csv));
+            System.out.println("JSON import:      " + menuService.importItems(json));
+
+            long start = System.nanoTime();
+            int exported = menuService.exportItems(export);
+            System.out.printf("CSV export:       %,d items in %.1f ms%n", exported, (System.nanoTime() - start) / 1e6);
+
+            System.out.println("CSV re-import:    " + menuService.importItems(export));
+            Runtime runtime = Runtime.getRuntime();
+            System.out.printf("Heap in use:      %,d MB%n", (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(json);
+            Files.deleteIfExists(export);
+        }
+    }
+
+    private void writeCatalogue(Path file, boolean json) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (Writer out = Files.newBufferedWriter(file)) {
+            out.write(json ? "[\n" : "type,name,price,stock,cuisine,vegetarian,alcoholic,temperature\n");
+            for (int i = 0; i < items; i++) {
+                boolean food = random.nextInt(3) > 0;
+                String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+                String price = (1 + random.nextInt(40)) + "." + (10 + random.nextInt(90));
+                int stock = random.nextInt(500);
+                if (json) {
+                    out.write(i == 0 ? "  {" : ",\n  {");
+                    out.write("\"type\": \"" + (food ? "FOOD" : "DRINK") + "\", \"name\": \"" + name
+                            + "\", \"price\": " + price + ", \"stock\": " + stock);
+                    out.write(food
+                            ? ", \"cuisine\": \"" + CUISINES[random.nextInt(CUISINES.length)] + "\", \"vegetarian\": "
+                                    + random.nextBoolean() + "}"
+                            : ", \"alcoholic\": " + random.nextBoolean() + ", \"temperature\": \"Cold\"}");
+                } else {
+                    out.write((food ? "FOOD" : "DRINK") + ",\"" + name + "\"," + price + "," + stock + ",");
+                    out.write(food
+                            ? CUISINES[random.nextInt(CUISINES.length)] + "," + random.nextBoolean() + ",,\n"
+                            : ",," + random.nextBoolean() + ",Cold\n");
+                }
+            }
+            out.write(json ? "\n]\n" : "");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.service.MenuChangeSet;
+import cse213.ecoresort.service.MenuService;
+import cse213.ecoresort.service.MenuVersions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes whole-menu price changes while reader threads price the full menu
+ * from one version at a time. Every publish moves every price to the same
+ * generation, so a reader that sees two generations in one version has caught
+ * a partial swap. A seller thread sells stock all the while; no sale may be
+ * lost to a publish writing back a stock level it read earlier. Also times
+ * publishing one price against publishing all of them.
+ *
+ * Usage: MenuVersionBenchmark [--items=5000] [--publishes=200] [--readers=4]
+ */
+public class MenuVersionBenchmark {
+    private int items = 5000;
+    private int publishes = 200;
+    private int readers = 4;
+
+    public static void main(String[] args) throws InterruptedException {
+        MenuVersionBenchmark benchmark = new MenuVersionBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "items" -> items = Integer.parseInt(value);
+                case "publishes" -> publishes = Integer.parseInt(value);
+                case "readers" -> readers = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (items <= 0 || publishes <= 0 || readers <= 0) {
+            throw new IllegalArgumentException("items, publishes and readers must be positive");
+        }
+    }
+
+    /**
+     * Run the publishes and print the summary, returning false if a reader saw a partial menu
+     */
+    public boolean run() throws InterruptedException {
+        MenuService menuService = ApplicationContext.get().getMenuService();
+        List<MenuItem> menu = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            menu.add(menuService.createFoodItem("Dish " + i, 10.0, 1000, "International", false));
+        }
+        // Readers only rely on versions that price every item they read
+        MenuChangeSet baseline = new MenuChangeSet();
+        menu.forEach(item -> baseline.setPrice(item.getId(), 10.0));
+        menuService.publish(baseline);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder sold = new LongAdder();
+        Thread seller = new Thread(() -> {
+            for (int s = 0; running.get(); s++) {
+                if (menuService.decreaseStock(menu.get(s % items).getId(), 1)) {
+                    sold.increment();
+                }
+            }
+        }, "menu-seller");
+        seller.start();
+        LongAdder reads = new LongAdder();
+        LongAdder partial = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            Thread reader = new Thread(() -> {
+                while (running.get()) {
+                    MenuVersions.MenuVersion version = menuService.getMenuVersion();
+                    double first = version.priceOf(menu.get(0));
+                    for (MenuItem item : menu) {
+                        if (version.priceOf(item) != first) {
+                            partial.increment();
+                            break;
+                        }
+                    }
+                    reads.increment();
+                }
+            }, "menu-reader-" + r);
+            reader.start();
+            threads.add(reader);
+        }
+
+        long wholeMenuNanos = 0;
+        for (int p = 1; p <= publishes; p++) {
+            MenuChangeSet changes = new MenuChangeSet();
+            for (MenuItem item : menu) {
+                changes.setPrice(item.getId(), 10.0 + p);
+            }
+            long start = System.nanoTime();
+            menuService.publish(changes);
+            wholeMenuNanos += System.nanoTime() - start;
+        }
+        running.set(false);
+        seller.join();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long stockLeft = 0;
+        for (MenuItem item : menu) {
+            stockLeft += menuService.getItemById(item.getId()).map(MenuItem::getStockQty).orElse(0);
+        }
+        long lost = stockLeft - (1000L * items - sold.sum());
+
+        long oneItemNanos = 0;
+        for (int p = 1; p <= publishes; p++) {
+            MenuChangeSet changes = new MenuChangeSet().setPrice(menu.get(p % items).getId(), 10.0 + publishes);
+            long start = System.nanoTime();
+            menuService.publish(changes);
+            oneItemNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("Publish %,d prices: %,10.1f us%n", items, wholeMenuNanos / 1_000.0 / publishes);
+        System.out.printf("Publish 1 price:   %,10.1f us%n", oneItemNanos / 1_000.0 / publishes);
+        System.out.printf("Menu version %d; %,d full-menu reads by %d readers, %,d partial%n",
+                menuService.getMenuVersion().getNumber(), reads.sum(), readers, partial.sum());
+        System.out.printf("Stock: %,d units sold during the publishes, %,d sales lost%n", sold.sum(), lost);
+        boolean ok = partial.sum() == 0 && lost == 0;
+        System.out.println(ok ? "Every read saw one whole version and every sale was kept"
+                : "PARTIAL VERSIONS SEEN OR SALES LOST");
+        return ok;
+    }
+}
@@ -0,0 +1,284 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.DrinkItem;
+import cse213.ecoresort.model.FoodItem;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.repository.Page;
+import cse213.ecoresort.repository.RemoteMenuRepository;
+import cse213.ecoresort.repository.RemoteOrderRepository;
+import cse213.ecoresort.server.OrderServer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts an order server on a free localhost port and drives it through the
+ * remote repositories, as tills would. First a round trip: menu items and an
+ * order are saved and read back field by field, then found by table, status
+ * and page. Then the version check: a till saving a copy of an order that
+ * another till changed or deleted must be refused, and the server must keep
+ * the other till's change. Then load: --clients tills at once each save and
+ * read their own orders, timing every request, then all of them add to one
+ * shared line, reading it again and backing off whenever a save is refused;
+ * no add may be lost. Any mismatch or failed request fails the run.
+ * The server uses the repositories RepositoryFactory picks, so
+ * -Decoresort.repository=jdbc runs it against the embedded database.
+ *
+ * Usage: OrderServerBenchmark [--clients=200] [--requests=50] [--shared-adds=2]
+ */
+public class OrderServerBenchmark {
+    private int clients = 200;
+    private int requests = 50;
+    private int sharedAdds = 2;
+
+    private final List<String> failures = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        OrderServerBenchmark benchmark = new OrderServerBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "clients" -> clients = Integer.parseInt(value);
+                case "requests" -> requests = Integer.parseInt(value);
+                case "shared-adds" -> sharedAdds = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (clients <= 0 || requests <= 0 || sharedAdds < 0) {
+            throw new IllegalArgumentException("clients and requests must be positive");
+        }
+    }
+
+    /**
+     * Run the checks and the load against a fresh server, returning false if anything went wrong
+     */
+    public boolean run() throws IOException, InterruptedException {
+        OrderServer server = new OrderServer();
+        server.start(0);
+        try {
+            String url = "http://localhost:" + server.getPort();
+            System.out.println("Order server on " + url);
+            RemoteMenuRepository menu = new RemoteMenuRepository(url);
+            RemoteOrderRepository orders = new RemoteOrderRepository(url);
+            MenuItem food = new FoodItem("Green curry", 12.50, 1_000_000, "Thai", true);
+            MenuItem drink = new DrinkItem("Lime soda", 3.25, 1_000_000, false, "Cold");
+            roundTrip(menu, orders, food, drink);
+            versions(orders, food, drink);
+            load(url, food, drink);
+        } finally {
+            server.stop();
+        }
+        for (String failure : failures) {
+            System.out.println("FAILED: " + failure);
+        }
+        System.out.println(failures.isEmpty() ? "Every check passed" : failures.size() + " CHECKS FAILED");
+        return failures.isEmpty();
+    }
+
+    private void roundTrip(RemoteMenuRepository menu, RemoteOrderRepository orders, MenuItem food, MenuItem drink) {
+        menu.save(food);
+        menu.save(drink);
+        for (MenuItem item : List.of(food, drink)) {
+            Optional<MenuItem> read = menu.findById(item.getId());
+            check(read.isPresent(), "menu item " + item.getName() + " read back");
+            read.ifPresent(copy -> check(copy.getName().equals(item.getName()) && copy.getPrice() == item.getPrice()
+                    && copy.getStockQty() == item.getStockQty() && copy.getType() == item.getType()
+                    && copy.getDescription().equals(item.getDescription()),
+                    "menu item " + item.getName() + " matches"));
+        }
+
+        int table = 9_000 + (int) (System.nanoTime() % 1000);
+        Order order = new Order(table);
+        order.addLine(food, 2);
+        order.addLine(drink, 3);
+        order.setDiscount(1.50);
+        orders.save(order);
+        check(order.getVersion() == 1, "a new order is saved as version 1");
+        Optional<Order> read = orders.findById(order.getId());
+        check(read.isPresent(), "order read back");
+        read.ifPresent(copy -> check(sameOrder(order, copy), "order matches after the round trip"));
+        check(orders.findByTable(table).stream().anyMatch(o -> o.getId().equals(order.getId())), "order found by table");
+        check(orders.findByStatus(Order.OrderStatus.DRAFT).stream().anyMatch(o -> o.getId().equals(order.getId())),
+                "order found by status");
+        check(orders.findById("no-such-order").isEmpty(), "a missing order reads as empty");
+
+        int seen = 0;
+        String cursor = null;
+        do {
+            Page<Order> page = orders.findAll(cursor, 2);
+            seen += (int) page.getItems().stream().filter(o -> o.getId().equals(order.getId())).count();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        check(seen == 1, "order appears on exactly one page");
+        System.out.println("Round trip: menu items and order read back as saved");
+    }
+
+    private void versions(RemoteOrderRepository orders, MenuItem food, MenuItem drink) {
+        Order order = new Order(1);
+        order.addLine(food, 1);
+        orders.save(order);
+        Order first = orders.findById(order.getId()).orElseThrow();
+        Order second = orders.findById(order.getId()).orElseThrow();
+
+        first.addLine(drink, 1);
+        orders.save(first);
+        check(first.getVersion() == 2, "the first till's save is version 2");
+        second.updateLineQuantity(food.getId(), 5);
+        check(refused(() -> orders.save(second)), "a save of a stale copy is refused");
+        Order stored = orders.findById(order.getId()).orElseThrow();
+        check(stored.getVersion() == 2 && sameOrder(first, stored), "the server keeps the first till's change");
+
+        Order stale = orders.findById(order.getId()).orElseThrow();
+        orders.delete(order.getId());
+        check(refused(() -> orders.save(stale)), "a save of a deleted order is refused");
+        check(orders.findById(order.getId()).isEmpty(), "a deleted order stays deleted");
+
+        Order copy = new Order(1);
+        orders.save(copy);
+        check(refused(() -> orders.save(new Order(copy.getId(), 1, Order.OrderStatus.DRAFT, copy.getCreatedAt(),
+                null, List.of(), 0.0, copy.getTaxMode()))), "a second new order under the same ID is refused");
+        System.out.println("Versions: stale and deleted copies refused, the newer change kept");
+    }
+
+    private void load(String url, MenuItem food, MenuItem drink) throws InterruptedException {
+        // One client for every till keeps this process's threads for the requests themselves
+        RemoteOrderRepository orders = new RemoteOrderRepository(url);
+        Order shared = new Order(1);
+        shared.addLine(food, 1);
+        orders.save(shared);
+
+        long[] latencies = new long[clients * requests];
+        AtomicLong conflicts = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        ExecutorService tills = Executors.newFixedThreadPool(clients);
+        long began = System.nanoTime();
+        await(tills, failed, till -> {
+            Order own = new Order(1 + till % 50);
+            for (int r = 0; r < requests; r++) {
+                long start = System.nanoTime();
+                try {
+                    if (r % 2 == 0) {
+                        own.addLine(r % 4 == 0 ? food : drink, 1);
+                        orders.save(own);
+                    } else if (orders.findById(own.getId()).map(Order::getVersion).orElse(-1) != own.getVersion()) {
+                        failed.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+                latencies[till * requests + r] = System.nanoTime() - start;
+            }
+        });
+        long elapsed = System.nanoTime() - began;
+        await(tills, failed, till -> {
+            for (int a = 0; a < sharedAdds; a++) {
+                for (int attempt = 1; ; attempt++) {
+                    Order copy = orders.findById(shared.getId()).orElseThrow();
+                    copy.updateLineQuantity(food.getId(), copy.getOrderLines().get(0).getQuantity() + 1);
+                    try {
+                        orders.save(copy);
+                        break;
+                    } catch (IllegalStateException e) {
+                        conflicts.incrementAndGet();
+                        // Back off a random, growing while so the tills stop colliding
+                        Thread.sleep(ThreadLocalRandom.current().nextInt(1 + Math.min(attempt, 20) * 5));
+                    }
+                }
+            }
+        });
+        tills.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("Load: %d tills, %,d requests in %.2f s (%.0f/s)%n", clients, latencies.length,
+                elapsed / 1e9, latencies.length / (elapsed / 1e9));
+        System.out.printf("Latency p50/p90/p99/max: %.0fus / %.0fus / %.0fus / %.0fus%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1e3);
+        int quantity = orders.findById(shared.getId()).orElseThrow().getOrderLines().get(0).getQuantity();
+        System.out.printf("Shared line: %,d adds, quantity %,d, %,d saves refused and retried%n",
+                clients * sharedAdds, quantity, conflicts.get());
+        check(failed.get() == 0, failed.get() + " requests failed under load");
+        check(quantity == 1 + clients * sharedAdds, "no add to the shared line was lost");
+    }
+
+    // Run the work once per till, all at once, and wait for every till to finish
+    private void await(ExecutorService tills, AtomicLong failed, TillWork work) throws InterruptedException {
+        List<Future<?>> running = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int till = c;
+            running.add(tills.submit(() -> {
+                work.run(till);
+                return null;
+            }));
+        }
+        for (Future<?> till : running) {
+            try {
+                till.get();
+            } catch (ExecutionException e) {
+                failed.incrementAndGet();
+            }
+        }
+    }
+
+    private interface TillWork {
+        void run(int till) throws Exception;
+    }
+
+    private static boolean sameOrder(Order expected, Order actual) {
+        if (!expected.getId().equals(actual.getId()) || expected.getTableNo() != actual.getTableNo()
+                || expected.getStatus() != actual.getStatus() || expected.getVersion() != actual.getVersion()
+                || !expected.getCreatedAt().equals(actual.getCreatedAt())
+                || expected.getDiscount() != actual.getDiscount() || expected.getTotal() != actual.getTotal()
+                || expected.getLineCount() != actual.getLineCount()) {
+            return false;
+        }
+        List<OrderLine> expectedLines = expected.getOrderLines();
+        List<OrderLine> actualLines = actual.getOrderLines();
+        for (int i = 0; i < expectedLines.size(); i++) {
+            OrderLine e = expectedLines.get(i);
+            OrderLine a = actualLines.get(i);
+            if (!e.getItemId().equals(a.getItemId()) || !e.getItemName().equals(a.getItemName())
+                    || e.getUnitPrice() != a.getUnitPrice() || e.getQuantity() != a.getQuantity()
+                    || e.getItemType() != a.getItemType() || e.getTaxRate() != a.getTaxRate()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean refused(Runnable save) {
+        try {
+            save.run();
+            return false;
+        } catch (IllegalStateException e) {
+            return true;
+        }
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1e3;
+    }
+
+    private void check(boolean passed, String what) {
+        if (!passed) {
+            failures.add(what);
+        }
+    }
+}
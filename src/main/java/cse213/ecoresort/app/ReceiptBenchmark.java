@@ -0,0 +1,98 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.service.MenuService;
+import cse213.ecoresort.service.ReceiptRenderer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures receipt rendering in receipts per second, one at a time into the
+ * reusable buffer and as a batch export to a file.
+ *
+ * Usage: ReceiptBenchmark [--orders=50000] [--max-lines=5] [--rounds=5]
+ *        [--file=receipts.out]
+ */
+public class ReceiptBenchmark {
+    private int orders = 50_000;
+    private int maxLines = 5;
+    private int rounds = 5;
+    private Path file = Path.of("receipts.out");
+
+    public static void main(String[] args) throws IOException {
+        ReceiptBenchmark benchmark = new ReceiptBenchmark();
+        benchmark.parseArgs(args);
+        benchmark.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "orders" -> orders = Integer.parseInt(value);
+                case "max-lines" -> maxLines = Integer.parseInt(value);
+                case "rounds" -> rounds = Integer.parseInt(value);
+                case "file" -> file = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (orders <= 0 || maxLines <= 0 || rounds <= 0) {
+            throw new IllegalArgumentException("orders, max-lines and rounds must be positive");
+        }
+    }
+
+    public void run() throws IOException {
+        List<Order> paid = generate();
+        ReceiptRenderer renderer = new ReceiptRenderer();
+        try {
+            for (int round = 1; round <= rounds; round++) {
+                for (ReceiptRenderer.Format format : ReceiptRenderer.Format.values()) {
+                    long bytes = 0;
+                    long start = System.nanoTime();
+                    for (Order order : paid) {
+                        bytes += renderer.render(order, format).remaining();
+                    }
+                    report(round, format + " render", start, bytes);
+
+                    start = System.nanoTime();
+                    renderer.export(paid, file, format);
+                    report(round, format + " export", start, Files.size(file));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private List<Order> generate() {
+        List<MenuItem> menu = new MenuService().getAllMenuItems();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Order> paid = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            Order order = new Order(1 + i % 50);
+            int lineCount = 1 + random.nextInt(maxLines);
+            for (int l = 0; l < lineCount; l++) {
+                order.addLine(menu.get(random.nextInt(menu.size())), 1 + random.nextInt(3));
+            }
+            if (random.nextInt(5) == 0) {
+                order.setDiscount(order.getSubtotal() / 10);
+            }
+            order.markAsPaid();
+            paid.add(order);
+        }
+        return paid;
+    }
+
+    private void report(int round, String phase, long start, long bytes) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Round %d %-15s %,10.0f receipts/s  %,8.1f MB/s%n",
+                round, phase, orders / seconds, bytes / seconds / 1e6);
+    }
+}
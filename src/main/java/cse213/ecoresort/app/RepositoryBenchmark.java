@@ -0,0 +1,170 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.repository.InMemoryMenuRepository;
+import cse213.ecoresort.repository.InMemoryOrderRepository;
+import cse213.ecoresort.repository.JdbcDatabase;
+import cse213.ecoresort.repository.JdbcMenuRepository;
+import cse213.ecoresort.repository.JdbcOrderRepository;
+import cse213.ecoresort.repository.MenuRepository;
+import cse213.ecoresort.repository.OrderRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares write throughput and query latency of the in-memory and JDBC repositories.
+ * Each order is saved twice, as a draft and again once paid, like a till does;
+ * then lookups by ID, table, status and payment-time window are timed against
+ * the filled store, the windows also as a findAll scan for comparison.
+ *
+ * Usage: RepositoryBenchmark [--orders=20000] [--max-lines=5] [--tables=50]
+ *        [--queries=2000] [--url=jdbc:h2:mem:bench]
+ */
+public class RepositoryBenchmark {
+    private int orders = 20_000;
+    private int maxLines = 5;
+    private int tables = 50;
+    private int queries = 2_000;
+    private String url = "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1";
+
+    public static void main(String[] args) {
+        RepositoryBenchmark benchmark = new RepositoryBenchmark();
+        benchmark.parseArgs(args);
+        benchmark.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "orders" -> orders = Integer.parseInt(value);
+                case "max-lines" -> maxLines = Integer.parseInt(value);
+                case "tables" -> tables = Integer.parseInt(value);
+                case "queries" -> queries = Integer.parseInt(value);
+                case "url" -> url = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (orders <= 0 || maxLines <= 0 || tables <= 0 || queries <= 0) {
+            throw new IllegalArgumentException("orders, max-lines, tables and queries must be positive");
+        }
+    }
+
+    public void run() {
+        measure("in-memory", InMemoryMenuRepository.getInstance(), InMemoryOrderRepository.getInstance());
+        try (JdbcDatabase database = new JdbcDatabase(url)) {
+            measure("jdbc", new JdbcMenuRepository(database), new JdbcOrderRepository(database));
+        }
+    }
+
+    private void measure(String name, MenuRepository menuRepository, OrderRepository orderRepository) {
+        List<MenuItem> menu = menuRepository.findAll();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String> ids = new ArrayList<>(orders);
+
+        LocalDateTime firstSave = LocalDateTime.now();
+        long start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            Order order = new Order(1 + i % tables);
+            int lineCount = 1 + random.nextInt(maxLines);
+            for (int l = 0; l < lineCount; l++) {
+                order.addLine(menu.get(random.nextInt(menu.size())), 1 + random.nextInt(3));
+            }
+            orderRepository.save(order);
+            order.markAsPaid();
+            orderRepository.save(order);
+            ids.add(order.getId());
+        }
+        double writeSeconds = (System.nanoTime() - start) / 1e9;
+        LocalDateTime lastSave = LocalDateTime.now();
+        System.out.printf("%-10s saves: %,d orders in %.2f s (%,.0f saves/s)%n",
+                name, orders, writeSeconds, 2 * orders / writeSeconds);
+
+        // Leave one open draft per table so the status query has something to find
+        for (int table = 1; table <= tables; table++) {
+            Order draft = new Order(table);
+            draft.addLine(menu.get(0), 1);
+            orderRepository.save(draft);
+        }
+
+        long found = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            found += orderRepository.findById(ids.get(random.nextInt(ids.size()))).isPresent() ? 1 : 0;
+        }
+        report(name, "findById", start, found);
+
+        found = 0;
+        int byTableQueries = Math.max(1, queries / 10);
+        start = System.nanoTime();
+        for (int q = 0; q < byTableQueries; q++) {
+            found += orderRepository.findByTable(1 + random.nextInt(tables)).size();
+        }
+        report(name, "findByTable", start, byTableQueries, found);
+
+        found = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            found += orderRepository.findByStatus(Order.OrderStatus.DRAFT).size();
+        }
+        report(name, "findByStatus(DRAFT)", start, found);
+
+        // A page at a time, as OrderService reads the open drafts when it starts
+        found = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            found += orderRepository.streamByStatus(Order.OrderStatus.DRAFT).count();
+        }
+        report(name, "streamByStatus(DRAFT)", start, found);
+
+        // Windows of 1% of the write phase, like an hour out of a long day
+        long spanNanos = Math.max(100, Duration.between(firstSave, lastSave).toNanos());
+        long windowNanos = spanNanos / 100;
+        int windowQueries = Math.max(1, queries / 10);
+        LocalDateTime[] windowStarts = new LocalDateTime[windowQueries];
+        for (int q = 0; q < windowQueries; q++) {
+            windowStarts[q] = firstSave.plusNanos(random.nextLong(spanNanos - windowNanos));
+        }
+        found = 0;
+        start = System.nanoTime();
+        for (LocalDateTime from : windowStarts) {
+            found += orderRepository.findPaidBetween(from, from.plusNanos(windowNanos)).size();
+        }
+        report(name, "findPaidBetween", start, windowQueries, found);
+
+        found = 0;
+        int scanQueries = Math.max(1, windowQueries / 10);
+        start = System.nanoTime();
+        for (int q = 0; q < scanQueries; q++) {
+            LocalDateTime from = windowStarts[q];
+            LocalDateTime to = from.plusNanos(windowNanos);
+            found += orderRepository.findAll().stream()
+                    .filter(order -> order.getPaidAt() != null && !order.getPaidAt().isBefore(from)
+                            && order.getPaidAt().isBefore(to))
+                    .count();
+        }
+        report(name, "paid window by scan", start, scanQueries, found);
+
+        found = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            found += menuRepository.findByType(MenuItem.ItemType.FOOD).size();
+        }
+        report(name, "findByType", start, found);
+    }
+
+    private void report(String name, String query, long start, long found) {
+        report(name, query, start, queries, found);
+    }
+
+    private void report(String name, String query, long start, int count, long found) {
+        double micros = (System.nanoTime() - start) / 1_000.0 / count;
+        System.out.printf("%-10s %-20s %,10.1f us/query (%,d rows)%n", name, query, micros, found);
+    }
+}
@@ -0,0 +1,350 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.DiscountRule;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.model.PaymentInput;
+import cse213.ecoresort.model.PaymentResult;
+import cse213.ecoresort.repository.InMemoryOrderRepository;
+import cse213.ecoresort.repository.RepositoryFactory;
+import cse213.ecoresort.service.DiscountRuleEngine;
+import cse213.ecoresort.service.KitchenDispatcher;
+import cse213.ecoresort.service.LowStockMonitor;
+import cse213.ecoresort.service.MenuService;
+import cse213.ecoresort.service.OrderService;
+import cse213.ecoresort.service.PaymentService;
+import cse213.ecoresort.service.StockHoldManager;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless load generator that simulates a full restaurant.
+ * Each simulated table runs on its own thread and loops through
+ * create order -> add items -> (discount) -> pay, with think time between
+ * steps, against the real OrderService, MenuService and PaymentService.
+ *
+ * Usage: RestaurantSimulation [--tables=50] [--duration=30] [--think-ms=50]
+ *        [--max-lines=5] [--max-qty=3] [--card-ratio=0.5] [--cancel-ratio=0.05]
+ *        [--discount-ratio=0.2] [--stock=100000] [--threads=platform|virtual]
+ *        [--promotions=0]
+ *
+ * With --promotions=n, n random promotion rules are registered and discounted
+ * orders are priced by the DiscountRuleEngine instead of a flat percentage.
+ */
+public class RestaurantSimulation {
+    private int tables = 50;
+    private int durationSeconds = 30;
+    private int thinkMillis = 50;
+    private int maxLines = 5;
+    private int maxQuantity = 3;
+    private double cardRatio = 0.5;
+    private double cancelRatio = 0.05;
+    private double discountRatio = 0.2;
+    private int initialStock = 100_000;
+    private boolean virtualThreads = false;
+    private int promotions = 0;
+
+    private final MenuService menuService = ApplicationContext.get().getMenuService();
+    private final OrderService orderService = ApplicationContext.get().getOrderService();
+    private final PaymentService paymentService = ApplicationContext.get().getPaymentService();
+
+    private final Map<String, LongAdder> soldQuantities = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAdder completedOrders = new LongAdder();
+    private final LongAdder cancelledOrders = new LongAdder();
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder lowStockAlerts = new LongAdder();
+    private final List<long[]> latencySamples = new ArrayList<>();
+    private final AtomicLong sampleCount = new AtomicLong();
+
+    public static void main(String[] args) throws InterruptedException {
+        RestaurantSimulation simulation = new RestaurantSimulation();
+        simulation.parseArgs(args);
+        simulation.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "tables" -> tables = Integer.parseInt(value);
+                case "duration" -> durationSeconds = Integer.parseInt(value);
+                case "think-ms" -> thinkMillis = Integer.parseInt(value);
+                case "max-lines" -> maxLines = Integer.parseInt(value);
+                case "max-qty" -> maxQuantity = Integer.parseInt(value);
+                case "card-ratio" -> cardRatio = Double.parseDouble(value);
+                case "cancel-ratio" -> cancelRatio = Double.parseDouble(value);
+                case "discount-ratio" -> discountRatio = Double.parseDouble(value);
+                case "stock" -> initialStock = Integer.parseInt(value);
+                case "threads" -> virtualThreads = value.equals("virtual");
+                case "promotions" -> promotions = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (tables <= 0 || durationSeconds <= 0 || maxLines <= 0 || maxQuantity <= 0) {
+            throw new IllegalArgumentException("tables, duration, max-lines and max-qty must be positive");
+        }
+    }
+
+    public void run() throws InterruptedException {
+        List<MenuItem> menu = menuService.getAllMenuItems();
+        Map<String, Integer> stockBefore = new HashMap<>();
+        for (MenuItem item : menu) {
+            menuService.updateMenuItem(item.getId(), item.getName(), item.getPrice(), initialStock);
+            stockBefore.put(item.getId(), initialStock);
+        }
+        registerPromotions(menu);
+        LowStockMonitor.getInstance().addAlertListener(alert -> lowStockAlerts.increment());
+        // The simulated stations prepare every ticket as soon as they drain it
+        for (MenuItem.ItemType station : MenuItem.ItemType.values()) {
+            KitchenDispatcher.getInstance().setStationHandler(station, batch -> { });
+        }
+
+        ExecutorService executor = createExecutor();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        System.out.printf("Simulating %d tables for %ds on %s threads against %d menu items%n",
+                tables, durationSeconds, virtualThreads ? "virtual" : "platform", menu.size());
+
+        long start = System.nanoTime();
+        for (int table = 1; table <= tables; table++) {
+            int tableNo = table;
+            executor.execute(() -> runTable(tableNo, menu, deadline));
+        }
+        executor.shutdown();
+        executor.awaitTermination(durationSeconds + 60L, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        printReport(elapsed, stockBefore);
+    }
+
+    private void registerPromotions(List<MenuItem> menu) {
+        DiscountRuleEngine engine = DiscountRuleEngine.getInstance();
+        engine.clearRules();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < promotions; i++) {
+            MenuItem item = menu.get(random.nextInt(menu.size()));
+            MenuItem other = menu.get(random.nextInt(menu.size()));
+            DiscountRule rule = switch (i % 5) {
+                case 0 -> DiscountRule.itemPercentage("Item deal " + i, item.getId(), 5 + random.nextInt(20));
+                case 1 -> DiscountRule.typePercentage("Type deal " + i, item.getType(), 5 + random.nextInt(10));
+                case 2 -> DiscountRule.buyGetFree("Multi-buy " + i, item.getId(), 1 + random.nextInt(3), 1);
+                case 3 -> other.getId().equals(item.getId())
+                        ? DiscountRule.orderPercentage("Order deal " + i, 5)
+                        : DiscountRule.combo("Combo " + i, (item.getPrice() + other.getPrice()) * 0.8,
+                                item.getId(), other.getId());
+                default -> DiscountRule.orderPercentage("Order deal " + i, 1 + random.nextInt(10));
+            };
+            int startHour = random.nextInt(24);
+            if (random.nextBoolean()) {
+                rule = rule.during(LocalTime.of(startHour, 0), LocalTime.of((startHour + 1 + random.nextInt(6)) % 24, 0));
+            }
+            engine.addRule(rule.withPriority(random.nextInt(10)).withStackable(random.nextBoolean()));
+        }
+        if (promotions > 0) {
+            System.out.printf("Registered %d promotions, %d active now%n",
+                    promotions, engine.getActiveRules(LocalTime.now()).size());
+        }
+    }
+
+    private ExecutorService createExecutor() {
+        if (virtualThreads) {
+            // Virtual threads need a Java 21 runtime; the build still targets 17
+            try {
+                return (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("Virtual threads are not available on this runtime, using platform threads");
+                virtualThreads = false;
+            }
+        }
+        return Executors.newFixedThreadPool(tables);
+    }
+
+    private void runTable(int tableNo, List<MenuItem> menu, long deadline) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (System.nanoTime() < deadline) {
+            try {
+                long t0 = System.nanoTime();
+                Order order = orderService.createOrder(tableNo);
+                latencies = record(latencies, count++, t0);
+
+                int lines = 1 + random.nextInt(maxLines);
+                for (int i = 0; i < lines; i++) {
+                    think(random);
+                    MenuItem item = menu.get(random.nextInt(menu.size()));
+                    int quantity = 1 + random.nextInt(maxQuantity);
+                    t0 = System.nanoTime();
+                    boolean added = orderService.addItemToOrder(order.getId(), item.getId(), quantity);
+                    latencies = record(latencies, count++, t0);
+                    if (!added) {
+                        countError("addItem rejected");
+                    }
+                }
+
+                // Re-read the order, shared repositories hand out copies
+                order = orderService.getOrderById(order.getId()).orElse(order);
+                if (random.nextDouble() < cancelRatio || order.getOrderLines().isEmpty()) {
+                    t0 = System.nanoTime();
+                    orderService.deleteOrder(order.getId());
+                    latencies = record(latencies, count++, t0);
+                    cancelledOrders.increment();
+                    continue;
+                }
+
+                if (random.nextDouble() < discountRatio) {
+                    t0 = System.nanoTime();
+                    if (promotions > 0) {
+                        orderService.applyDiscountRules(order.getId());
+                    } else {
+                        orderService.applyDiscount(order.getId(), 10.0);
+                    }
+                    latencies = record(latencies, count++, t0);
+                    order = orderService.getOrderById(order.getId()).orElse(order);
+                }
+
+                think(random);
+                PaymentInput input = random.nextDouble() < cardRatio
+                        ? PaymentInput.forCard("4111-1111-1111-1111")
+                        : PaymentInput.forCash(Math.ceil(order.getTotal()) + random.nextInt(20));
+                t0 = System.nanoTime();
+                PaymentResult result = paymentService.processPayment(order.getId(), input);
+                latencies = record(latencies, count++, t0);
+
+                if (result.isSuccess()) {
+                    completedOrders.increment();
+                    for (OrderLine line : order.getOrderLines()) {
+                        soldQuantities.computeIfAbsent(line.getItemId(), id -> new LongAdder())
+                                .add(line.getQuantity());
+                    }
+                } else {
+                    countError("payment failed: " + result.getMessage());
+                    orderService.deleteOrder(order.getId());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                countError(e.getClass().getSimpleName());
+            }
+        }
+
+        operations.add(count);
+        synchronized (latencySamples) {
+            latencySamples.add(Arrays.copyOf(latencies, count));
+        }
+        sampleCount.addAndGet(count);
+    }
+
+    private long[] record(long[] latencies, int index, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (index == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+        }
+        latencies[index] = elapsed;
+        return latencies;
+    }
+
+    private void think(ThreadLocalRandom random) throws InterruptedException {
+        if (thinkMillis > 0) {
+            // Uniform between half and one and a half times the configured think time
+            Thread.sleep(thinkMillis / 2 + random.nextInt(thinkMillis + 1));
+        }
+    }
+
+    private void countError(String kind) {
+        errors.computeIfAbsent(kind, k -> new LongAdder()).increment();
+    }
+
+    private void printReport(long elapsedNanos, Map<String, Integer> stockBefore) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        long[] all = new long[(int) sampleCount.get()];
+        int offset = 0;
+        for (long[] samples : latencySamples) {
+            System.arraycopy(samples, 0, all, offset, samples.length);
+            offset += samples.length;
+        }
+        Arrays.sort(all);
+
+        System.out.println();
+        System.out.println("=== Simulation report ===");
+        System.out.printf("Elapsed:            %.1f s%n", seconds);
+        System.out.printf("Orders paid:        %d (%.1f/s)%n", completedOrders.sum(), completedOrders.sum() / seconds);
+        System.out.printf("Orders cancelled:   %d%n", cancelledOrders.sum());
+        System.out.printf("Service calls:      %d (%.1f/s)%n", operations.sum(), operations.sum() / seconds);
+        System.out.printf("Latency p50/p90/p99/p99.9/max: %s / %s / %s / %s / %s%n",
+                formatMicros(percentile(all, 0.50)), formatMicros(percentile(all, 0.90)),
+                formatMicros(percentile(all, 0.99)), formatMicros(percentile(all, 0.999)),
+                formatMicros(all.length == 0 ? 0 : all[all.length - 1]));
+
+        int inconsistent = 0;
+        for (MenuItem item : menuService.getAllMenuItems()) {
+            LongAdder sold = soldQuantities.get(item.getId());
+            long expected = stockBefore.get(item.getId()) - (sold == null ? 0 : sold.sum());
+            if (item.getStockQty() != expected || item.getStockQty() < 0) {
+                inconsistent++;
+                System.out.printf("Stock mismatch for %s: expected %d, actual %d%n",
+                        item.getName(), expected, item.getStockQty());
+            }
+        }
+        System.out.println("Stock consistency:  " + (inconsistent == 0 ? "OK" : inconsistent + " items differ"));
+
+        LowStockMonitor monitor = LowStockMonitor.getInstance();
+        System.out.printf("Low-stock alerts:   %d delivered, %d rate-limited%n",
+                lowStockAlerts.sum(), monitor.getAlertsSuppressed());
+
+        StockHoldManager holds = StockHoldManager.getInstance();
+        System.out.printf("Stock holds:        %d drafts holding, %d rejected, %d expired%n",
+                holds.getOrdersWithHolds(), holds.getRejectedHolds(), holds.getExpiredOrders());
+
+        if (RepositoryFactory.orderRepository() instanceof InMemoryOrderRepository orders) {
+            System.out.printf("Draft eviction:     %d drafts open, %d evicted idle, %d evicted over table limit%n",
+                    orders.getDraftCount(), orders.getEvictedIdleCount(), orders.getEvictedOverLimitCount());
+        }
+
+        KitchenDispatcher kitchen = KitchenDispatcher.getInstance();
+        for (MenuItem.ItemType station : MenuItem.ItemType.values()) {
+            System.out.printf("Kitchen %-5s       %d tickets, %d processed, %d overflowed, depth %d, "
+                            + "latency avg %.2fms max %.2fms%n",
+                    station, kitchen.getDispatchedCount(station), kitchen.getProcessedCount(station),
+                    kitchen.getOverflowCount(station), kitchen.getQueueDepth(station),
+                    kitchen.getAverageLatencyMillis(station), kitchen.getMaxLatencyMillis(station));
+        }
+
+        if (errors.isEmpty()) {
+            System.out.println("Errors:             none");
+        } else {
+            System.out.println("Errors:");
+            errors.forEach((kind, count) -> System.out.printf("  %-40s %d%n", kind, count.sum()));
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static String formatMicros(long nanos) {
+        return String.format("%.1fus", nanos / 1000.0);
+    }
+}
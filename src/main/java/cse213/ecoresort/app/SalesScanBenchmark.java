@@ -0,0 +1,201 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.ItemInfo;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.model.TaxEngine;
+import cse213.ecoresort.service.SalesColumnStore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Fills the sales column store with paid orders and times its reports:
+ * revenue over all time and over one week, revenue by item and by hour of
+ * the day. Every answer is checked against totals kept while the orders were
+ * made. The first --object-lines lines are also kept as Order objects and the
+ * same revenue is summed by walking them, for comparison.
+ * A hundred million lines need about 2.5 GB of heap, e.g. -Xmx3500m.
+ *
+ * Usage: SalesScanBenchmark [--lines=20000000] [--items=200] [--tables=100]
+ *        [--days=90] [--object-lines=1000000] [--runs=5]
+ */
+public class SalesScanBenchmark {
+    private long lines = 20_000_000;
+    private int items = 200;
+    private int tables = 100;
+    private int days = 90;
+    private int objectLines = 1_000_000;
+    private int runs = 5;
+
+    public static void main(String[] args) {
+        SalesScanBenchmark benchmark = new SalesScanBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "lines" -> lines = Long.parseLong(value);
+                case "items" -> items = Integer.parseInt(value);
+                case "tables" -> tables = Integer.parseInt(value);
+                case "days" -> days = Integer.parseInt(value);
+                case "object-lines" -> objectLines = Integer.parseInt(value);
+                case "runs" -> runs = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (lines <= 0 || items <= 0 || tables <= 0 || days < 7 || objectLines < 0 || runs <= 0) {
+            throw new IllegalArgumentException("lines, items, tables and runs must be positive and days at least 7");
+        }
+    }
+
+    /**
+     * Fill the store and time the reports, returning false if any report disagrees with the exact totals
+     */
+    public boolean run() {
+        SalesColumnStore store = SalesColumnStore.getInstance();
+        String[] itemIds = new String[items];
+        long[] itemPrices = new long[items];
+        Map<String, Integer> indexById = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < items; i++) {
+            itemIds[i] = UUID.randomUUID().toString();
+            itemPrices[i] = 150 + random.nextInt(4000);
+            indexById.put(itemIds[i], i);
+        }
+
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        LocalDateTime end = start.plusDays(days);
+        LocalDateTime weekFrom = start.plusDays(days / 2);
+        LocalDateTime weekTo = weekFrom.plusDays(7);
+        long spanSeconds = days * 86_400L;
+        // Expected answers, kept while the orders are made
+        long expectedTotal = 0;
+        long expectedWeek = 0;
+        long expectedUnits = 0;
+        long[] expectedByItem = new long[items];
+        long[] expectedByHour = new long[24];
+        List<Order> kept = new ArrayList<>();
+        long keptRevenue = 0;
+        long keptLines = 0;
+
+        long fillStart = System.nanoTime();
+        long made = 0;
+        long orders = 0;
+        while (made < lines) {
+            int count = (int) Math.min(1 + random.nextInt(5), lines - made);
+            // Spread evenly over the days, in payment order as the till appends them
+            LocalDateTime paidAt = start.plusSeconds(made * spanSeconds / lines);
+            List<OrderLine> orderLines = new ArrayList<>(count);
+            long orderRevenue = 0;
+            for (int l = 0; l < count; l++) {
+                int item = skewedItem(random);
+                int quantity = 1 + random.nextInt(3);
+                orderLines.add(new OrderLine(itemIds[item], "Dish " + item, itemPrices[item] / 100.0,
+                        MenuItem.ItemType.FOOD, null, TaxEngine.DEFAULT_RATE, quantity));
+                long revenue = quantity * itemPrices[item];
+                orderRevenue += revenue;
+                expectedByItem[item] += revenue;
+                expectedUnits += quantity;
+            }
+            Order order = new Order(UUID.randomUUID().toString(), 1 + random.nextInt(tables), Order.OrderStatus.PAID,
+                    paidAt.minusMinutes(40), paidAt, orderLines, 0.0, TaxEngine.TaxMode.EXCLUSIVE);
+            store.append(order);
+            expectedTotal += orderRevenue;
+            expectedByHour[paidAt.getHour()] += orderRevenue;
+            if (!paidAt.isBefore(weekFrom) && paidAt.isBefore(weekTo)) {
+                expectedWeek += orderRevenue;
+            }
+            if (made < objectLines) {
+                kept.add(order);
+                keptRevenue += orderRevenue;
+                keptLines += count;
+            }
+            made += count;
+            orders++;
+        }
+        System.out.printf("Appended %,d lines in %,d orders in %.1f s%n",
+                store.getLineCount(), orders, (System.nanoTime() - fillStart) / 1e9);
+
+        boolean ok = true;
+        ok &= check("revenue, all time", time(() -> store.revenueCents(start, end), store.getLineCount()),
+                expectedTotal);
+        ok &= check("revenue, one week", time(() -> store.revenueCents(weekFrom, weekTo), store.getLineCount()),
+                expectedWeek);
+        ok &= check("units sold", time(() -> store.unitsSold(start, end), store.getLineCount()), expectedUnits);
+
+        long[] byHour = new long[24];
+        time(() -> {
+            System.arraycopy(store.revenueByHour(start, end), 0, byHour, 0, 24);
+            return 0;
+        }, store.getLineCount());
+        ok &= report("revenue by hour", Arrays.equals(byHour, expectedByHour));
+
+        long[] byItem = new long[items];
+        time(() -> {
+            Map<ItemInfo, Long> revenue = store.revenueByItem(start, end);
+            Arrays.fill(byItem, 0);
+            revenue.forEach((item, cents) -> byItem[indexById.get(item.getId())] = cents);
+            return revenue.size();
+        }, store.getLineCount());
+        ok &= report("revenue by item", Arrays.equals(byItem, expectedByItem));
+
+        if (!kept.isEmpty()) {
+            ok &= check("revenue, walking Orders", time(() -> walk(kept), keptLines), keptRevenue);
+        }
+        System.out.println(ok ? "Every report matches the exact totals" : "REPORTS DISAGREE WITH THE EXACT TOTALS");
+        return ok;
+    }
+
+    // A few dishes sell far more than the rest
+    private int skewedItem(Random random) {
+        double r = random.nextDouble();
+        return (int) (r * r * items);
+    }
+
+    // The row-wise way: every order, every line, price converted to cents
+    private static long walk(List<Order> orders) {
+        long total = 0;
+        for (Order order : orders) {
+            for (OrderLine line : order.getOrderLines()) {
+                total += line.getQuantity() * Math.round(line.getUnitPrice() * 100);
+            }
+        }
+        return total;
+    }
+
+    // Best of the runs, printed per line scanned
+    private long time(LongSupplier report, long scanned) {
+        long result = 0;
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < runs; r++) {
+            long began = System.nanoTime();
+            result = report.getAsLong();
+            best = Math.min(best, System.nanoTime() - began);
+        }
+        System.out.printf("  %7.1f ms  %5.2f ns/line  ", best / 1e6, (double) best / scanned);
+        return result;
+    }
+
+    private static boolean check(String label, long actual, long expected) {
+        System.out.printf("%-24s %,d%s%n", label, actual, actual == expected ? "" : " (expected " + expected + ")");
+        return actual == expected;
+    }
+
+    private static boolean report(String label, boolean matches) {
+        System.out.printf("%-24s %s%n", label, matches ? "matches" : "DIFFERS");
+        return matches;
+    }
+}
@@ -0,0 +1,122 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.model.TaxEngine;
+import cse213.ecoresort.repository.OrderRepository;
+import cse213.ecoresort.repository.RepositoryFactory;
+import cse213.ecoresort.service.MenuService;
+import cse213.ecoresort.service.SnapshotService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures snapshot and restore of a full day's state.
+ * Fills the repositories with synthetic orders, takes a snapshot while timing
+ * how long the caller is held up, then restores the file over the same
+ * repositories so every record is replaced.
+ *
+ * Usage: SnapshotBenchmark [--orders=1000000] [--max-lines=5] [--drafts=500]
+ *        [--file=snapshot.bin] [--rounds=3] [--keep] [--restore-only]
+ *
+ * --keep leaves the file in place; --restore-only then loads it into a fresh
+ * process, which is what a restart actually pays.
+ */
+public class SnapshotBenchmark {
+    private int orders = 1_000_000;
+    private int maxLines = 5;
+    private int drafts = 500;
+    private Path file = Path.of("snapshot.bin");
+    private int rounds = 3;
+    private boolean keep = false;
+    private boolean restoreOnly = false;
+
+    public static void main(String[] args) throws IOException {
+        SnapshotBenchmark benchmark = new SnapshotBenchmark();
+        benchmark.parseArgs(args);
+        benchmark.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "orders" -> orders = Integer.parseInt(value);
+                case "max-lines" -> maxLines = Integer.parseInt(value);
+                case "drafts" -> drafts = Integer.parseInt(value);
+                case "file" -> file = Path.of(value);
+                case "rounds" -> rounds = Integer.parseInt(value);
+                case "keep" -> keep = true;
+                case "restore-only" -> restoreOnly = true;
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (orders <= 0 || maxLines <= 0 || rounds <= 0 || drafts < 0 || drafts > orders) {
+            throw new IllegalArgumentException("orders, max-lines and rounds must be positive, drafts within orders");
+        }
+    }
+
+    public void run() throws IOException {
+        if (restoreOnly) {
+            SnapshotService.SnapshotInfo restored = new SnapshotService().restore(file);
+            System.out.printf("Restored %,d items and %,d orders in %.1f ms%n",
+                    restored.getItemCount(), restored.getOrderCount(), restored.getIoMillis());
+            return;
+        }
+        List<MenuItem> menu = new MenuService().getAllMenuItems();
+        OrderRepository orderRepository = RepositoryFactory.orderRepository();
+        long fillStart = System.nanoTime();
+        fill(orderRepository, menu);
+        System.out.printf("Generated %,d orders (%,d drafts) in %.0f ms%n",
+                orders, drafts, (System.nanoTime() - fillStart) / 1_000_000.0);
+
+        SnapshotService snapshots = new SnapshotService();
+        try {
+            for (int round = 1; round <= rounds; round++) {
+                System.gc();
+                SnapshotService.SnapshotInfo written = snapshots.snapshot(file).join();
+                System.out.printf("Round %d snapshot: %,d bytes, caller held %.1f ms, background write %.1f ms%n",
+                        round, written.getBytes(), written.getCaptureMillis(), written.getIoMillis());
+
+                System.gc();
+                SnapshotService.SnapshotInfo restored = snapshots.restore(file);
+                System.out.printf("Round %d restore:  %,d items and %,d orders in %.1f ms (%.0f orders/s)%n",
+                        round, restored.getItemCount(), restored.getOrderCount(), restored.getIoMillis(),
+                        restored.getOrderCount() / (restored.getIoMillis() / 1000.0));
+            }
+        } finally {
+            if (!keep) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Paid orders spread over a day, plus a few drafts across 50 tables to stay under the per-table limit
+    private void fill(OrderRepository orderRepository, List<MenuItem> menu) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime opening = LocalDateTime.now().withHour(8).withMinute(0).withSecond(0).withNano(0);
+        long daySeconds = 14 * 60 * 60;
+        for (int i = 0; i < orders; i++) {
+            int lineCount = 1 + random.nextInt(maxLines);
+            List<OrderLine> lines = new ArrayList<>(lineCount);
+            for (int l = 0; l < lineCount; l++) {
+                lines.add(new OrderLine(menu.get(random.nextInt(menu.size())), 1 + random.nextInt(3)));
+            }
+            boolean draft = i < drafts;
+            LocalDateTime createdAt = opening.plusSeconds(daySeconds * i / orders);
+            Order order = new Order(UUID.randomUUID().toString(), 1 + i % 50,
+                    draft ? Order.OrderStatus.DRAFT : Order.OrderStatus.PAID, createdAt,
+                    draft ? null : createdAt.plusMinutes(20), lines, 0.0, TaxEngine.TaxMode.EXCLUSIVE);
+            orderRepository.save(order);
+        }
+    }
+}
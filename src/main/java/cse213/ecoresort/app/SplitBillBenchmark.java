@@ -0,0 +1,210 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.model.PaymentInput;
+import cse213.ecoresort.model.PaymentResult;
+import cse213.ecoresort.service.KitchenDispatcher;
+import cse213.ecoresort.service.MenuService;
+import cse213.ecoresort.service.OrderService;
+import cse213.ecoresort.service.PaymentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Races split-bill tenders against each other. Each round opens one order and
+ * fires its tenders at once from separate threads: cash and card parts that
+ * add up to the total, some declined cards and some tenders for the whole
+ * balance. A till editing the order races the tenders too, adding a line,
+ * applying a discount and now and then deleting the order; edits must land
+ * before the first tender's bill opens or be refused. Checks that the
+ * accepted tenders add up to the order's final total to the cent, that
+ * exactly one of them reports the order paid, that the order is paid and
+ * that its final lines took stock once; a deleted order must have taken no
+ * tender and no stock. Exits with status 1 on any violation.
+ *
+ * Usage: SplitBillBenchmark [--rounds=2000] [--tenders=6] [--threads=8]
+ */
+public class SplitBillBenchmark {
+    private static final String CARD = "4111-1111-1111-1111";
+    private static final String DECLINED_CARD = "4111";
+
+    private int rounds = 2000;
+    private int tenders = 6;
+    private int threads = 8;
+
+    private final MenuService menuService = ApplicationContext.get().getMenuService();
+    private final OrderService orderService = ApplicationContext.get().getOrderService();
+    private final PaymentService paymentService = ApplicationContext.get().getPaymentService();
+    private final LongAdder editsApplied = new LongAdder();
+    private final LongAdder editsRefused = new LongAdder();
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        SplitBillBenchmark benchmark = new SplitBillBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "rounds" -> rounds = Integer.parseInt(value);
+                case "tenders" -> tenders = Integer.parseInt(value);
+                case "threads" -> threads = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (rounds <= 0 || tenders <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("rounds, tenders and threads must be positive");
+        }
+    }
+
+    /**
+     * Run the rounds and print the summary, returning false on any violation
+     */
+    public boolean run() throws InterruptedException, ExecutionException {
+        MenuItem item = menuService.getAllMenuItems().get(0);
+        int stock = rounds * 10;
+        menuService.updateMenuItem(item.getId(), item.getName(), item.getPrice(), stock);
+        // Paid orders go to a kitchen that prepares them straight away
+        KitchenDispatcher.getInstance().setStationHandler(item.getType(), batch -> { });
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        int violations = 0;
+        int quantitySold = 0;
+        long accepted = 0;
+        long rejected = 0;
+        long start = System.nanoTime();
+        try {
+            for (int round = 0; round < rounds; round++) {
+                int quantity = 1 + random.nextInt(5);
+                Order order = orderService.createOrder(1 + round % 50);
+                orderService.addItemToOrder(order.getId(), item.getId(), quantity);
+                long totalCents = Math.round(orderService.getOrderById(order.getId()).orElseThrow().getTotal() * 100);
+
+                boolean delete = random.nextInt(8) == 0;
+                List<PaymentResult> results = race(executor, order.getId(), item.getId(), delete, splitTenders(totalCents));
+                long appliedCents = 0;
+                int paidInFull = 0;
+                for (PaymentResult result : results) {
+                    if (result.isSuccess()) {
+                        accepted++;
+                        appliedCents += Math.round(result.getAmountApplied() * 100);
+                        paidInFull += result.isPaidInFull() ? 1 : 0;
+                    } else {
+                        rejected++;
+                    }
+                }
+                Order current = orderService.getOrderById(order.getId()).orElse(null);
+                if (current == null) {
+                    // Deleted before any bill opened, so nothing may have been taken
+                    if (appliedCents != 0 || paidInFull != 0) {
+                        violations++;
+                        System.out.printf("VIOLATION round %d: deleted order took %d cents%n", round, appliedCents);
+                    }
+                    continue;
+                }
+                // The edits that got in before the bill opened are what the order costs
+                totalCents = Math.round(current.getTotal() * 100);
+                // Whatever the interleaving, a round either settles exactly or leaves a balance to pay
+                if (appliedCents < totalCents && current.isDraft()) {
+                    PaymentResult rest = paymentService.processTender(order.getId(), PaymentInput.forCard(CARD));
+                    appliedCents += Math.round(rest.getAmountApplied() * 100);
+                    paidInFull += rest.isPaidInFull() ? 1 : 0;
+                }
+
+                current = orderService.getOrderById(order.getId()).orElseThrow();
+                boolean paid = !current.isDraft();
+                if (appliedCents != totalCents || paidInFull != 1 || !paid
+                        || Math.round(current.getTotal() * 100) != totalCents) {
+                    violations++;
+                    System.out.printf("VIOLATION round %d: applied %d of %d cents, paid in full %d times, order %s%n",
+                            round, appliedCents, Math.round(current.getTotal() * 100), paidInFull,
+                            paid ? "paid" : "not paid");
+                }
+                quantitySold += current.getOrderLines().stream().mapToInt(OrderLine::getQuantity).sum();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int stockLeft = menuService.getItemById(item.getId()).orElseThrow().getStockQty();
+        if (stockLeft != stock - quantitySold) {
+            violations++;
+            System.out.printf("VIOLATION stock: %d left, expected %d%n", stockLeft, stock - quantitySold);
+        }
+        System.out.printf("%,d rounds of %d tenders on %d threads in %.2f s: %,d accepted, %,d rejected%n",
+                rounds, tenders, threads, seconds, accepted, rejected);
+        System.out.printf("Edits racing the tenders: %,d applied before the bill opened, %,d refused%n",
+                editsApplied.sum(), editsRefused.sum());
+        System.out.println(violations == 0 ? "All bills settled exactly once" : violations + " violations");
+        return violations == 0;
+    }
+
+    // Parts adding up to the total, then a declined card and a whole-balance tender to race against them
+    private List<PaymentInput> splitTenders(long totalCents) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<PaymentInput> inputs = new ArrayList<>();
+        long left = totalCents;
+        for (int i = 0; i < tenders && left > 0; i++) {
+            long part = i == tenders - 1 ? left : Math.max(1, Math.min(left, random.nextLong(1, totalCents / tenders + 2)));
+            left -= part;
+            double amount = part / 100.0;
+            inputs.add(random.nextBoolean()
+                    ? PaymentInput.forCardTender(CARD, amount)
+                    : PaymentInput.forCashTender(amount + random.nextInt(10), amount));
+        }
+        inputs.add(PaymentInput.forCardTender(DECLINED_CARD, 1.0));
+        if (random.nextInt(4) == 0) {
+            inputs.add(PaymentInput.forCash(totalCents / 100.0 + 5));
+        }
+        return inputs;
+    }
+
+    private List<PaymentResult> race(ExecutorService executor, String orderId, String itemId, boolean delete,
+                                     List<PaymentInput> inputs) throws InterruptedException, ExecutionException {
+        CountDownLatch ready = new CountDownLatch(1);
+        Future<?> editor = executor.submit(() -> {
+            ready.await();
+            count(orderService.addItemToOrder(orderId, itemId, 1));
+            count(orderService.applyDiscount(orderId, 10));
+            if (delete) {
+                count(orderService.deleteOrder(orderId));
+            }
+            return null;
+        });
+        List<Future<PaymentResult>> futures = new ArrayList<>();
+        for (PaymentInput input : inputs) {
+            Callable<PaymentResult> tender = () -> {
+                ready.await();
+                return paymentService.processTender(orderId, input);
+            };
+            futures.add(executor.submit(tender));
+        }
+        ready.countDown();
+        List<PaymentResult> results = new ArrayList<>();
+        for (Future<PaymentResult> future : futures) {
+            results.add(future.get());
+        }
+        editor.get();
+        return results;
+    }
+
+    private void count(boolean applied) {
+        (applied ? editsApplied : editsRefused).increment();
+    }
+}
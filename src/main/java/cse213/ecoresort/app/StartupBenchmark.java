@@ -0,0 +1,153 @@
+package cse213.ecoresort.app;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the till repeatedly in fresh JVMs and reports the time to its first
+ * rendered frame, as measured by StartupProbe. Exits with status 1 when the
+ * median is over the budget, so a build can hold the line on startup time.
+ *
+ * Usage: StartupBenchmark [--runs=5] [--budget-ms=0] [--timeout-s=60]
+ *        [--image=target/image] [--java=path] [--module-path=path] [--cds=file]
+ *
+ * --image points at the runtime image from the runtime-image profile and uses
+ * its java, its app directory and its lib/ecoresort.jsa archive. Without it the
+ * current JVM and module path are used, with --cds adding an archive.
+ */
+public class StartupBenchmark {
+    private static final String MAIN = "cse213.ecoresort/cse213.ecoresort.app.MainApp";
+
+    private int runs = 5;
+    private long budgetMillis;
+    private long timeoutSeconds = 60;
+    private Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+    private String modulePath = System.getProperty("jdk.module.path");
+    private Path cds;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        StartupBenchmark benchmark = new StartupBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "runs" -> runs = Integer.parseInt(value);
+                case "budget-ms" -> budgetMillis = Long.parseLong(value);
+                case "timeout-s" -> timeoutSeconds = Long.parseLong(value);
+                case "java" -> java = Path.of(value);
+                case "module-path" -> modulePath = value;
+                case "cds" -> cds = Path.of(value);
+                case "image" -> {
+                    Path image = Path.of(value);
+                    java = image.resolve("bin").resolve("java");
+                    modulePath = image.resolve("app").toString();
+                    Path archive = image.resolve("lib").resolve("ecoresort.jsa");
+                    cds = Files.exists(archive) ? archive : null;
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (runs <= 0 || timeoutSeconds <= 0 || budgetMillis < 0) {
+            throw new IllegalArgumentException("runs and timeout-s must be positive, budget-ms not negative");
+        }
+        if (modulePath == null) {
+            throw new IllegalArgumentException("No module path: run from the module path or pass --module-path or --image");
+        }
+    }
+
+    /**
+     * Run the launches and print the summary, returning false when over budget
+     */
+    public boolean run() throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(java.toString());
+        if (cds != null) {
+            command.add("-XX:SharedArchiveFile=" + cds);
+        }
+        command.add("-D" + StartupProbe.PROPERTY + "=exit");
+        command.add("--module-path");
+        command.add(modulePath);
+        command.add("--module");
+        command.add(MAIN);
+        System.out.println("Launching: " + String.join(" ", command));
+
+        long[] jvm = new long[runs];
+        long[] main = new long[runs];
+        long[] total = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long[] timings = launch(command);
+            jvm[i] = timings[0];
+            main[i] = timings[1];
+            total[i] = timings[2];
+            System.out.printf("Run %d  jvm %5d ms  main->frame %5d ms  total %5d ms%n", i + 1, jvm[i], main[i], total[i]);
+        }
+        report("jvm", jvm);
+        report("main->frame", main);
+        long median = report("total", total);
+        if (budgetMillis > 0 && median > budgetMillis) {
+            System.out.printf("Over budget: median %d ms > %d ms%n", median, budgetMillis);
+            return false;
+        }
+        return true;
+    }
+
+    private long[] launch(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long[] timings = null;
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (line.startsWith(StartupProbe.RESULT_PREFIX)) {
+                    timings = parse(line);
+                }
+            }
+        }
+        if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("Till did not exit within " + timeoutSeconds + " s");
+        }
+        if (timings == null) {
+            throw new IllegalStateException("Till exited with status " + process.exitValue() + " without reporting startup");
+        }
+        return timings;
+    }
+
+    // "STARTUP jvm=120 main=850 total=970"
+    private static long[] parse(String line) {
+        long[] timings = new long[3];
+        for (String field : line.substring(StartupProbe.RESULT_PREFIX.length()).trim().split(" ")) {
+            String[] pair = field.split("=", 2);
+            long value = Long.parseLong(pair[1]);
+            switch (pair[0]) {
+                case "jvm" -> timings[0] = value;
+                case "main" -> timings[1] = value;
+                case "total" -> timings[2] = value;
+                default -> { }
+            }
+        }
+        return timings;
+    }
+
+    private static long report(String phase, long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        long median = sorted[sorted.length / 2];
+        System.out.printf("%-12s min %5d ms  median %5d ms  max %5d ms%n",
+                phase, sorted[0], median, sorted[sorted.length - 1]);
+        return median;
+    }
+}
@@ -0,0 +1,101 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.service.MenuService;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Measures how long the till takes to put its first frame on screen.
+ * Enabled with -Decoresort.startup.probe=MODE:
+ *   report  print the timings once the home screen has rendered
+ *   exit    print the timings and quit (used by StartupBenchmark)
+ *   train   also open the main screens before quitting, so a run with
+ *           -XX:ArchiveClassesAtExit records the classes they load
+ *
+ * The timings line reads "STARTUP jvm=.. main=.. total=.." in milliseconds:
+ * process start to MainApp.main, MainApp.main to first frame, and the sum.
+ */
+public final class StartupProbe {
+    public static final String PROPERTY = "ecoresort.startup.probe";
+    public static final String RESULT_PREFIX = "STARTUP ";
+
+    private static final String[] TRAINING_VIEWS = {"Order.fxml", "MenuManager.fxml", "Payment.fxml", "Receipt.fxml"};
+
+    private static long mainEnteredNanos;
+    private static Instant mainEnteredAt;
+
+    private StartupProbe() {
+    }
+
+    /**
+     * Call first thing in main, before any other application class is touched
+     */
+    static void mainEntered() {
+        mainEnteredNanos = System.nanoTime();
+        mainEnteredAt = Instant.now();
+    }
+
+    static void attach(Stage stage, ApplicationContext context) {
+        String mode = System.getProperty(PROPERTY);
+        if (mode == null || mainEnteredAt == null) {
+            return;
+        }
+        if (!mode.equals("report") && !mode.equals("exit") && !mode.equals("train")) {
+            System.err.println("ERROR: Unknown " + PROPERTY + " mode: " + mode);
+            return;
+        }
+        Scene scene = stage.getScene();
+        Runnable firstPulse = new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                // Rendering follows layout in the same pulse; runLater lands after it
+                Platform.runLater(() -> firstFrame(mode, context));
+            }
+        };
+        scene.addPostLayoutPulseListener(firstPulse);
+    }
+
+    private static void firstFrame(String mode, ApplicationContext context) {
+        long mainMillis = (System.nanoTime() - mainEnteredNanos) / 1_000_000;
+        long jvmMillis = ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, mainEnteredAt).toMillis())
+                .orElse(0L);
+        System.out.println(RESULT_PREFIX + "jvm=" + jvmMillis + " main=" + mainMillis + " total=" + (jvmMillis + mainMillis));
+        System.out.flush();
+
+        if (mode.equals("train")) {
+            train(context);
+        }
+        if (!mode.equals("report")) {
+            Platform.exit();
+            System.exit(0);
+        }
+    }
+
+    // Walk the main flows once: every screen rendered, plus the menu reads behind them
+    private static void train(ApplicationContext context) {
+        MenuService menuService = context.getMenuService();
+        menuService.getAllMenuItems();
+        menuService.searchItems("burger");
+        context.getOrderService();
+        context.getPaymentService();
+        for (String view : TRAINING_VIEWS) {
+            try {
+                Parent root = context.loader(view).load();
+                Stage stage = new Stage();
+                stage.setScene(new Scene(root, 1000, 700));
+                stage.show();
+                stage.close();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("ERROR: Training run could not open " + view + ": " + e.getMessage());
+            }
+        }
+    }
+}
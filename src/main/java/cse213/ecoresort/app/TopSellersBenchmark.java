@@ -0,0 +1,216 @@
+package cse213.ecoresort.app;
+
+import cse213.ecoresort.model.ItemInfo;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.model.TaxEngine;
+import cse213.ecoresort.service.TopSellersTracker;
+import cse213.ecoresort.service.TopSellersTracker.Window;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Feeds paid orders over a span of days to the top sellers tracker and to an
+ * exact count per window, and compares the two whenever an hour, day or week
+ * ends: how many of the exact top items the tracker reported, and how far its
+ * counts are over the exact ones. A count below the exact one is a bug and
+ * fails the run, as does finding fewer than 90% of the top items on average.
+ * Items are picked with a Zipf distribution. Recording is timed against
+ * updating the exact counts.
+ *
+ * Usage: TopSellersBenchmark [--orders=2000000] [--items=5000] [--skew=1.1]
+ *        [--top=10] [--days=14]
+ */
+public class TopSellersBenchmark {
+    private static final int BATCH = 100_000;
+
+    private int orders = 2_000_000;
+    private int items = 5000;
+    private double skew = 1.1;
+    private int top = 10;
+    private int days = 14;
+
+    private final long[] found = new long[Window.values().length];
+    private final long[] wanted = new long[Window.values().length];
+    private final double[] worstOver = new double[Window.values().length];
+    private final int[] checks = new int[Window.values().length];
+    private long undercounts;
+
+    public static void main(String[] args) {
+        TopSellersBenchmark benchmark = new TopSellersBenchmark();
+        benchmark.parseArgs(args);
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "";
+            switch (pair[0]) {
+                case "orders" -> orders = Integer.parseInt(value);
+                case "items" -> items = Integer.parseInt(value);
+                case "skew" -> skew = Double.parseDouble(value);
+                case "top" -> top = Integer.parseInt(value);
+                case "days" -> days = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (orders <= 0 || items <= 0 || skew <= 0 || top <= 0 || days <= 0) {
+            throw new IllegalArgumentException("orders, items, skew, top and days must be positive");
+        }
+    }
+
+    /**
+     * Run the stream and print the summary, returning false on an undercount or poor recall
+     */
+    public boolean run() {
+        TopSellersTracker tracker = TopSellersTracker.getInstance();
+        if (top > tracker.getTracked()) {
+            throw new IllegalArgumentException("top is more than the " + tracker.getTracked() + " items tracked");
+        }
+        Random random = new Random(11);
+        String[] itemIds = new String[items];
+        for (int i = 0; i < items; i++) {
+            itemIds[i] = UUID.randomUUID().toString();
+        }
+        // Popularity in a random order over the menu
+        List<Integer> byPopularity = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            byPopularity.add(i);
+        }
+        Collections.shuffle(byPopularity, random);
+        double[] cumulative = new double[items];
+        double sum = 0;
+        for (int rank = 0; rank < items; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, skew);
+            cumulative[rank] = sum;
+        }
+
+        List<Map<String, Long>> exact = new ArrayList<>();
+        LocalDateTime[] periods = new LocalDateTime[Window.values().length];
+        for (Window window : Window.values()) {
+            exact.add(new HashMap<>());
+        }
+        LocalDateTime start = LocalDateTime.of(2026, 3, 2, 0, 0);
+        long spanSeconds = days * 86_400L;
+        long trackerNanos = 0;
+        long exactNanos = 0;
+        long lines = 0;
+        LocalDateTime last = null;
+
+        for (int done = 0; done < orders; ) {
+            int batchSize = Math.min(BATCH, orders - done);
+            List<Order> batch = new ArrayList<>(batchSize);
+            for (int b = 0; b < batchSize; b++, done++) {
+                LocalDateTime paidAt = start.plusSeconds(done * spanSeconds / orders);
+                int count = 1 + random.nextInt(5);
+                List<OrderLine> orderLines = new ArrayList<>(count);
+                for (int l = 0; l < count; l++) {
+                    int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                    int item = byPopularity.get(rank < 0 ? -rank - 1 : rank);
+                    orderLines.add(new OrderLine(itemIds[item], "Dish " + item, 10.0, MenuItem.ItemType.FOOD,
+                            null, TaxEngine.DEFAULT_RATE, 1 + random.nextInt(3)));
+                }
+                lines += count;
+                batch.add(new Order(UUID.randomUUID().toString(), 1 + random.nextInt(50), Order.OrderStatus.PAID,
+                        paidAt.minusMinutes(30), paidAt, orderLines, 0.0, TaxEngine.TaxMode.EXCLUSIVE));
+            }
+
+            for (Order order : batch) {
+                LocalDateTime paidAt = order.getPaidAt();
+                // Compare each window as it ends, before the tracker moves on
+                for (Window window : Window.values()) {
+                    LocalDateTime period = periodStart(window, paidAt);
+                    if (!period.equals(periods[window.ordinal()])) {
+                        if (last != null) {
+                            compare(tracker, window, exact.get(window.ordinal()), last);
+                        }
+                        exact.get(window.ordinal()).clear();
+                        periods[window.ordinal()] = period;
+                    }
+                }
+                long began = System.nanoTime();
+                tracker.record(order);
+                trackerNanos += System.nanoTime() - began;
+
+                began = System.nanoTime();
+                List<OrderLine> orderLines = order.getOrderLines();
+                for (Map<String, Long> counts : exact) {
+                    for (OrderLine line : orderLines) {
+                        counts.merge(line.getItemId(), (long) line.getQuantity(), Long::sum);
+                    }
+                }
+                exactNanos += System.nanoTime() - began;
+                last = paidAt;
+            }
+        }
+        for (Window window : Window.values()) {
+            compare(tracker, window, exact.get(window.ordinal()), last);
+        }
+
+        System.out.printf("%,d orders, %,d lines over %d days, %,d items, Zipf skew %.2f%n",
+                orders, lines, days, items, skew);
+        System.out.printf("Record:       %6.0f ns/order (sketch and heap)%n", (double) trackerNanos / orders);
+        System.out.printf("Exact count:  %6.0f ns/order (hash map per window)%n", (double) exactNanos / orders);
+        boolean ok = undercounts == 0;
+        for (Window window : Window.values()) {
+            int w = window.ordinal();
+            double recall = wanted[w] == 0 ? 1.0 : (double) found[w] / wanted[w];
+            System.out.printf("%-5s %4d windows, top %d: %5.1f%% of the exact top found, counts at most %.2f%% over%n",
+                    window, checks[w], top, 100 * recall, 100 * worstOver[w]);
+            ok &= recall >= 0.9;
+        }
+        System.out.printf("Counts below the exact count: %,d%n", undercounts);
+        System.out.println(ok ? "Top sellers match the exact count" : "TOP SELLERS DISAGREE WITH THE EXACT COUNT");
+        return ok;
+    }
+
+    private void compare(TopSellersTracker tracker, Window window, Map<String, Long> exact, LocalDateTime at) {
+        if (exact.isEmpty()) {
+            return;
+        }
+        int w = window.ordinal();
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(exact.entrySet());
+        ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        int expected = Math.min(top, ranked.size());
+        // Items tied with the last of the exact top count as found too
+        long cutoff = ranked.get(expected - 1).getValue();
+        Map<ItemInfo, Long> reported = tracker.getTopSellers(window, top, at);
+        int hits = 0;
+        for (Map.Entry<ItemInfo, Long> entry : reported.entrySet()) {
+            long actual = exact.getOrDefault(entry.getKey().getId(), 0L);
+            if (entry.getValue() < actual) {
+                undercounts++;
+            }
+            if (actual > 0) {
+                worstOver[w] = Math.max(worstOver[w], (double) (entry.getValue() - actual) / actual);
+            }
+            if (actual >= cutoff) {
+                hits++;
+            }
+        }
+        found[w] += Math.min(hits, expected);
+        wanted[w] += expected;
+        checks[w]++;
+    }
+
+    private static LocalDateTime periodStart(Window window, LocalDateTime at) {
+        return switch (window) {
+            case HOUR -> at.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> at.truncatedTo(ChronoUnit.DAYS);
+            case WEEK -> at.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        };
+    }
+}
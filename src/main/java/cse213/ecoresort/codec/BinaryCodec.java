@@ -0,0 +1,411 @@
+package cse213.ecoresort.codec;
+
+import cse213.ecoresort.model.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary codec for menu items and orders.
+ * Records are written straight into a ByteBuffer: every record starts with its
+ * schema version, integers are varints, UUID ids take 16 bytes instead of 36
+ * characters and whole-cent prices are stored as cents.
+ *
+ * The static read/write methods work on caller-owned buffers. An instance keeps
+ * a reusable scratch buffer for encoding and is not thread-safe.
+ */
+public final class BinaryCodec {
+    // Version 2 added the item type to order lines,
+    // version 3 the order's tax mode and each line's tax category and rate,
+    // version 4 the order's version
+    public static final int SCHEMA_VERSION = 4;
+
+    private static final byte FOOD = 0;
+    private static final byte DRINK = 1;
+
+    private static final byte ID_UUID = 0;
+    private static final byte ID_TEXT = 1;
+
+    private static final byte PRICE_CENTS = 0;
+    private static final byte PRICE_RAW = 1;
+
+    private ByteBuffer scratch;
+
+    public BinaryCodec() {
+        this(512);
+    }
+
+    public BinaryCodec(int initialCapacity) {
+        this.scratch = ByteBuffer.allocate(initialCapacity);
+    }
+
+    /**
+     * Encode into the reusable buffer. The returned buffer is ready to read
+     * and stays valid until the next encode call on this codec.
+     */
+    public ByteBuffer encode(Order order) {
+        return encodeWith(out -> writeOrder(out, order));
+    }
+
+    public ByteBuffer encode(MenuItem item) {
+        return encodeWith(out -> writeItem(out, item));
+    }
+
+    public ByteBuffer encodeOrders(List<Order> orders) {
+        return encodeWith(out -> writeOrders(out, orders));
+    }
+
+    public ByteBuffer encodeItems(List<MenuItem> items) {
+        return encodeWith(out -> writeItems(out, items));
+    }
+
+    private ByteBuffer encodeWith(Writer writer) {
+        while (true) {
+            scratch.clear();
+            try {
+                writer.write(scratch);
+                return scratch.flip();
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * Copy the readable bytes of a buffer, for APIs that only take arrays
+     */
+    public static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    // ---- Menu items ----
+
+    public static void writeItem(ByteBuffer out, MenuItem item) {
+        out.put((byte) SCHEMA_VERSION);
+        out.put(item.getType() == MenuItem.ItemType.FOOD ? FOOD : DRINK);
+        writeId(out, item.getId());
+        writeString(out, item.getName());
+        writePrice(out, item.getPrice());
+        writeVarInt(out, item.getStockQty());
+        if (item instanceof FoodItem food) {
+            writeString(out, food.getCuisine());
+            out.put((byte) (food.isVegetarian() ? 1 : 0));
+        } else if (item instanceof DrinkItem drink) {
+            out.put((byte) (drink.isAlcoholic() ? 1 : 0));
+            writeString(out, drink.getTemperature());
+        }
+    }
+
+    public static MenuItem readItem(ByteBuffer in) {
+        checkVersion(in.get());
+        byte kind = in.get();
+        String id = readId(in);
+        String name = readString(in);
+        double price = readPrice(in);
+        int stockQty = readVarInt(in);
+        if (kind == FOOD) {
+            String cuisine = readString(in);
+            return new FoodItem(id, name, price, stockQty, cuisine, in.get() != 0);
+        }
+        boolean alcoholic = in.get() != 0;
+        return new DrinkItem(id, name, price, stockQty, alcoholic, readString(in));
+    }
+
+    public static void writeItems(ByteBuffer out, List<MenuItem> items) {
+        writeVarInt(out, items.size());
+        for (MenuItem item : items) {
+            writeItem(out, item);
+        }
+    }
+
+    public static List<MenuItem> readItems(ByteBuffer in) {
+        int count = readVarInt(in);
+        List<MenuItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(readItem(in));
+        }
+        return items;
+    }
+
+    // ---- Orders ----
+
+    public static void writeOrder(ByteBuffer out, Order order) {
+        writeOrder(out, order, SCHEMA_VERSION);
+    }
+
+    /**
+     * Write the order in an older schema version, for readers that predate the
+     * current one; the fields that version lacks are left out
+     */
+    public static void writeOrder(ByteBuffer out, Order order, int version) {
+        checkVersion(version);
+        out.put((byte) version);
+        writeId(out, order.getId());
+        writeVarInt(out, order.getTableNo());
+        out.put((byte) order.getStatus().ordinal());
+        writeTime(out, order.getCreatedAt());
+        writeTime(out, order.getPaidAt());
+        writePrice(out, order.getDiscount());
+        if (version >= 3) {
+            out.put((byte) order.getTaxMode().ordinal());
+        }
+        List<OrderLine> lines = order.getOrderLines();
+        writeVarInt(out, lines.size());
+        for (OrderLine line : lines) {
+            writeId(out, line.getItemId());
+            writeString(out, line.getItemName());
+            writePrice(out, line.getUnitPrice());
+            writeVarInt(out, line.getQuantity());
+            if (version >= 2) {
+                out.put(line.getItemType() == null ? -1 : (byte) line.getItemType().ordinal());
+            }
+            if (version >= 3) {
+                writeString(out, line.getTaxCategory());
+                // Rates like 0.10 survive the exact-cents check, anything finer is stored raw
+                writePrice(out, line.getTaxRate());
+            }
+        }
+        if (version >= 4) {
+            writeVarInt(out, order.getVersion());
+        }
+    }
+
+    public static Order readOrder(ByteBuffer in) {
+        byte version = in.get();
+        checkVersion(version);
+        String id = readId(in);
+        int tableNo = readVarInt(in);
+        Order.OrderStatus status = Order.OrderStatus.values()[in.get()];
+        LocalDateTime createdAt = readTime(in);
+        LocalDateTime paidAt = readTime(in);
+        double discount = readPrice(in);
+        TaxEngine.TaxMode taxMode = version >= 3
+                ? TaxEngine.TaxMode.values()[in.get()] : TaxEngine.TaxMode.EXCLUSIVE;
+        int lineCount = readVarInt(in);
+        List<OrderLine> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            String itemId = readId(in);
+            String itemName = readString(in);
+            double unitPrice = readPrice(in);
+            int quantity = readVarInt(in);
+            MenuItem.ItemType itemType = null;
+            if (version >= 2) {
+                byte type = in.get();
+                itemType = type < 0 ? null : MenuItem.ItemType.values()[type];
+            }
+            if (version >= 3) {
+                String taxCategory = readString(in);
+                lines.add(new OrderLine(itemId, itemName, unitPrice, itemType, taxCategory, readPrice(in), quantity));
+            } else {
+                // Older records were all taxed at the flat default rate
+                lines.add(new OrderLine(itemId, itemName, unitPrice, itemType, null, TaxEngine.DEFAULT_RATE, quantity));
+            }
+        }
+        Order order = new Order(id, tableNo, status, createdAt, paidAt, lines, discount, taxMode);
+        if (version >= 4) {
+            order.setVersion(readVarInt(in));
+        }
+        return order;
+    }
+
+    public static void writeOrders(ByteBuffer out, List<Order> orders) {
+        writeVarInt(out, orders.size());
+        for (Order order : orders) {
+            writeOrder(out, order);
+        }
+    }
+
+    public static List<Order> readOrders(ByteBuffer in) {
+        int count = readVarInt(in);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(readOrder(in));
+        }
+        return orders;
+    }
+
+    // ---- Field encodings ----
+
+    private static void checkVersion(int version) {
+        if (version < 1 || version > SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported schema version: " + version);
+        }
+    }
+
+    static void writeVarInt(ByteBuffer out, int value) {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    static int readVarInt(ByteBuffer in) {
+        return (int) readVarLong(in);
+    }
+
+    static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IllegalArgumentException("Malformed varint");
+            }
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static void writeId(ByteBuffer out, String id) {
+        if (isCanonicalUuid(id)) {
+            out.put(ID_UUID);
+            out.putLong(parseHex(id, 0, 8) << 32 | parseHex(id, 9, 13) << 16 | parseHex(id, 14, 18));
+            out.putLong(parseHex(id, 19, 23) << 48 | parseHex(id, 24, 36));
+        } else {
+            out.put(ID_TEXT);
+            writeString(out, id);
+        }
+    }
+
+    private static String readId(ByteBuffer in) {
+        byte kind = in.get();
+        if (kind == ID_TEXT) {
+            return readString(in);
+        }
+        long msb = in.getLong();
+        long lsb = in.getLong();
+        char[] chars = new char[36];
+        appendHex(chars, 0, msb >>> 32, 8);
+        chars[8] = '-';
+        appendHex(chars, 9, msb >>> 16, 4);
+        chars[13] = '-';
+        appendHex(chars, 14, msb, 4);
+        chars[18] = '-';
+        appendHex(chars, 19, lsb >>> 48, 4);
+        chars[23] = '-';
+        appendHex(chars, 24, lsb, 12);
+        return new String(chars);
+    }
+
+    // Lower-case canonical form only, so decoding reproduces the exact same string
+    private static boolean isCanonicalUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : !((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String s, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value << 4 | Character.digit(s.charAt(i), 16);
+        }
+        return value;
+    }
+
+    private static void appendHex(char[] chars, int offset, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            chars[offset + i] = Character.forDigit((int) (value & 0xF), 16);
+            value >>>= 4;
+        }
+    }
+
+    private static void writePrice(ByteBuffer out, double price) {
+        long cents = Math.round(price * 100);
+        if (cents >= 0 && cents / 100.0 == price) {
+            out.put(PRICE_CENTS);
+            writeVarLong(out, cents);
+        } else {
+            out.put(PRICE_RAW);
+            out.putDouble(price);
+        }
+    }
+
+    private static double readPrice(ByteBuffer in) {
+        return in.get() == PRICE_CENTS ? readVarLong(in) / 100.0 : in.getDouble();
+    }
+
+    private static void writeTime(ByteBuffer out, LocalDateTime time) {
+        if (time == null) {
+            out.put((byte) 0);
+            return;
+        }
+        out.put((byte) 1);
+        writeVarLong(out, time.toEpochSecond(ZoneOffset.UTC));
+        writeVarInt(out, time.getNano());
+    }
+
+    private static LocalDateTime readTime(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        long epochSecond = readVarLong(in);
+        return LocalDateTime.ofEpochSecond(epochSecond, readVarInt(in), ZoneOffset.UTC);
+    }
+
+    // Length is stored plus one so that zero can mean null
+    private static void writeString(ByteBuffer out, String value) {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        int length = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = value.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            writeVarInt(out, length + 1);
+            if (out.remaining() < length) {
+                throw new BufferOverflowException();
+            }
+            for (int i = 0; i < length; i++) {
+                out.put((byte) value.charAt(i));
+            }
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length + 1);
+            out.put(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (in.hasArray()) {
+            int offset = in.arrayOffset() + in.position();
+            in.position(in.position() + length);
+            return new String(in.array(), offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private interface Writer {
+        void write(ByteBuffer out);
+    }
+}
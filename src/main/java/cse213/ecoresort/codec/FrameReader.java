@@ -0,0 +1,71 @@
+package cse213.ecoresort.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads length-prefixed frames written by FrameWriter, reusing one buffer for every frame
+ */
+public class FrameReader {
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer;
+
+    public FrameReader(ReadableByteChannel channel) {
+        this(channel, 64 * 1024);
+    }
+
+    public FrameReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, FrameWriter.HEADER_BYTES));
+        this.buffer.flip();
+    }
+
+    /**
+     * Return a view of the next frame's payload, valid until the following call,
+     * or null at a clean end of stream
+     */
+    public ByteBuffer next() throws IOException {
+        if (!fill(FrameWriter.HEADER_BYTES)) {
+            if (buffer.hasRemaining()) {
+                throw new EOFException("Truncated frame header");
+            }
+            return null;
+        }
+        int length = buffer.getInt();
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        if (!fill(length)) {
+            throw new EOFException("Truncated frame, expected " + length + " bytes");
+        }
+        ByteBuffer frame = buffer.slice();
+        frame.limit(length);
+        buffer.position(buffer.position() + length);
+        return frame;
+    }
+
+    private boolean fill(int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return true;
+        }
+        if (buffer.capacity() < needed) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(needed, buffer.capacity() * 2));
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < needed) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+}
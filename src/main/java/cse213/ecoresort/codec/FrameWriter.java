@@ -0,0 +1,33 @@
+package cse213.ecoresort.codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+
+/**
+ * Writes length-prefixed frames (4-byte big-endian length, then the payload) to a channel
+ */
+public class FrameWriter {
+    public static final int HEADER_BYTES = 4;
+
+    private final GatheringByteChannel channel;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    private final ByteBuffer[] pair = new ByteBuffer[2];
+
+    public FrameWriter(GatheringByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Write the readable bytes of the payload as one frame
+     */
+    public void write(ByteBuffer payload) throws IOException {
+        header.clear();
+        header.putInt(payload.remaining()).flip();
+        pair[0] = header;
+        pair[1] = payload;
+        while (header.hasRemaining() || payload.hasRemaining()) {
+            channel.write(pair);
+        }
+    }
+}
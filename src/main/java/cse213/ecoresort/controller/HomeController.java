@@ -1,5 +1,6 @@
 package cse213.ecoresort.controller;
 
+import cse213.ecoresort.app.ApplicationContext;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -11,11 +12,16 @@ import javafx.stage.Stage;
 import java.io.IOException;
 
 public class HomeController {
+    private final ApplicationContext context;
+
+    public HomeController(ApplicationContext context) {
+        this.context = context;
+    }
 
     @FXML
     private void handleNewOrder() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/cse213/ecoresort/view/Order.fxml"));
+            FXMLLoader loader = context.loader("Order.fxml");
             Parent root = loader.load();
             
             Stage stage = new Stage();
@@ -33,7 +39,7 @@ public class HomeController {
     @FXML
     private void handleMenuManager() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/cse213/ecoresort/view/MenuManager.fxml"));
+            FXMLLoader loader = context.loader("MenuManager.fxml");
             Parent root = loader.load();
             
             Stage stage = new Stage();
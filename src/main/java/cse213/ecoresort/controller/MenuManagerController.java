@@ -12,9 +12,12 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Callback;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Optional;
 
 public class MenuManagerController {
@@ -43,10 +46,14 @@ public class MenuManagerController {
     
     @FXML private Label validationLabel;
     
-    private final MenuService menuService = new MenuService();
+    private final MenuService menuService;
     private final ObservableList<cse213.ecoresort.model.MenuItem> menuItems = FXCollections.observableArrayList();
     private cse213.ecoresort.model.MenuItem selectedItem;
     private boolean isEditMode = false;
+
+    public MenuManagerController(MenuService menuService) {
+        this.menuService = menuService;
+    }
     
     @FXML
     public void initialize() {
@@ -301,6 +308,53 @@ public class MenuManagerController {
         drinkFields.setVisible(false);
     }
     
+    @FXML
+    private void handleImportItems() {
+        FileChooser chooser = catalogChooser("Import Menu");
+        File file = chooser.showOpenDialog(nameField.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            MenuService.ImportResult result = menuService.importItems(file.toPath());
+            loadMenuItems();
+            StringBuilder message = new StringBuilder("Imported " + file.getName() + ": " + result);
+            for (String error : result.getErrors().subList(0, Math.min(10, result.getErrors().size()))) {
+                message.append('\n').append(error);
+            }
+            showAlert("Import Complete", message.toString());
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("ERROR: Menu import failed: " + e.getMessage());
+            showAlert("Error", "Failed to import menu: " + e.getMessage());
+        }
+    }
+
+    @FXML
+    private void handleExportItems() {
+        FileChooser chooser = catalogChooser("Export Menu");
+        chooser.setInitialFileName("menu.csv");
+        File file = chooser.showSaveDialog(nameField.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            int count = menuService.exportItems(file.toPath());
+            showAlert("Export Complete", "Exported " + count + " items to " + file.getName());
+        } catch (IOException e) {
+            System.err.println("ERROR: Menu export failed: " + e.getMessage());
+            showAlert("Error", "Failed to export menu: " + e.getMessage());
+        }
+    }
+
+    private FileChooser catalogChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV catalogue", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON catalogue", "*.json"));
+        return chooser;
+    }
+
     @FXML
     private void handleBackToHome() {
         ((Stage) nameField.getScene().getWindow()).close();
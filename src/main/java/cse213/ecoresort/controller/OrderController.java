@@ -1,5 +1,6 @@
 package cse213.ecoresort.controller;
 
+import cse213.ecoresort.app.ApplicationContext;
 import cse213.ecoresort.model.MenuItem;
 import cse213.ecoresort.model.Order;
 import cse213.ecoresort.model.OrderLine;
@@ -23,6 +24,7 @@ import java.util.Optional;
 public class OrderController {
     
     @FXML private TextField tableNumberField;
+    @FXML private TextField menuSearchField;
     @FXML private Spinner<Integer> quantitySpinner;
     @FXML private ComboBox<String> discountComboBox;
     
@@ -44,11 +46,18 @@ public class OrderController {
     @FXML private Label discountLabel;
     @FXML private Label totalLabel;
     
-    private final MenuService menuService = new MenuService();
-    private final OrderService orderService = new OrderService();
+    private final MenuService menuService;
+    private final OrderService orderService;
+    private final ApplicationContext context;
     private Order currentOrder;
     private final ObservableList<MenuItem> menuItems = FXCollections.observableArrayList();
     private final ObservableList<OrderLine> orderLines = FXCollections.observableArrayList();
+
+    public OrderController(MenuService menuService, OrderService orderService, ApplicationContext context) {
+        this.menuService = menuService;
+        this.orderService = orderService;
+        this.context = context;
+    }
     
     @FXML
     public void initialize() {
@@ -88,7 +97,7 @@ public class OrderController {
     }
     
     private void setupDiscountComboBox() {
-        discountComboBox.getItems().addAll("No Discount", "5%", "10%", "15%");
+        discountComboBox.getItems().addAll("No Discount", "5%", "10%", "15%", "Promotions");
         discountComboBox.setValue("No Discount");
     }
     
@@ -102,6 +111,8 @@ public class OrderController {
         
         menuItemsTable.setItems(menuItems);
         menuItemsTable.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
+        
+        menuSearchField.textProperty().addListener((observable, oldValue, newValue) -> loadMenuItems());
     }
     
     private void setupOrderLinesTable() {
@@ -143,8 +154,14 @@ public class OrderController {
     }
     
     private void loadMenuItems() {
-        menuItems.clear();
-        menuItems.addAll(menuService.getAvailableItems());
+        String query = menuSearchField.getText();
+        if (query == null || query.isBlank()) {
+            menuItems.setAll(menuService.getAvailableItems());
+        } else {
+            menuItems.setAll(menuService.searchItems(query).stream()
+                    .filter(MenuItem::isAvailable)
+                    .toList());
+        }
     }
     
     @FXML
@@ -191,6 +208,7 @@ public class OrderController {
         
         boolean added = orderService.addItemToOrder(currentOrder.getId(), selectedItem.getId(), quantity);
         if (added) {
+            refreshCurrentOrder();
             loadOrderLines();
             updateOrderDisplay();
             showAlert("Item Added", selectedItem.getName() + " added to order.");
@@ -204,6 +222,7 @@ public class OrderController {
         
         boolean removed = orderService.removeItemFromOrder(currentOrder.getId(), line.getItemId());
         if (removed) {
+            refreshCurrentOrder();
             loadOrderLines();
             updateOrderDisplay();
         }
@@ -217,12 +236,18 @@ public class OrderController {
         }
         
         String selectedDiscount = discountComboBox.getValue();
-        if (selectedDiscount == null || selectedDiscount.equals("No Discount")) {
-            currentOrder.setDiscount(0.0);
-        } else {
-            double percentage = Double.parseDouble(selectedDiscount.replace("%", ""));
-            orderService.applyDiscount(currentOrder.getId(), percentage);
+        if ("Promotions".equals(selectedDiscount)) {
+            orderService.applyDiscountRules(currentOrder.getId());
+            refreshCurrentOrder();
+            updateOrderDisplay();
+            return;
+        }
+        double percentage = 0.0;
+        if (selectedDiscount != null && !selectedDiscount.equals("No Discount")) {
+            percentage = Double.parseDouble(selectedDiscount.replace("%", ""));
         }
+        orderService.applyDiscount(currentOrder.getId(), percentage);
+        refreshCurrentOrder();
         
         updateOrderDisplay();
     }
@@ -254,7 +279,7 @@ public class OrderController {
         
         try {
             System.out.println("DEBUG: Creating FXMLLoader for Payment.fxml");
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/cse213/ecoresort/view/Payment.fxml"));
+            FXMLLoader loader = context.loader("Payment.fxml");
             
             if (loader.getLocation() == null) {
                 System.err.println("ERROR: Payment.fxml resource not found!");
@@ -284,6 +309,7 @@ public class OrderController {
             Stage stage = new Stage();
             stage.setTitle("Payment - Eco-Resort");
             stage.setScene(new Scene(root, 600, 500));
+            stage.setOnHidden(event -> paymentController.handleWindowClosed());
             
             System.out.println("DEBUG: Showing Payment stage");
             stage.show();
@@ -322,6 +348,13 @@ public class OrderController {
         ((Stage) tableNumberField.getScene().getWindow()).close();
     }
     
+    // Shared repositories return fresh copies, so re-read the order after each change
+    private void refreshCurrentOrder() {
+        if (currentOrder != null) {
+            orderService.getOrderById(currentOrder.getId()).ifPresent(order -> currentOrder = order);
+        }
+    }
+    
     private void loadOrderLines() {
         if (currentOrder != null) {
             orderLines.clear();
@@ -1,5 +1,6 @@
 package cse213.ecoresort.controller;
 
+import cse213.ecoresort.app.ApplicationContext;
 import cse213.ecoresort.model.*;
 import cse213.ecoresort.service.PaymentService;
 import javafx.fxml.FXML;
@@ -20,6 +21,7 @@ public class PaymentController {
     @FXML private Label taxLabel;
     @FXML private Label discountLabel;
     @FXML private Label totalLabel;
+    @FXML private Label balanceLabel;
     @FXML private Label cashChangeLabel;
     
     @FXML private ToggleGroup paymentMethodGroup;
@@ -29,11 +31,18 @@ public class PaymentController {
     @FXML private VBox cashInputSection;
     @FXML private VBox cardInputSection;
     
+    @FXML private TextField tenderAmountField;
     @FXML private TextField cashGivenField;
     @FXML private TextField cardNumberField;
     
     private Order order;
-    private final PaymentService paymentService = new PaymentService();
+    private final PaymentService paymentService;
+    private final ApplicationContext context;
+
+    public PaymentController(PaymentService paymentService, ApplicationContext context) {
+        this.paymentService = paymentService;
+        this.context = context;
+    }
     
     @FXML
     public void initialize() {
@@ -72,7 +81,7 @@ public class PaymentController {
             try {
                 if (!newValue.isEmpty()) {
                     double cashGiven = Double.parseDouble(newValue);
-                    double change = cashGiven - order.getTotal();
+                    double change = cashGiven - amountDue();
                     if (change >= 0) {
                         cashChangeLabel.setText(String.format("Change: $%.2f", change));
                         cashChangeLabel.setStyle("-fx-text-fill: #4CAF50;");
@@ -93,8 +102,18 @@ public class PaymentController {
     
     public void setOrder(Order order) {
         this.order = order;
+        paymentService.beginPayment(order);
         updateDisplay();
     }
+
+    /**
+     * Called when the payment window closes, paid or not
+     */
+    public void handleWindowClosed() {
+        if (order != null && order.isDraft()) {
+            paymentService.cancelPayment(order.getId());
+        }
+    }
     
     private void updateDisplay() {
         if (order != null) {
@@ -104,6 +123,18 @@ public class PaymentController {
             taxLabel.setText(String.format("$%.2f", order.getTax()));
             discountLabel.setText(String.format("$%.2f", order.getDiscount()));
             totalLabel.setText(String.format("$%.2f", order.getTotal()));
+            balanceLabel.setText(String.format("$%.2f", paymentService.getOutstandingBalance(order)));
+        }
+    }
+
+    // What this tender pays: the amount entered, or else the whole balance
+    private double amountDue() {
+        double balance = paymentService.getOutstandingBalance(order);
+        try {
+            String text = tenderAmountField.getText().trim();
+            return text.isEmpty() ? balance : Math.min(Double.parseDouble(text), balance);
+        } catch (NumberFormatException e) {
+            return balance;
         }
     }
     
@@ -114,6 +145,21 @@ public class PaymentController {
             return;
         }
         
+        double tenderAmount = 0.0;
+        String amountText = tenderAmountField.getText().trim();
+        if (!amountText.isEmpty()) {
+            try {
+                tenderAmount = Double.parseDouble(amountText);
+            } catch (NumberFormatException e) {
+                showAlert("Invalid Amount", "Please enter a valid amount to pay.");
+                return;
+            }
+            if (tenderAmount <= 0) {
+                showAlert("Invalid Amount", "Amount to pay must be positive.");
+                return;
+            }
+        }
+        
         PaymentInput paymentInput;
         
         if (cashRadioButton.isSelected()) {
@@ -123,7 +169,7 @@ public class PaymentController {
                     showAlert("Invalid Amount", "Cash amount must be positive.");
                     return;
                 }
-                paymentInput = PaymentInput.forCash(cashGiven);
+                paymentInput = PaymentInput.forCashTender(cashGiven, tenderAmount);
             } catch (NumberFormatException e) {
                 showAlert("Invalid Amount", "Please enter a valid cash amount.");
                 return;
@@ -134,16 +180,27 @@ public class PaymentController {
                 showAlert("Invalid Card", "Please enter a card number.");
                 return;
             }
-            paymentInput = PaymentInput.forCard(cardNumber);
+            paymentInput = PaymentInput.forCardTender(cardNumber, tenderAmount);
         } else {
             showAlert("Payment Method", "Please select a payment method.");
             return;
         }
         
         // Process payment
-        PaymentResult result = paymentService.processPayment(order.getId(), paymentInput);
+        PaymentResult result = paymentService.processTender(order.getId(), paymentInput);
         
-        if (result.isSuccess()) {
+        if (result.isSuccess() && !result.isPaidInFull()) {
+            // Part of a split bill; stay open for the next tender
+            showAlert("Partial Payment", result.getMessage());
+            if (result.getChange() > 0) {
+                showAlert("Change", String.format("Change: $%.2f", result.getChange()));
+            }
+            tenderAmountField.clear();
+            cashGivenField.clear();
+            cardNumberField.clear();
+            updateDisplay();
+        } else if (result.isSuccess()) {
+            paymentService.getOrderById(order.getId()).ifPresent(paid -> order = paid);
             showAlert("Payment Successful", result.getMessage());
             if (result.getChange() > 0) {
                 showAlert("Change", String.format("Change: $%.2f", result.getChange()));
@@ -166,7 +223,7 @@ public class PaymentController {
         
         try {
             System.out.println("DEBUG: Creating FXMLLoader for Receipt.fxml");
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/cse213/ecoresort/view/Receipt.fxml"));
+            FXMLLoader loader = context.loader("Receipt.fxml");
             
             if (loader.getLocation() == null) {
                 System.err.println("ERROR: Receipt.fxml resource not found!");
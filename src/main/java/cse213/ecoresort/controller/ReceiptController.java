@@ -2,15 +2,20 @@ package cse213.ecoresort.controller;
 
 import cse213.ecoresort.model.Order;
 import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.service.ReceiptRenderer;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
+import java.io.IOException;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 public class ReceiptController {
     
@@ -31,6 +36,7 @@ public class ReceiptController {
     @FXML private TableColumn<OrderLine, String> itemTotalColumn;
     
     private Order order;
+    private final ReceiptRenderer receiptRenderer = new ReceiptRenderer();
     private final ObservableList<OrderLine> orderItems = FXCollections.observableArrayList();
     
     @FXML
@@ -102,17 +108,37 @@ public class ReceiptController {
     
     @FXML
     private void handlePrint() {
-        // In a real application, this would implement actual printing
-        // For now, just show a message
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Print Receipt");
-        alert.setHeaderText(null);
-        alert.setContentText("Receipt printing functionality would be implemented here.\n" +
-                           "This could include:\n" +
-                           "• Sending to printer\n" +
-                           "• Saving as PDF\n" +
-                           "• Email receipt");
-        alert.showAndWait();
+        if (order == null) {
+            return;
+        }
+        // Plain text for reprints and email, .bin for raw ESC/POS printer output
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Save Receipt");
+        chooser.setInitialFileName("receipt-" + order.getId() + ".txt");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Text receipt", "*.txt"),
+                new FileChooser.ExtensionFilter("ESC/POS printer data", "*.bin"));
+        File file = chooser.showSaveDialog(tableNumberLabel.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        ReceiptRenderer.Format format = file.getName().endsWith(".bin")
+                ? ReceiptRenderer.Format.ESC_POS : ReceiptRenderer.Format.TEXT;
+        try {
+            receiptRenderer.export(List.of(order), file.toPath(), format);
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Print Receipt");
+            alert.setHeaderText(null);
+            alert.setContentText("Receipt saved to " + file.getAbsolutePath());
+            alert.showAndWait();
+        } catch (IOException e) {
+            System.err.println("ERROR: Failed to save receipt: " + e.getMessage());
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Print Receipt");
+            alert.setHeaderText(null);
+            alert.setContentText("Could not save the receipt: " + e.getMessage());
+            alert.showAndWait();
+        }
     }
     
     @FXML
@@ -2,7 +2,7 @@ package cse213.ecoresort.model;
 
 public class CardPayment implements PaymentMethod {
     @Override
-    public PaymentResult processPayment(Order order, PaymentInput input) {
+    public PaymentResult processPayment(Order order, PaymentInput input, double amountDue) {
         if (input.getType() != PaymentInput.PaymentType.CARD) {
             return PaymentResult.failure("Invalid payment type for card payment");
         }
@@ -2,20 +2,20 @@ package cse213.ecoresort.model;
 
 public class CashPayment implements PaymentMethod {
     @Override
-    public PaymentResult processPayment(Order order, PaymentInput input) {
+    public PaymentResult processPayment(Order order, PaymentInput input, double amountDue) {
         if (input.getType() != PaymentInput.PaymentType.CASH) {
             return PaymentResult.failure("Invalid payment type for cash payment");
         }
 
         double cashGiven = input.getCashGiven();
-        double total = order.getTotal();
 
-        if (cashGiven < total) {
-            return PaymentResult.failure("Insufficient cash. Total: $" + String.format("%.2f", total) + 
+        // Compare in cents so 10.10 given against 10.10 due is never a cent short
+        if (Math.round(cashGiven * 100) < Math.round(amountDue * 100)) {
+            return PaymentResult.failure("Insufficient cash. Due: $" + String.format("%.2f", amountDue) + 
                                        ", Given: $" + String.format("%.2f", cashGiven));
         }
 
-        double change = cashGiven - total;
+        double change = Math.max(0.0, cashGiven - amountDue);
         return PaymentResult.success("Cash payment successful", change);
     }
 
@@ -0,0 +1,209 @@
+package cse213.ecoresort.model;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A promotion rule evaluated by the DiscountRuleEngine.
+ * Rules are immutable: the static factories create a rule and the with/during
+ * methods return adjusted copies. Higher priority rules are applied first; a
+ * rule that is not stackable only applies when no other rule has applied to
+ * the same line (or order) before it, and stops evaluation after it.
+ */
+public final class DiscountRule implements DiscountStrategy {
+    private final String id;
+    private final String name;
+    private final Kind kind;
+    private final String itemId;
+    private final MenuItem.ItemType itemType;
+    private final List<String> comboItemIds;
+    private final double value;
+    private final int buyQuantity;
+    private final int freeQuantity;
+    private final int priority;
+    private final boolean stackable;
+    private final LocalTime activeFrom;
+    private final LocalTime activeUntil;
+
+    private DiscountRule(String id, String name, Kind kind, String itemId, MenuItem.ItemType itemType,
+                         List<String> comboItemIds, double value, int buyQuantity, int freeQuantity,
+                         int priority, boolean stackable, LocalTime activeFrom, LocalTime activeUntil) {
+        this.id = id;
+        this.name = name;
+        this.kind = kind;
+        this.itemId = itemId;
+        this.itemType = itemType;
+        this.comboItemIds = comboItemIds;
+        this.value = value;
+        this.buyQuantity = buyQuantity;
+        this.freeQuantity = freeQuantity;
+        this.priority = priority;
+        this.stackable = stackable;
+        this.activeFrom = activeFrom;
+        this.activeUntil = activeUntil;
+    }
+
+    // Factories
+
+    public static DiscountRule orderPercentage(String name, double percentage) {
+        checkPercentage(percentage);
+        return new DiscountRule(newId(), name, Kind.ORDER_PERCENTAGE, null, null, List.of(),
+                percentage, 0, 0, 0, false, null, null);
+    }
+
+    public static DiscountRule itemPercentage(String name, String itemId, double percentage) {
+        checkPercentage(percentage);
+        requireText(itemId, "Item ID");
+        return new DiscountRule(newId(), name, Kind.ITEM_PERCENTAGE, itemId, null, List.of(),
+                percentage, 0, 0, 0, false, null, null);
+    }
+
+    public static DiscountRule typePercentage(String name, MenuItem.ItemType type, double percentage) {
+        checkPercentage(percentage);
+        if (type == null) {
+            throw new IllegalArgumentException("Item type is required");
+        }
+        return new DiscountRule(newId(), name, Kind.TYPE_PERCENTAGE, null, type, List.of(),
+                percentage, 0, 0, 0, false, null, null);
+    }
+
+    /**
+     * For every buyQuantity units of the item, freeQuantity further units are free
+     */
+    public static DiscountRule buyGetFree(String name, String itemId, int buyQuantity, int freeQuantity) {
+        requireText(itemId, "Item ID");
+        if (buyQuantity <= 0 || freeQuantity <= 0) {
+            throw new IllegalArgumentException("Buy and free quantities must be positive");
+        }
+        return new DiscountRule(newId(), name, Kind.BUY_GET_FREE, itemId, null, List.of(),
+                0.0, buyQuantity, freeQuantity, 0, false, null, null);
+    }
+
+    /**
+     * One of each listed item together for a fixed price
+     */
+    public static DiscountRule combo(String name, double comboPrice, String... itemIds) {
+        if (comboPrice < 0) {
+            throw new IllegalArgumentException("Combo price cannot be negative");
+        }
+        if (itemIds.length < 2) {
+            throw new IllegalArgumentException("A combo needs at least two items");
+        }
+        for (String comboItemId : itemIds) {
+            requireText(comboItemId, "Item ID");
+        }
+        if (List.of(itemIds).stream().distinct().count() != itemIds.length) {
+            throw new IllegalArgumentException("Combo items must be distinct");
+        }
+        return new DiscountRule(newId(), name, Kind.COMBO, null, null, List.of(itemIds),
+                comboPrice, 0, 0, 0, false, null, null);
+    }
+
+    // Copies with adjusted settings
+
+    public DiscountRule withPriority(int priority) {
+        return new DiscountRule(id, name, kind, itemId, itemType, comboItemIds, value, buyQuantity,
+                freeQuantity, priority, stackable, activeFrom, activeUntil);
+    }
+
+    public DiscountRule withStackable(boolean stackable) {
+        return new DiscountRule(id, name, kind, itemId, itemType, comboItemIds, value, buyQuantity,
+                freeQuantity, priority, stackable, activeFrom, activeUntil);
+    }
+
+    /**
+     * Limit the rule to a daily window, e.g. happy hour. A window may run past midnight.
+     */
+    public DiscountRule during(LocalTime from, LocalTime until) {
+        if (from == null || until == null || from.equals(until)) {
+            throw new IllegalArgumentException("Active window needs distinct start and end times");
+        }
+        return new DiscountRule(id, name, kind, itemId, itemType, comboItemIds, value, buyQuantity,
+                freeQuantity, priority, stackable, from, until);
+    }
+
+    // DiscountStrategy, for the percentage kinds
+
+    @Override
+    public double apply(double amount) {
+        return kind.isPercentage() ? amount * (value / 100.0) : 0.0;
+    }
+
+    @Override
+    public String getDescription() {
+        return name;
+    }
+
+    /**
+     * Discount on a single line, for the line-level kinds
+     */
+    public double applyToLine(double unitPrice, int quantity) {
+        if (kind == Kind.BUY_GET_FREE) {
+            int freeUnits = quantity / (buyQuantity + freeQuantity) * freeQuantity;
+            int remainder = quantity % (buyQuantity + freeQuantity);
+            freeUnits += Math.max(0, remainder - buyQuantity);
+            return freeUnits * unitPrice;
+        }
+        return apply(unitPrice * quantity);
+    }
+
+    public boolean isActiveAt(LocalTime time) {
+        if (activeFrom == null) {
+            return true;
+        }
+        if (activeFrom.isBefore(activeUntil)) {
+            return !time.isBefore(activeFrom) && time.isBefore(activeUntil);
+        }
+        return !time.isBefore(activeFrom) || time.isBefore(activeUntil);
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public Kind getKind() { return kind; }
+    public String getItemId() { return itemId; }
+    public MenuItem.ItemType getItemType() { return itemType; }
+    public List<String> getComboItemIds() { return comboItemIds; }
+    public double getPercentage() { return kind.isPercentage() ? value : 0.0; }
+    public double getComboPrice() { return kind == Kind.COMBO ? value : 0.0; }
+    public int getBuyQuantity() { return buyQuantity; }
+    public int getFreeQuantity() { return freeQuantity; }
+    public int getPriority() { return priority; }
+    public boolean isStackable() { return stackable; }
+    public LocalTime getActiveFrom() { return activeFrom; }
+    public LocalTime getActiveUntil() { return activeUntil; }
+
+    @Override
+    public String toString() {
+        return name + " (" + kind + ", priority " + priority + (stackable ? ", stackable" : "") + ")";
+    }
+
+    private static String newId() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static void checkPercentage(double percentage) {
+        if (percentage < 0 || percentage > 100) {
+            throw new IllegalArgumentException("Percentage must be between 0 and 100");
+        }
+    }
+
+    private static void requireText(String value, String field) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException(field + " cannot be empty");
+        }
+    }
+
+    public enum Kind {
+        ORDER_PERCENTAGE,
+        ITEM_PERCENTAGE,
+        TYPE_PERCENTAGE,
+        BUY_GET_FREE,
+        COMBO;
+
+        public boolean isPercentage() {
+            return this == ORDER_PERCENTAGE || this == ITEM_PERCENTAGE || this == TYPE_PERCENTAGE;
+        }
+    }
+}
@@ -10,6 +10,12 @@ public class DrinkItem extends MenuItem {
         this.temperature = temperature;
     }
 
+    public DrinkItem(String id, String name, double price, int stockQty, boolean isAlcoholic, String temperature) {
+        super(id, name, price, stockQty, ItemType.DRINK);
+        this.isAlcoholic = isAlcoholic;
+        this.temperature = temperature;
+    }
+
     public boolean isAlcoholic() { return isAlcoholic; }
     public void setAlcoholic(boolean alcoholic) { isAlcoholic = alcoholic; }
     
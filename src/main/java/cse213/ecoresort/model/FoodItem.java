@@ -10,6 +10,12 @@ public class FoodItem extends MenuItem {
         this.isVegetarian = isVegetarian;
     }
 
+    public FoodItem(String id, String name, double price, int stockQty, String cuisine, boolean isVegetarian) {
+        super(id, name, price, stockQty, ItemType.FOOD);
+        this.cuisine = cuisine;
+        this.isVegetarian = isVegetarian;
+    }
+
     public String getCuisine() { return cuisine; }
     public void setCuisine(String cuisine) { this.cuisine = cuisine; }
     
@@ -0,0 +1,86 @@
+package cse213.ecoresort.model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The item details an order line keeps: id, name, type and tax category.
+ * Instances are pooled by item id, so every line for the same dish shares
+ * one copy instead of holding its own strings. A renamed item gets a new
+ * instance; lines created before the rename keep the old one.
+ *
+ * The pool holds its instances weakly: once no line refers to an item's
+ * details, e.g. after the item is deleted and its orders are gone, the
+ * entry is cleared and dropped on a later call, so the pool never outgrows
+ * the lines in memory.
+ */
+public final class ItemInfo {
+    private static final ConcurrentHashMap<String, PooledRef> POOL = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<ItemInfo> CLEARED = new ReferenceQueue<>();
+
+    private final String id;
+    private final String name;
+    private final MenuItem.ItemType type;
+    private final String taxCategory;
+
+    private ItemInfo(String id, String name, MenuItem.ItemType type, String taxCategory) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.taxCategory = taxCategory;
+    }
+
+    /**
+     * The shared instance for these details, replacing the pooled one if they changed
+     */
+    public static ItemInfo of(String id, String name, MenuItem.ItemType type, String taxCategory) {
+        dropCleared();
+        ItemInfo[] shared = new ItemInfo[1];
+        POOL.compute(id, (key, ref) -> {
+            ItemInfo pooled = ref != null ? ref.get() : null;
+            if (pooled != null && pooled.matches(name, type, taxCategory)) {
+                shared[0] = pooled;
+                return ref;
+            }
+            // Keep the pooled copies of the strings so a decoded line does not retain its own
+            shared[0] = new ItemInfo(pooled != null ? pooled.id : key,
+                    pooled != null && Objects.equals(pooled.name, name) ? pooled.name : name, type, taxCategory);
+            return new PooledRef(shared[0]);
+        });
+        return shared[0];
+    }
+
+    public static ItemInfo of(MenuItem item) {
+        return of(item.getId(), item.getName(), item.getType(), TaxEngine.categoryOf(item));
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public MenuItem.ItemType getType() { return type; }
+    public String getTaxCategory() { return taxCategory; }
+
+    // Only removes the entry if it still holds the cleared reference, not a newer one
+    private static void dropCleared() {
+        Reference<? extends ItemInfo> cleared;
+        while ((cleared = CLEARED.poll()) != null) {
+            PooledRef ref = (PooledRef) cleared;
+            POOL.remove(ref.id, ref);
+        }
+    }
+
+    private boolean matches(String name, MenuItem.ItemType type, String taxCategory) {
+        return Objects.equals(this.name, name) && this.type == type && Objects.equals(this.taxCategory, taxCategory);
+    }
+
+    private static final class PooledRef extends WeakReference<ItemInfo> {
+        private final String id;
+
+        private PooledRef(ItemInfo info) {
+            super(info, CLEARED);
+            this.id = info.id;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package cse213.ecoresort.model;
+
+import java.util.List;
+
+/**
+ * The part of an order one kitchen station has to prepare
+ */
+public class KitchenTicket {
+    private final String orderId;
+    private final int tableNo;
+    private final MenuItem.ItemType station;
+    private final List<OrderLine> lines;
+    private final long createdNanos;
+
+    public KitchenTicket(String orderId, int tableNo, MenuItem.ItemType station, List<OrderLine> lines) {
+        this.orderId = orderId;
+        this.tableNo = tableNo;
+        this.station = station;
+        this.lines = List.copyOf(lines);
+        this.createdNanos = System.nanoTime();
+    }
+
+    public String getOrderId() { return orderId; }
+    public int getTableNo() { return tableNo; }
+    public MenuItem.ItemType getStation() { return station; }
+    public List<OrderLine> getLines() { return lines; }
+    public long getCreatedNanos() { return createdNanos; }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(station + " ticket - Table " + tableNo + ":");
+        for (OrderLine line : lines) {
+            text.append(' ').append(line.getQuantity()).append("x ").append(line.getItemName()).append(';');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package cse213.ecoresort.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class LowStockAlert {
+    private final String itemId;
+    private final String itemName;
+    private final int stockQty;
+    private final int threshold;
+    private final Level level;
+    private final Duration estimatedTimeToSellOut;
+    private final LocalDateTime createdAt;
+
+    public LowStockAlert(String itemId, String itemName, int stockQty, int threshold, Level level,
+                         Duration estimatedTimeToSellOut) {
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.stockQty = stockQty;
+        this.threshold = threshold;
+        this.level = level;
+        this.estimatedTimeToSellOut = estimatedTimeToSellOut;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public String getItemId() { return itemId; }
+    public String getItemName() { return itemName; }
+    public int getStockQty() { return stockQty; }
+    public int getThreshold() { return threshold; }
+    public Level getLevel() { return level; }
+    // Null when the item has not sold recently enough to estimate
+    public Duration getEstimatedTimeToSellOut() { return estimatedTimeToSellOut; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    @Override
+    public String toString() {
+        String eta = estimatedTimeToSellOut == null ? ""
+                : String.format(", sells out in ~%d min", estimatedTimeToSellOut.toMinutes());
+        return level + ": " + itemName + " has " + stockQty + " left (threshold " + threshold + eta + ")";
+    }
+
+    public enum Level {
+        LOW("Low Stock"),
+        SOLD_OUT("Sold Out");
+
+        private final String displayName;
+
+        Level(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+}
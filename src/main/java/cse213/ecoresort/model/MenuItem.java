@@ -3,15 +3,22 @@ package cse213.ecoresort.model;
 import java.util.UUID;
 
 public abstract class MenuItem {
+    private static volatile StockListener stockListener;
+
     private final String id;
     private String name;
     private double price;
-    private int stockQty;
-    private boolean available;
+    private volatile int stockQty;
+    private volatile boolean available;
     private final ItemType type;
 
     public MenuItem(String name, double price, int stockQty, ItemType type) {
-        this.id = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString(), name, price, stockQty, type);
+    }
+
+    // Used when restoring an existing item, e.g. from another terminal
+    protected MenuItem(String id, String name, double price, int stockQty, ItemType type) {
+        this.id = id;
         this.name = name;
         this.price = price;
         this.stockQty = stockQty;
@@ -33,10 +40,12 @@ public abstract class MenuItem {
     }
     
     public int getStockQty() { return stockQty; }
-    public void setStockQty(int stockQty) { 
+    public synchronized void setStockQty(int stockQty) { 
         if (stockQty >= 0) {
+            int previous = this.stockQty;
             this.stockQty = stockQty;
             this.available = stockQty > 0;
+            notifyStockChanged(previous);
         }
     }
     
@@ -44,26 +53,44 @@ public abstract class MenuItem {
     public ItemType getType() { return type; }
 
     // Business methods demonstrating encapsulation
-    public boolean decreaseStock(int quantity) {
+    // Stock mutations are synchronized so concurrent tills cannot oversell an item
+    public synchronized boolean decreaseStock(int quantity) {
         if (quantity > 0 && stockQty >= quantity) {
             stockQty -= quantity;
             available = stockQty > 0;
+            notifyStockChanged(stockQty + quantity);
             return true;
         }
         return false;
     }
 
-    public void increaseStock(int quantity) {
+    public synchronized void increaseStock(int quantity) {
         if (quantity > 0) {
             stockQty += quantity;
             available = true;
+            notifyStockChanged(stockQty - quantity);
         }
     }
 
-    public boolean hasStock(int quantity) {
+    public synchronized boolean hasStock(int quantity) {
         return stockQty >= quantity && available;
     }
 
+    /**
+     * Install the hook called after every stock change, e.g. the low-stock monitor
+     */
+    public static void setStockListener(StockListener listener) {
+        stockListener = listener;
+    }
+
+    // Called with the item locked, so a listener sees each item's changes in order
+    private void notifyStockChanged(int previousQty) {
+        StockListener listener = stockListener;
+        if (listener != null && previousQty != stockQty) {
+            listener.stockChanged(this, previousQty, stockQty);
+        }
+    }
+
     // Abstract method for subclasses to implement
     public abstract String getDescription();
 
@@ -1,32 +1,58 @@
 package cse213.ecoresort.model;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
 public class Order {
+    private static final OrderLine[] NO_LINES = new OrderLine[0];
+    private static final long NOT_PAID = Long.MIN_VALUE;
+
     private final String id;
     private int tableNo;
     private OrderStatus status;
-    private final List<OrderLine> orderLines;
-    private final LocalDateTime createdAt;
-    private LocalDateTime paidAt;
+    // Exactly as long as the number of lines; most orders have only a few
+    private OrderLine[] orderLines;
+    // Microseconds since 1970-01-01T00:00 read as UTC, the precision the database keeps
+    private final long createdAt;
+    private long paidAt;
     private double subtotal;
     private double tax;
     private double discount;
     private double total;
+    private TaxEngine.TaxMode taxMode;
+    // Saves accepted by the order server; a till's save must carry the version it last read
+    private int version;
 
     public Order(int tableNo) {
         this.id = UUID.randomUUID().toString();
         this.tableNo = tableNo;
         this.status = OrderStatus.DRAFT;
-        this.orderLines = new ArrayList<>();
-        this.createdAt = LocalDateTime.now();
+        this.orderLines = NO_LINES;
+        this.createdAt = toMicros(LocalDateTime.now());
+        this.paidAt = NOT_PAID;
         this.subtotal = 0.0;
         this.tax = 0.0;
         this.discount = 0.0;
         this.total = 0.0;
+        this.taxMode = TaxEngine.getInstance().getMode();
+    }
+
+    // Used when restoring an existing order, e.g. from another terminal
+    public Order(String id, int tableNo, OrderStatus status, LocalDateTime createdAt, LocalDateTime paidAt,
+                 List<OrderLine> orderLines, double discount, TaxEngine.TaxMode taxMode) {
+        this.id = id;
+        this.tableNo = tableNo;
+        this.status = status;
+        this.orderLines = orderLines.toArray(NO_LINES);
+        this.createdAt = toMicros(createdAt);
+        this.paidAt = paidAt == null ? NOT_PAID : toMicros(paidAt);
+        this.discount = discount;
+        this.taxMode = taxMode;
+        recalculateTotals();
     }
 
     // Getters
@@ -36,13 +62,19 @@ public class Order {
         if (tableNo > 0) this.tableNo = tableNo; 
     }
     public OrderStatus getStatus() { return status; }
-    public List<OrderLine> getOrderLines() { return new ArrayList<>(orderLines); } // Defensive copy
-    public LocalDateTime getCreatedAt() { return createdAt; }
-    public LocalDateTime getPaidAt() { return paidAt; }
+    public List<OrderLine> getOrderLines() { return new ArrayList<>(Arrays.asList(orderLines)); } // Defensive copy
+    public int getLineCount() { return orderLines.length; }
+    public LocalDateTime getCreatedAt() { return fromMicros(createdAt); }
+    public LocalDateTime getPaidAt() { return paidAt == NOT_PAID ? null : fromMicros(paidAt); }
+    public long getCreatedAtMicros() { return createdAt; }
+    public long getPaidAtMicros() { return paidAt; } // Long.MIN_VALUE until paid
     public double getSubtotal() { return subtotal; }
     public double getTax() { return tax; }
     public double getDiscount() { return discount; }
     public double getTotal() { return total; }
+    public TaxEngine.TaxMode getTaxMode() { return taxMode; }
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
 
     // Setters for pricing service
     public void setSubtotal(double subtotal) { 
@@ -59,46 +91,80 @@ public class Order {
 
     // Business methods
     public void addLine(MenuItem item, int quantity) {
+        if (item != null) {
+            addLine(item, item.getPrice(), quantity);
+        }
+    }
+
+    // The line keeps unitPrice for the life of the order, whatever the menu later changes to
+    public void addLine(MenuItem item, double unitPrice, int quantity) {
         if (item != null && quantity > 0 && item.hasStock(quantity)) {
-            OrderLine line = new OrderLine(item, quantity);
-            orderLines.add(line);
+            OrderLine line = new OrderLine(item.getId(), item.getName(), unitPrice, item.getType(),
+                    TaxEngine.categoryOf(item), quantity);
+            orderLines = Arrays.copyOf(orderLines, orderLines.length + 1);
+            orderLines[orderLines.length - 1] = line;
             recalculateTotals();
         }
     }
 
     public boolean removeLine(String itemId) {
-        return orderLines.removeIf(line -> line.getItemId().equals(itemId));
+        OrderLine[] kept = Arrays.stream(orderLines)
+                .filter(line -> !line.getItemId().equals(itemId))
+                .toArray(OrderLine[]::new);
+        if (kept.length == orderLines.length) {
+            return false;
+        }
+        orderLines = kept.length == 0 ? NO_LINES : kept;
+        return true;
     }
 
     public void updateLineQuantity(String itemId, int newQuantity) {
-        orderLines.stream()
-                .filter(line -> line.getItemId().equals(itemId))
-                .findFirst()
-                .ifPresent(line -> {
-                    line.setQuantity(newQuantity);
-                    recalculateTotals();
-                });
+        for (OrderLine line : orderLines) {
+            if (line.getItemId().equals(itemId)) {
+                line.setQuantity(newQuantity);
+                recalculateTotals();
+                return;
+            }
+        }
     }
 
     public void recalculateTotals() {
-        this.subtotal = orderLines.stream()
-                .mapToDouble(OrderLine::getLineTotal)
-                .sum();
-        
-        this.tax = subtotal * 0.10; // 10% tax
-        this.total = subtotal + tax - discount;
+        TaxEngine.Totals totals = TaxEngine.getInstance().calculate(Arrays.asList(orderLines), discount, taxMode);
+        this.subtotal = totals.getSubtotal();
+        this.tax = totals.getTax();
+        this.total = totals.getTotal();
+    }
+
+    /**
+     * Pick up changed tax settings. Only drafts follow them, paid orders keep
+     * what they were charged. Returns true if the totals were recalculated.
+     */
+    public boolean refreshTax() {
+        if (!isDraft()) {
+            return false;
+        }
+        TaxEngine engine = TaxEngine.getInstance();
+        boolean changed = engine.refreshRates(Arrays.asList(orderLines));
+        if (taxMode != engine.getMode()) {
+            taxMode = engine.getMode();
+            changed = true;
+        }
+        if (changed) {
+            recalculateTotals();
+        }
+        return changed;
     }
 
     public void setDiscount(double discountAmount) {
         if (discountAmount >= 0 && discountAmount <= subtotal) {
             this.discount = discountAmount;
-            this.total = subtotal + tax - discount;
+            this.total = TaxEngine.getInstance().total(subtotal, tax, discount, taxMode);
         }
     }
 
     public void markAsPaid() {
         this.status = OrderStatus.PAID;
-        this.paidAt = LocalDateTime.now();
+        this.paidAt = toMicros(LocalDateTime.now());
     }
 
     public boolean isDraft() {
@@ -109,6 +175,15 @@ public class Order {
         return status == OrderStatus.PAID;
     }
 
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
     public enum OrderStatus {
         DRAFT("Draft"),
         PAID("Paid");
@@ -1,32 +1,51 @@
 package cse213.ecoresort.model;
 
 public class OrderLine {
-    private final String itemId;
-    private final String itemName;
+    // Shared with every other line for the same item
+    private final ItemInfo item;
     private final double unitPrice;
+    private double taxRate;
     private int quantity;
-    private double lineTotal;
 
     public OrderLine(MenuItem item, int quantity) {
-        this.itemId = item.getId();
-        this.itemName = item.getName();
-        this.unitPrice = item.getPrice();
+        this(item.getId(), item.getName(), item.getPrice(), item.getType(), TaxEngine.categoryOf(item), quantity);
+    }
+
+    public OrderLine(String itemId, String itemName, double unitPrice, MenuItem.ItemType itemType,
+                     String taxCategory, int quantity) {
+        this(itemId, itemName, unitPrice, itemType, taxCategory,
+                TaxEngine.getInstance().resolveRate(itemType, taxCategory), quantity);
+    }
+
+    // Used when restoring a line with the price and tax rate it was ordered at
+    public OrderLine(String itemId, String itemName, double unitPrice, MenuItem.ItemType itemType,
+                     String taxCategory, double taxRate, int quantity) {
+        this.item = ItemInfo.of(itemId, itemName, itemType, taxCategory);
+        this.unitPrice = unitPrice;
+        this.taxRate = taxRate;
         this.quantity = quantity;
-        this.lineTotal = unitPrice * quantity;
     }
 
     // Getters
-    public String getItemId() { return itemId; }
-    public String getItemName() { return itemName; }
+    public String getItemId() { return item.getId(); }
+    public String getItemName() { return item.getName(); }
+    public ItemInfo getItem() { return item; }
     public double getUnitPrice() { return unitPrice; }
+    public MenuItem.ItemType getItemType() { return item.getType(); }
+    public String getTaxCategory() { return item.getTaxCategory(); }
+    public double getTaxRate() { return taxRate; }
     public int getQuantity() { return quantity; }
-    public double getLineTotal() { return lineTotal; }
+    public double getLineTotal() { return unitPrice * quantity; }
+
+    // Set by TaxEngine when a rate changes while the order is still a draft
+    void setTaxRate(double taxRate) {
+        this.taxRate = taxRate;
+    }
 
     // Business methods
     public void setQuantity(int quantity) {
         if (quantity > 0) {
             this.quantity = quantity;
-            this.lineTotal = unitPrice * quantity;
         }
     }
 
@@ -4,11 +4,21 @@ public class PaymentInput {
     private final PaymentType type;
     private final double cashGiven;
     private final String cardNumber;
+    // Part of the bill this tender pays; 0 pays whatever is still outstanding
+    private final double amount;
 
     public PaymentInput(PaymentType type, double cashGiven, String cardNumber) {
+        this(type, cashGiven, cardNumber, 0.0);
+    }
+
+    public PaymentInput(PaymentType type, double cashGiven, String cardNumber, double amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Tender amount cannot be negative");
+        }
         this.type = type;
         this.cashGiven = cashGiven;
         this.cardNumber = cardNumber;
+        this.amount = amount;
     }
 
     public static PaymentInput forCash(double cashGiven) {
@@ -19,9 +29,25 @@ public class PaymentInput {
         return new PaymentInput(PaymentType.CARD, 0.0, cardNumber);
     }
 
+    /**
+     * Cash towards part of a split bill; change is given on cashGiven - amount
+     */
+    public static PaymentInput forCashTender(double cashGiven, double amount) {
+        return new PaymentInput(PaymentType.CASH, cashGiven, null, amount);
+    }
+
+    /**
+     * Card charged for part of a split bill
+     */
+    public static PaymentInput forCardTender(String cardNumber, double amount) {
+        return new PaymentInput(PaymentType.CARD, 0.0, cardNumber, amount);
+    }
+
     public PaymentType getType() { return type; }
     public double getCashGiven() { return cashGiven; }
     public String getCardNumber() { return cardNumber; }
+    public double getAmount() { return amount; }
+    public boolean coversBalance() { return amount == 0.0; }
 
     public enum PaymentType {
         CASH("Cash"),
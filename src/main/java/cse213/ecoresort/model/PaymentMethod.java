@@ -1,6 +1,15 @@
 package cse213.ecoresort.model;
 
 public interface PaymentMethod {
-    PaymentResult processPayment(Order order, PaymentInput input);
+    /**
+     * Take one tender of amountDue towards the order, which may be less than
+     * its total when the bill is split
+     */
+    PaymentResult processPayment(Order order, PaymentInput input, double amountDue);
+
+    default PaymentResult processPayment(Order order, PaymentInput input) {
+        return processPayment(order, input, order.getTotal());
+    }
+
     String getDisplayName();
 }
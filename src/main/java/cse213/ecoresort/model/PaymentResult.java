@@ -4,22 +4,50 @@ public class PaymentResult {
     private final boolean success;
     private final String message;
     private final double change;
+    private final double amountApplied;
+    private final double remaining;
 
-    private PaymentResult(boolean success, String message, double change) {
+    private PaymentResult(boolean success, String message, double change, double amountApplied, double remaining) {
         this.success = success;
         this.message = message;
         this.change = change;
+        this.amountApplied = amountApplied;
+        this.remaining = remaining;
     }
 
     public static PaymentResult success(String message, double change) {
-        return new PaymentResult(true, message, change);
+        return new PaymentResult(true, message, change, 0.0, 0.0);
     }
 
     public static PaymentResult failure(String message) {
-        return new PaymentResult(false, message, 0.0);
+        return new PaymentResult(false, message, 0.0, 0.0, 0.0);
+    }
+
+    /**
+     * This result for a tender that paid amountApplied and left remaining on the bill
+     */
+    public PaymentResult withBalance(double amountApplied, double remaining) {
+        String text = remaining > 0
+                ? message + String.format(". Remaining balance: $%.2f", remaining)
+                : message;
+        return new PaymentResult(success, text, change, amountApplied, remaining);
+    }
+
+    /**
+     * This result with something the staff should know added to its message
+     */
+    public PaymentResult withNotice(String notice) {
+        return new PaymentResult(success, message + ". " + notice, change, amountApplied, remaining);
     }
 
     public boolean isSuccess() { return success; }
     public String getMessage() { return message; }
     public double getChange() { return change; }
+    public double getAmountApplied() { return amountApplied; }
+    public double getRemaining() { return remaining; }
+
+    /**
+     * The tender went through and nothing is left to pay, so the order is now paid
+     */
+    public boolean isPaidInFull() { return success && remaining == 0.0; }
 }
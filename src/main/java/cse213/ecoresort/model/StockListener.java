@@ -0,0 +1,10 @@
+package cse213.ecoresort.model;
+
+/**
+ * Notified by MenuItem after every stock change, while the item is still locked.
+ * Implementations must be quick and must not block; hand real work off to another thread.
+ */
+@FunctionalInterface
+public interface StockListener {
+    void stockChanged(MenuItem item, int previousQty, int newQty);
+}
@@ -0,0 +1,179 @@
+package cse213.ecoresort.model;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single source of tax rates and order totals.
+ * A line's rate is resolved once, when the line is created, from the most
+ * specific setting: its category (cuisine for food, alcoholic or non-alcoholic
+ * for drinks), then its item type, then the default rate. The rate is cached on
+ * the line, so recalculating totals is a plain sum. Order and PricingService both
+ * calculate totals through calculate(), so the two can no longer diverge.
+ *
+ * In EXCLUSIVE mode tax is added on top of the menu prices. In INCLUSIVE mode
+ * menu prices already contain the tax and the tax shown is the included part.
+ */
+public class TaxEngine {
+    public static final double DEFAULT_RATE = 0.10;
+
+    // Created eagerly: every order and line looks the engine up, so getInstance must not lock
+    private static final TaxEngine INSTANCE = new TaxEngine();
+
+    private final Map<MenuItem.ItemType, Double> typeRates = new ConcurrentHashMap<>();
+    private final Map<String, Double> categoryRates = new ConcurrentHashMap<>();
+    private volatile double defaultRate = DEFAULT_RATE;
+    private volatile TaxMode mode = TaxMode.EXCLUSIVE;
+
+    private TaxEngine() {
+    }
+
+    public static TaxEngine getInstance() {
+        return INSTANCE;
+    }
+
+    // Rate settings; callers that hold draft orders should recompute them afterwards
+
+    public void setDefaultRate(double rate) {
+        checkRate(rate);
+        defaultRate = rate;
+    }
+
+    public void setTypeRate(MenuItem.ItemType type, double rate) {
+        checkRate(rate);
+        typeRates.put(type, rate);
+    }
+
+    public void setCategoryRate(String category, double rate) {
+        checkRate(rate);
+        categoryRates.put(normalize(category), rate);
+    }
+
+    public void clearTypeRate(MenuItem.ItemType type) {
+        typeRates.remove(type);
+    }
+
+    public void clearCategoryRate(String category) {
+        categoryRates.remove(normalize(category));
+    }
+
+    public void setMode(TaxMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Tax mode is required");
+        }
+        this.mode = mode;
+    }
+
+    public TaxMode getMode() {
+        return mode;
+    }
+
+    public double getDefaultRate() {
+        return defaultRate;
+    }
+
+    /**
+     * Tax category of a menu item: its cuisine for food, alcoholic or non-alcoholic for drinks
+     */
+    public static String categoryOf(MenuItem item) {
+        if (item instanceof FoodItem food) {
+            String cuisine = food.getCuisine();
+            return cuisine == null || cuisine.trim().isEmpty() ? null : normalize(cuisine);
+        }
+        if (item instanceof DrinkItem drink) {
+            return drink.isAlcoholic() ? "alcoholic" : "non-alcoholic";
+        }
+        return null;
+    }
+
+    public double resolveRate(MenuItem.ItemType type, String category) {
+        if (category != null) {
+            Double rate = categoryRates.get(category);
+            if (rate != null) {
+                return rate;
+            }
+        }
+        if (type != null) {
+            Double rate = typeRates.get(type);
+            if (rate != null) {
+                return rate;
+            }
+        }
+        return defaultRate;
+    }
+
+    public double resolveRate(OrderLine line) {
+        return resolveRate(line.getItemType(), line.getTaxCategory());
+    }
+
+    /**
+     * Re-resolve the cached rates of draft lines after a rate change.
+     * Returns true if any line changed, i.e. the order needs its totals recalculated.
+     */
+    public boolean refreshRates(List<OrderLine> lines) {
+        boolean changed = false;
+        for (OrderLine line : lines) {
+            double rate = resolveRate(line);
+            if (rate != line.getTaxRate()) {
+                line.setTaxRate(rate);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * The one totals calculation, using the rates cached on the lines
+     */
+    public Totals calculate(List<OrderLine> lines, double discount, TaxMode mode) {
+        double subtotal = 0.0;
+        double tax = 0.0;
+        for (OrderLine line : lines) {
+            double amount = line.getLineTotal();
+            double rate = line.getTaxRate();
+            subtotal += amount;
+            tax += mode == TaxMode.INCLUSIVE ? amount * rate / (1 + rate) : amount * rate;
+        }
+        return new Totals(subtotal, tax, total(subtotal, tax, discount, mode));
+    }
+
+    public double total(double subtotal, double tax, double discount, TaxMode mode) {
+        return mode == TaxMode.INCLUSIVE ? subtotal - discount : subtotal + tax - discount;
+    }
+
+    private static String normalize(String category) {
+        if (category == null || category.trim().isEmpty()) {
+            throw new IllegalArgumentException("Tax category cannot be empty");
+        }
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void checkRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Tax rate must be between 0 and 1");
+        }
+    }
+
+    public enum TaxMode {
+        EXCLUSIVE,
+        INCLUSIVE
+    }
+
+    public static final class Totals {
+        private final double subtotal;
+        private final double tax;
+        private final double total;
+
+        Totals(double subtotal, double tax, double total) {
+            this.subtotal = subtotal;
+            this.tax = tax;
+            this.total = total;
+        }
+
+        public double getSubtotal() { return subtotal; }
+        public double getTax() { return tax; }
+        public double getTotal() { return total; }
+    }
+}
@@ -0,0 +1,111 @@
+package cse213.ecoresort.repository;
+
+import cse213.ecoresort.model.MenuItem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of another menu repository.
+ * findById is served from a TinyLfuCache and only goes to the delegate on a
+ * miss. Writes go to the delegate first, then update the cached item; stock
+ * changes made by the delegate itself (e.g. in SQL) drop the cached copy so
+ * the next read sees the new level. Queries over many items are not cached.
+ */
+public class CachingMenuRepository implements MenuRepository {
+    private final MenuRepository delegate;
+    private final TinyLfuCache<String, MenuItem> cache;
+
+    public CachingMenuRepository(MenuRepository delegate, int maximumSize) {
+        this.delegate = delegate;
+        this.cache = new TinyLfuCache<>(maximumSize);
+    }
+
+    @Override
+    public Optional<MenuItem> findById(String id) {
+        return Optional.ofNullable(cache.get(id, key -> delegate.findById(key).orElse(null)));
+    }
+
+    @Override
+    public MenuItem save(MenuItem item) {
+        MenuItem saved = delegate.save(item);
+        cache.replace(saved.getId(), saved);
+        return saved;
+    }
+
+    @Override
+    public void saveAll(List<MenuItem> items) {
+        delegate.saveAll(items);
+        for (MenuItem item : items) {
+            cache.replace(item.getId(), item);
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        boolean deleted = delegate.delete(id);
+        cache.invalidate(id);
+        return deleted;
+    }
+
+    @Override
+    public boolean decreaseStock(String id, int quantity) {
+        boolean decreased = delegate.decreaseStock(id, quantity);
+        if (decreased) {
+            cache.invalidate(id);
+        }
+        return decreased;
+    }
+
+    @Override
+    public void increaseStock(String id, int quantity) {
+        delegate.increaseStock(id, quantity);
+        cache.invalidate(id);
+    }
+
+    @Override
+    public void updatePrices(Map<String, Double> prices) {
+        delegate.updatePrices(prices);
+        prices.keySet().forEach(cache::invalidate);
+    }
+
+    @Override
+    public void setStock(String id, int stockQty) {
+        delegate.setStock(id, stockQty);
+        cache.invalidate(id);
+    }
+
+    @Override
+    public List<MenuItem> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<MenuItem> findByType(MenuItem.ItemType type) {
+        return delegate.findByType(type);
+    }
+
+    @Override
+    public List<MenuItem> findAvailable() {
+        return delegate.findAvailable();
+    }
+
+    @Override
+    public Page<MenuItem> findAll(String cursor, int limit) {
+        return delegate.findAll(cursor, limit);
+    }
+
+    @Override
+    public Page<MenuItem> findByType(MenuItem.ItemType type, String cursor, int limit) {
+        return delegate.findByType(type, cursor, limit);
+    }
+
+    public MenuRepository getDelegate() {
+        return delegate;
+    }
+
+    public TinyLfuCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
+}
@@ -0,0 +1,86 @@
+package cse213.ecoresort.repository;
+
+import cse213.ecoresort.model.Order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of another order repository.
+ * findById is served from a TinyLfuCache, so the repeated lookups of the
+ * drafts being ordered and paid stay off storage, while one-off reads of old
+ * orders are not let in to push them out. Saves write through to the delegate
+ * and then update the cached order; deletes drop it. Queries are not cached.
+ */
+public class CachingOrderRepository implements OrderRepository {
+    private final OrderRepository delegate;
+    private final TinyLfuCache<String, Order> cache;
+
+    public CachingOrderRepository(OrderRepository delegate, int maximumSize) {
+        this.delegate = delegate;
+        this.cache = new TinyLfuCache<>(maximumSize);
+    }
+
+    @Override
+    public Optional<Order> findById(String id) {
+        return Optional.ofNullable(cache.get(id, key -> delegate.findById(key).orElse(null)));
+    }
+
+    @Override
+    public Order save(Order order) {
+        Order saved = delegate.save(order);
+        cache.replace(saved.getId(), saved);
+        return saved;
+    }
+
+    @Override
+    public boolean delete(String id) {
+        boolean deleted = delegate.delete(id);
+        cache.invalidate(id);
+        return deleted;
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Order> findByTable(int tableNo) {
+        return delegate.findByTable(tableNo);
+    }
+
+    @Override
+    public List<Order> findByStatus(Order.OrderStatus status) {
+        return delegate.findByStatus(status);
+    }
+
+    @Override
+    public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return delegate.findCreatedBetween(from, to);
+    }
+
+    @Override
+    public List<Order> findPaidBetween(LocalDateTime from, LocalDateTime to) {
+        return delegate.findPaidBetween(from, to);
+    }
+
+    @Override
+    public Page<Order> findAll(String cursor, int limit) {
+        return delegate.findAll(cursor, limit);
+    }
+
+    @Override
+    public Page<Order> findByStatus(Order.OrderStatus status, String cursor, int limit) {
+        return delegate.findByStatus(status, cursor, limit);
+    }
+
+    public OrderRepository getDelegate() {
+        return delegate;
+    }
+
+    public TinyLfuCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
+}
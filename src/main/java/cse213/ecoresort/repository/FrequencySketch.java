@@ -0,0 +1,81 @@
+package cse213.ecoresort.repository;
+
+/**
+ * Approximate access counts for TinyLfuCache: a count-min sketch of 4-bit
+ * counters, sixteen to a long. Each key bumps one counter in each of four
+ * rows and its estimate is the smallest of the four. After ten accesses per
+ * cached entry every counter is halved, so the counts follow recent
+ * popularity rather than all-time totals. Not thread-safe; the cache guards it.
+ */
+class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+        // One word, sixteen counters, per cached entry, rounded up to a power of two; much
+        // smaller and the counters of popular and unpopular keys collide until all read 15
+        int words = Integer.highestOneBit(Math.max(1, maximumSize - 1) << 1);
+        table = new long[words];
+        tableMask = (words << 4) - 1;
+        sampleSize = Math.max(10, 10 * maximumSize);
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int counter = indexOf(hash, row);
+            int count = (int) (table[counter >>> 4] >>> ((counter & 15) << 2)) & MAX_COUNT;
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            added |= incrementAt(indexOf(hash, row));
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int counter) {
+        int word = counter >>> 4;
+        int shift = (counter & 15) << 2;
+        if (((table[word] >>> shift) & MAX_COUNT) == MAX_COUNT) {
+            return false;
+        }
+        table[word] += 1L << shift;
+        return true;
+    }
+
+    // Halve every counter so old popularity fades
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
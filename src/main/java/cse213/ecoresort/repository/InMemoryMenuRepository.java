@@ -3,21 +3,24 @@ package cse213.ecoresort.repository;
 import cse213.ecoresort.model.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 public class InMemoryMenuRepository implements MenuRepository {
-    private static InMemoryMenuRepository instance;
     private final Map<String, MenuItem> items;
+    // Item IDs in order, for paging; kept in step with items inside the map's per-key lock
+    private final NavigableSet<String> ids = new ConcurrentSkipListSet<>();
 
     private InMemoryMenuRepository() {
         items = new ConcurrentHashMap<>();
         initializeSampleData();
     }
 
-    public static synchronized InMemoryMenuRepository getInstance() {
-        if (instance == null) {
-            instance = new InMemoryMenuRepository();
-        }
-        return instance;
+    public static InMemoryMenuRepository getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final InMemoryMenuRepository INSTANCE = new InMemoryMenuRepository();
     }
 
     @Override
@@ -35,13 +38,22 @@ public class InMemoryMenuRepository implements MenuRepository {
         if (item.getId() == null) {
             throw new IllegalArgumentException("Item must have an ID");
         }
-        items.put(item.getId(), item);
+        items.compute(item.getId(), (id, previous) -> {
+            ids.add(id);
+            return item;
+        });
         return item;
     }
 
     @Override
     public boolean delete(String id) {
-        return items.remove(id) != null;
+        boolean[] removed = new boolean[1];
+        items.computeIfPresent(id, (key, item) -> {
+            ids.remove(key);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
     }
 
     @Override
@@ -58,6 +70,33 @@ public class InMemoryMenuRepository implements MenuRepository {
                 .toList();
     }
 
+    @Override
+    public Page<MenuItem> findAll(String cursor, int limit) {
+        return page(null, cursor, limit);
+    }
+
+    @Override
+    public Page<MenuItem> findByType(MenuItem.ItemType type, String cursor, int limit) {
+        return page(type, cursor, limit);
+    }
+
+    private Page<MenuItem> page(MenuItem.ItemType type, String cursor, int limit) {
+        Page.checkLimit(limit);
+        NavigableSet<String> rest = cursor == null ? ids : ids.tailSet(cursor, false);
+        List<MenuItem> page = new ArrayList<>(Math.min(limit, Page.DEFAULT_SIZE));
+        for (String id : rest) {
+            MenuItem item = items.get(id);
+            if (item == null || (type != null && item.getType() != type)) {
+                continue;
+            }
+            if (page.size() == limit) {
+                return new Page<>(page, page.get(limit - 1).getId());
+            }
+            page.add(item);
+        }
+        return new Page<>(page, null);
+    }
+
     private void initializeSampleData() {
         // Sample food items
         FoodItem burger = new FoodItem("Classic Burger", 12.99, 50, "American", false);
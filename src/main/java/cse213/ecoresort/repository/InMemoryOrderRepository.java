@@ -1,22 +1,83 @@
 package cse213.ecoresort.repository;
 
 import cse213.ecoresort.model.Order;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
+/**
+ * In-memory order store with eviction of abandoned drafts.
+ * Every saved draft is kept in a set ordered by its last save, overall and per
+ * table, so a background sweep only looks at drafts that have actually been
+ * idle too long, and a table over its draft limit drops its oldest draft.
+ * Paid orders are never evicted.
+ *
+ * Orders are also kept in skip lists keyed by creation and payment time, so a
+ * shift or hourly report reads just its range in O(log n + k). Each status
+ * has its own creation skip list too, so listing or paging the drafts never
+ * walks the paid history.
+ */
 public class InMemoryOrderRepository implements OrderRepository {
-    private static InMemoryOrderRepository instance;
+    public static final Duration DEFAULT_DRAFT_IDLE_TIMEOUT = Duration.ofHours(4);
+    public static final int DEFAULT_MAX_DRAFTS_PER_TABLE = 20;
+
     private final Map<String, Order> orders;
 
+    // Draft index: last-save key per draft, ordered overall and per table
+    private final Map<String, DraftKey> draftKeys = new ConcurrentHashMap<>();
+    private final NavigableSet<DraftKey> draftsByAge = new ConcurrentSkipListSet<>();
+    private final Map<Integer, NavigableSet<DraftKey>> draftsByTable = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Time indexes: (timestamp, order id) to order, for range queries without a scan
+    private final ConcurrentNavigableMap<TimeKey, Order> byCreatedAt = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<TimeKey, Order> byPaidAt = new ConcurrentSkipListMap<>();
+    // Creation index per status, and the entry each order is filed under there
+    private final Map<Order.OrderStatus, ConcurrentNavigableMap<TimeKey, Order>> byStatus =
+            new EnumMap<>(Order.OrderStatus.class);
+    private final Map<String, StatusEntry> statusEntries = new ConcurrentHashMap<>();
+
+    private final Set<Consumer<Order>> evictionListeners = new CopyOnWriteArraySet<>();
+    private final Set<Predicate<Order>> evictionGuards = new CopyOnWriteArraySet<>();
+    private final LongAdder evictedIdle = new LongAdder();
+    private final LongAdder evictedOverLimit = new LongAdder();
+    private final ScheduledExecutorService sweeper;
+    private ScheduledFuture<?> sweep;
+    private volatile long idleTimeoutNanos = DEFAULT_DRAFT_IDLE_TIMEOUT.toNanos();
+    private volatile int maxDraftsPerTable = DEFAULT_MAX_DRAFTS_PER_TABLE;
+
     private InMemoryOrderRepository() {
         orders = new ConcurrentHashMap<>();
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            byStatus.put(status, new ConcurrentSkipListMap<>());
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "draft-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleSweep();
     }
 
-    public static synchronized InMemoryOrderRepository getInstance() {
-        if (instance == null) {
-            instance = new InMemoryOrderRepository();
-        }
-        return instance;
+    public static InMemoryOrderRepository getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final InMemoryOrderRepository INSTANCE = new InMemoryOrderRepository();
     }
 
     @Override
@@ -34,13 +95,28 @@ public class InMemoryOrderRepository implements OrderRepository {
         if (order.getId() == null) {
             throw new IllegalArgumentException("Order must have an ID");
         }
-        orders.put(order.getId(), order);
+        Order previous = orders.put(order.getId(), order);
+        if (previous != null && previous != order) {
+            unindexTimes(previous);
+        }
+        indexTimes(order);
+        if (order.isDraft()) {
+            touchDraft(order);
+        } else {
+            forgetDraft(order.getId());
+        }
         return order;
     }
 
     @Override
     public boolean delete(String id) {
-        return orders.remove(id) != null;
+        forgetDraft(id);
+        Order removed = orders.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        unindexTimes(removed);
+        return true;
     }
 
     @Override
@@ -52,8 +128,381 @@ public class InMemoryOrderRepository implements OrderRepository {
 
     @Override
     public List<Order> findByStatus(Order.OrderStatus status) {
-        return orders.values().stream()
-                .filter(order -> order.getStatus() == status)
-                .toList();
+        List<Order> result = new ArrayList<>();
+        for (Order order : byStatus.get(status).values()) {
+            if (orders.get(order.getId()) == order && order.getStatus() == status) {
+                result.add(order);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return range(byCreatedAt, from, to);
+    }
+
+    @Override
+    public List<Order> findPaidBetween(LocalDateTime from, LocalDateTime to) {
+        return range(byPaidAt, from, to);
+    }
+
+    @Override
+    public Page<Order> findAll(String cursor, int limit) {
+        return page(null, cursor, limit);
+    }
+
+    @Override
+    public Page<Order> findByStatus(Order.OrderStatus status, String cursor, int limit) {
+        return page(status, cursor, limit);
+    }
+
+    // Walks the status's creation index, or the whole one, from the cursor; holds one page at most
+    private Page<Order> page(Order.OrderStatus status, String cursor, int limit) {
+        Page.checkLimit(limit);
+        ConcurrentNavigableMap<TimeKey, Order> index = status == null ? byCreatedAt : byStatus.get(status);
+        NavigableMap<TimeKey, Order> rest = index;
+        if (cursor != null) {
+            OrderCursor after = OrderCursor.parse(cursor);
+            rest = index.tailMap(new TimeKey(after.createdAt, after.orderId), false);
+        }
+        List<Order> items = new ArrayList<>(Math.min(limit, Page.DEFAULT_SIZE));
+        for (Order order : rest.values()) {
+            if (orders.get(order.getId()) != order || (status != null && order.getStatus() != status)) {
+                continue;
+            }
+            if (items.size() == limit) {
+                return new Page<>(items, OrderCursor.of(items.get(limit - 1)));
+            }
+            items.add(order);
+        }
+        return new Page<>(items, null);
+    }
+
+    private List<Order> range(ConcurrentNavigableMap<TimeKey, Order> index, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("A time range needs both a start and an end");
+        }
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        List<Order> result = new ArrayList<>();
+        for (Order order : index.subMap(TimeKey.first(from), TimeKey.first(to)).values()) {
+            // A key can outlive its order for a moment when a delete races a save
+            if (orders.get(order.getId()) == order) {
+                result.add(order);
+            }
+        }
+        return result;
+    }
+
+    // Creation time never changes and payment time is set once, so re-saving only adds keys.
+    // Status does change, so the order moves to the index of the status it was saved with.
+    private void indexTimes(Order order) {
+        TimeKey created = new TimeKey(order.getCreatedAt(), order.getId());
+        byCreatedAt.putIfAbsent(created, order);
+        if (order.getPaidAt() != null) {
+            byPaidAt.putIfAbsent(new TimeKey(order.getPaidAt(), order.getId()), order);
+        }
+        Order.OrderStatus status = order.getStatus();
+        statusEntries.compute(order.getId(), (id, filed) -> {
+            if (filed != null && (filed.status != status || filed.order != order)) {
+                byStatus.get(filed.status).remove(filed.key, filed.order);
+            }
+            byStatus.get(status).put(created, order);
+            return new StatusEntry(status, created, order);
+        });
+    }
+
+    private void unindexTimes(Order order) {
+        byCreatedAt.remove(new TimeKey(order.getCreatedAt(), order.getId()), order);
+        if (order.getPaidAt() != null) {
+            byPaidAt.remove(new TimeKey(order.getPaidAt(), order.getId()), order);
+        }
+        // Only this order's entry: a save of a new copy may already have replaced it
+        statusEntries.computeIfPresent(order.getId(), (id, filed) -> {
+            if (filed.order != order) {
+                return filed;
+            }
+            byStatus.get(filed.status).remove(filed.key, order);
+            return null;
+        });
+    }
+
+    // Eviction policy
+
+    /**
+     * Evict drafts not saved for idleTimeout (zero disables) and keep at most
+     * maxDraftsPerTable drafts per table (zero means no limit)
+     */
+    public synchronized void setEvictionPolicy(Duration idleTimeout, int maxDraftsPerTable) {
+        if (idleTimeout.isNegative() || maxDraftsPerTable < 0) {
+            throw new IllegalArgumentException("Eviction limits cannot be negative");
+        }
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.maxDraftsPerTable = maxDraftsPerTable;
+        scheduleSweep();
+    }
+
+    public Duration getIdleTimeout() {
+        return Duration.ofNanos(idleTimeoutNanos);
+    }
+
+    public int getMaxDraftsPerTable() {
+        return maxDraftsPerTable;
+    }
+
+    /**
+     * Called with each evicted draft, e.g. to release its stock holds
+     */
+    public void addEvictionListener(Consumer<Order> listener) {
+        evictionListeners.add(listener);
+    }
+
+    public void removeEvictionListener(Consumer<Order> listener) {
+        evictionListeners.remove(listener);
+    }
+
+    /**
+     * A draft any guard accepts is kept, e.g. while it is part paid. It no
+     * longer counts toward its table's limit, and is looked at again after
+     * another idle timeout, so once no guard keeps it, e.g. its bill was
+     * abandoned, it is evicted like any idle draft.
+     */
+    public void addEvictionGuard(Predicate<Order> guard) {
+        evictionGuards.add(guard);
+    }
+
+    public void removeEvictionGuard(Predicate<Order> guard) {
+        evictionGuards.remove(guard);
+    }
+
+    /**
+     * Evict drafts that have been idle too long; walks only the expired ones
+     */
+    public int evictIdleDrafts() {
+        long timeout = idleTimeoutNanos;
+        if (timeout == 0) {
+            return 0;
+        }
+        long cutoff = System.nanoTime() - timeout;
+        int evicted = 0;
+        for (DraftKey oldest = first(draftsByAge); oldest != null && oldest.savedNanos - cutoff < 0;
+             oldest = first(draftsByAge)) {
+            if (evict(oldest)) {
+                evictedIdle.increment();
+                evicted++;
+            } else {
+                // Saved again or removed meanwhile; make sure the stale key goes away
+                draftsByAge.remove(oldest);
+            }
+        }
+        return evicted;
+    }
+
+    // Metrics
+
+    public int getDraftCount() {
+        return draftKeys.size();
+    }
+
+    public long getEvictedIdleCount() {
+        return evictedIdle.sum();
+    }
+
+    public long getEvictedOverLimitCount() {
+        return evictedOverLimit.sum();
+    }
+
+    // Kept outside any map lock: a key that goes stale in a race is dropped by the next sweep
+    private void touchDraft(Order order) {
+        DraftKey key = new DraftKey(System.nanoTime(), sequence.incrementAndGet(), order.getId(), order.getTableNo());
+        DraftKey previous = draftKeys.put(order.getId(), key);
+        if (previous != null) {
+            unindex(previous);
+        }
+        draftsByAge.add(key);
+        NavigableSet<DraftKey> tableDrafts = draftsByTable.get(key.tableNo);
+        if (tableDrafts == null) {
+            tableDrafts = draftsByTable.computeIfAbsent(key.tableNo, t -> new ConcurrentSkipListSet<>());
+        }
+        tableDrafts.add(key);
+        enforceTableLimit(key.tableNo);
+    }
+
+    private void forgetDraft(String orderId) {
+        DraftKey previous = draftKeys.remove(orderId);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    private void enforceTableLimit(int tableNo) {
+        int limit = maxDraftsPerTable;
+        NavigableSet<DraftKey> tableDrafts = draftsByTable.get(tableNo);
+        if (limit == 0 || tableDrafts == null) {
+            return;
+        }
+        // Table sets stay around the limit, so counting them is cheap
+        while (tableDrafts.size() > limit) {
+            DraftKey oldest = first(tableDrafts);
+            if (oldest == null) {
+                return;
+            }
+            if (evict(oldest)) {
+                evictedOverLimit.increment();
+            } else {
+                tableDrafts.remove(oldest);
+            }
+        }
+    }
+
+    // Remove the draft only if it has not been saved since this key was taken
+    private boolean evict(DraftKey key) {
+        Order[] evicted = new Order[1];
+        draftKeys.computeIfPresent(key.orderId, (id, current) -> {
+            if (current != key) {
+                return current;
+            }
+            unindex(current);
+            Order order = orders.get(id);
+            if (order != null && isGuarded(order)) {
+                // Start its idle time again rather than leave it in no index at all
+                DraftKey rearmed = new DraftKey(System.nanoTime(), sequence.incrementAndGet(), id, current.tableNo);
+                draftsByAge.add(rearmed);
+                return rearmed;
+            }
+            if (order != null && order.isDraft() && orders.remove(id, order)) {
+                unindexTimes(order);
+                evicted[0] = order;
+            }
+            return null;
+        });
+        if (evicted[0] == null) {
+            return false;
+        }
+        for (Consumer<Order> listener : evictionListeners) {
+            try {
+                listener.accept(evicted[0]);
+            } catch (RuntimeException e) {
+                System.err.println("ERROR: Draft eviction listener failed: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private boolean isGuarded(Order order) {
+        for (Predicate<Order> guard : evictionGuards) {
+            if (guard.test(order)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void unindex(DraftKey key) {
+        draftsByAge.remove(key);
+        NavigableSet<DraftKey> tableDrafts = draftsByTable.get(key.tableNo);
+        if (tableDrafts != null) {
+            tableDrafts.remove(key);
+        }
+    }
+
+    private synchronized void scheduleSweep() {
+        if (sweep != null) {
+            sweep.cancel(false);
+        }
+        if (idleTimeoutNanos == 0) {
+            sweep = null;
+            return;
+        }
+        // Sweep often enough that a draft outlives its timeout by at most ~10%
+        long interval = Math.max(TimeUnit.MILLISECONDS.toNanos(100),
+                Math.min(idleTimeoutNanos / 10, TimeUnit.SECONDS.toNanos(30)));
+        sweep = sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                evictIdleDrafts();
+            } catch (RuntimeException e) {
+                System.err.println("ERROR: Draft eviction failed: " + e.getMessage());
+            }
+        }, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    private static DraftKey first(NavigableSet<DraftKey> set) {
+        try {
+            return set.first();
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    private static final class TimeKey implements Comparable<TimeKey> {
+        private final LocalDateTime time;
+        private final String orderId;
+
+        TimeKey(LocalDateTime time, String orderId) {
+            this.time = time;
+            this.orderId = orderId;
+        }
+
+        // Sorts before every order at that time, as a range bound
+        static TimeKey first(LocalDateTime time) {
+            return new TimeKey(time, null);
+        }
+
+        @Override
+        public int compareTo(TimeKey other) {
+            int byTime = time.compareTo(other.time);
+            if (byTime != 0 || orderId == other.orderId) {
+                return byTime;
+            }
+            if (orderId == null || other.orderId == null) {
+                return orderId == null ? -1 : 1;
+            }
+            return orderId.compareTo(other.orderId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TimeKey other && compareTo(other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return time.hashCode() * 31 + Objects.hashCode(orderId);
+        }
+    }
+
+    private static final class StatusEntry {
+        private final Order.OrderStatus status;
+        private final TimeKey key;
+        private final Order order;
+
+        StatusEntry(Order.OrderStatus status, TimeKey key, Order order) {
+            this.status = status;
+            this.key = key;
+            this.order = order;
+        }
+    }
+
+    private static final class DraftKey implements Comparable<DraftKey> {
+        private final long savedNanos;
+        private final long sequence;
+        private final String orderId;
+        private final int tableNo;
+
+        DraftKey(long savedNanos, long sequence, String orderId, int tableNo) {
+            this.savedNanos = savedNanos;
+            this.sequence = sequence;
+            this.orderId = orderId;
+            this.tableNo = tableNo;
+        }
+
+        // Sequence numbers are unique, so keys never compare equal to another draft's
+        @Override
+        public int compareTo(DraftKey other) {
+            int byTime = Long.compare(savedNanos - other.savedNanos, 0);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
     }
 }
@@ -0,0 +1,236 @@
+package cse213.ecoresort.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded database shared by the JDBC repositories.
+ * Connections come from a bounded pool of at most -Decoresort.jdbc.pool.size
+ * (default 8), opened as needed. Each pooled connection keeps a cache of
+ * prepared statements, so repeated calls skip both connection setup and SQL
+ * parsing. Every unit of work borrows one connection and runs in one
+ * transaction that is committed at the end or rolled back on error; work
+ * started inside another on the same thread joins it. When every connection
+ * is busy, a caller waits up to the borrow timeout for one to come back.
+ * The default is a file-based H2 database; no server is needed.
+ */
+public class JdbcDatabase implements AutoCloseable {
+    public static final String URL_PROPERTY = "ecoresort.jdbc.url";
+    public static final String DEFAULT_URL = "jdbc:h2:file:./data/ecoresort";
+    public static final String POOL_SIZE_PROPERTY = "ecoresort.jdbc.pool.size";
+    public static final int DEFAULT_POOL_SIZE = 8;
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS menu_items ("
+                    + "id VARCHAR(64) PRIMARY KEY, name VARCHAR(255) NOT NULL, price DOUBLE NOT NULL, "
+                    + "stock_qty INT NOT NULL, type VARCHAR(8) NOT NULL, cuisine VARCHAR(64), vegetarian BOOLEAN, "
+                    + "alcoholic BOOLEAN, temperature VARCHAR(32))",
+            "CREATE INDEX IF NOT EXISTS menu_items_type ON menu_items (type)",
+            "CREATE INDEX IF NOT EXISTS menu_items_stock ON menu_items (stock_qty)",
+            "CREATE TABLE IF NOT EXISTS orders ("
+                    + "id VARCHAR(64) PRIMARY KEY, table_no INT NOT NULL, status VARCHAR(8) NOT NULL, "
+                    + "created_at TIMESTAMP NOT NULL, paid_at TIMESTAMP, discount DOUBLE NOT NULL, "
+                    + "tax_mode VARCHAR(16) NOT NULL, version INT DEFAULT 0 NOT NULL)",
+            // Databases made before orders had versions
+            "ALTER TABLE orders ADD COLUMN IF NOT EXISTS version INT DEFAULT 0 NOT NULL",
+            "CREATE INDEX IF NOT EXISTS orders_table ON orders (table_no)",
+            "CREATE INDEX IF NOT EXISTS orders_status ON orders (status)",
+            // Creation time then ID is also the paging order
+            "CREATE INDEX IF NOT EXISTS orders_created ON orders (created_at, id)",
+            "CREATE INDEX IF NOT EXISTS orders_status_created ON orders (status, created_at, id)",
+            "CREATE INDEX IF NOT EXISTS orders_paid ON orders (paid_at)",
+            // Lines are clustered under their order by the primary key
+            "CREATE TABLE IF NOT EXISTS order_lines ("
+                    + "order_id VARCHAR(64) NOT NULL REFERENCES orders (id) ON DELETE CASCADE, line_no INT NOT NULL, "
+                    + "item_id VARCHAR(64) NOT NULL, item_name VARCHAR(255), unit_price DOUBLE NOT NULL, "
+                    + "item_type VARCHAR(8), tax_category VARCHAR(64), tax_rate DOUBLE NOT NULL, quantity INT NOT NULL, "
+                    + "PRIMARY KEY (order_id, line_no))"
+    };
+
+    private final String url;
+    private final int poolSize;
+    // Every connection opened, and the ones not lent out
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<Session> idle;
+    // The connection this thread's unit of work has borrowed, while it runs
+    private final ThreadLocal<Session> borrowed = new ThreadLocal<>();
+    private volatile boolean closed;
+
+    public JdbcDatabase() {
+        this(System.getProperty(URL_PROPERTY, DEFAULT_URL));
+    }
+
+    public JdbcDatabase(String url) {
+        this(url, Integer.getInteger(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE));
+    }
+
+    public JdbcDatabase(String url, int poolSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("Connection pool size must be positive");
+        }
+        this.url = url;
+        this.poolSize = poolSize;
+        this.idle = new ArrayBlockingQueue<>(poolSize);
+        transaction(session -> {
+            try (Statement statement = session.connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+            return null;
+        });
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Connections opened so far, never more than the pool size
+     */
+    public int getOpenConnections() {
+        return sessions.size();
+    }
+
+    /**
+     * Run the work in a transaction on a pooled connection, or in the
+     * transaction this thread already has open
+     */
+    <T> T transaction(Work<T> work) {
+        Session joined = borrowed.get();
+        if (joined != null) {
+            try {
+                return work.run(joined);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Database error: " + e.getMessage(), e);
+            }
+        }
+        Session session = borrow();
+        borrowed.set(session);
+        try {
+            T result = work.run(session);
+            session.connection.commit();
+            return result;
+        } catch (SQLException e) {
+            try {
+                session.connection.rollback();
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            throw new IllegalStateException("Database error: " + e.getMessage(), e);
+        } catch (RuntimeException | Error e) {
+            try {
+                session.connection.rollback();
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            throw e;
+        } finally {
+            borrowed.remove();
+            giveBack(session);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Session session : sessions) {
+            session.close();
+        }
+        sessions.clear();
+        idle.clear();
+    }
+
+    private Session borrow() {
+        Session session = idle.poll();
+        if (session != null) {
+            return session;
+        }
+        // Open another connection while under the limit, otherwise wait for one
+        synchronized (sessions) {
+            if (sessions.size() < poolSize && !closed) {
+                return openSession();
+            }
+        }
+        try {
+            session = idle.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a database connection", e);
+        }
+        if (session == null) {
+            throw new IllegalStateException("No database connection free after " + BORROW_TIMEOUT_SECONDS
+                    + " s; all " + poolSize + " are in use");
+        }
+        return session;
+    }
+
+    private void giveBack(Session session) {
+        if (closed) {
+            session.close();
+        } else {
+            idle.offer(session);
+        }
+    }
+
+    private Session openSession() {
+        try {
+            Connection connection = DriverManager.getConnection(url);
+            connection.setAutoCommit(false);
+            Session session = new Session(connection);
+            sessions.add(session);
+            return session;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot open database " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    @FunctionalInterface
+    interface Work<T> {
+        T run(Session session) throws SQLException;
+    }
+
+    /**
+     * One pooled connection and its prepared statements, keyed by SQL
+     */
+    static final class Session {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private Session(Connection connection) {
+            this.connection = connection;
+        }
+
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        private void close() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("ERROR: Failed to close database connection: " + e.getMessage());
+            }
+        }
+    }
+}
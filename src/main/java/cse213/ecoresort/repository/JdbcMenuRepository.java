@@ -0,0 +1,282 @@
+package cse213.ecoresort.repository;
+
+import cse213.ecoresort.model.DrinkItem;
+import cse213.ecoresort.model.FoodItem;
+import cse213.ecoresort.model.MenuItem;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * MenuRepository on an embedded database.
+ * Stock changes are single conditional UPDATEs, so concurrent tills cannot
+ * oversell even though each call works on its own copy of the item. Each
+ * UPDATE hands back the row as it was, and the change is replayed on that
+ * copy once committed, so MenuItem's stock listener (e.g. LowStockMonitor)
+ * hears about it just as it does for an item held in memory.
+ */
+public class JdbcMenuRepository implements MenuRepository {
+    private static final String COLUMNS = "id, name, price, stock_qty, type, cuisine, vegetarian, alcoholic, temperature";
+
+    private static final String SELECT_ALL = "SELECT " + COLUMNS + " FROM menu_items";
+    private static final String SELECT_BY_ID = SELECT_ALL + " WHERE id = ?";
+    private static final String SELECT_BY_TYPE = SELECT_ALL + " WHERE type = ?";
+    private static final String SELECT_AVAILABLE = SELECT_ALL + " WHERE stock_qty > 0";
+    private static final String PAGE_FIRST = SELECT_ALL + " ORDER BY id LIMIT ?";
+    private static final String PAGE_AFTER = SELECT_ALL + " WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String PAGE_TYPE_FIRST = SELECT_ALL + " WHERE type = ? ORDER BY id LIMIT ?";
+    private static final String PAGE_TYPE_AFTER = SELECT_ALL + " WHERE type = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String MERGE = "MERGE INTO menu_items (" + COLUMNS + ") KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE = "DELETE FROM menu_items WHERE id = ?";
+    private static final String DECREASE_STOCK = "SELECT " + COLUMNS + " FROM OLD TABLE ("
+            + "UPDATE menu_items SET stock_qty = stock_qty - ? WHERE id = ? AND stock_qty >= ?)";
+    private static final String INCREASE_STOCK = "SELECT " + COLUMNS + " FROM OLD TABLE ("
+            + "UPDATE menu_items SET stock_qty = stock_qty + ? WHERE id = ?)";
+    private static final String UPDATE_PRICE = "UPDATE menu_items SET price = ? WHERE id = ?";
+    private static final String SET_STOCK = "SELECT " + COLUMNS + " FROM OLD TABLE ("
+            + "UPDATE menu_items SET stock_qty = ? WHERE id = ?)";
+    private static final String COUNT = "SELECT COUNT(*) FROM menu_items";
+
+    private final JdbcDatabase database;
+
+    public JdbcMenuRepository(JdbcDatabase database) {
+        this.database = database;
+        if (count() == 0) {
+            initializeSampleData();
+        }
+    }
+
+    @Override
+    public List<MenuItem> findAll() {
+        return database.transaction(session -> readItems(session.prepare(SELECT_ALL)));
+    }
+
+    @Override
+    public Optional<MenuItem> findById(String id) {
+        return database.transaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_BY_ID);
+            statement.setString(1, id);
+            return readItems(statement).stream().findFirst();
+        });
+    }
+
+    @Override
+    public MenuItem save(MenuItem item) {
+        if (item.getId() == null) {
+            throw new IllegalArgumentException("Item must have an ID");
+        }
+        return database.transaction(session -> {
+            PreparedStatement statement = session.prepare(MERGE);
+            bindItem(statement, item);
+            statement.executeUpdate();
+            return item;
+        });
+    }
+
+    /**
+     * Upsert all the items as one JDBC batch in a single transaction
+     */
+    @Override
+    public void saveAll(List<MenuItem> items) {
+        for (MenuItem item : items) {
+            if (item.getId() == null) {
+                throw new IllegalArgumentException("Item must have an ID");
+            }
+        }
+        database.transaction(session -> {
+            PreparedStatement statement = session.prepare(MERGE);
+            for (MenuItem item : items) {
+                bindItem(statement, item);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        });
+    }
+
+    private static void bindItem(PreparedStatement statement, MenuItem item) throws SQLException {
+        statement.setString(1, item.getId());
+        statement.setString(2, item.getName());
+        statement.setDouble(3, item.getPrice());
+        statement.setInt(4, item.getStockQty());
+        statement.setString(5, item.getType().name());
+        if (item instanceof FoodItem food) {
+            statement.setString(6, food.getCuisine());
+            statement.setBoolean(7, food.isVegetarian());
+            statement.setNull(8, Types.BOOLEAN);
+            statement.setNull(9, Types.VARCHAR);
+        } else {
+            DrinkItem drink = (DrinkItem) item;
+            statement.setNull(6, Types.VARCHAR);
+            statement.setNull(7, Types.BOOLEAN);
+            statement.setBoolean(8, drink.isAlcoholic());
+            statement.setString(9, drink.getTemperature());
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return database.transaction(session -> {
+            PreparedStatement statement = session.prepare(DELETE);
+            statement.setString(1, id);
+            return statement.executeUpdate() > 0;
+        });
+    }
+
+    @Override
+    public List<MenuItem> findByType(MenuItem.ItemType type) {
+        return database.transaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_BY_TYPE);
+            statement.setString(1, type.name());
+            return readItems(statement);
+        });
+    }
+
+    @Override
+    public List<MenuItem> findAvailable() {
+        return database.transaction(session -> readItems(session.prepare(SELECT_AVAILABLE)));
+    }
+
+    @Override
+    public Page<MenuItem> findAll(String cursor, int limit) {
+        return page(null, cursor, limit);
+    }
+
+    @Override
+    public Page<MenuItem> findByType(MenuItem.ItemType type, String cursor, int limit) {
+        return page(type, cursor, limit);
+    }
+
+    // One item past the page tells whether another page follows
+    private Page<MenuItem> page(MenuItem.ItemType type, String cursor, int limit) {
+        Page.checkLimit(limit);
+        List<MenuItem> items = database.transaction(session -> {
+            PreparedStatement statement;
+            int parameter = 1;
+            if (type == null) {
+                statement = session.prepare(cursor == null ? PAGE_FIRST : PAGE_AFTER);
+            } else {
+                statement = session.prepare(cursor == null ? PAGE_TYPE_FIRST : PAGE_TYPE_AFTER);
+                statement.setString(parameter++, type.name());
+            }
+            if (cursor != null) {
+                statement.setString(parameter++, cursor);
+            }
+            statement.setInt(parameter, limit + 1);
+            return readItems(statement);
+        });
+        if (items.size() <= limit) {
+            return new Page<>(items, null);
+        }
+        List<MenuItem> page = items.subList(0, limit);
+        return new Page<>(page, page.get(limit - 1).getId());
+    }
+
+    @Override
+    public boolean decreaseStock(String id, int quantity) {
+        if (quantity <= 0) {
+            return false;
+        }
+        List<MenuItem> before = database.transaction(session -> {
+            PreparedStatement statement = session.prepare(DECREASE_STOCK);
+            statement.setInt(1, quantity);
+            statement.setString(2, id);
+            statement.setInt(3, quantity);
+            return readItems(statement);
+        });
+        if (before.isEmpty()) {
+            return false;
+        }
+        before.get(0).decreaseStock(quantity);
+        return true;
+    }
+
+    @Override
+    public void increaseStock(String id, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        List<MenuItem> before = database.transaction(session -> {
+            PreparedStatement statement = session.prepare(INCREASE_STOCK);
+            statement.setInt(1, quantity);
+            statement.setString(2, id);
+            return readItems(statement);
+        });
+        before.forEach(item -> item.increaseStock(quantity));
+    }
+
+    /**
+     * Set every price as one JDBC batch; stock_qty is not written
+     */
+    @Override
+    public void updatePrices(Map<String, Double> prices) {
+        if (prices.isEmpty()) {
+            return;
+        }
+        database.transaction(session -> {
+            PreparedStatement statement = session.prepare(UPDATE_PRICE);
+            for (Map.Entry<String, Double> entry : prices.entrySet()) {
+                statement.setDouble(1, entry.getValue());
+                statement.setString(2, entry.getKey());
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        });
+    }
+
+    @Override
+    public void setStock(String id, int stockQty) {
+        if (stockQty < 0) {
+            return;
+        }
+        List<MenuItem> before = database.transaction(session -> {
+            PreparedStatement statement = session.prepare(SET_STOCK);
+            statement.setInt(1, stockQty);
+            statement.setString(2, id);
+            return readItems(statement);
+        });
+        before.forEach(item -> item.setStockQty(stockQty));
+    }
+
+    private int count() {
+        return database.transaction(session -> {
+            try (ResultSet rows = session.prepare(COUNT).executeQuery()) {
+                rows.next();
+                return rows.getInt(1);
+            }
+        });
+    }
+
+    private static List<MenuItem> readItems(PreparedStatement statement) throws SQLException {
+        List<MenuItem> items = new ArrayList<>();
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                String id = rows.getString(1);
+                String name = rows.getString(2);
+                double price = rows.getDouble(3);
+                int stockQty = rows.getInt(4);
+                if (MenuItem.ItemType.valueOf(rows.getString(5)) == MenuItem.ItemType.FOOD) {
+                    items.add(new FoodItem(id, name, price, stockQty, rows.getString(6), rows.getBoolean(7)));
+                } else {
+                    items.add(new DrinkItem(id, name, price, stockQty, rows.getBoolean(8), rows.getString(9)));
+                }
+            }
+        }
+        return items;
+    }
+
+    // Same starter menu as the in-memory repository, written once into an empty database
+    private void initializeSampleData() {
+        save(new FoodItem("Classic Burger", 12.99, 50, "American", false));
+        save(new FoodItem("Garden Salad", 8.99, 30, "International", true));
+        save(new FoodItem("Pasta Carbonara", 14.99, 25, "Italian", false));
+        save(new DrinkItem("Espresso", 3.99, 100, false, "Hot"));
+        save(new DrinkItem("Craft Beer", 6.99, 40, true, "Cold"));
+        save(new DrinkItem("Orange Juice", 4.99, 60, false, "Cold"));
+    }
+}
@@ -0,0 +1,243 @@
+package cse213.ecoresort.repository;
+
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.model.TaxEngine;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * OrderRepository on an embedded database.
+ * An order and its lines are saved in one transaction, with the lines sent as
+ * a single JDBC batch. Reads join orders to their lines in one query and use
+ * the table, status and time indexes, so finding a table's orders or an
+ * hour's payments does not scan the day's history.
+ */
+public class JdbcOrderRepository implements OrderRepository {
+    private static final String COLUMNS = "SELECT o.id, o.table_no, o.status, o.created_at, o.paid_at, o.discount, "
+            + "o.tax_mode, o.version, l.item_id, l.item_name, l.unit_price, l.item_type, l.tax_category, l.tax_rate, l.quantity ";
+    private static final String SELECT = COLUMNS + "FROM orders o LEFT JOIN order_lines l ON l.order_id = o.id";
+    private static final String ORDER_BY = " ORDER BY o.id, l.line_no";
+
+    private static final String SELECT_ALL = SELECT + ORDER_BY;
+    private static final String SELECT_BY_ID = SELECT + " WHERE o.id = ?" + ORDER_BY;
+    private static final String SELECT_BY_TABLE = SELECT + " WHERE o.table_no = ?" + ORDER_BY;
+    private static final String SELECT_BY_STATUS = SELECT + " WHERE o.status = ?" + ORDER_BY;
+    private static final String SELECT_CREATED_BETWEEN = SELECT + " WHERE o.created_at >= ? AND o.created_at < ?"
+            + " ORDER BY o.created_at, o.id, l.line_no";
+    private static final String SELECT_PAID_BETWEEN = SELECT + " WHERE o.paid_at >= ? AND o.paid_at < ?"
+            + " ORDER BY o.paid_at, o.id, l.line_no";
+    // Keyset paging: created_at >= ? narrows the index range, the OR skips what the cursor already covered
+    private static final String AFTER_CURSOR = "created_at >= ? AND (created_at > ? OR id > ?)";
+    private static final String PAGE_FIRST = pageQuery("");
+    private static final String PAGE_AFTER = pageQuery(" WHERE " + AFTER_CURSOR);
+    private static final String PAGE_STATUS_FIRST = pageQuery(" WHERE status = ?");
+    private static final String PAGE_STATUS_AFTER = pageQuery(" WHERE status = ? AND " + AFTER_CURSOR);
+    private static final String MERGE_ORDER = "MERGE INTO orders (id, table_no, status, created_at, paid_at, discount, "
+            + "tax_mode, version) KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_LINES = "DELETE FROM order_lines WHERE order_id = ?";
+    private static final String INSERT_LINE = "INSERT INTO order_lines (order_id, line_no, item_id, item_name, "
+            + "unit_price, item_type, tax_category, tax_rate, quantity) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_ORDER = "DELETE FROM orders WHERE id = ?";
+
+    private final JdbcDatabase database;
+
+    public JdbcOrderRepository(JdbcDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return database.transaction(session -> readOrders(session.prepare(SELECT_ALL)));
+    }
+
+    @Override
+    public Optional<Order> findById(String id) {
+        return database.transaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_BY_ID);
+            statement.setString(1, id);
+            return readOrders(statement).stream().findFirst();
+        });
+    }
+
+    @Override
+    public Order save(Order order) {
+        if (order.getId() == null) {
+            throw new IllegalArgumentException("Order must have an ID");
+        }
+        return database.transaction(session -> {
+            PreparedStatement merge = session.prepare(MERGE_ORDER);
+            merge.setString(1, order.getId());
+            merge.setInt(2, order.getTableNo());
+            merge.setString(3, order.getStatus().name());
+            merge.setObject(4, order.getCreatedAt());
+            merge.setObject(5, order.getPaidAt());
+            merge.setDouble(6, order.getDiscount());
+            merge.setString(7, order.getTaxMode().name());
+            merge.setInt(8, order.getVersion());
+            merge.executeUpdate();
+
+            PreparedStatement deleteLines = session.prepare(DELETE_LINES);
+            deleteLines.setString(1, order.getId());
+            deleteLines.executeUpdate();
+
+            List<OrderLine> lines = order.getOrderLines();
+            if (!lines.isEmpty()) {
+                PreparedStatement insert = session.prepare(INSERT_LINE);
+                for (int i = 0; i < lines.size(); i++) {
+                    OrderLine line = lines.get(i);
+                    insert.setString(1, order.getId());
+                    insert.setInt(2, i);
+                    insert.setString(3, line.getItemId());
+                    insert.setString(4, line.getItemName());
+                    insert.setDouble(5, line.getUnitPrice());
+                    if (line.getItemType() == null) {
+                        insert.setNull(6, Types.VARCHAR);
+                    } else {
+                        insert.setString(6, line.getItemType().name());
+                    }
+                    insert.setString(7, line.getTaxCategory());
+                    insert.setDouble(8, line.getTaxRate());
+                    insert.setInt(9, line.getQuantity());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            return order;
+        });
+    }
+
+    @Override
+    public boolean delete(String id) {
+        // Lines go with the order through the cascading foreign key
+        return database.transaction(session -> {
+            PreparedStatement statement = session.prepare(DELETE_ORDER);
+            statement.setString(1, id);
+            return statement.executeUpdate() > 0;
+        });
+    }
+
+    @Override
+    public List<Order> findByTable(int tableNo) {
+        return database.transaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_BY_TABLE);
+            statement.setInt(1, tableNo);
+            return readOrders(statement);
+        });
+    }
+
+    @Override
+    public List<Order> findByStatus(Order.OrderStatus status) {
+        return database.transaction(session -> {
+            PreparedStatement statement = session.prepare(SELECT_BY_STATUS);
+            statement.setString(1, status.name());
+            return readOrders(statement);
+        });
+    }
+
+    @Override
+    public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return findBetween(SELECT_CREATED_BETWEEN, from, to);
+    }
+
+    @Override
+    public List<Order> findPaidBetween(LocalDateTime from, LocalDateTime to) {
+        return findBetween(SELECT_PAID_BETWEEN, from, to);
+    }
+
+    @Override
+    public Page<Order> findAll(String cursor, int limit) {
+        return page(null, cursor, limit);
+    }
+
+    @Override
+    public Page<Order> findByStatus(Order.OrderStatus status, String cursor, int limit) {
+        return page(status, cursor, limit);
+    }
+
+    // One order past the page tells whether another page follows
+    private Page<Order> page(Order.OrderStatus status, String cursor, int limit) {
+        Page.checkLimit(limit);
+        OrderCursor after = cursor == null ? null : OrderCursor.parse(cursor);
+        List<Order> orders = database.transaction(session -> {
+            PreparedStatement statement;
+            int parameter = 1;
+            if (status == null) {
+                statement = session.prepare(after == null ? PAGE_FIRST : PAGE_AFTER);
+            } else {
+                statement = session.prepare(after == null ? PAGE_STATUS_FIRST : PAGE_STATUS_AFTER);
+                statement.setString(parameter++, status.name());
+            }
+            if (after != null) {
+                statement.setObject(parameter++, after.createdAt);
+                statement.setObject(parameter++, after.createdAt);
+                statement.setString(parameter++, after.orderId);
+            }
+            statement.setInt(parameter, limit + 1);
+            return readOrders(statement);
+        });
+        if (orders.size() <= limit) {
+            return new Page<>(orders, null);
+        }
+        List<Order> items = orders.subList(0, limit);
+        return new Page<>(items, OrderCursor.of(items.get(limit - 1)));
+    }
+
+    private static String pageQuery(String where) {
+        return COLUMNS + "FROM (SELECT * FROM orders" + where + " ORDER BY created_at, id LIMIT ?) o "
+                + "LEFT JOIN order_lines l ON l.order_id = o.id ORDER BY o.created_at, o.id, l.line_no";
+    }
+
+    private List<Order> findBetween(String sql, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("A time range needs both a start and an end");
+        }
+        return database.transaction(session -> {
+            PreparedStatement statement = session.prepare(sql);
+            statement.setObject(1, from);
+            statement.setObject(2, to);
+            return readOrders(statement);
+        });
+    }
+
+    // Rows arrive grouped by order with lines in order; an order without lines has one row of nulls
+    private static List<Order> readOrders(PreparedStatement statement) throws SQLException {
+        List<Order> orders = new ArrayList<>();
+        try (ResultSet rows = statement.executeQuery()) {
+            boolean more = rows.next();
+            while (more) {
+                String id = rows.getString(1);
+                int tableNo = rows.getInt(2);
+                Order.OrderStatus status = Order.OrderStatus.valueOf(rows.getString(3));
+                LocalDateTime createdAt = rows.getObject(4, LocalDateTime.class);
+                LocalDateTime paidAt = rows.getObject(5, LocalDateTime.class);
+                double discount = rows.getDouble(6);
+                TaxEngine.TaxMode taxMode = TaxEngine.TaxMode.valueOf(rows.getString(7));
+                int version = rows.getInt(8);
+                List<OrderLine> lines = new ArrayList<>();
+                do {
+                    String itemId = rows.getString(9);
+                    if (itemId != null) {
+                        String itemType = rows.getString(12);
+                        lines.add(new OrderLine(itemId, rows.getString(10), rows.getDouble(11),
+                                itemType == null ? null : MenuItem.ItemType.valueOf(itemType),
+                                rows.getString(13), rows.getDouble(14), rows.getInt(15)));
+                    }
+                    more = rows.next();
+                } while (more && id.equals(rows.getString(1)));
+                Order order = new Order(id, tableNo, status, createdAt, paidAt, lines, discount, taxMode);
+                order.setVersion(version);
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+}
@@ -1,8 +1,12 @@
 package cse213.ecoresort.repository;
 
 import cse213.ecoresort.model.MenuItem;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface MenuRepository {
     List<MenuItem> findAll();
@@ -11,4 +15,74 @@ public interface MenuRepository {
     boolean delete(String id);
     List<MenuItem> findByType(MenuItem.ItemType type);
     List<MenuItem> findAvailable();
+
+    /**
+     * Save many items at once; backends that can batch the writes override this
+     */
+    default void saveAll(List<MenuItem> items) {
+        for (MenuItem item : items) {
+            save(item);
+        }
+    }
+
+    /**
+     * Up to limit items after the cursor in ID order; a null cursor starts at the first
+     */
+    default Page<MenuItem> findAll(String cursor, int limit) {
+        return scanPage(this, null, cursor, limit);
+    }
+
+    /**
+     * Like findAll(cursor, limit), restricted to one type
+     */
+    default Page<MenuItem> findByType(MenuItem.ItemType type, String cursor, int limit) {
+        return scanPage(this, type, cursor, limit);
+    }
+
+    /**
+     * Every item in ID order, read a page at a time
+     */
+    default Stream<MenuItem> streamAll() {
+        return StreamSupport.stream(new PagedSpliterator<>(this::findAll, Page.DEFAULT_SIZE), false);
+    }
+
+    default Stream<MenuItem> streamByType(MenuItem.ItemType type) {
+        return StreamSupport.stream(
+                new PagedSpliterator<>((cursor, limit) -> findByType(type, cursor, limit), Page.DEFAULT_SIZE), false);
+    }
+
+    // Stock changes go through the repository so shared backends can apply them atomically
+    default boolean decreaseStock(String id, int quantity) {
+        return findById(id).map(item -> item.decreaseStock(quantity)).orElse(false);
+    }
+
+    default void increaseStock(String id, int quantity) {
+        findById(id).ifPresent(item -> item.increaseStock(quantity));
+    }
+
+    // Price and stock-level edits write only that field, so stock sold since an item was read is kept.
+    // Items that no longer exist are skipped.
+    default void updatePrices(Map<String, Double> prices) {
+        prices.forEach((id, price) -> findById(id).ifPresent(item -> item.setPrice(price)));
+    }
+
+    default void setStock(String id, int stockQty) {
+        findById(id).ifPresent(item -> item.setStockQty(stockQty));
+    }
+
+    // Fallback for stores without ordered keys: sorts findAll, so it is not memory-bounded
+    private static Page<MenuItem> scanPage(MenuRepository repository, MenuItem.ItemType type, String cursor, int limit) {
+        Page.checkLimit(limit);
+        List<MenuItem> matches = repository.findAll().stream()
+                .filter(item -> type == null || item.getType() == type)
+                .filter(item -> cursor == null || item.getId().compareTo(cursor) > 0)
+                .sorted(Comparator.comparing(MenuItem::getId))
+                .limit(limit + 1L)
+                .toList();
+        if (matches.size() <= limit) {
+            return new Page<>(matches, null);
+        }
+        List<MenuItem> items = matches.subList(0, limit);
+        return new Page<>(items, items.get(limit - 1).getId());
+    }
 }
@@ -0,0 +1,49 @@
+package cse213.ecoresort.repository;
+
+import cse213.ecoresort.model.Order;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+
+/**
+ * Paging cursor for orders: the creation time and ID of the last order on a
+ * page, which is also the order pages are read in
+ */
+final class OrderCursor {
+    static final Comparator<Order> ORDER = Comparator.comparingLong(Order::getCreatedAtMicros).thenComparing(Order::getId);
+
+    private static final char SEPARATOR = '|';
+
+    final LocalDateTime createdAt;
+    final String orderId;
+
+    private OrderCursor(LocalDateTime createdAt, String orderId) {
+        this.createdAt = createdAt;
+        this.orderId = orderId;
+    }
+
+    static String of(Order order) {
+        return order.getCreatedAt().toString() + SEPARATOR + order.getId();
+    }
+
+    static OrderCursor parse(String cursor) {
+        int split = cursor.indexOf(SEPARATOR);
+        try {
+            if (split > 0) {
+                return new OrderCursor(LocalDateTime.parse(cursor.substring(0, split)), cursor.substring(split + 1));
+            }
+        } catch (DateTimeParseException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid order cursor: " + cursor);
+    }
+
+    /**
+     * Whether the order comes after this cursor in paging order
+     */
+    boolean isBefore(Order order) {
+        int byTime = createdAt.compareTo(order.getCreatedAt());
+        return byTime != 0 ? byTime < 0 : orderId.compareTo(order.getId()) < 0;
+    }
+}
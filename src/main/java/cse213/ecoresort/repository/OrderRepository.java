@@ -1,8 +1,13 @@
 package cse213.ecoresort.repository;
 
 import cse213.ecoresort.model.Order;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface OrderRepository {
     List<Order> findAll();
@@ -11,4 +16,76 @@ public interface OrderRepository {
     boolean delete(String id);
     List<Order> findByTable(int tableNo);
     List<Order> findByStatus(Order.OrderStatus status);
+
+    /**
+     * Orders created at or after from and before to, oldest first
+     */
+    default List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return scanBetween(this, Order::getCreatedAt, from, to);
+    }
+
+    /**
+     * Orders paid at or after from and before to, oldest payment first
+     */
+    default List<Order> findPaidBetween(LocalDateTime from, LocalDateTime to) {
+        return scanBetween(this, Order::getPaidAt, from, to);
+    }
+
+    /**
+     * Up to limit orders after the cursor in creation order; a null cursor starts at the oldest
+     */
+    default Page<Order> findAll(String cursor, int limit) {
+        return scanPage(this, null, cursor, limit);
+    }
+
+    /**
+     * Like findAll(cursor, limit), restricted to one status
+     */
+    default Page<Order> findByStatus(Order.OrderStatus status, String cursor, int limit) {
+        return scanPage(this, status, cursor, limit);
+    }
+
+    /**
+     * Every order in creation order, read a page at a time
+     */
+    default Stream<Order> streamAll() {
+        return StreamSupport.stream(new PagedSpliterator<>(this::findAll, Page.DEFAULT_SIZE), false);
+    }
+
+    default Stream<Order> streamByStatus(Order.OrderStatus status) {
+        return StreamSupport.stream(
+                new PagedSpliterator<>((cursor, limit) -> findByStatus(status, cursor, limit), Page.DEFAULT_SIZE), false);
+    }
+
+    // Fallback for stores without ordered keys: sorts findAll, so it is not memory-bounded
+    private static Page<Order> scanPage(OrderRepository repository, Order.OrderStatus status, String cursor, int limit) {
+        Page.checkLimit(limit);
+        OrderCursor after = cursor == null ? null : OrderCursor.parse(cursor);
+        List<Order> matches = repository.findAll().stream()
+                .filter(order -> status == null || order.getStatus() == status)
+                .filter(order -> after == null || after.isBefore(order))
+                .sorted(OrderCursor.ORDER)
+                .limit(limit + 1L)
+                .toList();
+        if (matches.size() <= limit) {
+            return new Page<>(matches, null);
+        }
+        List<Order> items = matches.subList(0, limit);
+        return new Page<>(items, OrderCursor.of(items.get(limit - 1)));
+    }
+
+    // Fallback for stores without a time index: one pass over findAll
+    private static List<Order> scanBetween(OrderRepository repository, Function<Order, LocalDateTime> time,
+                                           LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("A time range needs both a start and an end");
+        }
+        return repository.findAll().stream()
+                .filter(order -> {
+                    LocalDateTime at = time.apply(order);
+                    return at != null && !at.isBefore(from) && at.isBefore(to);
+                })
+                .sorted(Comparator.comparing(time).thenComparing(Order::getId))
+                .toList();
+    }
 }
@@ -0,0 +1,96 @@
+package cse213.ecoresort.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Thin HTTP client shared by the remote repositories
+ */
+class OrderServerClient {
+    static final int NOT_FOUND = 404;
+    static final int CONFLICT = 409;
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+
+    OrderServerClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    HttpResponse<byte[]> get(String path) {
+        return send(request(path).GET().build());
+    }
+
+    // A PUT sent twice is harmless: a menu item is replaced whole, and order saves are
+    // conditional on the version, so a repeat of one that got through is refused as a conflict
+    HttpResponse<byte[]> put(String path, byte[] body) {
+        return sendRetrying(request(path).PUT(HttpRequest.BodyPublishers.ofByteArray(body)).build());
+    }
+
+    HttpResponse<byte[]> post(String path) {
+        return send(request(path).POST(HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    HttpResponse<byte[]> delete(String path) {
+        return send(request(path).DELETE().build());
+    }
+
+    /**
+     * The version in a response's ETag header, or 0 if it has none
+     */
+    static int version(HttpResponse<?> response) {
+        return response.headers().firstValue("ETag")
+                .map(tag -> Integer.parseInt(tag.replace("\"", "")))
+                .orElse(0);
+    }
+
+    /**
+     * Query string for one page: one extra row is asked for to learn whether another page follows
+     */
+    static String pageQuery(String cursor, int limit) {
+        String query = "limit=" + (limit + 1);
+        return cursor == null ? query : query + "&after=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", "application/octet-stream");
+    }
+
+    // Send again once if the connection failed, e.g. a kept-alive one the server had just closed
+    private HttpResponse<byte[]> sendRetrying(HttpRequest request) {
+        try {
+            return send(request);
+        } catch (UncheckedIOException e) {
+            return send(request);
+        }
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) {
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            int status = response.statusCode();
+            if (status >= 400 && status != NOT_FOUND && status != CONFLICT) {
+                throw new IllegalStateException("Order server returned " + status + " for " + request.uri());
+            }
+            return response;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Order server unreachable at " + baseUrl, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling order server", e);
+        }
+    }
+}
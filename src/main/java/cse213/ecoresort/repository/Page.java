@@ -0,0 +1,43 @@
+package cse213.ecoresort.repository;
+
+import java.util.List;
+
+/**
+ * One page of a query result plus the cursor that continues it.
+ * Cursors are opaque strings: pass getNextCursor() back to the same query to
+ * get the following page, or null to start from the beginning. Paging is by
+ * key, not offset, so orders saved or deleted meanwhile do not shift pages.
+ */
+public final class Page<T> {
+    // Page size the streaming queries read with
+    public static final int DEFAULT_SIZE = 500;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = List.copyOf(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Cursor for the next page, or null on the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package cse213.ecoresort.repository;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Walks a paged query one page at a time, so a stream over any number of
+ * results holds a single page. Splitting hands the page already fetched to
+ * the new spliterator and leaves this one to fetch the next, which lets
+ * parallel consumers work on different pages; each holds one page at most.
+ */
+final class PagedSpliterator<T> implements Spliterator<T> {
+    interface Fetcher<T> {
+        Page<T> fetch(String cursor, int limit);
+    }
+
+    private final Fetcher<T> fetcher;
+    private final int pageSize;
+    private List<T> page = List.of();
+    private int index;
+    private String cursor;
+    private boolean exhausted;
+
+    PagedSpliterator(Fetcher<T> fetcher, int pageSize) {
+        Page.checkLimit(pageSize);
+        this.fetcher = fetcher;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (index == page.size() && !fetchNext()) {
+            return false;
+        }
+        action.accept(page.get(index++));
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (index == page.size() && !fetchNext()) {
+            return null;
+        }
+        if (exhausted) {
+            // Last page: nothing to fetch ahead, so only split a page worth sharing
+            return null;
+        }
+        Spliterator<T> prefix = Spliterators.spliterator(page.subList(index, page.size()), characteristics());
+        page = List.of();
+        index = 0;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return exhausted ? page.size() - index : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    private boolean fetchNext() {
+        while (!exhausted) {
+            Page<T> next = fetcher.fetch(cursor, pageSize);
+            page = next.getItems();
+            index = 0;
+            cursor = next.getNextCursor();
+            exhausted = cursor == null;
+            if (!page.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,102 @@
+package cse213.ecoresort.repository;
+
+import cse213.ecoresort.codec.BinaryCodec;
+import cse213.ecoresort.model.MenuItem;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * MenuRepository backed by a shared order server, so several tills see the same menu and stock
+ */
+public class RemoteMenuRepository implements MenuRepository {
+    private static final ThreadLocal<BinaryCodec> CODEC = ThreadLocal.withInitial(BinaryCodec::new);
+
+    private final OrderServerClient client;
+
+    public RemoteMenuRepository(String baseUrl) {
+        this.client = new OrderServerClient(baseUrl);
+    }
+
+    @Override
+    public List<MenuItem> findAll() {
+        return BinaryCodec.readItems(ByteBuffer.wrap(client.get("/menu").body()));
+    }
+
+    @Override
+    public Optional<MenuItem> findById(String id) {
+        HttpResponse<byte[]> response = client.get("/menu/" + id);
+        if (response.statusCode() == OrderServerClient.NOT_FOUND) {
+            return Optional.empty();
+        }
+        return Optional.of(BinaryCodec.readItem(ByteBuffer.wrap(response.body())));
+    }
+
+    @Override
+    public MenuItem save(MenuItem item) {
+        if (item.getId() == null) {
+            throw new IllegalArgumentException("Item must have an ID");
+        }
+        client.put("/menu", BinaryCodec.toBytes(CODEC.get().encode(item)));
+        return item;
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return client.delete("/menu/" + id).statusCode() != OrderServerClient.NOT_FOUND;
+    }
+
+    @Override
+    public List<MenuItem> findByType(MenuItem.ItemType type) {
+        return BinaryCodec.readItems(ByteBuffer.wrap(client.get("/menu?type=" + type.name()).body()));
+    }
+
+    @Override
+    public Page<MenuItem> findAll(String cursor, int limit) {
+        return page("", cursor, limit);
+    }
+
+    @Override
+    public Page<MenuItem> findByType(MenuItem.ItemType type, String cursor, int limit) {
+        return page("type=" + type.name() + "&", cursor, limit);
+    }
+
+    private Page<MenuItem> page(String filter, String cursor, int limit) {
+        Page.checkLimit(limit);
+        String path = "/menu?" + filter + OrderServerClient.pageQuery(cursor, limit);
+        List<MenuItem> items = BinaryCodec.readItems(ByteBuffer.wrap(client.get(path).body()));
+        if (items.size() <= limit) {
+            return new Page<>(items, null);
+        }
+        List<MenuItem> page = items.subList(0, limit);
+        return new Page<>(page, page.get(limit - 1).getId());
+    }
+
+    @Override
+    public List<MenuItem> findAvailable() {
+        return BinaryCodec.readItems(ByteBuffer.wrap(client.get("/menu?available=true").body()));
+    }
+
+    @Override
+    public boolean decreaseStock(String id, int quantity) {
+        return client.post("/menu/" + id + "/stock?delta=" + (-quantity)).statusCode() == 200;
+    }
+
+    @Override
+    public void increaseStock(String id, int quantity) {
+        client.post("/menu/" + id + "/stock?delta=" + quantity);
+    }
+
+    @Override
+    public void updatePrices(Map<String, Double> prices) {
+        prices.forEach((id, price) -> client.post("/menu/" + id + "/price?value=" + price));
+    }
+
+    @Override
+    public void setStock(String id, int stockQty) {
+        client.post("/menu/" + id + "/stock?level=" + stockQty);
+    }
+}
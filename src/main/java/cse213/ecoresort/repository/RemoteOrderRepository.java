@@ -0,0 +1,108 @@
+package cse213.ecoresort.repository;
+
+import cse213.ecoresort.codec.BinaryCodec;
+import cse213.ecoresort.model.Order;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * OrderRepository backed by a shared order server, so several tills see the same orders.
+ * Saves are conditional on the order's version: saving an order another till
+ * changed or deleted since it was read fails with IllegalStateException and
+ * leaves the server's copy alone; read the order again and redo the change.
+ */
+public class RemoteOrderRepository implements OrderRepository {
+    private static final ThreadLocal<BinaryCodec> CODEC = ThreadLocal.withInitial(BinaryCodec::new);
+
+    private final OrderServerClient client;
+
+    public RemoteOrderRepository(String baseUrl) {
+        this.client = new OrderServerClient(baseUrl);
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return BinaryCodec.readOrders(ByteBuffer.wrap(client.get("/orders").body()));
+    }
+
+    @Override
+    public Optional<Order> findById(String id) {
+        HttpResponse<byte[]> response = client.get("/orders/" + id);
+        if (response.statusCode() == OrderServerClient.NOT_FOUND) {
+            return Optional.empty();
+        }
+        return Optional.of(BinaryCodec.readOrder(ByteBuffer.wrap(response.body())));
+    }
+
+    @Override
+    public Order save(Order order) {
+        if (order.getId() == null) {
+            throw new IllegalArgumentException("Order must have an ID");
+        }
+        HttpResponse<byte[]> response = client.put("/orders", BinaryCodec.toBytes(CODEC.get().encode(order)));
+        if (response.statusCode() == OrderServerClient.CONFLICT) {
+            throw new IllegalStateException("Order " + order.getId() + " was changed on another till; reload it");
+        }
+        order.setVersion(OrderServerClient.version(response));
+        return order;
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return client.delete("/orders/" + id).statusCode() != OrderServerClient.NOT_FOUND;
+    }
+
+    @Override
+    public List<Order> findByTable(int tableNo) {
+        return BinaryCodec.readOrders(ByteBuffer.wrap(client.get("/orders?table=" + tableNo).body()));
+    }
+
+    @Override
+    public List<Order> findByStatus(Order.OrderStatus status) {
+        return BinaryCodec.readOrders(ByteBuffer.wrap(client.get("/orders?status=" + status.name()).body()));
+    }
+
+    @Override
+    public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return findBetween("created", from, to);
+    }
+
+    @Override
+    public List<Order> findPaidBetween(LocalDateTime from, LocalDateTime to) {
+        return findBetween("paid", from, to);
+    }
+
+    @Override
+    public Page<Order> findAll(String cursor, int limit) {
+        return page("", cursor, limit);
+    }
+
+    @Override
+    public Page<Order> findByStatus(Order.OrderStatus status, String cursor, int limit) {
+        return page("status=" + status.name() + "&", cursor, limit);
+    }
+
+    private Page<Order> page(String filter, String cursor, int limit) {
+        Page.checkLimit(limit);
+        String path = "/orders?" + filter + OrderServerClient.pageQuery(cursor, limit);
+        List<Order> orders = BinaryCodec.readOrders(ByteBuffer.wrap(client.get(path).body()));
+        if (orders.size() <= limit) {
+            return new Page<>(orders, null);
+        }
+        List<Order> items = orders.subList(0, limit);
+        return new Page<>(items, OrderCursor.of(items.get(limit - 1)));
+    }
+
+    // The server answers from its own time index; ISO timestamps need no URL escaping
+    private List<Order> findBetween(String field, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("A time range needs both a start and an end");
+        }
+        String path = "/orders?" + field + "From=" + from + "&" + field + "To=" + to;
+        return BinaryCodec.readOrders(ByteBuffer.wrap(client.get(path).body()));
+    }
+}
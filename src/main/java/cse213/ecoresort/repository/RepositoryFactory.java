@@ -0,0 +1,79 @@
+package cse213.ecoresort.repository;
+
+/**
+ * Chooses the repository implementations for this process.
+ * Tills started with -Decoresort.server=http://host:port share the orders and
+ * stock of that order server. Otherwise -Decoresort.repository=jdbc keeps them
+ * in an embedded database (see JdbcDatabase for the URL), and by default the
+ * local in-memory singletons are used.
+ *
+ * The database repositories are wrapped in read-through caches of
+ * -Decoresort.cache.size entries each (0 turns them off). Remote repositories
+ * are not cached, since other tills write to the same orders.
+ */
+public final class RepositoryFactory {
+    public static final String SERVER_PROPERTY = "ecoresort.server";
+    public static final String REPOSITORY_PROPERTY = "ecoresort.repository";
+    public static final String CACHE_SIZE_PROPERTY = "ecoresort.cache.size";
+    public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    private static MenuRepository menuRepository;
+    private static OrderRepository orderRepository;
+    private static JdbcDatabase database;
+
+    private RepositoryFactory() {
+    }
+
+    public static synchronized MenuRepository menuRepository() {
+        if (menuRepository == null) {
+            String server = System.getProperty(SERVER_PROPERTY);
+            if (server != null) {
+                menuRepository = new RemoteMenuRepository(server);
+            } else if (useJdbc()) {
+                menuRepository = cached(new JdbcMenuRepository(database()));
+            } else {
+                menuRepository = InMemoryMenuRepository.getInstance();
+            }
+        }
+        return menuRepository;
+    }
+
+    public static synchronized OrderRepository orderRepository() {
+        if (orderRepository == null) {
+            String server = System.getProperty(SERVER_PROPERTY);
+            if (server != null) {
+                orderRepository = new RemoteOrderRepository(server);
+            } else if (useJdbc()) {
+                orderRepository = cached(new JdbcOrderRepository(database()));
+            } else {
+                orderRepository = InMemoryOrderRepository.getInstance();
+            }
+        }
+        return orderRepository;
+    }
+
+    private static MenuRepository cached(MenuRepository repository) {
+        int size = cacheSize();
+        return size > 0 ? new CachingMenuRepository(repository, size) : repository;
+    }
+
+    private static OrderRepository cached(OrderRepository repository) {
+        int size = cacheSize();
+        return size > 0 ? new CachingOrderRepository(repository, size) : repository;
+    }
+
+    private static int cacheSize() {
+        return Integer.getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE);
+    }
+
+    private static boolean useJdbc() {
+        return "jdbc".equals(System.getProperty(REPOSITORY_PROPERTY));
+    }
+
+    private static JdbcDatabase database() {
+        if (database == null) {
+            database = new JdbcDatabase();
+        }
+        return database;
+    }
+}
@@ -0,0 +1,228 @@
+package cse213.ecoresort.repository;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded cache with TinyLFU admission, used by the caching repositories.
+ * New entries go into a small LRU window (1% of the size). An entry pushed
+ * out of the window only enters the main space if a frequency sketch says it
+ * has been asked for more often than the entry it would evict, so a one-off
+ * scan over many keys cannot flush out the ones tills keep coming back to.
+ * The main space is a segmented LRU: entries read again while on probation
+ * move up to the protected segment (80% of the main space).
+ *
+ * All operations take the cache's lock; loads on a miss run outside it.
+ */
+public class TinyLfuCache<K, V> {
+    private final int maximumSize;
+    private final int windowMax;
+    private final int protectedMax;
+    private final FrequencySketch sketch;
+    // Each segment in LRU order, eldest first
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>();
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+    // Bumped by every replace and invalidate, to spot loads that raced with a write
+    private long writes;
+
+    public TinyLfuCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.windowMax = Math.max(1, maximumSize / 100);
+        this.protectedMax = (maximumSize - windowMax) * 4 / 5;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * The cached value, counting a hit or a miss
+     */
+    public synchronized V getIfPresent(K key) {
+        sketch.increment(key);
+        V value = window.get(key);
+        if (value != null) {
+            touch(window, key, value);
+        } else if ((value = protectedSegment.get(key)) != null) {
+            touch(protectedSegment, key, value);
+        } else if ((value = probation.remove(key)) != null) {
+            promote(key, value);
+        }
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    /**
+     * The cached value, or the loaded one, which is offered to the cache when
+     * not null. A load that raced with a write is returned but not cached, so
+     * a stale copy read before the write cannot outlive it.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long seen;
+        synchronized (this) {
+            V value = getIfPresent(key);
+            if (value != null) {
+                return value;
+            }
+            seen = writes;
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                if (writes == seen) {
+                    put(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Add or replace an entry; a new entry starts in the window
+     */
+    public synchronized void put(K key, V value) {
+        if (replaceCached(key, value)) {
+            return;
+        }
+        window.put(key, value);
+        if (window.size() > windowMax) {
+            Iterator<Map.Entry<K, V>> eldest = window.entrySet().iterator();
+            Map.Entry<K, V> candidate = eldest.next();
+            eldest.remove();
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    /**
+     * Replace an entry only if it is cached, keeping its place
+     */
+    public synchronized boolean replace(K key, V value) {
+        writes++;
+        return replaceCached(key, value);
+    }
+
+    public synchronized void invalidate(K key) {
+        writes++;
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedSegment.remove(key);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        writes++;
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, rejections, size());
+    }
+
+    // The window's eldest asks to join the main space; the sketch decides between it and the main space's eldest
+    private void admit(K key, V value) {
+        if (probation.size() + protectedSegment.size() < maximumSize - windowMax) {
+            probation.put(key, value);
+            return;
+        }
+        LinkedHashMap<K, V> victims = probation.isEmpty() ? protectedSegment : probation;
+        K victim = victims.keySet().iterator().next();
+        if (sketch.frequency(key) > sketch.frequency(victim)) {
+            victims.remove(victim);
+            probation.put(key, value);
+        } else {
+            rejections++;
+        }
+        evictions++;
+    }
+
+    // Read again while on probation; the protected segment's eldest drops back if it is full
+    private void promote(K key, V value) {
+        protectedSegment.put(key, value);
+        if (protectedSegment.size() > protectedMax) {
+            Iterator<Map.Entry<K, V>> eldest = protectedSegment.entrySet().iterator();
+            Map.Entry<K, V> demoted = eldest.next();
+            eldest.remove();
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    private boolean replaceCached(K key, V value) {
+        return replaceIn(window, key, value) || replaceIn(probation, key, value)
+                || replaceIn(protectedSegment, key, value);
+    }
+
+    private static <K, V> void touch(LinkedHashMap<K, V> segment, K key, V value) {
+        segment.remove(key);
+        segment.put(key, value);
+    }
+
+    private static <K, V> boolean replaceIn(LinkedHashMap<K, V> segment, K key, V value) {
+        if (!segment.containsKey(key)) {
+            return false;
+        }
+        segment.put(key, value);
+        return true;
+    }
+
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long rejections;
+        private final int size;
+
+        Stats(long hits, long misses, long evictions, long rejections, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.rejections = rejections;
+            this.size = size;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+
+        /**
+         * Entries dropped to stay within the size, including new ones turned away
+         */
+        public long getEvictions() { return evictions; }
+
+        /**
+         * New entries turned away because the entry they would evict is more popular
+         */
+        public long getRejections() { return rejections; }
+        public int getSize() { return size; }
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d hits, %,d misses (%.1f%% hit rate), %,d evictions (%,d rejected on admission), %,d cached",
+                    hits, misses, getHitRate() * 100, evictions, rejections, size);
+        }
+    }
+}
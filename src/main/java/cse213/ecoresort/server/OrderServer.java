@@ -0,0 +1,354 @@
+package cse213.ecoresort.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import cse213.ecoresort.codec.BinaryCodec;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.repository.MenuRepository;
+import cse213.ecoresort.repository.OrderRepository;
+import cse213.ecoresort.repository.RepositoryFactory;
+import cse213.ecoresort.service.LowStockMonitor;
+import cse213.ecoresort.service.MenuService;
+import cse213.ecoresort.service.SnapshotService;
+import cse213.ecoresort.service.StateGate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded order server for running several tills against one restaurant.
+ * The server process owns the in-memory repositories; terminals started with
+ * -Decoresort.server=http://host:port use RemoteMenuRepository and
+ * RemoteOrderRepository, so every till sees the same orders and stock.
+ *
+ * Endpoints (binary bodies in BinaryCodec format):
+ *   GET /menu[?type=FOOD|DRINK|available=true], GET|DELETE /menu/{id}, PUT /menu,
+ *   POST /menu/{id}/stock?delta=n|level=n, POST /menu/{id}/price?value=p,
+ *   GET /orders[?table=n|status=DRAFT|PAID], GET|DELETE /orders/{id}, PUT /orders
+ *
+ * Saving an order is conditional: the order sent must carry the version the
+ * till last read (0 for a new order). The server stores it as the next
+ * version and answers with that version in the ETag header; if another till
+ * saved or deleted the order in between, it answers 409 and keeps what it has.
+ * GET /orders/{id} also answers with the stored version in the ETag header.
+ *
+ * Every write passes the StateGate, so a snapshot of the server's state never
+ * catches one half done.
+ */
+public class OrderServer {
+    public static final int DEFAULT_PORT = 8085;
+
+    private static final int OK = 200;
+    private static final int NO_CONTENT = 204;
+    private static final int BAD_REQUEST = 400;
+    private static final int NOT_FOUND = 404;
+    private static final int BAD_METHOD = 405;
+    private static final int CONFLICT = 409;
+
+    static {
+        // Small responses otherwise wait ~40ms on Nagle's algorithm and delayed ACKs
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        // Past 200 idle keep-alive connections the server closes them under the tills' feet
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", "1024");
+        }
+    }
+
+    private static final ThreadLocal<BinaryCodec> CODEC = ThreadLocal.withInitial(BinaryCodec::new);
+    // Saves of one order are checked and stored under its stripe's lock
+    private static final int SAVE_STRIPES = 64;
+
+    private final Object[] saveLocks = new Object[SAVE_STRIPES];
+
+    private final MenuRepository menuRepository;
+    private final OrderRepository orderRepository;
+    private final MenuService menuService;
+    private final StateGate gate;
+    private HttpServer httpServer;
+    private ExecutorService executor;
+
+    public OrderServer() {
+        // In memory, or the embedded database with -Decoresort.repository=jdbc
+        this(RepositoryFactory.menuRepository(), RepositoryFactory.orderRepository());
+    }
+
+    public OrderServer(MenuRepository menuRepository, OrderRepository orderRepository) {
+        this.menuRepository = menuRepository;
+        this.orderRepository = orderRepository;
+        this.menuService = new MenuService(menuRepository);
+        this.gate = StateGate.getInstance();
+        for (int i = 0; i < SAVE_STRIPES; i++) {
+            saveLocks[i] = new Object();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        SnapshotService.attachFromSystemProperty();
+        OrderServer server = new OrderServer();
+        // Stock changes from every till land here, so this is where low stock is noticed
+        LowStockMonitor.getInstance().addAlertListener(alert -> System.out.println("ALERT: " + alert));
+        server.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        System.out.println("Order server listening on http://localhost:" + server.getPort());
+    }
+
+    /**
+     * Start listening on the loopback-visible port; use 0 to pick a free port
+     */
+    public synchronized void start(int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(port), 1024);
+        executor = createExecutor();
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/menu", exchange -> handle(exchange, this::handleMenu));
+        httpServer.createContext("/orders", exchange -> handle(exchange, this::handleOrders));
+        httpServer.start();
+    }
+
+    public synchronized void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            httpServer = null;
+        }
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    private ExecutorService createExecutor() {
+        // Prefer one virtual thread per request on Java 21+, the build still targets 17
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(16, Runtime.getRuntime().availableProcessors() * 4));
+        }
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try {
+            handler.handle(exchange);
+        } catch (RuntimeException e) {
+            respond(exchange, BAD_REQUEST, null);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleMenu(HttpExchange exchange) throws IOException {
+        String[] path = pathSegments(exchange);
+        String method = exchange.getRequestMethod();
+        Map<String, String> query = queryParams(exchange);
+
+        if (path.length == 1 && method.equals("GET")) {
+            List<MenuItem> items;
+            if (query.containsKey("limit")) {
+                int limit = Integer.parseInt(query.get("limit"));
+                String after = query.get("after");
+                items = query.containsKey("type")
+                        ? menuRepository.findByType(MenuItem.ItemType.valueOf(query.get("type")), after, limit).getItems()
+                        : menuRepository.findAll(after, limit).getItems();
+            } else if (query.containsKey("type")) {
+                items = menuRepository.findByType(MenuItem.ItemType.valueOf(query.get("type")));
+            } else if (query.containsKey("available")) {
+                items = menuRepository.findAvailable();
+            } else {
+                items = menuRepository.findAll();
+            }
+            respond(exchange, OK, CODEC.get().encodeItems(items));
+        } else if (path.length == 1 && method.equals("PUT")) {
+            menuService.save(BinaryCodec.readItem(ByteBuffer.wrap(readBody(exchange))));
+            respond(exchange, NO_CONTENT, null);
+        } else if (path.length == 2 && method.equals("GET")) {
+            Optional<MenuItem> item = menuRepository.findById(path[1]);
+            respond(exchange, item.isPresent() ? OK : NOT_FOUND,
+                    item.map(found -> CODEC.get().encode(found)).orElse(null));
+        } else if (path.length == 2 && method.equals("DELETE")) {
+            respond(exchange, menuService.deleteMenuItem(path[1]) ? NO_CONTENT : NOT_FOUND, null);
+        } else if (path.length == 3 && path[2].equals("stock") && method.equals("POST")) {
+            respond(exchange, query.containsKey("level")
+                    ? setStock(path[1], Integer.parseInt(query.get("level")))
+                    : adjustStock(path[1], Integer.parseInt(query.get("delta"))), null);
+        } else if (path.length == 3 && path[2].equals("price") && method.equals("POST")) {
+            respond(exchange, setPrice(path[1], Double.parseDouble(query.get("value"))), null);
+        } else {
+            respond(exchange, BAD_METHOD, null);
+        }
+    }
+
+    private int adjustStock(String itemId, int delta) {
+        return gate.change(() -> {
+            if (menuRepository.findById(itemId).isEmpty()) {
+                return NOT_FOUND;
+            }
+            if (delta < 0) {
+                return menuService.decreaseStock(itemId, -delta) ? OK : CONFLICT;
+            }
+            menuRepository.increaseStock(itemId, delta);
+            return OK;
+        });
+    }
+
+    // Writes only the one field, so stock sold through the server meanwhile is kept
+    private int setStock(String itemId, int stockQty) {
+        if (stockQty < 0) {
+            return BAD_REQUEST;
+        }
+        if (menuRepository.findById(itemId).isEmpty()) {
+            return NOT_FOUND;
+        }
+        gate.change(() -> menuRepository.setStock(itemId, stockQty));
+        return OK;
+    }
+
+    private int setPrice(String itemId, double price) {
+        if (price < 0) {
+            return BAD_REQUEST;
+        }
+        if (menuRepository.findById(itemId).isEmpty()) {
+            return NOT_FOUND;
+        }
+        gate.change(() -> menuRepository.updatePrices(Map.of(itemId, price)));
+        return OK;
+    }
+
+    private void handleOrders(HttpExchange exchange) throws IOException {
+        String[] path = pathSegments(exchange);
+        String method = exchange.getRequestMethod();
+        Map<String, String> query = queryParams(exchange);
+
+        if (path.length == 1 && method.equals("GET")) {
+            List<Order> orders;
+            if (query.containsKey("limit")) {
+                int limit = Integer.parseInt(query.get("limit"));
+                String after = query.get("after");
+                orders = query.containsKey("status")
+                        ? orderRepository.findByStatus(Order.OrderStatus.valueOf(query.get("status")), after, limit).getItems()
+                        : orderRepository.findAll(after, limit).getItems();
+            } else if (query.containsKey("table")) {
+                orders = orderRepository.findByTable(Integer.parseInt(query.get("table")));
+            } else if (query.containsKey("status")) {
+                orders = orderRepository.findByStatus(Order.OrderStatus.valueOf(query.get("status")));
+            } else if (query.containsKey("createdFrom")) {
+                orders = orderRepository.findCreatedBetween(LocalDateTime.parse(query.get("createdFrom")),
+                        LocalDateTime.parse(query.get("createdTo")));
+            } else if (query.containsKey("paidFrom")) {
+                orders = orderRepository.findPaidBetween(LocalDateTime.parse(query.get("paidFrom")),
+                        LocalDateTime.parse(query.get("paidTo")));
+            } else {
+                orders = orderRepository.findAll();
+            }
+            respond(exchange, OK, CODEC.get().encodeOrders(orders));
+        } else if (path.length == 1 && method.equals("PUT")) {
+            Order order = BinaryCodec.readOrder(ByteBuffer.wrap(readBody(exchange)));
+            if (saveIfCurrent(order)) {
+                setVersion(exchange, order.getVersion());
+                respond(exchange, NO_CONTENT, null);
+            } else {
+                respond(exchange, CONFLICT, null);
+            }
+        } else if (path.length == 2 && method.equals("GET")) {
+            Optional<Order> order = orderRepository.findById(path[1]);
+            order.ifPresent(found -> setVersion(exchange, found.getVersion()));
+            respond(exchange, order.isPresent() ? OK : NOT_FOUND,
+                    order.map(found -> CODEC.get().encode(found)).orElse(null));
+        } else if (path.length == 2 && method.equals("DELETE")) {
+            boolean deleted = gate.change(() -> {
+                synchronized (saveLock(path[1])) {
+                    return orderRepository.delete(path[1]);
+                }
+            });
+            respond(exchange, deleted ? NO_CONTENT : NOT_FOUND, null);
+        } else {
+            respond(exchange, BAD_METHOD, null);
+        }
+    }
+
+    /**
+     * Store the order as its next version if it carries the stored one, or 0 for a new order
+     */
+    private boolean saveIfCurrent(Order order) {
+        return gate.change(() -> {
+            synchronized (saveLock(order.getId())) {
+                int stored = orderRepository.findById(order.getId()).map(Order::getVersion).orElse(0);
+                if (order.getVersion() != stored) {
+                    return false;
+                }
+                order.setVersion(stored + 1);
+                orderRepository.save(order);
+                return true;
+            }
+        });
+    }
+
+    private Object saveLock(String orderId) {
+        return saveLocks[Math.floorMod(orderId.hashCode(), SAVE_STRIPES)];
+    }
+
+    private static void setVersion(HttpExchange exchange, int version) {
+        exchange.getResponseHeaders().set("ETag", "\"" + version + "\"");
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static String[] pathSegments(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        return path.replaceAll("^/+|/+$", "").split("/+");
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                String[] kv = pair.split("=", 2);
+                params.put(kv[0], kv.length > 1 ? URLDecoder.decode(kv[1], StandardCharsets.UTF_8) : "");
+            }
+        }
+        return params;
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, ByteBuffer body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.sendResponseHeaders(status, body.remaining());
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body.array(), body.arrayOffset() + body.position(), body.remaining());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package cse213.ecoresort.service;
+
+import java.util.Arrays;
+
+/**
+ * Approximate counts in fixed memory: four rows of int counters, one counter
+ * per row for each key. An estimate is the smallest of a key's counters, so
+ * it never undercounts; adds are conservative, raising only the counters at
+ * that minimum, which keeps collisions from inflating the other keys as much.
+ * Not thread-safe; TopSellersTracker guards it.
+ */
+class CountMinSketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private final int[] counters;
+    private final int widthMask;
+
+    CountMinSketch(int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("Sketch width must be positive");
+        }
+        int rounded = Integer.highestOneBit(Math.max(1, width - 1) << 1);
+        this.counters = new int[rounded * SEEDS.length];
+        this.widthMask = rounded - 1;
+    }
+
+    /**
+     * Count the key count more times and return its new estimate
+     */
+    int add(Object key, int count) {
+        int hash = spread(key.hashCode());
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            estimate = Math.min(estimate, counters[indexOf(hash, row)]);
+        }
+        int raised = (int) Math.min(Integer.MAX_VALUE, (long) estimate + count);
+        for (int row = 0; row < SEEDS.length; row++) {
+            int i = indexOf(hash, row);
+            if (counters[i] < raised) {
+                counters[i] = raised;
+            }
+        }
+        return raised;
+    }
+
+    int estimate(Object key) {
+        int hash = spread(key.hashCode());
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            estimate = Math.min(estimate, counters[indexOf(hash, row)]);
+        }
+        return estimate;
+    }
+
+    void clear() {
+        Arrays.fill(counters, 0);
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return row * (widthMask + 1) + ((int) h & widthMask);
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
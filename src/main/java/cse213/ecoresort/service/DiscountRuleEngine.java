@@ -0,0 +1,326 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.DiscountRule;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.OrderLine;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Prices orders against the registered promotion rules.
+ * The rules active at a given time of day are compiled into a plan that indexes
+ * line rules by item ID and item type, so an order is priced in one pass over
+ * its lines without testing every rule against every line. Rule windows split
+ * the day into segments with the same active rules; a plan is reused until the
+ * rules change or the clock moves into another segment.
+ *
+ * Evaluation order: line rules (item and type) per line, then combos and
+ * order-wide percentages on what is left. Combos are priced against the already
+ * discounted lines, so they only apply where they still save money.
+ */
+public class DiscountRuleEngine {
+    private static final DiscountRule[] NO_RULES = new DiscountRule[0];
+
+    // Higher priority first; sorting is stable so equal priorities keep registration order
+    private static final Comparator<DiscountRule> BY_PRIORITY =
+            Comparator.comparingInt(DiscountRule::getPriority).reversed();
+
+    private final Map<String, DiscountRule> rules = new LinkedHashMap<>();
+    private volatile LocalTime[] windowBoundaries = new LocalTime[0];
+    private volatile long version;
+    private volatile Plan plan;
+
+    private DiscountRuleEngine() {
+    }
+
+    public static DiscountRuleEngine getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final DiscountRuleEngine INSTANCE = new DiscountRuleEngine();
+    }
+
+    public synchronized void addRule(DiscountRule rule) {
+        if (rule == null) {
+            throw new IllegalArgumentException("Rule cannot be null");
+        }
+        rules.put(rule.getId(), rule);
+        rulesChanged();
+    }
+
+    public synchronized boolean removeRule(String ruleId) {
+        boolean removed = rules.remove(ruleId) != null;
+        if (removed) {
+            rulesChanged();
+        }
+        return removed;
+    }
+
+    public synchronized void clearRules() {
+        rules.clear();
+        rulesChanged();
+    }
+
+    public synchronized List<DiscountRule> getRules() {
+        return new ArrayList<>(rules.values());
+    }
+
+    /**
+     * Rules that apply at the given time of day, highest priority first
+     */
+    public List<DiscountRule> getActiveRules(LocalTime time) {
+        return List.of(planFor(time).active);
+    }
+
+    /**
+     * Price the lines with the rules active at the given time of day
+     */
+    public Evaluation evaluate(List<OrderLine> lines, LocalTime time) {
+        Plan current = planFor(time);
+        Evaluation result = new Evaluation();
+        if (current.active.length == 0) {
+            return result;
+        }
+
+        double netSubtotal = 0.0;
+        Map<String, double[]> comboCandidates = current.comboItems.isEmpty() ? null : new HashMap<>();
+        for (OrderLine line : lines) {
+            double gross = line.getUnitPrice() * line.getQuantity();
+            DiscountRule[] itemRules = current.itemRules.getOrDefault(line.getItemId(), NO_RULES);
+            DiscountRule[] typeRules = line.getItemType() == null
+                    ? NO_RULES : current.typeRules.getOrDefault(line.getItemType(), NO_RULES);
+            double lineDiscount = applyLineRules(itemRules, typeRules, line, gross, result);
+            double net = gross - lineDiscount;
+            netSubtotal += net;
+            if (comboCandidates != null && line.getQuantity() > 0 && current.comboItems.contains(line.getItemId())) {
+                double[] totals = comboCandidates.computeIfAbsent(line.getItemId(), id -> new double[2]);
+                totals[0] += line.getQuantity();
+                totals[1] += net;
+            }
+        }
+
+        applyOrderRules(current.orderRules, comboCandidates, netSubtotal, result);
+        return result;
+    }
+
+    // Walk the item and type rules together in priority order, item rules first on ties
+    private double applyLineRules(DiscountRule[] itemRules, DiscountRule[] typeRules, OrderLine line,
+                                  double gross, Evaluation result) {
+        if (itemRules.length == 0 && typeRules.length == 0) {
+            return 0.0;
+        }
+        double remaining = gross;
+        boolean applied = false;
+        int i = 0;
+        int j = 0;
+        while (i < itemRules.length || j < typeRules.length) {
+            DiscountRule rule;
+            if (j >= typeRules.length
+                    || (i < itemRules.length && itemRules[i].getPriority() >= typeRules[j].getPriority())) {
+                rule = itemRules[i++];
+            } else {
+                rule = typeRules[j++];
+            }
+            if (applied && !rule.isStackable()) {
+                continue;
+            }
+            double discount = Math.min(remaining,
+                    rule.applyToLine(remaining / line.getQuantity(), line.getQuantity()));
+            if (discount <= 0) {
+                continue;
+            }
+            remaining -= discount;
+            result.add(rule, discount);
+            applied = true;
+            if (!rule.isStackable()) {
+                break;
+            }
+        }
+        return gross - remaining;
+    }
+
+    private void applyOrderRules(DiscountRule[] orderRules, Map<String, double[]> comboCandidates,
+                                 double netSubtotal, Evaluation result) {
+        double remaining = netSubtotal;
+        boolean applied = false;
+        for (DiscountRule rule : orderRules) {
+            if (applied && !rule.isStackable()) {
+                continue;
+            }
+            double discount = rule.getKind() == DiscountRule.Kind.COMBO
+                    ? applyCombo(rule, comboCandidates)
+                    : rule.apply(remaining);
+            discount = Math.min(remaining, discount);
+            if (discount <= 0) {
+                continue;
+            }
+            remaining -= discount;
+            result.add(rule, discount);
+            applied = true;
+            if (!rule.isStackable()) {
+                break;
+            }
+        }
+    }
+
+    // Each combo consumes the units it uses, so one unit never counts towards two combos
+    private double applyCombo(DiscountRule combo, Map<String, double[]> candidates) {
+        int count = Integer.MAX_VALUE;
+        double separatePrice = 0.0;
+        for (String itemId : combo.getComboItemIds()) {
+            double[] totals = candidates.get(itemId);
+            if (totals == null || totals[0] < 1) {
+                return 0.0;
+            }
+            count = Math.min(count, (int) totals[0]);
+            separatePrice += totals[1] / totals[0];
+        }
+        double saving = separatePrice - combo.getComboPrice();
+        if (saving <= 0) {
+            return 0.0;
+        }
+        for (String itemId : combo.getComboItemIds()) {
+            double[] totals = candidates.get(itemId);
+            double unitNet = totals[1] / totals[0];
+            totals[0] -= count;
+            totals[1] -= unitNet * count;
+        }
+        return saving * count;
+    }
+
+    private Plan planFor(LocalTime time) {
+        Plan current = plan;
+        if (current != null && current.matches(version, segmentOf(time))) {
+            return current;
+        }
+        synchronized (this) {
+            LocalTime segment = segmentOf(time);
+            if (plan == null || !plan.matches(version, segment)) {
+                plan = compile(segment, time);
+            }
+            return plan;
+        }
+    }
+
+    private Plan compile(LocalTime segment, LocalTime time) {
+        List<DiscountRule> active = new ArrayList<>();
+        for (DiscountRule rule : rules.values()) {
+            if (rule.isActiveAt(time)) {
+                active.add(rule);
+            }
+        }
+        active.sort(BY_PRIORITY);
+
+        Map<String, List<DiscountRule>> byItem = new HashMap<>();
+        Map<MenuItem.ItemType, List<DiscountRule>> byType = new EnumMap<>(MenuItem.ItemType.class);
+        List<DiscountRule> orderLevel = new ArrayList<>();
+        Set<String> comboItems = new HashSet<>();
+        for (DiscountRule rule : active) {
+            switch (rule.getKind()) {
+                case ITEM_PERCENTAGE, BUY_GET_FREE ->
+                        byItem.computeIfAbsent(rule.getItemId(), id -> new ArrayList<>()).add(rule);
+                case TYPE_PERCENTAGE ->
+                        byType.computeIfAbsent(rule.getItemType(), t -> new ArrayList<>()).add(rule);
+                case COMBO -> {
+                    comboItems.addAll(rule.getComboItemIds());
+                    orderLevel.add(rule);
+                }
+                case ORDER_PERCENTAGE -> orderLevel.add(rule);
+            }
+        }
+
+        Map<String, DiscountRule[]> itemRules = new HashMap<>();
+        byItem.forEach((itemId, list) -> itemRules.put(itemId, list.toArray(NO_RULES)));
+        Map<MenuItem.ItemType, DiscountRule[]> typeRules = new EnumMap<>(MenuItem.ItemType.class);
+        byType.forEach((type, list) -> typeRules.put(type, list.toArray(NO_RULES)));
+        return new Plan(version, segment, active.toArray(NO_RULES), itemRules, typeRules,
+                orderLevel.toArray(NO_RULES), comboItems);
+    }
+
+    private void rulesChanged() {
+        TreeSet<LocalTime> boundaries = new TreeSet<>();
+        for (DiscountRule rule : rules.values()) {
+            if (rule.getActiveFrom() != null) {
+                boundaries.add(rule.getActiveFrom());
+                boundaries.add(rule.getActiveUntil());
+            }
+        }
+        windowBoundaries = boundaries.toArray(new LocalTime[0]);
+        version++;
+    }
+
+    // The last window boundary at or before the time; before the first boundary
+    // the day is still in the segment that started at the last one
+    private LocalTime segmentOf(LocalTime time) {
+        LocalTime[] boundaries = windowBoundaries;
+        if (boundaries.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(boundaries, time);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return boundaries[index >= 0 ? index : boundaries.length - 1];
+    }
+
+    private static final class Plan {
+        private final long version;
+        private final LocalTime segment;
+        private final DiscountRule[] active;
+        private final Map<String, DiscountRule[]> itemRules;
+        private final Map<MenuItem.ItemType, DiscountRule[]> typeRules;
+        private final DiscountRule[] orderRules;
+        private final Set<String> comboItems;
+
+        Plan(long version, LocalTime segment, DiscountRule[] active, Map<String, DiscountRule[]> itemRules,
+             Map<MenuItem.ItemType, DiscountRule[]> typeRules, DiscountRule[] orderRules, Set<String> comboItems) {
+            this.version = version;
+            this.segment = segment;
+            this.active = active;
+            this.itemRules = itemRules;
+            this.typeRules = typeRules;
+            this.orderRules = orderRules;
+            this.comboItems = comboItems;
+        }
+
+        boolean matches(long version, LocalTime segment) {
+            return this.version == version && (this.segment == null ? segment == null : this.segment.equals(segment));
+        }
+    }
+
+    /**
+     * Total discount for an order and the rules that contributed to it
+     */
+    public static final class Evaluation {
+        private final Map<String, Double> amountsByRule = new LinkedHashMap<>();
+        private final Set<DiscountRule> appliedRules = new LinkedHashSet<>();
+        private double discount;
+
+        private void add(DiscountRule rule, double amount) {
+            discount += amount;
+            appliedRules.add(rule);
+            amountsByRule.merge(rule.getName(), amount, Double::sum);
+        }
+
+        public double getDiscount() { return discount; }
+        public List<DiscountRule> getAppliedRules() { return new ArrayList<>(appliedRules); }
+        public Map<String, Double> getAmountsByRule() { return new LinkedHashMap<>(amountsByRule); }
+
+        public String getDescription() {
+            return appliedRules.isEmpty() ? "No Discount" : String.join(", ", amountsByRule.keySet());
+        }
+    }
+}
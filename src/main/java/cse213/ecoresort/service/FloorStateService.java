@@ -0,0 +1,312 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.Order;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Live state of every table on the floor: free, seated, ordering or waiting
+ * to pay. Each state is a bitset over the tables, one bit per table in an
+ * AtomicLongArray, so "free tables" or "tables with open drafts" is a pass
+ * over a few dozen words instead of a scan of the orders.
+ *
+ * Per-table counters say how many drafts and how many orders at the payment
+ * screen a table has; a state's bit is set while its counter is above zero.
+ * The order services report each order as it is opened, handed to payment,
+ * paid or deleted. Tables are numbered 1 to getTableCount(), set with
+ * -Decoresort.floor.tables; orders for tables past that are not tracked.
+ */
+public class FloorStateService {
+    public static final String TABLES_PROPERTY = "ecoresort.floor.tables";
+    public static final int DEFAULT_TABLES = 1024;
+
+    public enum TableState {
+        FREE,
+        SEATED,
+        ORDERING,
+        AWAITING_PAYMENT
+    }
+
+    private final int tableCount;
+    private final AtomicIntegerArray draftCounts;
+    private final AtomicIntegerArray awaitingCounts;
+    private final TableBits drafts;
+    private final TableBits awaiting;
+    private final TableBits seated;
+    // Where each tracked order is, so a transition knows which counters to move
+    private final Map<String, Tracked> tracked = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    private FloorStateService() {
+        this(Integer.getInteger(TABLES_PROPERTY, DEFAULT_TABLES));
+    }
+
+    private FloorStateService(int tableCount) {
+        if (tableCount <= 0) {
+            throw new IllegalArgumentException("The floor needs at least one table");
+        }
+        this.tableCount = tableCount;
+        this.draftCounts = new AtomicIntegerArray(tableCount);
+        this.awaitingCounts = new AtomicIntegerArray(tableCount);
+        this.drafts = new TableBits(tableCount);
+        this.awaiting = new TableBits(tableCount);
+        this.seated = new TableBits(tableCount);
+    }
+
+    public static FloorStateService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final FloorStateService INSTANCE = new FloorStateService();
+    }
+
+    /**
+     * Take in the drafts already stored, once, the first time a service attaches
+     */
+    public void ensureLoaded(Iterable<Order> drafts) {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                drafts.forEach(this::orderOpened);
+                loaded = true;
+            }
+        }
+    }
+
+    // Order lifecycle
+
+    public void orderOpened(Order order) {
+        int table = order.getTableNo();
+        if (!order.isDraft()) {
+            return;
+        }
+        if (!isOnFloor(table)) {
+            System.err.println("ERROR: Table " + table + " is not on the floor of " + tableCount + " tables");
+            return;
+        }
+        tracked.computeIfAbsent(order.getId(), id -> {
+            adjust(draftCounts, drafts, table, 1);
+            return new Tracked(table, false);
+        });
+    }
+
+    /**
+     * The order is at the payment screen; an untracked draft is opened first
+     */
+    public void paymentStarted(Order order) {
+        orderOpened(order);
+        tracked.computeIfPresent(order.getId(), (id, current) -> {
+            if (current.awaitingPayment) {
+                return current;
+            }
+            adjust(draftCounts, drafts, current.tableNo, -1);
+            adjust(awaitingCounts, awaiting, current.tableNo, 1);
+            return new Tracked(current.tableNo, true);
+        });
+    }
+
+    /**
+     * Payment was abandoned and the order is back to being a draft
+     */
+    public void paymentCancelled(String orderId) {
+        tracked.computeIfPresent(orderId, (id, current) -> {
+            if (!current.awaitingPayment) {
+                return current;
+            }
+            adjust(awaitingCounts, awaiting, current.tableNo, -1);
+            adjust(draftCounts, drafts, current.tableNo, 1);
+            return new Tracked(current.tableNo, false);
+        });
+    }
+
+    /**
+     * The order was paid, deleted or evicted and no longer holds its table
+     */
+    public void orderClosed(String orderId) {
+        tracked.computeIfPresent(orderId, (id, current) -> {
+            if (current.awaitingPayment) {
+                adjust(awaitingCounts, awaiting, current.tableNo, -1);
+            } else {
+                adjust(draftCounts, drafts, current.tableNo, -1);
+            }
+            return null;
+        });
+    }
+
+    // Seating, for tables taken before anyone orders or kept after paying
+
+    public void seat(int tableNo) {
+        checkTable(tableNo);
+        seated.set(tableNo);
+    }
+
+    public void release(int tableNo) {
+        checkTable(tableNo);
+        seated.clear(tableNo);
+    }
+
+    // Queries
+
+    public int getTableCount() {
+        return tableCount;
+    }
+
+    public TableState getState(int tableNo) {
+        checkTable(tableNo);
+        if (awaiting.get(tableNo)) {
+            return TableState.AWAITING_PAYMENT;
+        }
+        if (drafts.get(tableNo)) {
+            return TableState.ORDERING;
+        }
+        return seated.get(tableNo) ? TableState.SEATED : TableState.FREE;
+    }
+
+    /**
+     * Tables with no orders in progress and nobody seated, in table order
+     */
+    public int[] getFreeTables() {
+        return TableBits.union(true, drafts, awaiting, seated);
+    }
+
+    /**
+     * Tables seated or with any order in progress
+     */
+    public int[] getOpenTables() {
+        return TableBits.union(false, drafts, awaiting, seated);
+    }
+
+    public int[] getTablesWithDrafts() {
+        return TableBits.union(false, drafts);
+    }
+
+    public int[] getTablesAwaitingPayment() {
+        return TableBits.union(false, awaiting);
+    }
+
+    public int getFreeCount() {
+        return tableCount - TableBits.countUnion(drafts, awaiting, seated);
+    }
+
+    public int getDraftCount(int tableNo) {
+        checkTable(tableNo);
+        return draftCounts.get(tableNo - 1);
+    }
+
+    private boolean isOnFloor(int tableNo) {
+        return tableNo >= 1 && tableNo <= tableCount;
+    }
+
+    private void checkTable(int tableNo) {
+        if (!isOnFloor(tableNo)) {
+            throw new IllegalArgumentException("Table must be between 1 and " + tableCount);
+        }
+    }
+
+    // Move the counter, then make the bit agree with it. Re-reading after the write
+    // means whichever thread writes the bit last has seen the final count.
+    private static void adjust(AtomicIntegerArray counts, TableBits bits, int tableNo, int delta) {
+        counts.addAndGet(tableNo - 1, delta);
+        int count;
+        do {
+            count = counts.get(tableNo - 1);
+            if (count > 0) {
+                bits.set(tableNo);
+            } else {
+                bits.clear(tableNo);
+            }
+        } while (counts.get(tableNo - 1) != count);
+    }
+
+    private static final class Tracked {
+        private final int tableNo;
+        private final boolean awaitingPayment;
+
+        Tracked(int tableNo, boolean awaitingPayment) {
+            this.tableNo = tableNo;
+            this.awaitingPayment = awaitingPayment;
+        }
+    }
+
+    /**
+     * One bit per table; table n is bit n - 1
+     */
+    private static final class TableBits {
+        private final int tableCount;
+        private final AtomicLongArray words;
+
+        TableBits(int tableCount) {
+            this.tableCount = tableCount;
+            this.words = new AtomicLongArray((tableCount + 63) >>> 6);
+        }
+
+        boolean get(int tableNo) {
+            int bit = tableNo - 1;
+            return (words.get(bit >>> 6) & 1L << bit) != 0;
+        }
+
+        void set(int tableNo) {
+            int bit = tableNo - 1;
+            long mask = 1L << bit;
+            words.getAndUpdate(bit >>> 6, word -> word | mask);
+        }
+
+        void clear(int tableNo) {
+            int bit = tableNo - 1;
+            long mask = ~(1L << bit);
+            words.getAndUpdate(bit >>> 6, word -> word & mask);
+        }
+
+        /**
+         * Tables in any of the sets, or with invert, in none of them, in table order
+         */
+        static int[] union(boolean invert, TableBits... sets) {
+            int tableCount = sets[0].tableCount;
+            int[] tables = new int[invert ? tableCount : 64];
+            int count = 0;
+            for (int w = 0; w < sets[0].words.length(); w++) {
+                long word = unionWord(w, sets);
+                if (invert) {
+                    word = ~word & validBits(tableCount, w);
+                }
+                while (word != 0) {
+                    if (count == tables.length) {
+                        tables = Arrays.copyOf(tables, count * 2);
+                    }
+                    tables[count++] = (w << 6) + Long.numberOfTrailingZeros(word) + 1;
+                    word &= word - 1;
+                }
+            }
+            return Arrays.copyOf(tables, count);
+        }
+
+        static int countUnion(TableBits... sets) {
+            int count = 0;
+            for (int w = 0; w < sets[0].words.length(); w++) {
+                count += Long.bitCount(unionWord(w, sets));
+            }
+            return count;
+        }
+
+        private static long unionWord(int w, TableBits[] sets) {
+            long word = 0;
+            for (TableBits set : sets) {
+                word |= set.words.get(w);
+            }
+            return word;
+        }
+
+        // The last word is only partly used when the table count is not a multiple of 64
+        private static long validBits(int tableCount, int w) {
+            int remaining = tableCount - (w << 6);
+            return remaining >= 64 ? -1L : (1L << remaining) - 1;
+        }
+    }
+}
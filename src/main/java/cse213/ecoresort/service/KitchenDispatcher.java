@@ -0,0 +1,256 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.KitchenTicket;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Sends paid orders to the kitchen. Each order is split into one ticket per
+ * station (food, drink) and offered to that station's bounded lock-free queue.
+ * A consumer thread per station drains tickets in batches, in the order they
+ * were queued, and hands them to the station's handler. When a station falls
+ * behind and its queue is full, dispatch waits up to
+ * -Decoresort.kitchen.timeout.ms (default 100) for room, so a stuck kitchen
+ * pushes back on the tills. A ticket still without room after that goes to
+ * the station's overflow and dispatch reports it: the till learns the kitchen
+ * is behind, and the ticket is prepared once the station catches up, never
+ * dropped.
+ *
+ * A station has no handler until one is set. Its tickets wait, and dispatch
+ * reports them, until a handler is set; nothing is marked prepared that no
+ * handler saw.
+ */
+public class KitchenDispatcher {
+    public static final String TIMEOUT_PROPERTY = "ecoresort.kitchen.timeout.ms";
+    public static final long DEFAULT_TIMEOUT_MILLIS = 100;
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int BATCH_SIZE = 32;
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Map<MenuItem.ItemType, Station> stations = new EnumMap<>(MenuItem.ItemType.class);
+    private final long timeoutNanos;
+
+    private KitchenDispatcher() {
+        long timeoutMillis = Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MILLIS);
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Kitchen timeout cannot be negative");
+        }
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (MenuItem.ItemType type : MenuItem.ItemType.values()) {
+            stations.put(type, new Station(type));
+        }
+    }
+
+    public static KitchenDispatcher getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final KitchenDispatcher INSTANCE = new KitchenDispatcher();
+    }
+
+    /**
+     * Set the handler that prepares a station's batches, e.g. a kitchen display.
+     * Tickets that waited for a handler go to it straight away.
+     */
+    public void setStationHandler(MenuItem.ItemType station, Consumer<List<KitchenTicket>> handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("Station handler cannot be null");
+        }
+        Station target = stations.get(station);
+        target.handler = handler;
+        Thread worker = target.consumer;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    public boolean hasStationHandler(MenuItem.ItemType station) {
+        return stations.get(station).handler != null;
+    }
+
+    /**
+     * A handler that prints each ticket, as a ticket printer at the pass would
+     */
+    public static Consumer<List<KitchenTicket>> printer(PrintStream out) {
+        return batch -> batch.forEach(out::println);
+    }
+
+    /**
+     * Route the order's lines to their stations, waiting for room in a full
+     * station's queue up to the timeout. False if a station is behind or has no
+     * handler: its ticket is kept and prepared once the station can take it.
+     */
+    public boolean dispatch(Order order) {
+        Map<MenuItem.ItemType, List<OrderLine>> linesByStation = new EnumMap<>(MenuItem.ItemType.class);
+        for (OrderLine line : order.getOrderLines()) {
+            // Lines restored from older snapshots have no type, send them to the food station
+            MenuItem.ItemType type = line.getItemType() != null ? line.getItemType() : MenuItem.ItemType.FOOD;
+            linesByStation.computeIfAbsent(type, t -> new ArrayList<>()).add(line);
+        }
+        boolean accepted = true;
+        for (Map.Entry<MenuItem.ItemType, List<OrderLine>> entry : linesByStation.entrySet()) {
+            KitchenTicket ticket = new KitchenTicket(order.getId(), order.getTableNo(), entry.getKey(), entry.getValue());
+            accepted &= stations.get(entry.getKey()).submit(ticket, timeoutNanos);
+        }
+        return accepted;
+    }
+
+    // Metrics
+
+    // Tickets waiting at the station, in its queue or its overflow
+    public int getQueueDepth(MenuItem.ItemType station) {
+        Station s = stations.get(station);
+        return s.queue.size() + s.overflow.size();
+    }
+
+    public long getDispatchedCount(MenuItem.ItemType station) {
+        return stations.get(station).dispatched.sum();
+    }
+
+    public long getProcessedCount(MenuItem.ItemType station) {
+        return stations.get(station).processed.get();
+    }
+
+    /**
+     * Tickets sent to the overflow because the station's queue stayed full for the timeout
+     */
+    public long getOverflowCount(MenuItem.ItemType station) {
+        return stations.get(station).overflowed.sum();
+    }
+
+    /**
+     * Average time from dispatch until the station handler finished the ticket
+     */
+    public double getAverageLatencyMillis(MenuItem.ItemType station) {
+        Station s = stations.get(station);
+        long processed = s.processed.get();
+        return processed == 0 ? 0.0 : s.totalLatencyNanos.get() / (double) processed / 1_000_000.0;
+    }
+
+    public double getMaxLatencyMillis(MenuItem.ItemType station) {
+        return stations.get(station).maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    private static final class Station implements Runnable {
+        private final MenuItem.ItemType type;
+        private final BoundedTicketQueue<KitchenTicket> queue = new BoundedTicketQueue<>(QUEUE_CAPACITY);
+        // Tickets that found the queue full for the whole timeout; drained once the queue is empty
+        private final Queue<KitchenTicket> overflow = new ConcurrentLinkedQueue<>();
+        private final LongAdder dispatched = new LongAdder();
+        private final LongAdder overflowed = new LongAdder();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong totalLatencyNanos = new AtomicLong();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+        private volatile Consumer<List<KitchenTicket>> handler;
+        private volatile Thread consumer;
+
+        Station(MenuItem.ItemType type) {
+            this.type = type;
+        }
+
+        boolean submit(KitchenTicket ticket, long timeoutNanos) {
+            Thread worker = consumer;
+            if (worker == null) {
+                worker = startConsumer();
+            }
+            long deadline = System.nanoTime() + timeoutNanos;
+            // Behind tickets already in the overflow, so the station still sees them in order
+            while (!overflow.isEmpty() || !queue.offer(ticket)) {
+                // Full: make sure the station is draining, then wait for room
+                LockSupport.unpark(worker);
+                if (System.nanoTime() - deadline >= 0) {
+                    overflow.add(ticket);
+                    overflowed.increment();
+                    dispatched.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(this, FULL_PARK_NANOS);
+            }
+            dispatched.increment();
+            LockSupport.unpark(worker);
+            return handler != null;
+        }
+
+        private synchronized Thread startConsumer() {
+            if (consumer == null) {
+                Thread worker = new Thread(this, "kitchen-" + type.name().toLowerCase());
+                worker.setDaemon(true);
+                worker.start();
+                consumer = worker;
+            }
+            return consumer;
+        }
+
+        @Override
+        public void run() {
+            List<KitchenTicket> batch = new ArrayList<>(BATCH_SIZE);
+            long parkNanos = 1_000;
+            while (!Thread.currentThread().isInterrupted()) {
+                Consumer<List<KitchenTicket>> current = handler;
+                if (current == null) {
+                    // Keep the tickets until a handler is set
+                    LockSupport.parkNanos(this, MAX_IDLE_PARK_NANOS);
+                    continue;
+                }
+                batch.clear();
+                queue.drainTo(batch, BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    drainOverflow(batch);
+                }
+                if (batch.isEmpty()) {
+                    LockSupport.parkNanos(this, parkNanos);
+                    parkNanos = Math.min(parkNanos * 2, MAX_IDLE_PARK_NANOS);
+                    continue;
+                }
+                parkNanos = 1_000;
+                try {
+                    current.accept(batch);
+                } catch (RuntimeException e) {
+                    System.err.println("ERROR: Kitchen station " + type + " failed on a batch: " + e.getMessage());
+                }
+                record(batch);
+            }
+        }
+
+        private void drainOverflow(List<KitchenTicket> batch) {
+            KitchenTicket ticket;
+            while (batch.size() < BATCH_SIZE && (ticket = overflow.poll()) != null) {
+                batch.add(ticket);
+            }
+        }
+
+        private void record(List<KitchenTicket> batch) {
+            long now = System.nanoTime();
+            long total = 0;
+            long max = 0;
+            for (KitchenTicket ticket : batch) {
+                long latency = now - ticket.getCreatedNanos();
+                total += latency;
+                max = Math.max(max, latency);
+            }
+            totalLatencyNanos.addAndGet(total);
+            processed.addAndGet(batch.size());
+            long previousMax;
+            while (max > (previousMax = maxLatencyNanos.get())
+                    && !maxLatencyNanos.compareAndSet(previousMax, max)) {
+                // Retry until our maximum is recorded or a larger one is
+            }
+        }
+    }
+}
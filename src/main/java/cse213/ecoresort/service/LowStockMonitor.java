@@ -0,0 +1,263 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.LowStockAlert;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.StockListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Watches stock levels as they change and raises low-stock alerts.
+ * Thresholds are checked inside MenuItem's stock mutations through its
+ * StockListener hook, so nothing polls the menu. Alerts are delivered to the
+ * registered listeners on a single background thread, at most one per item per
+ * alert interval unless the item escalates to sold out; a restock above the
+ * threshold does not reset the interval, so stock hovering around the
+ * threshold alerts no more often. Recent decrements feed a per-item sliding
+ * window that estimates when an item will sell out at the current rate, once
+ * it holds at least two sales a second or more apart.
+ */
+public class LowStockMonitor implements StockListener {
+    public static final int DEFAULT_THRESHOLD = 5;
+
+    private static final long DEFAULT_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(15);
+    private static final long DEFAULT_ALERT_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final int WINDOW_CAPACITY = 128;
+    private static final long MIN_ESTIMATE_SPAN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, Integer> thresholds = new ConcurrentHashMap<>();
+    private final Map<String, ItemWatch> watches = new ConcurrentHashMap<>();
+    private final List<Consumer<LowStockAlert>> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder alertsRaised = new LongAdder();
+    private final LongAdder alertsSuppressed = new LongAdder();
+    private final ExecutorService delivery;
+    private volatile int defaultThreshold = DEFAULT_THRESHOLD;
+    private volatile long windowNanos = DEFAULT_WINDOW_NANOS;
+    private volatile long alertIntervalNanos = DEFAULT_ALERT_INTERVAL_NANOS;
+
+    private LowStockMonitor() {
+        delivery = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "low-stock-alerts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        MenuItem.setStockListener(this);
+    }
+
+    public static LowStockMonitor getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final LowStockMonitor INSTANCE = new LowStockMonitor();
+    }
+
+    // Configuration
+
+    public void setThreshold(String itemId, int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold cannot be negative");
+        }
+        thresholds.put(itemId, threshold);
+    }
+
+    public void clearThreshold(String itemId) {
+        thresholds.remove(itemId);
+    }
+
+    public int getThreshold(String itemId) {
+        return thresholds.getOrDefault(itemId, defaultThreshold);
+    }
+
+    public void setDefaultThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold cannot be negative");
+        }
+        defaultThreshold = threshold;
+    }
+
+    public void setAlertInterval(Duration interval) {
+        alertIntervalNanos = interval.toNanos();
+    }
+
+    /**
+     * How far back decrements count towards the depletion rate
+     */
+    public void setEstimationWindow(Duration window) {
+        if (window.isZero() || window.isNegative()) {
+            throw new IllegalArgumentException("Estimation window must be positive");
+        }
+        windowNanos = window.toNanos();
+    }
+
+    public void addAlertListener(Consumer<LowStockAlert> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeAlertListener(Consumer<LowStockAlert> listener) {
+        listeners.remove(listener);
+    }
+
+    // Estimates
+
+    /**
+     * Units sold per minute over the estimation window, 0 until there is enough to estimate from
+     */
+    public double getDepletionRatePerMinute(String itemId) {
+        ItemWatch watch = watches.get(itemId);
+        return watch == null ? 0.0 : watch.ratePerNano(System.nanoTime(), windowNanos) * TimeUnit.MINUTES.toNanos(1);
+    }
+
+    /**
+     * Predicted time until the item sells out at its recent rate, empty if it has not sold recently
+     */
+    public Optional<Duration> estimateTimeToSellOut(String itemId) {
+        ItemWatch watch = watches.get(itemId);
+        return watch == null ? Optional.empty() : Optional.ofNullable(watch.timeToSellOut(System.nanoTime(), windowNanos));
+    }
+
+    public long getAlertsRaised() {
+        return alertsRaised.sum();
+    }
+
+    public long getAlertsSuppressed() {
+        return alertsSuppressed.sum();
+    }
+
+    // Called by MenuItem with the item locked: record, decide, and hand delivery off
+
+    @Override
+    public void stockChanged(MenuItem item, int previousQty, int newQty) {
+        try {
+            long now = System.nanoTime();
+            ItemWatch watch = watches.computeIfAbsent(item.getId(), id -> new ItemWatch());
+            if (newQty < previousQty) {
+                watch.recordDecrement(now, previousQty - newQty, newQty);
+            } else {
+                watch.recordStock(newQty);
+            }
+
+            int threshold = getThreshold(item.getId());
+            LowStockAlert.Level level = newQty == 0 ? LowStockAlert.Level.SOLD_OUT
+                    : newQty <= threshold ? LowStockAlert.Level.LOW : null;
+            if (level == null) {
+                watch.rearm();
+                return;
+            }
+            if (listeners.isEmpty()) {
+                return;
+            }
+            if (!watch.shouldAlert(level, now, alertIntervalNanos)) {
+                alertsSuppressed.increment();
+                return;
+            }
+            alertsRaised.increment();
+            LowStockAlert alert = new LowStockAlert(item.getId(), item.getName(), newQty, threshold, level,
+                    level == LowStockAlert.Level.SOLD_OUT ? null : watch.timeToSellOut(now, windowNanos));
+            delivery.execute(() -> deliver(alert));
+        } catch (RuntimeException e) {
+            // Never let monitoring break a sale
+            System.err.println("ERROR: Low-stock check failed for " + item.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private void deliver(LowStockAlert alert) {
+        for (Consumer<LowStockAlert> listener : listeners) {
+            try {
+                listener.accept(alert);
+            } catch (RuntimeException e) {
+                System.err.println("ERROR: Low-stock alert listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Per-item alert state and a ring of recent decrements.
+     * Writers already hold the item's lock; the ring is still synchronized
+     * because estimates are read from other threads.
+     */
+    private static final class ItemWatch {
+        private final long[] times = new long[WINDOW_CAPACITY];
+        private final int[] quantities = new int[WINDOW_CAPACITY];
+        private int head;
+        private int count;
+        private int stockQty;
+        // The highest level alerted since stock was last above the threshold
+        private LowStockAlert.Level lastLevel;
+        private long lastAlertNanos;
+        private boolean alerted;
+
+        synchronized void recordDecrement(long now, int quantity, int newQty) {
+            times[head] = now;
+            quantities[head] = quantity;
+            head = (head + 1) % WINDOW_CAPACITY;
+            count = Math.min(count + 1, WINDOW_CAPACITY);
+            stockQty = newQty;
+        }
+
+        synchronized void recordStock(int newQty) {
+            stockQty = newQty;
+        }
+
+        // Stock is healthy again; the time of the last alert still holds
+        synchronized void rearm() {
+            lastLevel = null;
+        }
+
+        // Alert the first time, on escalation to sold out, or once the interval has passed
+        synchronized boolean shouldAlert(LowStockAlert.Level level, long now, long intervalNanos) {
+            boolean escalated = level.compareTo(lastLevel == null ? LowStockAlert.Level.LOW : lastLevel) > 0;
+            if (alerted && !escalated && now - lastAlertNanos < intervalNanos) {
+                return false;
+            }
+            lastLevel = level;
+            lastAlertNanos = now;
+            alerted = true;
+            return true;
+        }
+
+        // Units sold after the oldest sale in the window, over the time since it;
+        // 0 until two sales in the window are at least a second apart
+        synchronized double ratePerNano(long now, long windowNanos) {
+            long sold = 0;
+            long newest = 0;
+            long oldest = 0;
+            int oldestQuantity = 0;
+            int samples = 0;
+            for (int i = 0; i < count; i++) {
+                int index = Math.floorMod(head - 1 - i, WINDOW_CAPACITY);
+                if (now - times[index] > windowNanos) {
+                    break;
+                }
+                if (samples++ == 0) {
+                    newest = times[index];
+                }
+                sold += quantities[index];
+                oldest = times[index];
+                oldestQuantity = quantities[index];
+            }
+            if (samples < 2 || newest - oldest < MIN_ESTIMATE_SPAN_NANOS) {
+                return 0.0;
+            }
+            return (sold - oldestQuantity) / (double) (now - oldest);
+        }
+
+        synchronized Duration timeToSellOut(long now, long windowNanos) {
+            double rate = ratePerNano(now, windowNanos);
+            if (rate <= 0) {
+                return null;
+            }
+            return Duration.ofNanos((long) (stockQty / rate));
+        }
+    }
+}
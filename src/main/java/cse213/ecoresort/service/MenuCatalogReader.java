@@ -0,0 +1,310 @@
+package cse213.ecoresort.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Pull parser for menu catalogues in CSV or JSON.
+ * Reads one record at a time through a fixed character buffer, so memory stays
+ * constant however large the file is. CSV needs a header row naming the
+ * columns; JSON is an array of flat objects keyed by the same names. Unknown
+ * columns and keys are ignored.
+ */
+final class MenuCatalogReader {
+    enum Field {
+        ID, TYPE, NAME, PRICE, STOCK, CUISINE, VEGETARIAN, ALCOHOLIC, TEMPERATURE;
+
+        final String key = name().toLowerCase(Locale.ROOT);
+
+        static Field forKey(String key) {
+            String normalized = key.trim().toLowerCase(Locale.ROOT);
+            for (Field field : values()) {
+                if (field.key.equals(normalized)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final int EOF = -1;
+
+    private final Reader in;
+    private final MenuService.CatalogFormat format;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder token = new StringBuilder();
+    private final String[] values = new String[Field.values().length];
+    private int position;
+    private int limit;
+    private int line = 1;
+    private int recordLine;
+    private Field[] columns;
+    private boolean started;
+    private boolean finished;
+
+    MenuCatalogReader(Reader in, MenuService.CatalogFormat format) {
+        this.in = in;
+        this.format = format;
+    }
+
+    /**
+     * Advance to the next record, returning false at the end of the catalogue
+     */
+    boolean next() throws IOException {
+        Arrays.fill(values, null);
+        if (finished) {
+            return false;
+        }
+        boolean found = format == MenuService.CatalogFormat.CSV ? nextCsv() : nextJson();
+        finished = !found;
+        return found;
+    }
+
+    String get(Field field) {
+        return values[field.ordinal()];
+    }
+
+    /**
+     * Line on which the current record starts, for error messages
+     */
+    int getLine() {
+        return recordLine;
+    }
+
+    // ---- CSV (RFC 4180: quoted fields may hold commas, quotes and newlines) ----
+
+    private boolean nextCsv() throws IOException {
+        if (columns == null) {
+            if (!readCsvRow(true)) {
+                throw new IllegalArgumentException("CSV catalogue is empty, expected a header row");
+            }
+        }
+        return readCsvRow(false);
+    }
+
+    private boolean readCsvRow(boolean header) throws IOException {
+        int c;
+        // Skip blank lines between records
+        while ((c = peek()) == '\r' || c == '\n') {
+            read();
+        }
+        if (c == EOF) {
+            return false;
+        }
+        recordLine = line;
+        Field[] headerColumns = header ? new Field[Field.values().length * 2] : null;
+        int column = 0;
+        while (true) {
+            String value = readCsvField();
+            if (header) {
+                if (column == headerColumns.length) {
+                    headerColumns = Arrays.copyOf(headerColumns, column * 2);
+                }
+                headerColumns[column] = Field.forKey(value);
+            } else if (column < columns.length && columns[column] != null && !value.isEmpty()) {
+                values[columns[column].ordinal()] = value;
+            }
+            column++;
+            c = read();
+            if (c == ',') {
+                continue;
+            }
+            if (c == '\r' && peek() == '\n') {
+                read();
+            }
+            break;
+        }
+        if (header) {
+            columns = Arrays.copyOf(headerColumns, column);
+        }
+        return true;
+    }
+
+    // Leaves the delimiter that ended the field unread
+    private String readCsvField() throws IOException {
+        token.setLength(0);
+        if (peek() == '"') {
+            read();
+            while (true) {
+                int c = read();
+                if (c == EOF) {
+                    throw new IllegalArgumentException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    if (peek() != '"') {
+                        break;
+                    }
+                    read();
+                }
+                token.append((char) c);
+            }
+            int c = peek();
+            if (c != ',' && c != '\r' && c != '\n' && c != EOF) {
+                throw new IllegalArgumentException("Unexpected character after quoted field on line " + line);
+            }
+        } else {
+            int c;
+            while ((c = peek()) != ',' && c != '\r' && c != '\n' && c != EOF) {
+                token.append((char) read());
+            }
+        }
+        return token.toString();
+    }
+
+    // ---- JSON: [ { "key": value, ... }, ... ] with string, number, boolean or null values ----
+
+    private boolean nextJson() throws IOException {
+        if (!started) {
+            expect('[');
+            started = true;
+            if (skipWhitespace() == ']') {
+                read();
+                return false;
+            }
+        } else {
+            int c = skipWhitespace();
+            read();
+            if (c == ']') {
+                return false;
+            }
+            if (c != ',') {
+                throw unexpected(c, "',' or ']'");
+            }
+        }
+        expect('{');
+        recordLine = line;
+        if (skipWhitespace() == '}') {
+            read();
+            return true;
+        }
+        while (true) {
+            skipWhitespace();
+            String key = readJsonString();
+            expect(':');
+            String value = readJsonValue();
+            Field field = Field.forKey(key);
+            if (field != null) {
+                values[field.ordinal()] = value;
+            }
+            int c = skipWhitespace();
+            read();
+            if (c == '}') {
+                return true;
+            }
+            if (c != ',') {
+                throw unexpected(c, "',' or '}'");
+            }
+        }
+    }
+
+    private String readJsonValue() throws IOException {
+        int c = skipWhitespace();
+        if (c == '"') {
+            return readJsonString();
+        }
+        if (c == '{' || c == '[') {
+            throw new IllegalArgumentException("Nested values are not supported, line " + line);
+        }
+        token.setLength(0);
+        while ((c = peek()) != ',' && c != '}' && c != EOF && !Character.isWhitespace(c)) {
+            token.append((char) read());
+        }
+        if (token.length() == 0) {
+            throw unexpected(c, "a value");
+        }
+        String literal = token.toString();
+        return literal.equals("null") ? null : literal;
+    }
+
+    private String readJsonString() throws IOException {
+        expect('"');
+        token.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == EOF) {
+                throw new IllegalArgumentException("Unterminated string in record starting on line " + recordLine);
+            }
+            if (c == '"') {
+                return token.toString();
+            }
+            if (c != '\\') {
+                token.append((char) c);
+                continue;
+            }
+            int escaped = read();
+            switch (escaped) {
+                case '"', '\\', '/' -> token.append((char) escaped);
+                case 'b' -> token.append('\b');
+                case 'f' -> token.append('\f');
+                case 'n' -> token.append('\n');
+                case 'r' -> token.append('\r');
+                case 't' -> token.append('\t');
+                case 'u' -> {
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(read(), 16);
+                        if (digit < 0) {
+                            throw new IllegalArgumentException("Invalid unicode escape on line " + line);
+                        }
+                        code = code << 4 | digit;
+                    }
+                    token.append((char) code);
+                }
+                default -> throw new IllegalArgumentException("Invalid escape on line " + line);
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = skipWhitespace();
+        if (c != expected) {
+            throw unexpected(c, "'" + expected + "'");
+        }
+        read();
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) != EOF && Character.isWhitespace(c)) {
+            read();
+        }
+        return c;
+    }
+
+    private IllegalArgumentException unexpected(int c, String expected) {
+        String found = c == EOF ? "end of input" : "'" + (char) c + "'";
+        return new IllegalArgumentException("Expected " + expected + " but found " + found + " on line " + line);
+    }
+
+    // ---- Buffer ----
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        char c = buffer[position++];
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+}
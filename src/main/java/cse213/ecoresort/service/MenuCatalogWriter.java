@@ -0,0 +1,152 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.DrinkItem;
+import cse213.ecoresort.model.FoodItem;
+import cse213.ecoresort.model.MenuItem;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes menu items as CSV or JSON in the layout MenuCatalogReader reads back,
+ * one item at a time
+ */
+final class MenuCatalogWriter {
+    private static final MenuCatalogReader.Field[] FIELDS = MenuCatalogReader.Field.values();
+
+    private final Writer out;
+    private final MenuService.CatalogFormat format;
+    private final String[] values = new String[FIELDS.length];
+    private int written;
+
+    MenuCatalogWriter(Writer out, MenuService.CatalogFormat format) throws IOException {
+        this.out = out;
+        this.format = format;
+        if (format == MenuService.CatalogFormat.CSV) {
+            for (int i = 0; i < FIELDS.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(FIELDS[i].key);
+            }
+            out.write('\n');
+        } else {
+            out.write('[');
+        }
+    }
+
+    void write(MenuItem item) throws IOException {
+        values[MenuCatalogReader.Field.ID.ordinal()] = item.getId();
+        values[MenuCatalogReader.Field.TYPE.ordinal()] = item.getType().name();
+        values[MenuCatalogReader.Field.NAME.ordinal()] = item.getName();
+        values[MenuCatalogReader.Field.PRICE.ordinal()] = Double.toString(item.getPrice());
+        values[MenuCatalogReader.Field.STOCK.ordinal()] = Integer.toString(item.getStockQty());
+        FoodItem food = item instanceof FoodItem f ? f : null;
+        DrinkItem drink = item instanceof DrinkItem d ? d : null;
+        values[MenuCatalogReader.Field.CUISINE.ordinal()] = food == null ? null : food.getCuisine();
+        values[MenuCatalogReader.Field.VEGETARIAN.ordinal()] = food == null ? null : Boolean.toString(food.isVegetarian());
+        values[MenuCatalogReader.Field.ALCOHOLIC.ordinal()] = drink == null ? null : Boolean.toString(drink.isAlcoholic());
+        values[MenuCatalogReader.Field.TEMPERATURE.ordinal()] = drink == null ? null : drink.getTemperature();
+
+        if (format == MenuService.CatalogFormat.CSV) {
+            writeCsvRow();
+        } else {
+            writeJsonObject();
+        }
+        written++;
+    }
+
+    /**
+     * Finish the document; does not close the underlying writer
+     */
+    void finish() throws IOException {
+        if (format == MenuService.CatalogFormat.JSON) {
+            out.write(written == 0 ? "]\n" : "\n]\n");
+        }
+        out.flush();
+    }
+
+    int getWritten() {
+        return written;
+    }
+
+    private void writeCsvRow() throws IOException {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = values[i];
+            if (value != null) {
+                writeCsvValue(value);
+            }
+        }
+        out.write('\n');
+    }
+
+    private void writeCsvValue(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    // Prices, stock and flags are written as JSON numbers and booleans, the rest as strings
+    private void writeJsonObject() throws IOException {
+        out.write(written == 0 ? "\n  {" : ",\n  {");
+        boolean first = true;
+        for (int i = 0; i < FIELDS.length; i++) {
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (!first) {
+                out.write(", ");
+            }
+            first = false;
+            out.write('"');
+            out.write(FIELDS[i].key);
+            out.write("\": ");
+            switch (FIELDS[i]) {
+                case PRICE, STOCK, VEGETARIAN, ALCOHOLIC -> out.write(value);
+                default -> writeJsonString(value);
+            }
+        }
+        out.write('}');
+    }
+
+    private void writeJsonString(String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
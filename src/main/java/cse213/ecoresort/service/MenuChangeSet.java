@@ -0,0 +1,61 @@
+package cse213.ecoresort.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Price and stock changes staged for several menu items, published together
+ * with MenuService.publish as one new menu version. Staging touches nothing
+ * live; a later change to the same item replaces the earlier one.
+ */
+public class MenuChangeSet {
+    private final Map<String, Double> prices = new LinkedHashMap<>();
+    private final Map<String, Integer> stock = new LinkedHashMap<>();
+
+    public MenuChangeSet setPrice(String itemId, double price) {
+        if (price < 0) {
+            throw new IllegalArgumentException("Price must be non-negative");
+        }
+        prices.put(requireId(itemId), price);
+        return this;
+    }
+
+    public MenuChangeSet setStock(String itemId, int stockQty) {
+        if (stockQty < 0) {
+            throw new IllegalArgumentException("Stock quantity must be non-negative");
+        }
+        stock.put(requireId(itemId), stockQty);
+        return this;
+    }
+
+    public Map<String, Double> getPrices() {
+        return Collections.unmodifiableMap(prices);
+    }
+
+    public Map<String, Integer> getStock() {
+        return Collections.unmodifiableMap(stock);
+    }
+
+    /**
+     * Every item the change set touches, prices first
+     */
+    public Set<String> getItemIds() {
+        Set<String> ids = new LinkedHashSet<>(prices.keySet());
+        ids.addAll(stock.keySet());
+        return ids;
+    }
+
+    public boolean isEmpty() {
+        return prices.isEmpty() && stock.isEmpty();
+    }
+
+    private static String requireId(String itemId) {
+        if (itemId == null || itemId.isEmpty()) {
+            throw new IllegalArgumentException("Item ID is required");
+        }
+        return itemId;
+    }
+}
@@ -0,0 +1,297 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.DrinkItem;
+import cse213.ecoresort.model.FoodItem;
+import cse213.ecoresort.model.MenuItem;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory search index over menu item names and attributes.
+ * Tokens are kept in a sorted map for prefix lookups, and a deletion
+ * neighbourhood (every token with one character removed) gives typo-tolerant
+ * matching within one edit without scanning the whole vocabulary.
+ * The index is updated incrementally by MenuService.
+ */
+public class MenuSearchIndex {
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private final NavigableMap<String, Set<String>> tokenToIds;
+    private final Map<String, Set<String>> deletionsToTokens;
+    private final Map<String, List<String>> idToTokens;
+    private volatile boolean loaded;
+
+    private MenuSearchIndex() {
+        tokenToIds = new ConcurrentSkipListMap<>();
+        deletionsToTokens = new ConcurrentHashMap<>();
+        idToTokens = new ConcurrentHashMap<>();
+    }
+
+    public static MenuSearchIndex getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final MenuSearchIndex INSTANCE = new MenuSearchIndex();
+    }
+
+    /**
+     * Index every item once, the first time a service attaches to the index;
+     * the items are only read then
+     */
+    public void ensureLoaded(Iterable<MenuItem> items) {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                items.forEach(this::index);
+                loaded = true;
+            }
+        }
+    }
+
+    /**
+     * Add an item, or re-index it if its searchable fields changed
+     */
+    public void index(MenuItem item) {
+        List<String> tokens = tokenize(item);
+        List<String> previous = idToTokens.put(item.getId(), tokens);
+        if (previous != null) {
+            // Stock and price edits leave the tokens alone; bulk re-imports are mostly those
+            if (previous.equals(tokens)) {
+                return;
+            }
+            removeTokens(item.getId(), previous);
+        }
+        for (String token : tokens) {
+            tokenToIds.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(item.getId());
+            if (token.length() >= MIN_FUZZY_LENGTH) {
+                for (String deletion : deletions(token)) {
+                    deletionsToTokens.computeIfAbsent(deletion, d -> ConcurrentHashMap.newKeySet()).add(token);
+                }
+            }
+        }
+    }
+
+    public void remove(String itemId) {
+        List<String> previous = idToTokens.remove(itemId);
+        if (previous != null) {
+            removeTokens(itemId, previous);
+        }
+    }
+
+    /**
+     * Find item IDs matching every term of the query. Each term matches a token
+     * by prefix, or by whole token within one edit. Prefix matches rank first.
+     */
+    public List<String> search(String query, int limit) {
+        List<String> terms = splitTerms(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Drive the lookup from the longest term, it is usually the most selective
+        String driver = terms.get(0);
+        for (String term : terms) {
+            if (term.length() > driver.length()) {
+                driver = term;
+            }
+        }
+
+        Set<String> results = new LinkedHashSet<>();
+        for (Map.Entry<String, Set<String>> entry : prefixRange(driver).entrySet()) {
+            if (collectMatches(entry.getValue(), terms, results, limit)) {
+                return new ArrayList<>(results);
+            }
+        }
+        for (String token : fuzzyTokens(driver)) {
+            Set<String> ids = tokenToIds.get(token);
+            if (ids != null && collectMatches(ids, terms, results, limit)) {
+                break;
+            }
+        }
+        return new ArrayList<>(results);
+    }
+
+    public int size() {
+        return idToTokens.size();
+    }
+
+    private boolean collectMatches(Set<String> ids, List<String> terms, Set<String> results, int limit) {
+        for (String id : ids) {
+            List<String> tokens = idToTokens.get(id);
+            if (tokens != null && matchesAll(tokens, terms)) {
+                results.add(id);
+                if (results.size() >= limit) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesAll(List<String> tokens, List<String> terms) {
+        for (String term : terms) {
+            boolean matched = false;
+            for (String token : tokens) {
+                if (termMatches(term, token)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean termMatches(String term, String token) {
+        return token.startsWith(term)
+                || (term.length() >= MIN_FUZZY_LENGTH - 1 && withinOneEdit(term, token));
+    }
+
+    private NavigableMap<String, Set<String>> prefixRange(String prefix) {
+        return tokenToIds.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private Set<String> fuzzyTokens(String term) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (term.length() < MIN_FUZZY_LENGTH - 1) {
+            return tokens;
+        }
+        // A substitution shares a deletion with the token, a character missing from
+        // the term matches one of the token's deletions, and an extra character in
+        // the term leaves the token itself among the term's deletions
+        addFuzzyCandidates(term, term, tokens);
+        for (String deletion : deletions(term)) {
+            addFuzzyCandidates(term, deletion, tokens);
+            if (tokenToIds.containsKey(deletion)) {
+                tokens.add(deletion);
+            }
+        }
+        return tokens;
+    }
+
+    private void addFuzzyCandidates(String term, String key, Set<String> out) {
+        Set<String> candidates = deletionsToTokens.get(key);
+        if (candidates != null) {
+            for (String candidate : candidates) {
+                if (withinOneEdit(term, candidate)) {
+                    out.add(candidate);
+                }
+            }
+        }
+    }
+
+    private void removeTokens(String itemId, List<String> tokens) {
+        for (String token : tokens) {
+            Set<String> ids = tokenToIds.get(token);
+            if (ids == null) {
+                continue;
+            }
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                tokenToIds.remove(token, ids);
+                if (token.length() >= MIN_FUZZY_LENGTH) {
+                    for (String deletion : deletions(token)) {
+                        Set<String> owners = deletionsToTokens.get(deletion);
+                        if (owners != null) {
+                            owners.remove(token);
+                            if (owners.isEmpty()) {
+                                deletionsToTokens.remove(deletion, owners);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private List<String> tokenize(MenuItem item) {
+        StringBuilder text = new StringBuilder();
+        appendTerm(text, item.getName());
+        appendTerm(text, item.getType());
+        if (item instanceof FoodItem food) {
+            appendTerm(text, food.getCuisine());
+            if (food.isVegetarian()) {
+                text.append(" vegetarian veg");
+            }
+        } else if (item instanceof DrinkItem drink) {
+            appendTerm(text, drink.getTemperature());
+            if (drink.isAlcoholic()) {
+                text.append(" alcoholic");
+            }
+        }
+        List<String> tokens = splitTerms(text.toString());
+        return List.copyOf(new LinkedHashSet<>(tokens));
+    }
+
+    // Missing fields add nothing; appending them would index the word "null"
+    private static void appendTerm(StringBuilder text, Object field) {
+        if (field != null) {
+            text.append(' ').append(field);
+        }
+    }
+
+    private static List<String> splitTerms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String part : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!part.isEmpty()) {
+                terms.add(part);
+            }
+        }
+        return terms;
+    }
+
+    private static List<String> deletions(String token) {
+        List<String> result = new ArrayList<>(token.length());
+        for (int i = 0; i < token.length(); i++) {
+            result.add(token.substring(0, i) + token.substring(i + 1));
+        }
+        return result;
+    }
+
+    /**
+     * Levenshtein distance of at most one, checked in a single linear pass
+     */
+    private static boolean withinOneEdit(String a, String b) {
+        int lengthDiff = a.length() - b.length();
+        if (lengthDiff > 1 || lengthDiff < -1) {
+            return false;
+        }
+        String shorter = lengthDiff <= 0 ? a : b;
+        String longer = lengthDiff <= 0 ? b : a;
+        int i = 0;
+        int j = 0;
+        boolean edited = false;
+        while (i < shorter.length() && j < longer.length()) {
+            if (shorter.charAt(i) != longer.charAt(j)) {
+                if (edited) {
+                    return false;
+                }
+                edited = true;
+                if (shorter.length() == longer.length()) {
+                    i++;
+                }
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return true;
+    }
+}
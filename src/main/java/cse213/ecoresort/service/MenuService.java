@@ -2,16 +2,46 @@ package cse213.ecoresort.service;
 
 import cse213.ecoresort.model.*;
 import cse213.ecoresort.repository.MenuRepository;
-import cse213.ecoresort.repository.InMemoryMenuRepository;
+import cse213.ecoresort.repository.RepositoryFactory;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 public class MenuService {
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final Object PUBLISH_LOCK = new Object();
+
     private final MenuRepository menuRepository;
+    private final MenuSearchIndex searchIndex;
+    private final MenuVersions versions;
+    private final StateGate gate;
 
     public MenuService() {
-        this.menuRepository = InMemoryMenuRepository.getInstance();
+        this(RepositoryFactory.menuRepository());
+    }
+
+    public MenuService(MenuRepository menuRepository) {
+        this.menuRepository = menuRepository;
+        this.searchIndex = MenuSearchIndex.getInstance();
+        this.versions = MenuVersions.getInstance();
+        this.gate = StateGate.getInstance();
+        searchIndex.ensureLoaded(() -> menuRepository.findAll().iterator());
+        // Installs the stock hook on MenuItem the first time any menu service starts
+        LowStockMonitor.getInstance();
     }
 
     public List<MenuItem> getAllMenuItems() {
@@ -30,18 +60,30 @@ public class MenuService {
         return menuRepository.findById(id);
     }
 
+    public List<MenuItem> searchItems(String query) {
+        return searchItems(query, DEFAULT_SEARCH_LIMIT);
+    }
+
+    public List<MenuItem> searchItems(String query, int limit) {
+        List<MenuItem> results = new ArrayList<>();
+        for (String id : searchIndex.search(query, limit)) {
+            menuRepository.findById(id).ifPresent(results::add);
+        }
+        return results;
+    }
+
     public MenuItem createFoodItem(String name, double price, int stockQty, String cuisine, boolean isVegetarian) {
         validateMenuItemData(name, price, stockQty);
         
         FoodItem item = new FoodItem(name, price, stockQty, cuisine, isVegetarian);
-        return menuRepository.save(item);
+        return save(item);
     }
 
     public MenuItem createDrinkItem(String name, double price, int stockQty, boolean isAlcoholic, String temperature) {
         validateMenuItemData(name, price, stockQty);
         
         DrinkItem item = new DrinkItem(name, price, stockQty, isAlcoholic, temperature);
-        return menuRepository.save(item);
+        return save(item);
     }
 
     public MenuItem updateMenuItem(String id, String name, double price, int stockQty) {
@@ -54,18 +96,114 @@ public class MenuService {
         
         MenuItem item = existing.get();
         item.setName(name);
-        item.setPrice(price);
-        item.setStockQty(stockQty);
-        
-        return menuRepository.save(item);
+        publishWith(new MenuChangeSet().setPrice(id, price).setStock(id, stockQty), item);
+        return item;
+    }
+
+    // Menu versions
+
+    /**
+     * The price list tills are pricing from right now
+     */
+    public MenuVersions.MenuVersion getMenuVersion() {
+        return versions.current();
+    }
+
+    /**
+     * The item's price in the current menu version
+     */
+    public double priceOf(MenuItem item) {
+        return versions.current().priceOf(item);
+    }
+
+    /**
+     * Publish every price in the change set at once as a new menu version, then
+     * write the prices and stock levels to the repository. Every item must exist.
+     * Prices switch in one step; stock is live, being sold as it changes, so
+     * stock levels are set item by item afterwards. Only the changed fields are
+     * written, so stock sold while the change is published is kept.
+     */
+    public MenuVersions.MenuVersion publish(MenuChangeSet changes) {
+        return publishWith(changes);
+    }
+
+    // Items already in hand are saved whole, with any other edits made to them, so the
+    // change set must give their stock level: a level read earlier is never written back
+    private MenuVersions.MenuVersion publishWith(MenuChangeSet changes, MenuItem... loaded) {
+        Map<String, MenuItem> inHand = new HashMap<>();
+        for (MenuItem item : loaded) {
+            if (!changes.getStock().containsKey(item.getId())) {
+                throw new IllegalArgumentException("Stock level is required for item " + item.getId());
+            }
+            inHand.put(item.getId(), item);
+        }
+        for (String id : changes.getItemIds()) {
+            if (!inHand.containsKey(id) && menuRepository.findById(id).isEmpty()) {
+                throw new IllegalArgumentException("Menu item not found with ID: " + id);
+            }
+        }
+        Map<String, Double> prices = new HashMap<>(changes.getPrices());
+        prices.keySet().removeAll(inHand.keySet());
+        // Through the gate, then one publisher at a time, so write-backs land in version order
+        return gate.change(() -> {
+            synchronized (PUBLISH_LOCK) {
+                return writePublished(changes, prices, inHand, loaded);
+            }
+        });
+    }
+
+    private MenuVersions.MenuVersion writePublished(MenuChangeSet changes, Map<String, Double> prices,
+                                                    Map<String, MenuItem> inHand, MenuItem[] loaded) {
+        MenuVersions.MenuVersion version = versions.publish(changes.getPrices());
+        menuRepository.updatePrices(prices);
+        changes.getStock().forEach((id, stockQty) -> {
+            if (!inHand.containsKey(id)) {
+                menuRepository.setStock(id, stockQty);
+            }
+        });
+        for (MenuItem item : loaded) {
+            Double price = changes.getPrices().get(item.getId());
+            if (price != null) {
+                item.setPrice(price);
+            }
+            item.setStockQty(changes.getStock().get(item.getId()));
+            menuRepository.save(item);
+            // Prices and stock are not searched; only items edited in hand may have new names
+            searchIndex.index(item);
+        }
+        return version;
+    }
+
+    // A direct save must not be shadowed by a price an older version published
+    private void republishPrices(List<MenuItem> items) {
+        MenuVersions.MenuVersion version = versions.current();
+        Map<String, Double> prices = new HashMap<>();
+        for (MenuItem item : items) {
+            if (version.hasPrice(item.getId()) && version.priceOf(item) != item.getPrice()) {
+                prices.put(item.getId(), item.getPrice());
+            }
+        }
+        if (!prices.isEmpty()) {
+            versions.publish(prices);
+        }
     }
 
     public boolean deleteMenuItem(String id) {
-        return menuRepository.delete(id);
+        boolean deleted = gate.change(() -> menuRepository.delete(id));
+        if (deleted) {
+            searchIndex.remove(id);
+            versions.forget(id);
+        }
+        return deleted;
     }
 
     public MenuItem save(MenuItem item) {
-        return menuRepository.save(item);
+        return gate.change(() -> {
+            MenuItem saved = menuRepository.save(item);
+            republishPrices(List.of(saved));
+            searchIndex.index(saved);
+            return saved;
+        });
     }
 
     public boolean hasStock(String itemId, int quantity) {
@@ -74,11 +212,234 @@ public class MenuService {
     }
 
     public boolean decreaseStock(String itemId, int quantity) {
-        Optional<MenuItem> item = menuRepository.findById(itemId);
-        if (item.isPresent()) {
-            return item.get().decreaseStock(quantity);
+        return gate.change(() -> menuRepository.decreaseStock(itemId, quantity));
+    }
+
+    /**
+     * Decrease stock for every line, or for none of them if any item has run out
+     */
+    public boolean decreaseStock(List<OrderLine> lines) {
+        return gate.change(() -> {
+            for (int i = 0; i < lines.size(); i++) {
+                OrderLine line = lines.get(i);
+                if (!decreaseStock(line.getItemId(), line.getQuantity())) {
+                    increaseStock(lines.subList(0, i));
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    public void increaseStock(List<OrderLine> lines) {
+        gate.change(() -> {
+            for (OrderLine line : lines) {
+                menuRepository.increaseStock(line.getItemId(), line.getQuantity());
+            }
+        });
+    }
+
+    // Bulk import and export
+
+    /**
+     * Create or update items from a CSV or JSON catalogue, read record by record.
+     * Rows with an ID that already exists update that item. Rows that fail the
+     * usual validation are skipped and reported. Valid rows are staged to a
+     * temporary file, so a catalogue that cannot be read to the end changes
+     * nothing. The new prices of updated items are then published as one menu
+     * version, and the staged rows are saved in batches and indexed for search.
+     */
+    public ImportResult importItems(Reader in, CatalogFormat format) throws IOException {
+        long start = System.nanoTime();
+        ImportResult result = new ImportResult();
+        Path staging = Files.createTempFile("menu-import", ".csv");
+        try {
+            MenuChangeSet prices = new MenuChangeSet();
+            try (Writer out = Files.newBufferedWriter(staging)) {
+                stageItems(new MenuCatalogReader(in, format), new MenuCatalogWriter(out, CatalogFormat.CSV),
+                        prices, result);
+            }
+            try (Reader staged = Files.newBufferedReader(staging)) {
+                applyStaged(new MenuCatalogReader(staged, CatalogFormat.CSV), prices);
+            }
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    // Validate every row and write it out with its ID, noting new prices for items that already exist
+    private void stageItems(MenuCatalogReader reader, MenuCatalogWriter writer, MenuChangeSet prices,
+                            ImportResult result) throws IOException {
+        // Rows by ID for the batch being looked up, so an ID repeated in the batch counts once
+        Map<String, MenuItem> batch = new LinkedHashMap<>();
+        while (reader.next()) {
+            try {
+                MenuItem item = toMenuItem(reader);
+                batch.put(item.getId(), item);
+            } catch (IllegalArgumentException e) {
+                result.reject(reader.getLine(), e.getMessage());
+                continue;
+            }
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                stageBatch(batch, writer, prices, result);
+            }
+        }
+        stageBatch(batch, writer, prices, result);
+        writer.finish();
+    }
+
+    private void stageBatch(Map<String, MenuItem> batch, MenuCatalogWriter writer, MenuChangeSet prices,
+                            ImportResult result) throws IOException {
+        for (MenuItem item : batch.values()) {
+            Optional<MenuItem> existing = menuRepository.findById(item.getId());
+            if (existing.isPresent()) {
+                if (versions.current().priceOf(existing.get()) != item.getPrice()) {
+                    prices.setPrice(item.getId(), item.getPrice());
+                }
+                result.updated++;
+            } else {
+                result.created++;
+            }
+            writer.write(item);
+        }
+        batch.clear();
+    }
+
+    // A snapshot sees the catalogue before the import or after it, never part way
+    private void applyStaged(MenuCatalogReader reader, MenuChangeSet prices) throws IOException {
+        try {
+            gate.change(() -> {
+                try {
+                    applyStagedBatches(reader, prices);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void applyStagedBatches(MenuCatalogReader reader, MenuChangeSet prices) throws IOException {
+        List<MenuItem> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        // One publisher at a time, so write-backs land in version order
+        synchronized (PUBLISH_LOCK) {
+            if (!prices.isEmpty()) {
+                versions.publish(prices.getPrices());
+            }
+            while (reader.next()) {
+                batch.add(toMenuItem(reader));
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    saveBatch(batch);
+                }
+            }
+            saveBatch(batch);
+        }
+    }
+
+    private void saveBatch(List<MenuItem> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            MenuItem staged = batch.get(i);
+            Optional<MenuItem> existing = menuRepository.findById(staged.getId());
+            if (existing.isPresent() && existing.get().getType() == staged.getType()) {
+                // Update in place, like updateMenuItem, so tills holding the item see the change
+                copyFields(staged, existing.get());
+                batch.set(i, existing.get());
+            }
+        }
+        menuRepository.saveAll(batch);
+        batch.forEach(searchIndex::index);
+        batch.clear();
+    }
+
+    private static void copyFields(MenuItem from, MenuItem to) {
+        to.setName(from.getName());
+        to.setPrice(from.getPrice());
+        to.setStockQty(from.getStockQty());
+        if (from instanceof FoodItem source && to instanceof FoodItem food) {
+            food.setCuisine(source.getCuisine());
+            food.setVegetarian(source.isVegetarian());
+        } else if (from instanceof DrinkItem source && to instanceof DrinkItem drink) {
+            drink.setAlcoholic(source.isAlcoholic());
+            drink.setTemperature(source.getTemperature());
+        }
+    }
+
+    public ImportResult importItems(Path file) throws IOException {
+        try (Reader in = Files.newBufferedReader(file)) {
+            return importItems(in, CatalogFormat.forFile(file));
+        }
+    }
+
+    /**
+     * Write every menu item as CSV or JSON in ID order, reading the menu a page
+     * at a time; returns how many were written
+     */
+    public int exportItems(Writer out, CatalogFormat format) throws IOException {
+        MenuCatalogWriter writer = new MenuCatalogWriter(out, format);
+        Iterator<MenuItem> items = menuRepository.streamAll().iterator();
+        while (items.hasNext()) {
+            writer.write(items.next());
+        }
+        writer.finish();
+        return writer.getWritten();
+    }
+
+    public int exportItems(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file)) {
+            return exportItems(out, CatalogFormat.forFile(file));
+        }
+    }
+
+    /**
+     * A new item for the row, never the live one; rows without an ID get a fresh one
+     */
+    private MenuItem toMenuItem(MenuCatalogReader reader) {
+        String typeValue = reader.get(MenuCatalogReader.Field.TYPE);
+        if (typeValue == null) {
+            throw new IllegalArgumentException("Item type is required");
+        }
+        MenuItem.ItemType type;
+        try {
+            type = MenuItem.ItemType.valueOf(typeValue.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown item type: " + typeValue);
+        }
+        String name = reader.get(MenuCatalogReader.Field.NAME);
+        double price = parseNumber(reader.get(MenuCatalogReader.Field.PRICE), "price");
+        double stock = parseNumber(reader.get(MenuCatalogReader.Field.STOCK), "stock");
+        if (stock != Math.rint(stock) || stock > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Stock quantity must be a whole number");
+        }
+        int stockQty = (int) stock;
+        validateMenuItemData(name, price, stockQty);
+        String cuisine = reader.get(MenuCatalogReader.Field.CUISINE);
+        boolean vegetarian = Boolean.parseBoolean(reader.get(MenuCatalogReader.Field.VEGETARIAN));
+        boolean alcoholic = Boolean.parseBoolean(reader.get(MenuCatalogReader.Field.ALCOHOLIC));
+        String temperature = reader.get(MenuCatalogReader.Field.TEMPERATURE);
+
+        String id = reader.get(MenuCatalogReader.Field.ID);
+        if (id == null) {
+            return type == MenuItem.ItemType.FOOD
+                    ? new FoodItem(name, price, stockQty, cuisine, vegetarian)
+                    : new DrinkItem(name, price, stockQty, alcoholic, temperature);
+        }
+        return type == MenuItem.ItemType.FOOD
+                ? new FoodItem(id, name, price, stockQty, cuisine, vegetarian)
+                : new DrinkItem(id, name, price, stockQty, alcoholic, temperature);
+    }
+
+    private static double parseNumber(String value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException("Item " + field + " is required");
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
         }
-        return false;
     }
 
     private void validateMenuItemData(String name, double price, int stockQty) {
@@ -92,4 +453,48 @@ public class MenuService {
             throw new IllegalArgumentException("Stock quantity must be non-negative");
         }
     }
+
+    public enum CatalogFormat {
+        CSV,
+        JSON;
+
+        /**
+         * JSON for .json files, CSV for anything else
+         */
+        public static CatalogFormat forFile(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    /**
+     * Counts and the first few rejected rows of a catalogue import
+     */
+    public static final class ImportResult {
+        private static final int MAX_REPORTED_ERRORS = 100;
+
+        private int created;
+        private int updated;
+        private int rejected;
+        private long elapsedNanos;
+        private final List<String> errors = new ArrayList<>();
+
+        private void reject(int line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Line " + line + ": " + message);
+            }
+        }
+
+        public int getCreated() { return created; }
+        public int getUpdated() { return updated; }
+        public int getRejected() { return rejected; }
+        public List<String> getErrors() { return Collections.unmodifiableList(errors); }
+        public double getElapsedMillis() { return elapsedNanos / 1_000_000.0; }
+
+        @Override
+        public String toString() {
+            return String.format("%d created, %d updated, %d rejected in %.1f ms",
+                    created, updated, rejected, getElapsedMillis());
+        }
+    }
 }
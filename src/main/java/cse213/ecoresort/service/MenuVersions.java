@@ -0,0 +1,101 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.MenuItem;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The menu's price list as a numbered series of immutable versions.
+ * A version maps item IDs to the prices published for them; items never
+ * repriced through a version keep the price on the item. Publishing builds
+ * the next version off to the side and swaps it in with one reference write,
+ * so however many prices change, a till pricing a line sees all of them or
+ * none. Order lines copy the price when they are added, so drafts keep the
+ * prices they were opened with.
+ *
+ * Each version shares every price it did not change with the one before it,
+ * so publishing costs the prices changed, not the size of the menu. A
+ * deleted item's price is dropped from the current version.
+ *
+ * Versions are kept per process; other tills pick up a change once
+ * MenuService has written it back to the items.
+ */
+public class MenuVersions {
+    private final AtomicReference<MenuVersion> current =
+            new AtomicReference<>(new MenuVersion(0, LocalDateTime.now(), PriceMap.EMPTY));
+
+    private MenuVersions() {
+    }
+
+    public static MenuVersions getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final MenuVersions INSTANCE = new MenuVersions();
+    }
+
+    public MenuVersion current() {
+        return current.get();
+    }
+
+    /**
+     * Publish the prices on top of the current version and return the new one
+     */
+    public MenuVersion publish(Map<String, Double> prices) {
+        MenuVersion base;
+        MenuVersion next;
+        do {
+            base = current.get();
+            next = new MenuVersion(base.number + 1, LocalDateTime.now(), base.prices.with(prices));
+        } while (!current.compareAndSet(base, next));
+        return next;
+    }
+
+    /**
+     * Drop a deleted item's price. Every other price is unchanged, so the version keeps its number.
+     */
+    public void forget(String itemId) {
+        MenuVersion base;
+        MenuVersion next;
+        do {
+            base = current.get();
+            PriceMap prices = base.prices.without(itemId);
+            if (prices == base.prices) {
+                return;
+            }
+            next = new MenuVersion(base.number, base.publishedAt, prices);
+        } while (!current.compareAndSet(base, next));
+    }
+
+    public static final class MenuVersion {
+        private final long number;
+        private final LocalDateTime publishedAt;
+        private final PriceMap prices;
+
+        private MenuVersion(long number, LocalDateTime publishedAt, PriceMap prices) {
+            this.number = number;
+            this.publishedAt = publishedAt;
+            this.prices = prices;
+        }
+
+        /**
+         * The price this version published for the item, or else the item's
+         * own price, which a later publish may already have written back
+         */
+        public double priceOf(MenuItem item) {
+            Double price = prices.get(item.getId());
+            return price != null ? price : item.getPrice();
+        }
+
+        public boolean hasPrice(String itemId) {
+            return prices.get(itemId) != null;
+        }
+
+        public long getNumber() { return number; }
+        public LocalDateTime getPublishedAt() { return publishedAt; }
+        public int getPriceCount() { return prices.size(); }
+    }
+}
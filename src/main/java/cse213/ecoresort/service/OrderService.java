@@ -1,21 +1,61 @@
 package cse213.ecoresort.service;
 
 import cse213.ecoresort.model.*;
-import cse213.ecoresort.repository.OrderRepository;
 import cse213.ecoresort.repository.InMemoryOrderRepository;
+import cse213.ecoresort.repository.OrderRepository;
+import cse213.ecoresort.repository.RepositoryFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public class OrderService {
+    // One shared listener, so the repository's listener set keeps a single copy
+    private static final Consumer<Order> CLOSE_EVICTED_DRAFT = order -> {
+        StockHoldManager.getInstance().releaseOrder(order.getId());
+        FloorStateService.getInstance().orderClosed(order.getId());
+    };
+    // A part-paid draft has taken its stock and some tenders; it stays until paid
+    private static final Predicate<Order> KEEP_BILLED_DRAFT =
+            order -> SplitBillLedger.getInstance().isBilled(order.getId());
+
     private final OrderRepository orderRepository;
     private final MenuService menuService;
     private final PricingService pricingService;
+    private final DiscountRuleEngine discountRuleEngine;
+    private final StockHoldManager stockHolds;
+    private final FloorStateService floorState;
+    // Orders with a split bill open are being paid and cannot change
+    private final SplitBillLedger bills;
+    private final OrderSettlement settlement;
+    private final StateGate gate;
 
     public OrderService() {
-        this.orderRepository = InMemoryOrderRepository.getInstance();
-        this.menuService = new MenuService();
-        this.pricingService = new PricingService();
+        this(RepositoryFactory.orderRepository(), new MenuService(), new PricingService());
+    }
+
+    public OrderService(OrderRepository orderRepository, MenuService menuService, PricingService pricingService) {
+        this.orderRepository = orderRepository;
+        this.menuService = menuService;
+        this.pricingService = pricingService;
+        this.discountRuleEngine = DiscountRuleEngine.getInstance();
+        this.stockHolds = StockHoldManager.getInstance();
+        this.floorState = FloorStateService.getInstance();
+        this.bills = SplitBillLedger.getInstance();
+        this.settlement = new OrderSettlement(orderRepository, menuService);
+        this.gate = StateGate.getInstance();
+        floorState.ensureLoaded(() -> orderRepository.streamByStatus(Order.OrderStatus.DRAFT).iterator());
+        if (orderRepository instanceof InMemoryOrderRepository inMemory) {
+            inMemory.addEvictionListener(CLOSE_EVICTED_DRAFT);
+            inMemory.addEvictionGuard(KEEP_BILLED_DRAFT);
+        }
     }
 
     public Order createOrder(int tableNo) {
@@ -24,7 +64,9 @@ public class OrderService {
         }
         
         Order order = new Order(tableNo);
-        return orderRepository.save(order);
+        gate.change(() -> orderRepository.save(order));
+        floorState.orderOpened(order);
+        return order;
     }
 
     public Optional<Order> getOrderById(String id) {
@@ -43,138 +85,256 @@ public class OrderService {
         return orderRepository.findByStatus(Order.OrderStatus.PAID);
     }
 
+    /**
+     * Orders paid in [from, to), e.g. one shift, oldest payment first
+     */
+    public List<Order> getPaidOrdersBetween(LocalDateTime from, LocalDateTime to) {
+        return orderRepository.findPaidBetween(from, to);
+    }
+
+    /**
+     * Orders opened in [from, to), paid or not, oldest first
+     */
+    public List<Order> getOrdersCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return orderRepository.findCreatedBetween(from, to);
+    }
+
+    /**
+     * Write receipts for every paid order to one file, for audits and reprints.
+     * Orders are read a page at a time, so a season's history is never held at once.
+     */
+    public int exportPaidReceipts(Path file, ReceiptRenderer.Format format) throws IOException {
+        Stream<Order> paid = orderRepository.streamByStatus(Order.OrderStatus.PAID);
+        return new ReceiptRenderer().export(paid::iterator, file, format);
+    }
+
     public boolean addItemToOrder(String orderId, String itemId, int quantity) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        Optional<MenuItem> itemOpt = menuService.getItemById(itemId);
+        return bills.whileUnbilled(orderId, () -> {
+            Optional<Order> orderOpt = orderRepository.findById(orderId);
+            Optional<MenuItem> itemOpt = menuService.getItemById(itemId);
         
-        if (orderOpt.isEmpty() || itemOpt.isEmpty()) {
-            return false;
-        }
+            if (orderOpt.isEmpty() || itemOpt.isEmpty()) {
+                return false;
+            }
 
-        Order order = orderOpt.get();
-        MenuItem item = itemOpt.get();
+            Order order = orderOpt.get();
+            MenuItem item = itemOpt.get();
 
-        if (!order.isDraft()) {
-            return false; // Can't modify paid orders
-        }
+            if (!order.isDraft()) {
+                return false; // Can't modify paid orders
+            }
 
-        if (!item.hasStock(quantity)) {
-            return false; // Insufficient stock
-        }
+            if (!stockHolds.hold(orderId, item, quantity)) {
+                return false; // Insufficient stock once other drafts' holds are counted
+            }
 
-        order.addLine(item, quantity);
-        orderRepository.save(order);
-        return true;
+            order.addLine(item, menuService.priceOf(item), quantity);
+            orderRepository.save(order);
+            return true;
+        });
     }
 
     public boolean removeItemFromOrder(String orderId, String itemId) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        return bills.whileUnbilled(orderId, () -> {
+            Optional<Order> orderOpt = orderRepository.findById(orderId);
         
-        if (orderOpt.isEmpty()) {
-            return false;
-        }
+            if (orderOpt.isEmpty()) {
+                return false;
+            }
 
-        Order order = orderOpt.get();
+            Order order = orderOpt.get();
         
-        if (!order.isDraft()) {
-            return false; // Can't modify paid orders
-        }
-
-        boolean removed = order.removeLine(itemId);
-        if (removed) {
-            order.recalculateTotals();
-            orderRepository.save(order);
-        }
-        return removed;
+            if (!order.isDraft()) {
+                return false; // Can't modify paid orders
+            }
+
+            boolean removed = order.removeLine(itemId);
+            if (removed) {
+                order.recalculateTotals();
+                orderRepository.save(order);
+                stockHolds.release(orderId, itemId);
+            }
+            return removed;
+        });
     }
 
     public boolean updateItemQuantity(String orderId, String itemId, int newQuantity) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        return bills.whileUnbilled(orderId, () -> {
+            Optional<Order> orderOpt = orderRepository.findById(orderId);
         
-        if (orderOpt.isEmpty()) {
-            return false;
-        }
+            if (orderOpt.isEmpty()) {
+                return false;
+            }
 
-        Order order = orderOpt.get();
+            Order order = orderOpt.get();
         
-        if (!order.isDraft()) {
-            return false; // Can't modify paid orders
-        }
-
-        // Check if we have enough stock for the new quantity
-        Optional<MenuItem> itemOpt = menuService.getItemById(itemId);
-        if (itemOpt.isEmpty() || !itemOpt.get().hasStock(newQuantity)) {
-            return false;
-        }
-
-        order.updateLineQuantity(itemId, newQuantity);
-        orderRepository.save(order);
-        return true;
+            if (!order.isDraft()) {
+                return false; // Can't modify paid orders
+            }
+
+            // Hold the extra units, or give back the ones no longer needed
+            Optional<MenuItem> itemOpt = menuService.getItemById(itemId);
+            Optional<OrderLine> lineOpt = order.getOrderLines().stream()
+                    .filter(line -> line.getItemId().equals(itemId))
+                    .findFirst();
+            if (itemOpt.isEmpty() || lineOpt.isEmpty() || newQuantity <= 0
+                    || !stockHolds.adjust(orderId, itemOpt.get(), newQuantity - lineOpt.get().getQuantity())) {
+                return false;
+            }
+
+            order.updateLineQuantity(itemId, newQuantity);
+            orderRepository.save(order);
+            return true;
+        });
     }
 
     public boolean applyDiscount(String orderId, double discountPercentage) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        return bills.whileUnbilled(orderId, () -> {
+            Optional<Order> orderOpt = orderRepository.findById(orderId);
         
-        if (orderOpt.isEmpty()) {
-            return false;
-        }
+            if (orderOpt.isEmpty()) {
+                return false;
+            }
 
-        Order order = orderOpt.get();
+            Order order = orderOpt.get();
         
-        if (!order.isDraft()) {
-            return false; // Can't modify paid orders
-        }
+            if (!order.isDraft()) {
+                return false; // Can't modify paid orders
+            }
 
-        if (!pricingService.isValidDiscountPercentage(discountPercentage)) {
-            return false; // Invalid discount percentage
-        }
+            if (!pricingService.isValidDiscountPercentage(discountPercentage)) {
+                return false; // Invalid discount percentage
+            }
 
-        double discountAmount = pricingService.calculateDiscountAmount(order.getSubtotal(), discountPercentage);
-        order.setDiscount(discountAmount);
-        orderRepository.save(order);
-        return true;
+            double discountAmount = pricingService.calculateDiscountAmount(order.getSubtotal(), discountPercentage);
+            order.setDiscount(discountAmount);
+            orderRepository.save(order);
+            return true;
+        });
+    }
+
+    /**
+     * Replace the order's discount with the promotions active right now
+     */
+    public Optional<DiscountRuleEngine.Evaluation> applyDiscountRules(String orderId) {
+        List<DiscountRuleEngine.Evaluation> applied = new ArrayList<>(1);
+        bills.whileUnbilled(orderId, () -> {
+            Optional<Order> orderOpt = orderRepository.findById(orderId);
+
+            if (orderOpt.isEmpty() || !orderOpt.get().isDraft()) {
+                return false;
+            }
+
+            Order order = orderOpt.get();
+            DiscountRuleEngine.Evaluation evaluation =
+                    discountRuleEngine.evaluate(order.getOrderLines(), LocalTime.now());
+            order.setDiscount(Math.min(evaluation.getDiscount(), order.getSubtotal()));
+            orderRepository.save(order);
+            return applied.add(evaluation);
+        });
+        return applied.stream().findFirst();
     }
 
+    // Tax settings. Paid orders keep the tax they were charged, so only open
+    // drafts whose cached rates actually change are recalculated and saved.
+
+    public int setTypeTaxRate(MenuItem.ItemType type, double rate) {
+        TaxEngine.getInstance().setTypeRate(type, rate);
+        return refreshDraftTaxes();
+    }
+
+    public int setCategoryTaxRate(String category, double rate) {
+        TaxEngine.getInstance().setCategoryRate(category, rate);
+        return refreshDraftTaxes();
+    }
+
+    public int setDefaultTaxRate(double rate) {
+        TaxEngine.getInstance().setDefaultRate(rate);
+        return refreshDraftTaxes();
+    }
+
+    public int setTaxMode(TaxEngine.TaxMode mode) {
+        TaxEngine.getInstance().setMode(mode);
+        return refreshDraftTaxes();
+    }
+
+    private int refreshDraftTaxes() {
+        int recalculated = 0;
+        for (Order order : getDraftOrders()) {
+            // An order with a bill open keeps the tax it is being charged
+            boolean refreshed = bills.whileUnbilled(order.getId(), () -> {
+                if (!order.refreshTax()) {
+                    return false;
+                }
+                orderRepository.save(order);
+                return true;
+            });
+            if (refreshed) {
+                recalculated++;
+            }
+        }
+        return recalculated;
+    }
+
+    /**
+     * Take the stock and mark the order paid in one step; false if it is not
+     * an open draft with lines or an item has sold out. A paid order's kitchen
+     * tickets are never dropped: a station that is behind keeps them until it
+     * has room.
+     */
     public boolean finalizeOrder(String orderId) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        List<Order> paid = new ArrayList<>(1);
+        bills.whileUnbilled(orderId, () -> {
+            Optional<Order> orderOpt = orderRepository.findById(orderId);
         
-        if (orderOpt.isEmpty()) {
-            return false;
-        }
+            if (orderOpt.isEmpty()) {
+                return false;
+            }
 
-        Order order = orderOpt.get();
+            Order order = orderOpt.get();
         
-        if (!order.isDraft()) {
-            return false; // Already finalized
-        }
+            if (!order.isDraft()) {
+                return false; // Already finalized
+            }
 
-        if (order.getOrderLines().isEmpty()) {
-            return false; // Can't finalize empty order
-        }
+            if (order.getOrderLines().isEmpty()) {
+                return false; // Can't finalize empty order
+            }
 
-        // Decrease stock for all items
-        for (var line : order.getOrderLines()) {
-            menuService.decreaseStock(line.getItemId(), line.getQuantity());
-        }
+            // Decrease stock for all items, or none if one has sold out since it was added
+            if (!settlement.takeStock(orderId, order.getOrderLines())) {
+                return false;
+            }
 
-        order.markAsPaid();
-        orderRepository.save(order);
+            order.markAsPaid();
+            orderRepository.save(order);
+            return paid.add(order);
+        });
+        if (paid.isEmpty()) {
+            return false;
+        }
+        // Outside the ledger lock: the kitchen may make us wait for room
+        settlement.orderPaid(paid.get(0));
         return true;
     }
 
     public boolean deleteOrder(String orderId) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        return bills.whileUnbilled(orderId, () -> {
+            Optional<Order> orderOpt = orderRepository.findById(orderId);
         
-        if (orderOpt.isEmpty()) {
-            return false;
-        }
+            if (orderOpt.isEmpty()) {
+                return false;
+            }
 
-        Order order = orderOpt.get();
+            Order order = orderOpt.get();
         
-        if (!order.isDraft()) {
-            return false; // Can't delete paid orders
-        }
-
-        return orderRepository.delete(orderId);
+            if (!order.isDraft()) {
+                return false; // Can't delete paid orders
+            }
+
+            stockHolds.releaseOrder(orderId);
+            floorState.orderClosed(orderId);
+            return orderRepository.delete(orderId);
+        });
     }
 }
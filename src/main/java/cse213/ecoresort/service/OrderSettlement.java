@@ -0,0 +1,78 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.repository.OrderRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * How an order's stock is taken when payment starts, and what happens once it
+ * is paid and saved, whichever way it was paid: its table closes on the floor,
+ * its lines go to the sales store and the top sellers, and it goes to the
+ * kitchen. OrderService.finalizeOrder and PaymentService both go through here.
+ */
+final class OrderSettlement {
+    private final MenuService menuService;
+    private final StockHoldManager stockHolds;
+    private final FloorStateService floorState;
+    private final SalesColumnStore sales;
+    private final TopSellersTracker topSellers;
+    private final KitchenDispatcher kitchenDispatcher;
+
+    OrderSettlement(OrderRepository orderRepository, MenuService menuService) {
+        this.menuService = menuService;
+        this.stockHolds = StockHoldManager.getInstance();
+        this.floorState = FloorStateService.getInstance();
+        // Loaded before the first paid order is added, so none is counted twice
+        this.sales = SalesColumnStore.getInstance();
+        sales.ensureLoaded(() -> orderRepository.streamByStatus(Order.OrderStatus.PAID).iterator());
+        this.topSellers = TopSellersTracker.getInstance();
+        topSellers.ensureLoaded(since -> orderRepository.findPaidBetween(since, LocalDateTime.now().plusDays(1)));
+        this.kitchenDispatcher = KitchenDispatcher.getInstance();
+    }
+
+    /**
+     * Take the stock for every line, or for none if an item has run out. The
+     * order's holds are released in the same step, so the units are never
+     * counted both as sold and as held against other drafts.
+     */
+    boolean takeStock(String orderId, List<OrderLine> lines) {
+        if (!menuService.decreaseStock(lines)) {
+            return false;
+        }
+        stockHolds.releaseOrder(orderId);
+        return true;
+    }
+
+    /**
+     * Give back stock taken for a payment that did not go through, and hold it
+     * for the draft again as far as other drafts have left room
+     */
+    void returnStock(String orderId, List<OrderLine> lines) {
+        menuService.increaseStock(lines);
+        for (OrderLine line : lines) {
+            menuService.getItemById(line.getItemId())
+                    .ifPresent(item -> stockHolds.hold(orderId, item, line.getQuantity()));
+        }
+    }
+
+    /**
+     * Finish an order that has just been marked paid and saved. Call it outside
+     * the order's ledger lock: the kitchen may make the caller wait for room.
+     * False when a station could not take its ticket yet; the ticket waits
+     * there and the till should tell the staff the kitchen is behind.
+     */
+    boolean orderPaid(Order order) {
+        floorState.orderClosed(order.getId());
+        sales.append(order);
+        topSellers.record(order);
+        if (!kitchenDispatcher.dispatch(order)) {
+            System.err.println("ERROR: Kitchen is backed up; order " + order.getId()
+                    + " is waiting for a station to take it");
+            return false;
+        }
+        return true;
+    }
+}
@@ -2,17 +2,34 @@ package cse213.ecoresort.service;
 
 import cse213.ecoresort.model.*;
 import cse213.ecoresort.repository.OrderRepository;
-import cse213.ecoresort.repository.InMemoryOrderRepository;
+import cse213.ecoresort.repository.RepositoryFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public class PaymentService {
     private final OrderRepository orderRepository;
+    private final MenuService menuService;
+    private final FloorStateService floorState;
+    private final SplitBillLedger bills;
+    private final OrderSettlement settlement;
+    private final StateGate gate;
     private final Map<PaymentInput.PaymentType, PaymentMethod> paymentMethods;
 
     public PaymentService() {
-        this.orderRepository = InMemoryOrderRepository.getInstance();
+        this(RepositoryFactory.orderRepository(), new MenuService());
+    }
+
+    public PaymentService(OrderRepository orderRepository, MenuService menuService) {
+        this.orderRepository = orderRepository;
+        this.menuService = menuService;
+        this.floorState = FloorStateService.getInstance();
+        this.bills = SplitBillLedger.getInstance();
+        this.settlement = new OrderSettlement(orderRepository, menuService);
+        this.gate = StateGate.getInstance();
         this.paymentMethods = new HashMap<>();
         
         // Initialize payment methods - demonstrating polymorphism
@@ -20,35 +37,148 @@ public class PaymentService {
         paymentMethods.put(PaymentInput.PaymentType.CARD, new CardPayment());
     }
 
+    /**
+     * Pay whatever is still outstanding on the order in one tender
+     */
     public PaymentResult processPayment(String orderId, PaymentInput paymentInput) {
+        return processTender(orderId, paymentInput);
+    }
+
+    /**
+     * Pay part or all of the order's balance. Tenders for the same order may
+     * come from several tills at once; each claims its part of the balance
+     * before charging, and the tender that settles the last cent marks the
+     * order paid. A tender for more than is left is charged only what is left.
+     */
+    public PaymentResult processTender(String orderId, PaymentInput paymentInput) {
+        List<Order> paid = new ArrayList<>(1);
+        // Through the gate, so a snapshot never sees a tender's stock, bill and order half updated
+        PaymentResult result = gate.change(() -> tender(orderId, paymentInput, paid));
+        // Outside the gate: the kitchen may make us wait for room
+        if (!paid.isEmpty() && !settlement.orderPaid(paid.get(0))) {
+            return result.withNotice("The kitchen is behind; the order goes through as soon as it has room");
+        }
+        return result;
+    }
+
+    private PaymentResult tender(String orderId, PaymentInput paymentInput, List<Order> paid) {
         // Get the appropriate payment method based on type
         PaymentMethod method = paymentMethods.get(paymentInput.getType());
         if (method == null) {
             return PaymentResult.failure("Unsupported payment method: " + paymentInput.getType());
         }
-
-        // Get the order
-        var orderOpt = orderRepository.findById(orderId);
-        if (orderOpt.isEmpty()) {
-            return PaymentResult.failure("Order not found");
+        long requested = paymentInput.coversBalance() ? Long.MAX_VALUE : SplitBillLedger.toCents(paymentInput.getAmount());
+        if (requested <= 0) {
+            return PaymentResult.failure("Tender amount must be at least $0.01");
         }
 
-        Order order = orderOpt.get();
-        
-        if (!order.isDraft()) {
-            return PaymentResult.failure("Order is already paid");
+        Order order;
+        SplitBillLedger.Bill bill;
+        long taken;
+        do {
+            // Get the order
+            var orderOpt = orderRepository.findById(orderId);
+            if (orderOpt.isEmpty()) {
+                return PaymentResult.failure("Order not found");
+            }
+
+            order = orderOpt.get();
+
+            if (!order.isDraft()) {
+                return PaymentResult.failure("Order is already paid");
+            }
+
+            // The first tender takes the stock, before charging, so concurrent tills cannot sell the same portion.
+            // The bill reads the order again as it opens: it may have been edited, paid or deleted since
+            var billOpt = bills.open(orderId, orderRepository::findById,
+                    lines -> settlement.takeStock(orderId, lines));
+            if (billOpt.isEmpty()) {
+                var current = orderRepository.findById(orderId);
+                if (current.isEmpty()) {
+                    return PaymentResult.failure("Order not found");
+                }
+                if (!current.get().isDraft()) {
+                    return PaymentResult.failure("Order is already paid");
+                }
+                return PaymentResult.failure("Insufficient stock for one or more items");
+            }
+            bill = billOpt.get();
+            // No edits get in once the bill is open, so this copy matches what it charges for
+            var billed = orderRepository.findById(orderId).filter(Order::isDraft);
+            if (billed.isEmpty()) {
+                if (bills.closeIfUntouched(bill)) {
+                    settlement.returnStock(orderId, bill.getLines());
+                }
+                return PaymentResult.failure("Order is already paid");
+            }
+            order = billed.get();
+            taken = bill.getTotalCents() == 0 ? 0 : bill.reserve(requested);
+            if (taken == SplitBillLedger.CLOSED) {
+                // Just paid or abandoned; wait for it to be saved or dropped, then look again
+                Thread.yield();
+            }
+        } while (taken == SplitBillLedger.CLOSED);
+
+        if (taken == 0 && bill.getTotalCents() > 0) {
+            return PaymentResult.failure("The rest of the balance is already being paid");
         }
 
         // Process the payment using the polymorphic method
-        PaymentResult result = method.processPayment(order, paymentInput);
-        
-        if (result.isSuccess()) {
-            // Mark order as paid and decrease stock
-            order.markAsPaid();
-            orderRepository.save(order);
+        PaymentResult result = method.processPayment(order, paymentInput, SplitBillLedger.toAmount(taken));
+
+        if (!result.isSuccess()) {
+            bill.release(taken);
+            // Nothing else paid or in flight, so give the stock back as a single payment would
+            if (bills.closeIfUntouched(bill)) {
+                settlement.returnStock(orderId, bill.getLines());
+            }
+            return result;
         }
 
-        return result;
+        long remaining = bill.settle(taken);
+        if (remaining == 0) {
+            if (!bills.closePaid(bill)) {
+                return PaymentResult.failure("Order is already paid");
+            }
+            try {
+                order.markAsPaid();
+                orderRepository.save(order);
+            } finally {
+                bills.forget(bill);
+            }
+            paid.add(order);
+        }
+
+        return result.withBalance(SplitBillLedger.toAmount(taken), SplitBillLedger.toAmount(remaining));
+    }
+
+    /**
+     * What is still to pay on the order, less tenders already taken
+     */
+    public double getOutstandingBalance(Order order) {
+        return bills.find(order.getId())
+                .map(bill -> SplitBillLedger.toAmount(bill.getUnpaidCents()))
+                .orElse(order.isDraft() ? order.getTotal() : 0.0);
+    }
+
+    /**
+     * Mark the order's table as waiting to pay while the payment screen is open
+     */
+    public void beginPayment(Order order) {
+        if (order.isDraft()) {
+            floorState.paymentStarted(order);
+        }
+    }
+
+    /**
+     * The payment screen closed without taking payment
+     */
+    public void cancelPayment(String orderId) {
+        floorState.paymentCancelled(orderId);
+    }
+
+    public Optional<Order> getOrderById(String orderId) {
+        return orderRepository.findById(orderId);
     }
 
     public PaymentMethod getPaymentMethod(PaymentInput.PaymentType type) {
@@ -0,0 +1,176 @@
+package cse213.ecoresort.service;
+
+import java.util.Map;
+
+/**
+ * Immutable map from item ID to price, as a hash array mapped trie. Adding or
+ * removing a price copies only the path from the root to that entry, a few
+ * small arrays, and shares everything else with the map it came from, so a
+ * new menu version costs the prices it changes rather than the whole menu.
+ */
+final class PriceMap {
+    static final PriceMap EMPTY = new PriceMap(Node.EMPTY, 0);
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Node root;
+    private final int size;
+
+    private PriceMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * The price for the item, or null if the map has none
+     */
+    Double get(String itemId) {
+        return find(root, itemId);
+    }
+
+    PriceMap with(Map<String, Double> prices) {
+        Node updated = root;
+        int updatedSize = size;
+        for (Map.Entry<String, Double> entry : prices.entrySet()) {
+            String key = entry.getKey();
+            if (find(updated, key) == null) {
+                updatedSize++;
+            }
+            updated = put(updated, 0, spread(key.hashCode()), key, entry.getValue());
+        }
+        return new PriceMap(updated, updatedSize);
+    }
+
+    PriceMap without(String itemId) {
+        if (find(root, itemId) == null) {
+            return this;
+        }
+        Node updated = remove(root, 0, spread(itemId.hashCode()), itemId);
+        return new PriceMap(updated == null ? Node.EMPTY : updated, size - 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static Double find(Node root, String itemId) {
+        int hash = spread(itemId.hashCode());
+        Node node = root;
+        for (int shift = 0; ; shift += BITS) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (slot instanceof Node child) {
+                node = child;
+                continue;
+            }
+            for (Leaf leaf = (Leaf) slot; leaf != null; leaf = leaf.next) {
+                if (leaf.hash == hash && leaf.key.equals(itemId)) {
+                    return leaf.price;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static Node put(Node node, int shift, int hash, String key, Double price) {
+        int bit = 1 << ((hash >>> shift) & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) {
+            return node.inserted(bit, index, new Leaf(hash, key, price, null));
+        }
+        Object slot = node.slots[index];
+        if (slot instanceof Node child) {
+            return node.replaced(index, put(child, shift + BITS, hash, key, price));
+        }
+        Leaf leaf = (Leaf) slot;
+        if (leaf.hash == hash) {
+            // Same full hash: the chain holds every key that shares it
+            return node.replaced(index, new Leaf(hash, key, price, leaf.without(key)));
+        }
+        Node split = put(Node.EMPTY.inserted(1 << ((leaf.hash >>> (shift + BITS)) & MASK), 0, leaf),
+                shift + BITS, hash, key, price);
+        return node.replaced(index, split);
+    }
+
+    // The node without the key, or null once it holds nothing
+    private static Node remove(Node node, int shift, int hash, String key) {
+        int bit = 1 << ((hash >>> shift) & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Object slot = node.slots[index];
+        Object kept;
+        if (slot instanceof Node child) {
+            kept = remove(child, shift + BITS, hash, key);
+        } else {
+            kept = ((Leaf) slot).without(key);
+        }
+        if (kept != null) {
+            return node.replaced(index, kept);
+        }
+        return node.bitmap == bit ? null : node.removed(bit, index);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Node {
+        static final Node EMPTY = new Node(0, new Object[0]);
+
+        final int bitmap;
+        // Each slot is a child Node or a chain of Leaf entries
+        final Object[] slots;
+
+        Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        Node inserted(int bit, int index, Object slot) {
+            Object[] copy = new Object[slots.length + 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            copy[index] = slot;
+            System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+            return new Node(bitmap | bit, copy);
+        }
+
+        Node replaced(int index, Object slot) {
+            Object[] copy = slots.clone();
+            copy[index] = slot;
+            return new Node(bitmap, copy);
+        }
+
+        Node removed(int bit, int index) {
+            Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            System.arraycopy(slots, index + 1, copy, index, slots.length - index - 1);
+            return new Node(bitmap & ~bit, copy);
+        }
+    }
+
+    private static final class Leaf {
+        final int hash;
+        final String key;
+        final Double price;
+        final Leaf next;
+
+        Leaf(int hash, String key, Double price, Leaf next) {
+            this.hash = hash;
+            this.key = key;
+            this.price = price;
+            this.next = next;
+        }
+
+        // The chain without the key, sharing the part after it; null if nothing is left
+        Leaf without(String removed) {
+            if (key.equals(removed)) {
+                return next;
+            }
+            Leaf rest = next == null ? null : next.without(removed);
+            return rest == next ? this : new Leaf(hash, key, price, rest);
+        }
+    }
+}
@@ -1,34 +1,33 @@
 package cse213.ecoresort.service;
 
 import cse213.ecoresort.model.DiscountStrategy;
-import cse213.ecoresort.model.MenuItem;
 import cse213.ecoresort.model.Order;
 import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.model.TaxEngine;
 
 import java.util.List;
 
 /**
  * Service for handling pricing calculations including subtotal, tax, and discounts
- * Demonstrates abstraction through the DiscountStrategy interface
+ * Demonstrates abstraction through the DiscountStrategy interface.
+ * Tax rates and totals come from the TaxEngine, the same path Order uses.
  */
 public class PricingService {
     
-    private static final double TAX_RATE = 0.10; // 10% tax rate
+    private final TaxEngine taxEngine = TaxEngine.getInstance();
     
     /**
      * Calculate subtotal from order lines
      */
     public double calculateSubtotal(List<OrderLine> orderLines) {
-        return orderLines.stream()
-                .mapToDouble(OrderLine::getLineTotal)
-                .sum();
+        return taxEngine.calculate(orderLines, 0.0, taxEngine.getMode()).getSubtotal();
     }
     
     /**
-     * Calculate tax amount based on subtotal
+     * Calculate tax for the order lines at their cached rates
      */
-    public double calculateTax(double subtotal) {
-        return subtotal * TAX_RATE;
+    public double calculateTax(List<OrderLine> orderLines) {
+        return taxEngine.calculate(orderLines, 0.0, taxEngine.getMode()).getTax();
     }
     
     /**
@@ -39,33 +38,25 @@ public class PricingService {
     }
     
     /**
-     * Calculate total amount (subtotal + tax - discount)
+     * Calculate total amount (subtotal + tax - discount, or subtotal - discount when prices include tax)
      */
     public double calculateTotal(double subtotal, double tax, double discount) {
-        return subtotal + tax - discount;
+        return taxEngine.total(subtotal, tax, discount, taxEngine.getMode());
     }
     
     /**
      * Recalculate all totals for an order using discount strategy
      */
     public void recalculateOrderTotals(Order order, DiscountStrategy discountStrategy) {
-        double subtotal = calculateSubtotal(order.getOrderLines());
-        double tax = calculateTax(subtotal);
-        double discount = applyDiscount(subtotal, discountStrategy);
-        double total = calculateTotal(subtotal, tax, discount);
-        
-        // Update order totals
-        order.setSubtotal(subtotal);
-        order.setTax(tax);
-        order.setDiscount(discount);
-        order.setTotal(total);
+        order.recalculateTotals();
+        order.setDiscount(applyDiscount(order.getSubtotal(), discountStrategy));
     }
     
     /**
-     * Get the tax rate as a percentage
+     * Get the default tax rate as a percentage
      */
     public double getTaxRate() {
-        return TAX_RATE * 100; // Return as percentage
+        return taxEngine.getDefaultRate() * 100; // Return as percentage
     }
     
     /**
@@ -0,0 +1,301 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.model.TaxEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+/**
+ * Renders receipts straight into a reusable byte buffer, as plain text or as
+ * ESC/POS commands for a thermal printer.
+ * Amounts, dates and padding are written digit by digit instead of going
+ * through String.format, so rendering allocates next to nothing per receipt.
+ * The batch methods append receipt after receipt and write the buffer out in
+ * large chunks, which keeps an audit export of a whole day streaming.
+ *
+ * An instance is not thread-safe; use one per thread.
+ */
+public class ReceiptRenderer {
+    public static final int DEFAULT_WIDTH = 42;
+
+    private static final String TITLE = "ECO-RESORT";
+    private static final int FLUSH_BYTES = 64 * 1024;
+
+    private static final byte ESC = 0x1B;
+    private static final byte GS = 0x1D;
+    private static final byte LF = '\n';
+
+    public enum Format {
+        TEXT,
+        ESC_POS
+    }
+
+    private final int width;
+    private ByteBuffer buffer = ByteBuffer.allocate(FLUSH_BYTES * 2);
+    private Format format = Format.TEXT;
+
+    public ReceiptRenderer() {
+        this(DEFAULT_WIDTH);
+    }
+
+    public ReceiptRenderer(int width) {
+        if (width < 24) {
+            throw new IllegalArgumentException("Receipt width must be at least 24 columns");
+        }
+        this.width = width;
+    }
+
+    /**
+     * Render one receipt. The returned buffer is ready to read and stays valid
+     * until the next call on this renderer.
+     */
+    public ByteBuffer render(Order order, Format format) {
+        this.format = format;
+        buffer.clear();
+        append(order);
+        buffer.flip();
+        return buffer;
+    }
+
+    public String renderText(Order order) {
+        ByteBuffer rendered = render(order, Format.TEXT);
+        return new String(rendered.array(), rendered.arrayOffset(), rendered.remaining(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stream receipts for all the orders to the channel, returning how many were written
+     */
+    public int writeAll(Iterable<Order> orders, WritableByteChannel channel, Format format) throws IOException {
+        this.format = format;
+        buffer.clear();
+        int count = 0;
+        for (Order order : orders) {
+            append(order);
+            count++;
+            if (buffer.position() >= FLUSH_BYTES) {
+                flush(channel);
+            }
+        }
+        flush(channel);
+        return count;
+    }
+
+    /**
+     * Write receipts for all the orders to a file, replacing it
+     */
+    public int export(Iterable<Order> orders, Path file, Format format) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return writeAll(orders, channel, format);
+        }
+    }
+
+    private void flush(WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // ---- Layout ----
+
+    private void append(Order order) {
+        boolean escPos = format == Format.ESC_POS;
+        if (escPos) {
+            command(ESC, '@');          // reset
+            command(ESC, 'a', 1);       // centre
+            command(GS, '!', 0x11);     // double width and height
+        } else {
+            spaces((width - TITLE.length()) / 2);
+        }
+        text(TITLE);
+        newline();
+        if (escPos) {
+            command(GS, '!', 0);
+            command(ESC, 'a', 0);       // left
+        }
+
+        text("Order: ");
+        text(order.getId());
+        newline();
+        text("Table: ");
+        number(order.getTableNo(), 0);
+        newline();
+        text("Date:  ");
+        dateTime(order.getPaidAt() != null ? order.getPaidAt() : order.getCreatedAt());
+        newline();
+        rule();
+
+        for (OrderLine line : order.getOrderLines()) {
+            text(line.getItemName(), width);
+            newline();
+            int start = buffer.position();
+            spaces(2);
+            number(line.getQuantity(), 0);
+            text(" x ");
+            money(line.getUnitPrice());
+            amountAt(start, line.getLineTotal());
+        }
+        rule();
+
+        summary("Subtotal", order.getSubtotal());
+        if (order.getDiscount() > 0) {
+            summary("Discount", -order.getDiscount());
+        }
+        summary(order.getTaxMode() == TaxEngine.TaxMode.INCLUSIVE ? "Tax (included)" : "Tax", order.getTax());
+        if (escPos) {
+            command(ESC, 'E', 1);       // bold
+        }
+        summary("TOTAL", order.getTotal());
+        if (escPos) {
+            command(ESC, 'E', 0);
+        }
+        text("Status: ");
+        text(order.getStatus().toString());
+        newline();
+
+        if (escPos) {
+            command(ESC, 'd', 3);       // feed three lines
+            command(GS, 'V', 66, 0);    // partial cut
+        } else {
+            newline();
+        }
+    }
+
+    private void summary(String label, double amount) {
+        int start = buffer.position();
+        text(label);
+        amountAt(start, amount);
+    }
+
+    // Right-align the amount on the line that began at start, then end the line
+    private void amountAt(int start, double amount) {
+        int used = buffer.position() - start;
+        spaces(Math.max(1, width - used - moneyLength(amount)));
+        money(amount);
+        newline();
+    }
+
+    private void rule() {
+        ensure(width + 1);
+        for (int i = 0; i < width; i++) {
+            buffer.put((byte) '-');
+        }
+        newline();
+    }
+
+    // ---- Primitives ----
+
+    private void command(byte prefix, char code, int... args) {
+        ensure(2 + args.length);
+        buffer.put(prefix).put((byte) code);
+        for (int arg : args) {
+            buffer.put((byte) arg);
+        }
+    }
+
+    private void text(String value) {
+        text(value, Integer.MAX_VALUE);
+    }
+
+    // ESC/POS printers get ASCII with '?' for anything else; text output is UTF-8
+    private void text(String value, int maxColumns) {
+        if (value == null) {
+            return;
+        }
+        int length = Math.min(value.length(), maxColumns);
+        ensure(length * 3);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (format == Format.ESC_POS) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put(String.valueOf(c).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private void spaces(int count) {
+        ensure(count);
+        for (int i = 0; i < count; i++) {
+            buffer.put((byte) ' ');
+        }
+    }
+
+    private void newline() {
+        ensure(1);
+        buffer.put(LF);
+    }
+
+    private void number(long value, int minDigits) {
+        ensure(20);
+        int digits = Math.max(minDigits, digitCount(value));
+        int end = buffer.position() + digits;
+        for (int i = end - 1; i >= end - digits; i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+    private void money(double amount) {
+        long cents = Math.round(amount * 100);
+        ensure(24);
+        if (cents < 0) {
+            buffer.put((byte) '-');
+            cents = -cents;
+        }
+        buffer.put((byte) '$');
+        number(cents / 100, 1);
+        buffer.put((byte) '.');
+        number(cents % 100, 2);
+    }
+
+    private static int moneyLength(double amount) {
+        long cents = Math.round(amount * 100);
+        return (cents < 0 ? 1 : 0) + 1 + Math.max(1, digitCount(Math.abs(cents) / 100)) + 3;
+    }
+
+    private void dateTime(LocalDateTime time) {
+        number(time.getYear(), 4);
+        text("-");
+        number(time.getMonthValue(), 2);
+        text("-");
+        number(time.getDayOfMonth(), 2);
+        text(" ");
+        number(time.getHour(), 2);
+        text(":");
+        number(time.getMinute(), 2);
+        text(":");
+        number(time.getSecond(), 2);
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+}
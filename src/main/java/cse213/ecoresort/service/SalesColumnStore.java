@@ -0,0 +1,350 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.ItemInfo;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Every paid order line, kept column by column for sales reports: item,
+ * quantity, unit price in cents, time paid and table, each in its own
+ * primitive array. A report is a loop over the arrays it needs instead of a
+ * walk through orders and their line objects.
+ *
+ * Lines are stored in chunks of 65,536 rows. Each chunk remembers the
+ * earliest and latest payment in it, so a report for a time range skips the
+ * chunks outside it and drops the time test for the chunks wholly inside it.
+ * Revenue is at the ordered unit price, before discounts and tax.
+ *
+ * Appends take the store's lock; reports run without it and see every line
+ * appended before they started. The payment service appends each order as it
+ * is paid, after taking in the paid orders already stored.
+ */
+public class SalesColumnStore {
+    static final int CHUNK_SHIFT = 16;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final long MICROS_PER_HOUR = 3_600_000_000L;
+
+    private final Map<String, Integer> itemIndex = new HashMap<>();
+    // Written before the line count that makes them visible, read after it
+    private volatile ItemInfo[] items = new ItemInfo[64];
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile long lineCount;
+    private volatile int highestTable;
+    private volatile boolean loaded;
+
+    private SalesColumnStore() {
+    }
+
+    public static SalesColumnStore getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final SalesColumnStore INSTANCE = new SalesColumnStore();
+    }
+
+    /**
+     * Take in the paid orders already stored, once, the first time a service attaches
+     */
+    public void ensureLoaded(Iterable<Order> paidOrders) {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                paidOrders.forEach(this::append);
+                loaded = true;
+            }
+        }
+    }
+
+    /**
+     * Add the lines of a paid order; orders not yet paid are ignored
+     */
+    public synchronized void append(Order order) {
+        if (!order.isPaid()) {
+            return;
+        }
+        long paidAt = order.getPaidAtMicros();
+        int tableNo = order.getTableNo();
+        long count = lineCount;
+        for (OrderLine line : order.getOrderLines()) {
+            int row = (int) (count & (CHUNK_SIZE - 1));
+            Chunk chunk = chunkFor(count);
+            chunk.item[row] = indexOf(line.getItem());
+            chunk.quantity[row] = line.getQuantity();
+            chunk.unitPrice[row] = Math.toIntExact(SplitBillLedger.toCents(line.getUnitPrice()));
+            chunk.paidAt[row] = paidAt;
+            chunk.table[row] = tableNo;
+            chunk.include(paidAt);
+            count++;
+        }
+        if (tableNo > highestTable) {
+            highestTable = tableNo;
+        }
+        lineCount = count;
+    }
+
+    // Queries
+
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Revenue in cents of the lines paid at or after from and before to
+     */
+    public long revenueCents(LocalDateTime from, LocalDateTime to) {
+        long start = toMicros(from);
+        long end = toMicros(to);
+        long count = lineCount;
+        Chunk[] scanned = chunks;
+        long total = 0;
+        for (int c = 0; c < chunkCount(count); c++) {
+            Chunk chunk = scanned[c];
+            int rows = rowsIn(c, count);
+            if (chunk.inside(start, end)) {
+                total += sum(chunk.quantity, chunk.unitPrice, rows);
+            } else if (chunk.overlaps(start, end)) {
+                total += sumBetween(chunk.quantity, chunk.unitPrice, chunk.paidAt, rows, start, end);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Units sold in the lines paid at or after from and before to
+     */
+    public long unitsSold(LocalDateTime from, LocalDateTime to) {
+        long start = toMicros(from);
+        long end = toMicros(to);
+        long count = lineCount;
+        Chunk[] scanned = chunks;
+        long total = 0;
+        for (int c = 0; c < chunkCount(count); c++) {
+            Chunk chunk = scanned[c];
+            int rows = rowsIn(c, count);
+            int[] quantity = chunk.quantity;
+            long[] paidAt = chunk.paidAt;
+            if (chunk.inside(start, end)) {
+                for (int i = 0; i < rows; i++) {
+                    total += quantity[i];
+                }
+            } else if (chunk.overlaps(start, end)) {
+                for (int i = 0; i < rows; i++) {
+                    if (paidAt[i] >= start && paidAt[i] < end) {
+                        total += quantity[i];
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Revenue in cents per item in the range, highest first; items with no revenue are left out
+     */
+    public Map<ItemInfo, Long> revenueByItem(LocalDateTime from, LocalDateTime to) {
+        long start = toMicros(from);
+        long end = toMicros(to);
+        long count = lineCount;
+        Chunk[] scanned = chunks;
+        ItemInfo[] known = items;
+        long[] totals = new long[known.length];
+        for (int c = 0; c < chunkCount(count); c++) {
+            Chunk chunk = scanned[c];
+            int rows = rowsIn(c, count);
+            int[] item = chunk.item;
+            int[] quantity = chunk.quantity;
+            int[] unitPrice = chunk.unitPrice;
+            long[] paidAt = chunk.paidAt;
+            if (chunk.inside(start, end)) {
+                for (int i = 0; i < rows; i++) {
+                    totals[item[i]] += (long) quantity[i] * unitPrice[i];
+                }
+            } else if (chunk.overlaps(start, end)) {
+                for (int i = 0; i < rows; i++) {
+                    if (paidAt[i] >= start && paidAt[i] < end) {
+                        totals[item[i]] += (long) quantity[i] * unitPrice[i];
+                    }
+                }
+            }
+        }
+        Integer[] order = new Integer[totals.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Long.compare(totals[b], totals[a]));
+        Map<ItemInfo, Long> byItem = new LinkedHashMap<>();
+        for (int i : order) {
+            if (totals[i] == 0) {
+                break;
+            }
+            byItem.put(known[i], totals[i]);
+        }
+        return byItem;
+    }
+
+    /**
+     * Revenue in cents for each hour of the day, 0 to 23, over the range
+     */
+    public long[] revenueByHour(LocalDateTime from, LocalDateTime to) {
+        long start = toMicros(from);
+        long end = toMicros(to);
+        long count = lineCount;
+        Chunk[] scanned = chunks;
+        long[] totals = new long[24];
+        for (int c = 0; c < chunkCount(count); c++) {
+            Chunk chunk = scanned[c];
+            if (!chunk.overlaps(start, end)) {
+                continue;
+            }
+            int rows = rowsIn(c, count);
+            int[] quantity = chunk.quantity;
+            int[] unitPrice = chunk.unitPrice;
+            long[] paidAt = chunk.paidAt;
+            if (chunk.inside(start, end) && chunk.earliest >= 0) {
+                // Plain division is cheaper than floorDiv and gives the same hour after 1970
+                for (int i = 0; i < rows; i++) {
+                    totals[(int) (paidAt[i] / MICROS_PER_HOUR % 24)] += (long) quantity[i] * unitPrice[i];
+                }
+                continue;
+            }
+            for (int i = 0; i < rows; i++) {
+                long at = paidAt[i];
+                if (at >= start && at < end) {
+                    totals[(int) Math.floorMod(Math.floorDiv(at, MICROS_PER_HOUR), 24L)] += (long) quantity[i] * unitPrice[i];
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Revenue in cents per table over the range, indexed by table number
+     */
+    public long[] revenueByTable(LocalDateTime from, LocalDateTime to) {
+        long start = toMicros(from);
+        long end = toMicros(to);
+        long count = lineCount;
+        Chunk[] scanned = chunks;
+        long[] totals = new long[Math.max(0, highestTable) + 1];
+        for (int c = 0; c < chunkCount(count); c++) {
+            Chunk chunk = scanned[c];
+            if (!chunk.overlaps(start, end)) {
+                continue;
+            }
+            int rows = rowsIn(c, count);
+            int[] table = chunk.table;
+            int[] quantity = chunk.quantity;
+            int[] unitPrice = chunk.unitPrice;
+            long[] paidAt = chunk.paidAt;
+            boolean inside = chunk.inside(start, end);
+            for (int i = 0; i < rows; i++) {
+                if (table[i] >= 0 && (inside || (paidAt[i] >= start && paidAt[i] < end))) {
+                    totals[table[i]] += (long) quantity[i] * unitPrice[i];
+                }
+            }
+        }
+        return totals;
+    }
+
+    // Scan loops, kept apart so the JIT compiles each on its own
+
+    private static long sum(int[] quantity, int[] unitPrice, int rows) {
+        long total = 0;
+        for (int i = 0; i < rows; i++) {
+            total += (long) quantity[i] * unitPrice[i];
+        }
+        return total;
+    }
+
+    private static long sumBetween(int[] quantity, int[] unitPrice, long[] paidAt, int rows, long start, long end) {
+        long total = 0;
+        for (int i = 0; i < rows; i++) {
+            if (paidAt[i] >= start && paidAt[i] < end) {
+                total += (long) quantity[i] * unitPrice[i];
+            }
+        }
+        return total;
+    }
+
+    // Appending
+
+    private Chunk chunkFor(long line) {
+        int c = (int) (line >>> CHUNK_SHIFT);
+        Chunk[] current = chunks;
+        if (c == current.length) {
+            current = Arrays.copyOf(current, c + 1);
+            current[c] = new Chunk();
+            chunks = current;
+        }
+        return current[c];
+    }
+
+    private int indexOf(ItemInfo item) {
+        Integer index = itemIndex.get(item.getId());
+        ItemInfo[] known = items;
+        if (index == null) {
+            index = itemIndex.size();
+            itemIndex.put(item.getId(), index);
+            if (index == known.length) {
+                known = Arrays.copyOf(known, known.length * 2);
+            }
+        } else if (known[index] == item) {
+            return index;
+        }
+        // Reports name the item as it was last sold
+        known[index] = item;
+        items = known;
+        return index;
+    }
+
+    private static int chunkCount(long lines) {
+        return (int) ((lines + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+    }
+
+    private static int rowsIn(int chunk, long lines) {
+        return (int) Math.min(CHUNK_SIZE, lines - ((long) chunk << CHUNK_SHIFT));
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            throw new IllegalArgumentException("A time range needs both a start and an end");
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static final class Chunk {
+        final int[] item = new int[CHUNK_SIZE];
+        final int[] quantity = new int[CHUNK_SIZE];
+        final int[] unitPrice = new int[CHUNK_SIZE];
+        final long[] paidAt = new long[CHUNK_SIZE];
+        final int[] table = new int[CHUNK_SIZE];
+        // Only ever widen, so a report sees bounds that cover every row it reads
+        volatile long earliest = Long.MAX_VALUE;
+        volatile long latest = Long.MIN_VALUE;
+
+        void include(long at) {
+            if (at < earliest) {
+                earliest = at;
+            }
+            if (at > latest) {
+                latest = at;
+            }
+        }
+
+        boolean overlaps(long start, long end) {
+            return latest >= start && earliest < end;
+        }
+
+        boolean inside(long start, long end) {
+            return earliest >= start && latest < end;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.codec.BinaryCodec;
+import cse213.ecoresort.codec.FrameReader;
+import cse213.ecoresort.codec.FrameWriter;
+import cse213.ecoresort.model.MenuItem;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+import cse213.ecoresort.repository.MenuRepository;
+import cse213.ecoresort.repository.OrderRepository;
+import cse213.ecoresort.repository.RepositoryFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Checkpoints the menu, stock and every order into one binary snapshot file and
+ * restores it again.
+ *
+ * Taking a snapshot only copies what can still change: menu items, draft
+ * orders and open split bills are copied on the calling thread, while paid
+ * orders, which never change again, are captured by reference. The copy is
+ * taken with the StateGate quiesced, so stock, orders and bills are all seen
+ * at one moment: no order is half paid, and stock a bill has taken is never
+ * missing from both the menu and the bill. Encoding the paid orders and
+ * writing the file then happen on a background thread, so tills keep working.
+ * The file is written next to the target and moved into place, so a crash
+ * mid-write never replaces a good snapshot.
+ *
+ * File layout, as FrameWriter frames: a header (magic, format version, creation
+ * time, item, order and bill counts), the menu items, the open bills, then
+ * batches of orders, all in BinaryCodec format except the bills. Version 1
+ * files, which have no bills, still restore.
+ */
+public class SnapshotService {
+    public static final String SNAPSHOT_PROPERTY = "ecoresort.snapshot";
+
+    private static final int MAGIC = 0x45434F53; // "ECOS"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = 28;
+    private static final int V1_HEADER_BYTES = 24;
+    private static final int ORDERS_PER_FRAME = 4096;
+
+    // One writer for the process, so snapshots never interleave on disk
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final MenuRepository menuRepository;
+    private final OrderRepository orderRepository;
+    private final StateGate gate;
+    private final SplitBillLedger bills;
+
+    public SnapshotService() {
+        this(RepositoryFactory.menuRepository(), RepositoryFactory.orderRepository());
+    }
+
+    public SnapshotService(MenuRepository menuRepository, OrderRepository orderRepository) {
+        this.menuRepository = menuRepository;
+        this.orderRepository = orderRepository;
+        this.gate = StateGate.getInstance();
+        this.bills = SplitBillLedger.getInstance();
+    }
+
+    /**
+     * Restore from the file named by -Decoresort.snapshot if it exists, and write
+     * a fresh snapshot there when the process exits. Tills connected to an
+     * order server skip this; the server owns the state.
+     */
+    public static void attachFromSystemProperty() throws IOException {
+        String location = System.getProperty(SNAPSHOT_PROPERTY);
+        if (location == null || System.getProperty(RepositoryFactory.SERVER_PROPERTY) != null) {
+            return;
+        }
+        Path file = Path.of(location);
+        SnapshotService service = new SnapshotService();
+        if (Files.exists(file)) {
+            SnapshotInfo restored = service.restore(file);
+            System.out.println("Restored " + restored);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                System.out.println("Saved " + service.snapshot(file).join());
+            } catch (RuntimeException e) {
+                System.err.println("ERROR: Snapshot on exit failed: " + e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Capture the current state and write it in the background. The returned
+     * future completes once the file is in place.
+     */
+    public CompletableFuture<SnapshotInfo> snapshot(Path file) {
+        long captureStart = System.nanoTime();
+        BinaryCodec codec = new BinaryCodec(64 * 1024);
+        // Changes wait at the gate while the copy is taken, and carry on once it is
+        Capture capture = gate.quiesce(() -> capture(codec));
+        long captureNanos = System.nanoTime() - captureStart;
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                long writeStart = System.nanoTime();
+                long bytes = write(file, codec, capture);
+                return new SnapshotInfo(file, capture.itemCount, capture.orderCount(), bytes,
+                        captureNanos, System.nanoTime() - writeStart);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to write snapshot " + file + ": " + e.getMessage(), e);
+            }
+        }, WRITER);
+    }
+
+    private Capture capture(BinaryCodec codec) {
+        List<MenuItem> items = menuRepository.findAll();
+        // Items, drafts and bills still change, so their bytes are the copy; paid orders are immutable
+        byte[] itemBytes = BinaryCodec.toBytes(codec.encodeItems(items));
+        List<SplitBillLedger.Bill> open = bills.getOpenBills();
+        byte[] billBytes = encodeBills(open);
+        List<byte[]> draftFrames = new ArrayList<>();
+        List<Order> paid = new ArrayList<>();
+        List<Order> drafts = new ArrayList<>(ORDERS_PER_FRAME);
+        for (Order order : orderRepository.findAll()) {
+            if (order.isDraft()) {
+                drafts.add(order);
+                if (drafts.size() == ORDERS_PER_FRAME) {
+                    draftFrames.add(BinaryCodec.toBytes(codec.encodeOrders(drafts)));
+                    drafts.clear();
+                }
+            } else {
+                paid.add(order);
+            }
+        }
+        int draftCount = draftFrames.size() * ORDERS_PER_FRAME + drafts.size();
+        if (!drafts.isEmpty()) {
+            draftFrames.add(BinaryCodec.toBytes(codec.encodeOrders(drafts)));
+        }
+        return new Capture(items.size(), itemBytes, open.size(), billBytes, draftFrames, draftCount, paid);
+    }
+
+    // Per bill: order ID, total and settled cents; its lines are the billed draft's
+    private static byte[] encodeBills(List<SplitBillLedger.Bill> open) {
+        List<byte[]> ids = new ArrayList<>(open.size());
+        int size = Integer.BYTES;
+        for (SplitBillLedger.Bill bill : open) {
+            byte[] id = bill.getOrderId().getBytes(StandardCharsets.UTF_8);
+            ids.add(id);
+            size += Short.BYTES + id.length + 2 * Long.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).putInt(open.size());
+        for (int i = 0; i < open.size(); i++) {
+            byte[] id = ids.get(i);
+            buffer.putShort((short) id.length).put(id)
+                    .putLong(open.get(i).getTotalCents()).putLong(open.get(i).getSettledCents());
+        }
+        return buffer.array();
+    }
+
+    private long write(Path file, BinaryCodec codec, Capture capture) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                FrameWriter frames = new FrameWriter(channel);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(System.currentTimeMillis())
+                        .putInt(capture.itemCount).putInt(capture.orderCount()).putInt(capture.billCount).flip();
+                frames.write(header);
+                frames.write(ByteBuffer.wrap(capture.itemBytes));
+                frames.write(ByteBuffer.wrap(capture.billBytes));
+                for (byte[] draftFrame : capture.draftFrames) {
+                    frames.write(ByteBuffer.wrap(draftFrame));
+                }
+                List<Order> paid = capture.paid;
+                for (int from = 0; from < paid.size(); from += ORDERS_PER_FRAME) {
+                    frames.write(codec.encodeOrders(paid.subList(from, Math.min(from + ORDERS_PER_FRAME, paid.size()))));
+                }
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return Files.size(file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Load a snapshot into the repositories. Records replace any with the same ID.
+     * Open bills come back with their settled tenders, against stock already
+     * taken in the restored menu. Stock holds are not part of a snapshot;
+     * other restored drafts re-check stock at payment.
+     */
+    public SnapshotInfo restore(Path file) throws IOException {
+        long start = System.nanoTime();
+        MenuService menuService = new MenuService(menuRepository);
+        int itemCount;
+        int orderCount;
+        int restoredOrders = 0;
+        // Order ID to total and settled cents
+        Map<String, long[]> billTotals = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            FrameReader frames = new FrameReader(channel, 1024 * 1024);
+            ByteBuffer header = frames.next();
+            if (header == null || header.remaining() < V1_HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION && version != 1) {
+                throw new IOException("Unsupported snapshot format version: " + version);
+            }
+            if (version == FORMAT_VERSION && header.remaining() < HEADER_BYTES - 8) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            header.getLong(); // creation time
+            itemCount = header.getInt();
+            orderCount = header.getInt();
+
+            ByteBuffer itemFrame = frames.next();
+            if (itemFrame == null) {
+                throw new IOException("Snapshot has no menu section: " + file);
+            }
+            for (MenuItem item : BinaryCodec.readItems(itemFrame)) {
+                menuService.save(item);
+            }
+
+            if (version == FORMAT_VERSION) {
+                int billCount = header.getInt();
+                ByteBuffer billFrame = frames.next();
+                if (billFrame == null || billFrame.getInt() != billCount) {
+                    throw new IOException("Snapshot has no bills section: " + file);
+                }
+                for (int i = 0; i < billCount; i++) {
+                    byte[] id = new byte[billFrame.getShort()];
+                    billFrame.get(id);
+                    billTotals.put(new String(id, StandardCharsets.UTF_8),
+                            new long[] {billFrame.getLong(), billFrame.getLong()});
+                }
+            }
+
+            ByteBuffer orderFrame;
+            while ((orderFrame = frames.next()) != null) {
+                for (Order order : BinaryCodec.readOrders(orderFrame)) {
+                    orderRepository.save(order);
+                    restoredOrders++;
+                }
+            }
+        }
+        if (restoredOrders != orderCount) {
+            throw new IOException("Snapshot is incomplete: expected " + orderCount + " orders, found " + restoredOrders);
+        }
+        // After the orders, so each bill is for its restored draft's lines
+        for (Map.Entry<String, long[]> bill : billTotals.entrySet()) {
+            Optional<Order> draft = orderRepository.findById(bill.getKey()).filter(Order::isDraft);
+            if (draft.isEmpty()) {
+                throw new IOException("Snapshot has a bill for no open order: " + bill.getKey());
+            }
+            List<OrderLine> lines = draft.get().getOrderLines();
+            bills.restore(bill.getKey(), bill.getValue()[0], bill.getValue()[1], lines);
+        }
+        return new SnapshotInfo(file, itemCount, orderCount, Files.size(file), 0, System.nanoTime() - start);
+    }
+
+    // What the capture copied, for the writer thread
+    private static final class Capture {
+        private final int itemCount;
+        private final byte[] itemBytes;
+        private final int billCount;
+        private final byte[] billBytes;
+        private final List<byte[]> draftFrames;
+        private final int draftCount;
+        private final List<Order> paid;
+
+        private Capture(int itemCount, byte[] itemBytes, int billCount, byte[] billBytes, List<byte[]> draftFrames,
+                        int draftCount, List<Order> paid) {
+            this.itemCount = itemCount;
+            this.itemBytes = itemBytes;
+            this.billCount = billCount;
+            this.billBytes = billBytes;
+            this.draftFrames = draftFrames;
+            this.draftCount = draftCount;
+            this.paid = paid;
+        }
+
+        private int orderCount() {
+            return draftCount + paid.size();
+        }
+    }
+
+    /**
+     * What a snapshot or restore covered and how long its phases took
+     */
+    public static final class SnapshotInfo {
+        private final Path file;
+        private final int itemCount;
+        private final int orderCount;
+        private final long bytes;
+        private final long captureNanos;
+        private final long ioNanos;
+
+        SnapshotInfo(Path file, int itemCount, int orderCount, long bytes, long captureNanos, long ioNanos) {
+            this.file = file;
+            this.itemCount = itemCount;
+            this.orderCount = orderCount;
+            this.bytes = bytes;
+            this.captureNanos = captureNanos;
+            this.ioNanos = ioNanos;
+        }
+
+        public Path getFile() { return file; }
+        public int getItemCount() { return itemCount; }
+        public int getOrderCount() { return orderCount; }
+        public long getBytes() { return bytes; }
+        // Time the caller was held up copying state; zero for a restore
+        public double getCaptureMillis() { return captureNanos / 1_000_000.0; }
+        // Background write time for a snapshot, total load time for a restore
+        public double getIoMillis() { return ioNanos / 1_000_000.0; }
+
+        @Override
+        public String toString() {
+            return String.format("%d items and %d orders, %,d bytes in %s (capture %.1f ms, io %.1f ms)",
+                    itemCount, orderCount, bytes, file, getCaptureMillis(), getIoMillis());
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Outstanding balances of orders being paid in several tenders.
+ * A bill opens with the first tender and holds the order's total in cents.
+ * Each tender reserves its part of the balance with a compare-and-set before
+ * charging and hands it back if the charge fails, so tenders racing from
+ * different tills can never take more than the total between them. Charged
+ * parts are then settled, and the one tender whose settlement reaches the
+ * total is the one that marks the order paid.
+ *
+ * A bill freezes the order's lines and total, so the order cannot change
+ * while it is open: edits run through whileUnbilled, which holds the order's
+ * lock, and are refused once a bill exists. Opening a bill reads the order
+ * under the same lock, so it always sees the order as last edited. The lock
+ * is the order's own, taken outside the bill map, so an edit's repository
+ * calls never hold up other orders and may themselves edit or bill the order.
+ *
+ * Bills are kept per process, like stock holds: tills sharing a process share
+ * the balance, separate processes each see their own. Opening a bill and
+ * editing an order both pass the StateGate before the order's lock, so a
+ * snapshot sees each bill together with the stock it took; restore puts the
+ * bills a snapshot saw back as they were.
+ */
+public class SplitBillLedger {
+    /**
+     * Returned by Bill.reserve once the bill is closed; look the order up again
+     * when it has gone
+     */
+    public static final long CLOSED = -1;
+
+    private final Map<String, Bill> bills = new ConcurrentHashMap<>();
+    // Per-order locks, kept only while some thread is using them
+    private final Map<String, OrderLock> locks = new ConcurrentHashMap<>();
+    private final StateGate gate = StateGate.getInstance();
+
+    private SplitBillLedger() {
+    }
+
+    public static SplitBillLedger getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final SplitBillLedger INSTANCE = new SplitBillLedger();
+    }
+
+    /**
+     * The order's open bill, or a new one for the order as load finds it when
+     * it is still a draft and takeStock succeeds for its lines; empty otherwise
+     */
+    public Optional<Bill> open(String orderId, Function<String, Optional<Order>> load,
+                               Predicate<List<OrderLine>> takeStock) {
+        Bill open = bills.get(orderId);
+        if (open != null) {
+            return Optional.of(open);
+        }
+        return gate.change(() -> openLocked(orderId, load, takeStock));
+    }
+
+    private Optional<Bill> openLocked(String orderId, Function<String, Optional<Order>> load,
+                                      Predicate<List<OrderLine>> takeStock) {
+        OrderLock lock = lock(orderId);
+        try {
+            Bill bill = bills.get(orderId);
+            if (bill == null) {
+                Order order = load.apply(orderId).filter(Order::isDraft).orElse(null);
+                if (order == null) {
+                    return Optional.empty();
+                }
+                List<OrderLine> lines = order.getOrderLines();
+                if (!takeStock.test(lines)) {
+                    return Optional.empty();
+                }
+                bill = new Bill(orderId, toCents(order.getTotal()), lines);
+                bills.put(orderId, bill);
+            }
+            return Optional.of(bill);
+        } finally {
+            unlock(orderId, lock);
+        }
+    }
+
+    /**
+     * Run an edit of the order only while it has no bill, keeping bills from
+     * opening until it is done; false, without running it, once a bill is open
+     */
+    public boolean whileUnbilled(String orderId, BooleanSupplier edit) {
+        return gate.change(() -> {
+            OrderLock lock = lock(orderId);
+            try {
+                return !bills.containsKey(orderId) && edit.getAsBoolean();
+            } finally {
+                unlock(orderId, lock);
+            }
+        });
+    }
+
+    public boolean isBilled(String orderId) {
+        return bills.containsKey(orderId);
+    }
+
+    public Optional<Bill> find(String orderId) {
+        return Optional.ofNullable(bills.get(orderId));
+    }
+
+    /**
+     * Close a bill nothing has been reserved or paid on, so its stock can go
+     * back; false when a tender got in first and the bill stays open
+     */
+    public boolean closeIfUntouched(Bill bill) {
+        if (!bill.outstanding.compareAndSet(bill.totalCents, CLOSED)) {
+            return false;
+        }
+        bills.remove(bill.orderId, bill);
+        return true;
+    }
+
+    /**
+     * Close a bill that has been paid in full; false if it was already closed.
+     * The bill stays in place, turning tenders away, until forget is called
+     * once the order is saved as paid.
+     */
+    public boolean closePaid(Bill bill) {
+        return bill.outstanding.getAndSet(CLOSED) != CLOSED;
+    }
+
+    public void forget(Bill bill) {
+        bills.remove(bill.orderId, bill);
+    }
+
+    public int getOpenCount() {
+        return bills.size();
+    }
+
+    /**
+     * The bills open right now; a point-in-time view only while the StateGate is quiesced
+     */
+    public List<Bill> getOpenBills() {
+        return List.copyOf(bills.values());
+    }
+
+    /**
+     * Put back a bill a snapshot saw, with the tenders already settled on it.
+     * Its stock was taken before the snapshot, so none is taken again.
+     */
+    public Bill restore(String orderId, long totalCents, long settledCents, List<OrderLine> lines) {
+        if (settledCents < 0 || settledCents >= totalCents) {
+            throw new IllegalArgumentException("Settled amount out of range for bill " + orderId);
+        }
+        Bill bill = new Bill(orderId, totalCents, lines);
+        bill.outstanding.set(totalCents - settledCents);
+        bill.settled.set(settledCents);
+        bills.put(orderId, bill);
+        return bill;
+    }
+
+    // Only the lock bookkeeping runs inside the map; the wait and the caller's work happen outside it
+    private OrderLock lock(String orderId) {
+        OrderLock lock = locks.compute(orderId, (id, current) -> {
+            OrderLock taken = current == null ? new OrderLock() : current;
+            taken.users++;
+            return taken;
+        });
+        lock.lock();
+        return lock;
+    }
+
+    private void unlock(String orderId, OrderLock lock) {
+        lock.unlock();
+        locks.computeIfPresent(orderId, (id, current) -> --current.users == 0 ? null : current);
+    }
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    // users is only changed inside the lock map's compute for the order
+    private static final class OrderLock extends ReentrantLock {
+        private int users;
+    }
+
+    public static final class Bill {
+        private final String orderId;
+        private final long totalCents;
+        private final List<OrderLine> lines;
+        // Not yet claimed by any tender; CLOSED once the bill is done
+        private final AtomicLong outstanding;
+        // Charged and kept
+        private final AtomicLong settled = new AtomicLong();
+
+        private Bill(String orderId, long totalCents, List<OrderLine> lines) {
+            this.orderId = orderId;
+            this.totalCents = totalCents;
+            this.lines = List.copyOf(lines);
+            this.outstanding = new AtomicLong(totalCents);
+        }
+
+        /**
+         * Claim up to requestedCents of the balance; returns the cents claimed,
+         * 0 when in-flight tenders already cover the rest, or CLOSED
+         */
+        public long reserve(long requestedCents) {
+            if (requestedCents <= 0) {
+                throw new IllegalArgumentException("Tender must be at least one cent");
+            }
+            long current;
+            long taken;
+            do {
+                current = outstanding.get();
+                if (current == CLOSED) {
+                    return CLOSED;
+                }
+                taken = Math.min(requestedCents, current);
+            } while (taken > 0 && !outstanding.compareAndSet(current, current - taken));
+            return taken;
+        }
+
+        /**
+         * Hand back a claim whose charge failed
+         */
+        public void release(long cents) {
+            outstanding.addAndGet(cents);
+        }
+
+        /**
+         * Keep a charged claim; returns what is left to pay, 0 exactly once
+         */
+        public long settle(long cents) {
+            return totalCents - settled.addAndGet(cents);
+        }
+
+        public String getOrderId() { return orderId; }
+        public long getTotalCents() { return totalCents; }
+        public List<OrderLine> getLines() { return lines; }
+        public long getUnpaidCents() { return totalCents - settled.get(); }
+        public long getSettledCents() { return settled.get(); }
+    }
+}
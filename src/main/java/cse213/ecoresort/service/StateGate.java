@@ -0,0 +1,59 @@
+package cse213.ecoresort.service;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * The point where changes to stock, orders and bills meet a snapshot.
+ * Every change runs through change, and any number run at once; a snapshot
+ * runs its capture through quiesce, which waits for the changes in flight to
+ * finish and holds new ones back until the copy is taken, so items, orders
+ * and bills are all read at one moment.
+ *
+ * Changes always pass the gate before taking an order's ledger lock, and may
+ * pass it again inside; a capture must not run inside a change.
+ */
+public class StateGate {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private StateGate() {
+    }
+
+    public static StateGate getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final StateGate INSTANCE = new StateGate();
+    }
+
+    public <T> T change(Supplier<T> change) {
+        lock.readLock().lock();
+        try {
+            return change.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void change(Runnable change) {
+        lock.readLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public <T> T quiesce(Supplier<T> capture) {
+        if (lock.getReadHoldCount() > 0) {
+            throw new IllegalStateException("A snapshot cannot be taken from inside a change");
+        }
+        lock.writeLock().lock();
+        try {
+            return capture.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.MenuItem;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Soft stock reservations for draft orders.
+ * Adding a line holds its quantity, so two tables cannot both order the last
+ * portion; removing the line, deleting the order or paying for it releases the
+ * hold. Holds that are not touched for the hold TTL expire on their own, driven
+ * by a timing wheel instead of a sweep over all drafts. Stock itself only
+ * changes at payment; a hold only limits what other drafts may claim.
+ *
+ * Holds are kept per process. In multi-till mode each till holds against the
+ * shared stock it reads, and payment still re-checks stock on the server.
+ */
+public class StockHoldManager {
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(15);
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Map<String, OrderHolds> holdsByOrder = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> holdsByItem = new ConcurrentHashMap<>();
+    private final TimingWheel wheel;
+    private final LongAdder expiredOrders = new LongAdder();
+    private final LongAdder rejectedHolds = new LongAdder();
+    private volatile long ttlNanos = DEFAULT_TTL.toNanos();
+
+    private StockHoldManager() {
+        wheel = new TimingWheel(TICK_NANOS, System.nanoTime());
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, TICK_NANOS, TICK_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    public static StockHoldManager getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final StockHoldManager INSTANCE = new StockHoldManager();
+    }
+
+    public void setTtl(Duration ttl) {
+        if (ttl.isZero() || ttl.isNegative()) {
+            throw new IllegalArgumentException("Hold TTL must be positive");
+        }
+        ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Change the order's hold on an item by delta units. A positive delta only
+     * succeeds if that much stock is neither sold nor held by other drafts.
+     * Every change pushes the order's expiry back by the TTL.
+     */
+    public boolean adjust(String orderId, MenuItem item, int delta) {
+        OrderHolds orderHolds = holdsByOrder.computeIfAbsent(orderId, OrderHolds::new);
+        synchronized (orderHolds) {
+            if (orderHolds.released) {
+                // Raced with expiry or release; start a fresh set of holds
+                holdsByOrder.remove(orderId, orderHolds);
+                return adjust(orderId, item, delta);
+            }
+            AtomicInteger held = heldCounter(item.getId());
+            int current = orderHolds.quantities.getOrDefault(item.getId(), 0);
+            int change = Math.max(delta, -current);
+            // Lock-free so busy items do not convoy the tills
+            int before;
+            do {
+                before = held.get();
+                if (change > 0 && item.getStockQty() - before < change) {
+                    rejectedHolds.increment();
+                    return false;
+                }
+            } while (!held.compareAndSet(before, before + change));
+            if (current + change == 0) {
+                orderHolds.quantities.remove(item.getId());
+            } else {
+                orderHolds.quantities.put(item.getId(), current + change);
+            }
+            touch(orderHolds);
+            return true;
+        }
+    }
+
+    public boolean hold(String orderId, MenuItem item, int quantity) {
+        return quantity <= 0 || adjust(orderId, item, quantity);
+    }
+
+    /**
+     * Release everything the order holds on one item, e.g. when its line is removed
+     */
+    public void release(String orderId, String itemId) {
+        OrderHolds orderHolds = holdsByOrder.get(orderId);
+        if (orderHolds == null) {
+            return;
+        }
+        synchronized (orderHolds) {
+            Integer quantity = orderHolds.quantities.remove(itemId);
+            if (quantity != null) {
+                releaseItem(itemId, quantity);
+            }
+        }
+    }
+
+    /**
+     * Release all of the order's holds, on payment or deletion
+     */
+    public void releaseOrder(String orderId) {
+        OrderHolds orderHolds = holdsByOrder.remove(orderId);
+        if (orderHolds != null) {
+            releaseAll(orderHolds);
+        }
+    }
+
+    public int getHeldQuantity(String itemId) {
+        AtomicInteger held = holdsByItem.get(itemId);
+        return held == null ? 0 : held.get();
+    }
+
+    public int getHeldQuantity(String orderId, String itemId) {
+        OrderHolds orderHolds = holdsByOrder.get(orderId);
+        if (orderHolds == null) {
+            return 0;
+        }
+        synchronized (orderHolds) {
+            return orderHolds.quantities.getOrDefault(itemId, 0);
+        }
+    }
+
+    /**
+     * Stock that is neither sold nor held by a draft
+     */
+    public int getAvailableQuantity(MenuItem item) {
+        return Math.max(0, item.getStockQty() - getHeldQuantity(item.getId()));
+    }
+
+    public int getOrdersWithHolds() {
+        return holdsByOrder.size();
+    }
+
+    public long getExpiredOrders() {
+        return expiredOrders.sum();
+    }
+
+    public long getRejectedHolds() {
+        return rejectedHolds.sum();
+    }
+
+    // One timeout per order: a touch only moves lastTouchNanos, and a timeout that
+    // fires before the order has really been idle for the TTL re-arms itself
+    private void touch(OrderHolds orderHolds) {
+        orderHolds.lastTouchNanos = System.nanoTime();
+        if (orderHolds.quantities.isEmpty()) {
+            if (orderHolds.expiry != null) {
+                orderHolds.expiry.cancel();
+                orderHolds.expiry = null;
+            }
+        } else if (orderHolds.expiry == null) {
+            orderHolds.expiry = wheel.schedule(orderHolds.lastTouchNanos, ttlNanos, () -> expire(orderHolds));
+        }
+    }
+
+    private void expire(OrderHolds orderHolds) {
+        synchronized (orderHolds) {
+            long idle = System.nanoTime() - orderHolds.lastTouchNanos;
+            if (orderHolds.released || orderHolds.quantities.isEmpty()) {
+                return;
+            }
+            if (idle < ttlNanos) {
+                orderHolds.expiry = wheel.schedule(System.nanoTime(), ttlNanos - idle, () -> expire(orderHolds));
+                return;
+            }
+        }
+        if (holdsByOrder.remove(orderHolds.orderId, orderHolds)) {
+            expiredOrders.increment();
+            releaseAll(orderHolds);
+        }
+    }
+
+    private void releaseAll(OrderHolds orderHolds) {
+        synchronized (orderHolds) {
+            orderHolds.released = true;
+            if (orderHolds.expiry != null) {
+                orderHolds.expiry.cancel();
+            }
+            orderHolds.quantities.forEach(this::releaseItem);
+            orderHolds.quantities.clear();
+        }
+    }
+
+    private void releaseItem(String itemId, int quantity) {
+        AtomicInteger held = holdsByItem.get(itemId);
+        if (held != null) {
+            held.addAndGet(-quantity);
+        }
+    }
+
+    private AtomicInteger heldCounter(String itemId) {
+        AtomicInteger held = holdsByItem.get(itemId);
+        return held != null ? held : holdsByItem.computeIfAbsent(itemId, id -> new AtomicInteger());
+    }
+
+    private void tick() {
+        try {
+            wheel.advance(System.nanoTime());
+        } catch (RuntimeException e) {
+            System.err.println("ERROR: Stock hold expiry failed: " + e.getMessage());
+        }
+    }
+
+    private static final class OrderHolds {
+        private final String orderId;
+        private final Map<String, Integer> quantities = new HashMap<>();
+        private TimingWheel.Timeout expiry;
+        private long lastTouchNanos;
+        private boolean released;
+
+        OrderHolds(String orderId) {
+            this.orderId = orderId;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package cse213.ecoresort.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hierarchical timing wheel for large numbers of timeouts that are usually
+ * cancelled before they fire.
+ * Each of the four levels has 64 slots; a slot on level n spans 64^n ticks.
+ * A timeout goes into the coarsest level that can still tell it apart and is
+ * moved down a level each time the finer wheel completes a turn, so scheduling,
+ * cancelling and expiring are all constant time with no sweep over live entries.
+ *
+ * Any thread may schedule or cancel. Only the single thread calling advance
+ * touches the slots; new and cancelled timeouts reach it through lock-free
+ * queues, and cancelled ones are unlinked from their slot on the next tick so
+ * they do not pile up until their deadline.
+ */
+final class TimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Slot[][] wheels;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private long currentTick;
+
+    TimingWheel(long tickNanos, long startNanos) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickNanos = tickNanos;
+        this.startNanos = startNanos;
+        this.wheels = new Slot[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new Slot();
+            }
+        }
+    }
+
+    Timeout schedule(long nowNanos, long delayNanos, Runnable task) {
+        // Round up so a timeout never fires early
+        long deadlineTick = Math.max(0, (nowNanos + delayNanos - startNanos + tickNanos - 1) / tickNanos);
+        Timeout timeout = new Timeout(this, deadlineTick, task);
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Process every tick up to the given time and run the timeouts that are due.
+     * Must always be called from the same thread.
+     */
+    void advance(long nowNanos) {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.slot != null) {
+                timeout.slot.unlink(timeout);
+            }
+        }
+
+        List<Timeout> due = new ArrayList<>();
+        while ((timeout = scheduled.poll()) != null) {
+            place(timeout, due);
+        }
+
+        long targetTick = (nowNanos - startNanos) / tickNanos;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            wheels[0][(int) (currentTick & SLOT_MASK)].drainTo(due);
+        }
+
+        for (Timeout expired : due) {
+            expired.fire();
+        }
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            // Only when every finer wheel has just wrapped round
+            if (((currentTick >> (SLOT_BITS * (level - 1))) & SLOT_MASK) != 0) {
+                return;
+            }
+            Slot slot = wheels[level][(int) ((currentTick >> (SLOT_BITS * level)) & SLOT_MASK)];
+            List<Timeout> moving = new ArrayList<>();
+            slot.drainTo(moving);
+            for (Timeout timeout : moving) {
+                place(timeout, null);
+            }
+        }
+    }
+
+    private void place(Timeout timeout, List<Timeout> due) {
+        if (timeout.isCancelled()) {
+            return;
+        }
+        long delta = timeout.deadlineTick - currentTick;
+        if (delta <= 0) {
+            if (due != null) {
+                due.add(timeout);
+            } else {
+                wheels[0][(int) (currentTick & SLOT_MASK)].add(timeout);
+            }
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                wheels[level][(int) ((timeout.deadlineTick >> (SLOT_BITS * level)) & SLOT_MASK)].add(timeout);
+                return;
+            }
+        }
+        // Beyond the wheel's range: park in the furthest top slot and re-place on cascade
+        int top = LEVELS - 1;
+        wheels[top][(int) (((currentTick >> (SLOT_BITS * top)) + SLOT_MASK) & SLOT_MASK)].add(timeout);
+    }
+
+    /**
+     * Doubly linked list of timeouts, so a cancelled one is unlinked in constant time
+     */
+    private static final class Slot {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.slot = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void unlink(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.slot = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        void drainTo(List<Timeout> out) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.slot = null;
+                timeout.prev = null;
+                timeout.next = null;
+                out.add(timeout);
+                timeout = next;
+            }
+            head = null;
+            tail = null;
+        }
+    }
+
+    static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimingWheel wheel;
+        private final long deadlineTick;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private Runnable task;
+
+        // Owned by the thread that advances the wheel
+        private Slot slot;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(TimingWheel wheel, long deadlineTick, Runnable task) {
+            this.wheel = wheel;
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        void cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                wheel.cancelled.add(this);
+            }
+        }
+
+        boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private void fire() {
+            if (state.compareAndSet(PENDING, EXPIRED)) {
+                Runnable toRun = task;
+                task = null;
+                toRun.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package cse213.ecoresort.service;
+
+import cse213.ecoresort.model.ItemInfo;
+import cse213.ecoresort.model.Order;
+import cse213.ecoresort.model.OrderLine;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Best-selling items by units for this hour, today and this week, in fixed
+ * memory however large the menu grows. Each window counts the units of every
+ * paid line in a count-min sketch and keeps the items with the highest
+ * estimates in a small min-heap; an item that overtakes the heap's smallest
+ * takes its place. Every update touches four sketch counters and a heap of
+ * a fixed size, so recording an order costs the same for any menu.
+ *
+ * Windows follow the calendar: an order paid in a later hour, day or week
+ * than the window's starts it afresh, and an order paid in an earlier one is
+ * left out of it. Weeks start on Monday. The payment service records each
+ * order as it is paid, after taking in the orders already paid this week.
+ * Counts are estimates that are never below the true number; the heap tracks
+ * -Decoresort.topsellers.tracked items (default 20) and queries return the
+ * top ones of those.
+ */
+public class TopSellersTracker {
+    public static final String TRACKED_PROPERTY = "ecoresort.topsellers.tracked";
+    public static final int DEFAULT_TRACKED = 20;
+    static final int SKETCH_WIDTH = 2048;
+    private static final long MICROS_PER_HOUR = 3_600_000_000L;
+    private static final long MICROS_PER_DAY = 24 * MICROS_PER_HOUR;
+
+    public enum Window {
+        HOUR,
+        DAY,
+        WEEK
+    }
+
+    private final Tally[] tallies;
+    private volatile boolean loaded;
+
+    private TopSellersTracker() {
+        this(Integer.getInteger(TRACKED_PROPERTY, DEFAULT_TRACKED));
+    }
+
+    private TopSellersTracker(int tracked) {
+        if (tracked <= 0) {
+            throw new IllegalArgumentException("At least one top seller must be tracked");
+        }
+        this.tallies = new Tally[Window.values().length];
+        for (Window window : Window.values()) {
+            tallies[window.ordinal()] = new Tally(tracked);
+        }
+    }
+
+    public static TopSellersTracker getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final TopSellersTracker INSTANCE = new TopSellersTracker();
+    }
+
+    /**
+     * Take in the orders paid since the start of this week, once, the first time a service attaches
+     */
+    public void ensureLoaded(Function<LocalDateTime, Iterable<Order>> paidSince) {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime weekStart = now.toLocalDate()
+                        .minusDays(now.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue()).atStartOfDay();
+                paidSince.apply(weekStart).forEach(this::record);
+                loaded = true;
+            }
+        }
+    }
+
+    /**
+     * Count the lines of a paid order; orders not yet paid are ignored
+     */
+    public synchronized void record(Order order) {
+        if (!order.isPaid()) {
+            return;
+        }
+        long paidAt = order.getPaidAtMicros();
+        List<OrderLine> lines = order.getOrderLines();
+        for (Window window : Window.values()) {
+            Tally tally = tallies[window.ordinal()];
+            if (!tally.roll(periodOf(window, paidAt))) {
+                continue;
+            }
+            for (OrderLine line : lines) {
+                tally.add(line.getItem(), line.getQuantity());
+            }
+        }
+    }
+
+    /**
+     * Up to limit items with the most units sold in the window now, most first
+     */
+    public Map<ItemInfo, Long> getTopSellers(Window window, int limit) {
+        return getTopSellers(window, limit, LocalDateTime.now());
+    }
+
+    /**
+     * Up to limit items with the most units sold in the window containing at, most
+     * first; empty if nothing was recorded in that window
+     */
+    public synchronized Map<ItemInfo, Long> getTopSellers(Window window, int limit, LocalDateTime at) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        Tally tally = tallies[window.ordinal()];
+        long period = periodOf(window, at.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + at.getNano() / 1_000);
+        if (tally.period != period) {
+            return Map.of();
+        }
+        return tally.top(limit);
+    }
+
+    public int getTracked() {
+        return tallies[0].heap.length;
+    }
+
+    // Hours, days and weeks since 1970-01-01, weeks counted from the Monday before it
+    private static long periodOf(Window window, long micros) {
+        return switch (window) {
+            case HOUR -> Math.floorDiv(micros, MICROS_PER_HOUR);
+            case DAY -> Math.floorDiv(micros, MICROS_PER_DAY);
+            case WEEK -> Math.floorDiv(Math.floorDiv(micros, MICROS_PER_DAY) + 3, 7);
+        };
+    }
+
+    // One window: the sketch and the heap of the items with the highest estimates
+    private static final class Tally {
+        private final CountMinSketch sketch = new CountMinSketch(SKETCH_WIDTH);
+        // Min-heap on count; each entry knows its slot so a count can rise in place
+        private final Entry[] heap;
+        private final Map<String, Entry> tracked;
+        private int size;
+        private long period = Long.MIN_VALUE;
+
+        Tally(int capacity) {
+            this.heap = new Entry[capacity];
+            this.tracked = new HashMap<>(capacity * 2);
+        }
+
+        // Move to the order's period, false if the order belongs to an earlier one
+        boolean roll(long orderPeriod) {
+            if (orderPeriod < period) {
+                return false;
+            }
+            if (orderPeriod > period) {
+                sketch.clear();
+                Arrays.fill(heap, null);
+                tracked.clear();
+                size = 0;
+                period = orderPeriod;
+            }
+            return true;
+        }
+
+        void add(ItemInfo item, int quantity) {
+            if (quantity <= 0) {
+                return;
+            }
+            int estimate = sketch.add(item.getId(), quantity);
+            Entry entry = tracked.get(item.getId());
+            if (entry != null) {
+                entry.item = item;
+                entry.count = estimate;
+                siftDown(entry.slot);
+            } else if (size < heap.length) {
+                entry = new Entry(item, estimate, size);
+                heap[size++] = entry;
+                tracked.put(item.getId(), entry);
+                siftUp(entry.slot);
+            } else if (estimate > heap[0].count) {
+                tracked.remove(heap[0].item.getId());
+                entry = new Entry(item, estimate, 0);
+                heap[0] = entry;
+                tracked.put(item.getId(), entry);
+                siftDown(0);
+            }
+        }
+
+        Map<ItemInfo, Long> top(int limit) {
+            Entry[] ranked = Arrays.copyOf(heap, size);
+            Arrays.sort(ranked, (a, b) -> Long.compare(b.count, a.count));
+            Map<ItemInfo, Long> top = new LinkedHashMap<>();
+            for (int i = 0; i < Math.min(limit, ranked.length); i++) {
+                top.put(ranked[i].item, (long) ranked[i].count);
+            }
+            return top;
+        }
+
+        private void siftUp(int slot) {
+            Entry entry = heap[slot];
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (heap[parent].count <= entry.count) {
+                    break;
+                }
+                place(heap[parent], slot);
+                slot = parent;
+            }
+            place(entry, slot);
+        }
+
+        private void siftDown(int slot) {
+            Entry entry = heap[slot];
+            while (true) {
+                int child = 2 * slot + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                    child++;
+                }
+                if (entry.count <= heap[child].count) {
+                    break;
+                }
+                place(heap[child], slot);
+                slot = child;
+            }
+            place(entry, slot);
+        }
+
+        private void place(Entry entry, int slot) {
+            heap[slot] = entry;
+            entry.slot = slot;
+        }
+    }
+
+    private static final class Entry {
+        ItemInfo item;
+        int count;
+        int slot;
+
+        Entry(ItemInfo item, int count, int slot) {
+            this.item = item;
+            this.count = count;
+            this.slot = slot;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 module cse213.ecoresort {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.net.http;
+    requires jdk.httpserver;
+    requires java.sql;
+    // Automatic module; loaded by DriverManager for the JDBC repositories
+    requires com.h2database;
     
     opens cse213.ecoresort.controller to javafx.fxml;
     opens cse213.ecoresort.model to javafx.base;
@@ -9,4 +14,6 @@ module cse213.ecoresort {
     exports cse213.ecoresort.controller;
     exports cse213.ecoresort.model;
     exports cse213.ecoresort.service;
+    exports cse213.ecoresort.repository;
+    exports cse213.ecoresort.server;
 }